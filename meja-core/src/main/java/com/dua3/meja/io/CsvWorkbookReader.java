@@ -17,8 +17,8 @@ package com.dua3.meja.io;
 
 import com.dua3.meja.model.Workbook;
 import com.dua3.meja.model.WorkbookFactory;
+import com.dua3.meja.util.ValueInterner;
 import com.dua3.utility.io.CsvReader;
-import com.dua3.utility.io.CsvReader.RowBuilder;
 import com.dua3.utility.options.Arguments;
 
 import java.io.BufferedReader;
@@ -61,12 +61,12 @@ public final class CsvWorkbookReader extends WorkbookReader {
     public <W extends Workbook> W read(WorkbookFactory<W> factory, BufferedReader in, URI uri) throws IOException {
         W workbook = factory.create();
         workbook.setUri(uri);
-        RowBuilder builder = new SheetRowBuilder(workbook.createSheet(uri.toString()), options);
-        workbook.setObjectCaching(true);
-        try (CsvReader reader = CsvReader.create(builder, in, options)) {
+        workbook.setValueInterner(getValueInterner());
+        try (SheetRowBuilder builder = new SheetRowBuilder(workbook.createSheet(uri.toString()), options);
+             CsvReader reader = CsvReader.create(builder, in, options)) {
             reader.readAll();
         } finally {
-            workbook.setObjectCaching(false);
+            workbook.setValueInterner(ValueInterner.none());
         }
         return workbook;
     }
@@ -76,12 +76,12 @@ public final class CsvWorkbookReader extends WorkbookReader {
     protected <W extends Workbook> W read(WorkbookFactory<W> factory, URI uri, InputStream in) throws IOException {
         W workbook = factory.create();
         workbook.setUri(uri);
-        RowBuilder builder = new SheetRowBuilder(workbook.createSheet("Sheet 1"), options);
-        workbook.setObjectCaching(true);
-        try (CsvReader reader = CsvReader.create(builder, in, options)) {
+        workbook.setValueInterner(getValueInterner());
+        try (SheetRowBuilder builder = new SheetRowBuilder(workbook.createSheet("Sheet 1"), options);
+             CsvReader reader = CsvReader.create(builder, in, options)) {
             reader.readAll();
         } finally {
-            workbook.setObjectCaching(false);
+            workbook.setValueInterner(ValueInterner.none());
         }
         return workbook;
     }
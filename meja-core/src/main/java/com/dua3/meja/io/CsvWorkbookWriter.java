@@ -15,9 +15,8 @@
  */
 package com.dua3.meja.io;
 
-import com.dua3.meja.model.Cell;
-import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
 import com.dua3.meja.model.Workbook;
 import com.dua3.utility.io.CsvWriter;
 import com.dua3.utility.options.Arguments;
@@ -62,9 +61,10 @@ public final class CsvWorkbookWriter implements WorkbookWriter {
                 writer.nextRow();
             }
 
-            for (Row row : sheet) {
-                for (Cell cell : row) {
-                    writer.addField(cell.getOrDefault(null));
+            SheetCursor cursor = sheet.cursor();
+            while (cursor.nextRow()) {
+                while (cursor.nextCell()) {
+                    writer.addField(cursor.getOrDefault(null));
                 }
                 updateProgress.accept((double) processedRows / totalRows);
                 writer.nextRow();
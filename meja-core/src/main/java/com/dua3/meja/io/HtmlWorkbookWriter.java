@@ -22,8 +22,9 @@ import com.dua3.meja.model.CellType;
 import com.dua3.meja.model.Direction;
 import com.dua3.meja.model.FillPattern;
 import com.dua3.meja.model.HAlign;
-import com.dua3.meja.model.Row;
+import com.dua3.meja.model.RowCursor;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
 import com.dua3.meja.model.Workbook;
 import com.dua3.utility.data.Color;
 import com.dua3.utility.io.IoOptions;
@@ -48,7 +49,6 @@ import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.DoubleConsumer;
-import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
@@ -166,21 +166,24 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
         }
     }
 
-    private static String getMergedCellBorderStyle(Cell cell) {
-        if (!cell.isMerged()) {
+    private static String getMergedCellBorderStyle(RowCursor cursor, Sheet sheet, CellStyle cellStyle) {
+        int i = cursor.getRowNumber();
+        int j = cursor.getColumnNumber();
+        int spanX = cursor.getHorizontalSpan();
+        int spanY = cursor.getVerticalSpan();
+        if (spanX <= 1 && spanY <= 1) {
             return "";
         }
 
         StringBuilder result = new StringBuilder();
-        CellStyle cellStyle = cell.getCellStyle();
         try (Formatter formatter = new Formatter(result, Locale.ROOT)) {
             for (Direction direction : Direction.values()) {
-                Cell borderCell = switch (direction) {
-                    case NORTH, WEST -> cell;
-                    case EAST -> cell.getSheet().getCell(cell.getRowNumber(), cell.getColumnNumber() + cell.getHorizontalSpan() - 1);
-                    case SOUTH -> cell.getSheet().getCell(cell.getRowNumber() + cell.getVerticalSpan() - 1, cell.getColumnNumber());
+                CellStyle borderCellStyle = switch (direction) {
+                    case NORTH, WEST -> cellStyle;
+                    case EAST -> getCellStyleIfExists(sheet, i, j + spanX - 1);
+                    case SOUTH -> getCellStyleIfExists(sheet, i + spanY - 1, j);
                 };
-                BorderStyle borderStyle = borderCell.getCellStyle().getBorderStyle(direction);
+                BorderStyle borderStyle = borderCellStyle.getBorderStyle(direction);
                 if (!borderStyle.equals(cellStyle.getBorderStyle(direction))) {
                     writeBorderStyle(formatter, direction, borderStyle, true);
                 }
@@ -189,13 +192,18 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
         return result.toString();
     }
 
-    private static boolean isAutomaticallyRightAligned(Cell cell) {
-        if (cell.getCellType() == CellType.BLANK) {
+    private static CellStyle getCellStyleIfExists(Sheet sheet, int i, int j) {
+        return sheet.getCellIfExists(i, j)
+                .map(Cell::getCellStyle)
+                .orElseGet(() -> sheet.getWorkbook().getDefaultCellStyle());
+    }
+
+    private static boolean isAutomaticallyRightAligned(CellType cellType, CellStyle cellStyle) {
+        if (cellType == CellType.BLANK) {
             return false;
         }
-        CellStyle cellStyle = cell.getCellStyle();
         return cellStyle.getHAlign() == HAlign.ALIGN_AUTOMATIC
-                && cellStyle.effectiveHAlign(cell.getCellType()) == HAlign.ALIGN_RIGHT;
+                && cellStyle.effectiveHAlign(cellType) == HAlign.ALIGN_RIGHT;
     }
 
     @Override
@@ -262,10 +270,11 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
         out.format(Locale.ROOT, "    <tbody>\n");
 
         int lastRownr = 0;
-        for (Row row : sheet) {
-            int nextRowNr = row.getRowNumber();
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            int nextRowNr = cursor.getRowNumber();
             addMissingRows(sheet, out, lastRownr, nextRowNr);
-            writeRow(sheet, out, locale, row, defaultCellStyle, baseUri.orElse(null));
+            writeRow(sheet, out, locale, cursor, defaultCellStyle, baseUri.orElse(null));
 
             processedRows += nextRowNr - lastRownr;
             lastRownr = nextRowNr;
@@ -307,52 +316,55 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
      * @param sheet The sheet containing the row to be written. Used for retrieving row-specific properties.
      * @param out The {@link Formatter} used to write formatted output data.
      * @param locale The {@link Locale} used for formatting cell content and any locale-sensitive features.
-     * @param row The specific row from the sheet to be converted to an HTML representation.
+     * @param cursor The cursor positioned on the row to be converted to an HTML representation.
      * @param defaultCellStyle The default cell style to compare against when setting custom styles for table cells.
      * @param baseUri An {@link Optional} containing the base URI used to resolve relative hyperlinks for the row's cells.
      */
-    private void writeRow(Sheet sheet, Formatter out, Locale locale, Row row, CellStyle defaultCellStyle, @Nullable URI baseUri) {
-        out.format(Locale.ROOT, "      <tr style=\"height: %.2fpt;\">\n", sheet.getRowHeight(row.getRowNumber()));
+    private void writeRow(Sheet sheet, Formatter out, Locale locale, RowCursor cursor, CellStyle defaultCellStyle, @Nullable URI baseUri) {
+        int rownr = cursor.getRowNumber();
+        out.format(Locale.ROOT, "      <tr style=\"height: %.2fpt;\">\n", sheet.getRowHeight(rownr));
 
         int colnr = 0;
-        for (Cell cell : row) {
-            if (cell.getHorizontalSpan() == 0 || cell.getVerticalSpan() == 0) {
+        while (cursor.nextCell()) {
+            int spanX = cursor.getHorizontalSpan();
+            int spanY = cursor.getVerticalSpan();
+            if (spanX == 0 || spanY == 0) {
                 continue;
             }
 
             // add missing cells
-            while (colnr < cell.getColumnNumber()) {
-                if (!row.getCell(colnr).isMerged()) {
+            while (colnr < cursor.getColumnNumber()) {
+                if (sheet.getMergedRegion(rownr, colnr).isEmpty()) {
                     out.format(Locale.ROOT, "        <td></td>\n");
                 }
                 colnr++;
             }
 
-            CellStyle style = cell.getCellStyle();
+            CellStyle style = cursor.getCellStyle();
 
             out.format(Locale.ROOT, "        <td");
-            writeAttribute(out, "colspan", cell, Cell::getHorizontalSpan, v -> v > 1, Object::toString);
-            writeAttribute(out, "rowspan", cell, Cell::getVerticalSpan, v -> v > 1, Object::toString);
+            writeAttribute(out, "colspan", spanX);
+            writeAttribute(out, "rowspan", spanY);
             String classNames = !style.equals(defaultCellStyle) ? id(style) : "";
-            if (isAutomaticallyRightAligned(cell)) {
+            if (isAutomaticallyRightAligned(cursor.getCellType(), style)) {
                 classNames = classNames.isEmpty() ? "meja-align-right" : classNames + " meja-align-right";
             }
             if (!classNames.isEmpty()) {
                 writeAttribute(out, "class", classNames);
             }
-            String mergedCellBorderStyle = getMergedCellBorderStyle(cell);
+            String mergedCellBorderStyle = getMergedCellBorderStyle(cursor, sheet, style);
             if (!mergedCellBorderStyle.isEmpty()) {
                 writeAttribute(out, "style", mergedCellBorderStyle);
             }
             out.format(Locale.ROOT, ">");
 
-            Optional<URI> hyperlink = cell.getHyperlink();
+            Optional<URI> hyperlink = cursor.getHyperlink();
             hyperlink.ifPresent(link -> out.format(Locale.ROOT, "<a href=\"%s\">", LangUtil.mapNonNullOrElse(baseUri, base -> base.relativize(link), link)));
-            out.format(Locale.ROOT, "%s", HtmlConverter.create().convert(cell.getAsText(locale)));
+            out.format(Locale.ROOT, "%s", HtmlConverter.create().convert(cursor.getAsText(locale)));
             hyperlink.ifPresent(link -> out.format(Locale.ROOT, "</a>"));
 
             out.format(Locale.ROOT, "</td>\n");
-            colnr += cell.getHorizontalSpan();
+            colnr += spanX;
         }
 
         out.format(Locale.ROOT, "    </tr>\n");
@@ -366,10 +378,9 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
         out.format(Locale.ROOT, "    </colgroup>\n");
     }
 
-    private static <T> void writeAttribute(Formatter out, String attribute, Cell cell, Function<? super Cell, ? extends T> getter, Predicate<? super T> condition, Function<? super T, String> formatter) {
-        T v = getter.apply(cell);
-        if (condition.test(v)) {
-            writeAttribute(out, attribute, formatter.apply(v));
+    private static void writeAttribute(Formatter out, String attribute, int span) {
+        if (span > 1) {
+            writeAttribute(out, attribute, Integer.toString(span));
         }
     }
 
@@ -655,7 +666,13 @@ public final class HtmlWorkbookWriter implements WorkbookWriter {
 
         // write user defined styles in sorted order to get reproducible results (i.e. in unit tests)
         SortedMap<String, CellStyle> styles = new TreeMap<>();
-        sheet.rows().forEach(row -> row.cells().map(Cell::getCellStyle).forEach(s -> styles.putIfAbsent(s.getName(), s)));
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            while (cursor.nextCell()) {
+                CellStyle s = cursor.getCellStyle();
+                styles.putIfAbsent(s.getName(), s);
+            }
+        }
         styles.values().forEach(cs -> writeCellStyle(out, cs));
 
         out.format(Locale.ROOT, "  </style>\n");
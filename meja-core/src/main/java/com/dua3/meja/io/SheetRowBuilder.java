@@ -15,9 +15,8 @@
  */
 package com.dua3.meja.io;
 
-import com.dua3.meja.model.Cell;
-import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
 import com.dua3.meja.util.CellValueHelper;
 import com.dua3.utility.io.CsvReader.RowBuilder;
 import com.dua3.utility.io.IoOptions;
@@ -28,20 +27,30 @@ import org.jspecify.annotations.Nullable;
 
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Locale;
 
 /**
  * Implementation of the {@link RowBuilder} interface that appends new rows for an existing sheet.
+ * <p>
+ * Rows are added through a {@link SheetAppender}, so that events for the added rows and columns are published
+ * once when the builder is closed.
  */
-public class SheetRowBuilder implements RowBuilder {
+public class SheetRowBuilder implements RowBuilder, AutoCloseable {
 
     private final Sheet sheet;
     private final CellValueHelper helper;
-    private @Nullable Row currentRow;
+    private final SheetAppender appender;
+    private @Nullable Object[] values = new Object[16];
+    private @Nullable String[] formulas = new String[16];
+    private boolean hasFormulas;
+    private boolean inRow;
     private int colNr;
 
     /**
      * Construct a new {@code RowBuilder}.
+     * <p>
+     * The builder must be closed after all rows have been added.
      *
      * @param sheet   the sheet to build rows for
      * @param options the locale to use
@@ -56,27 +65,58 @@ public class SheetRowBuilder implements RowBuilder {
         DateTimeFormatter dateFormatter = dateFormat.getDateFormatter(locale);
 
         this.helper = new CellValueHelper(numberFormat, dateFormatter);
+        this.appender = sheet.appender();
     }
 
     @Override
     public void add(String value) {
-        LangUtil.check(currentRow != null, "missing call to startRow()");
-        Cell cell = currentRow.getCell(colNr++);
-        helper.setCellValue(cell, value);
+        LangUtil.check(inRow, "missing call to startRow()");
+        if (colNr == values.length) {
+            values = Arrays.copyOf(values, 2 * values.length);
+            formulas = Arrays.copyOf(formulas, values.length);
+        }
+        if (CellValueHelper.isFormula(value)) {
+            // formulas are set after the row has been appended
+            formulas[colNr++] = value.substring(1);
+            hasFormulas = true;
+        } else {
+            values[colNr++] = helper.convert(value);
+        }
     }
 
     @Override
     public void endRow() {
-        LangUtil.check(currentRow != null, "unexpected call to endRow()");
-        currentRow = null;
+        LangUtil.check(inRow, "unexpected call to endRow()");
+        appender.appendRow(values, colNr);
+        if (hasFormulas) {
+            int i = sheet.getRowCount() - 1;
+            for (int j = 0; j < colNr; j++) {
+                String formula = formulas[j];
+                if (formula != null) {
+                    sheet.getCell(i, j).setFormula(formula);
+                }
+            }
+            Arrays.fill(formulas, 0, colNr, null);
+            hasFormulas = false;
+        }
+        Arrays.fill(values, 0, colNr, null);
+        inRow = false;
         colNr = 0;
     }
 
     @Override
     public void startRow() {
-        LangUtil.check(currentRow == null, "unexpected call to startRow()");
-        currentRow = sheet.getRow(sheet.getRowCount());
+        LangUtil.check(!inRow, "unexpected call to startRow()");
+        inRow = true;
         colNr = 0;
     }
 
+    /**
+     * Close this builder and publish the events for the added rows.
+     */
+    @Override
+    public void close() {
+        appender.close();
+    }
+
 }
@@ -17,7 +17,9 @@ package com.dua3.meja.io;
 
 import com.dua3.meja.model.Workbook;
 import com.dua3.meja.model.WorkbookFactory;
+import com.dua3.meja.util.ValueInterner;
 import com.dua3.utility.options.Arguments;
+import org.jspecify.annotations.Nullable;
 
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -29,6 +31,8 @@ import java.net.URI;
  */
 public abstract class WorkbookReader {
 
+    private @Nullable ValueInterner valueInterner;
+
     /**
      * Protected constructor for the {@code WorkbookReader} class.
      */
@@ -73,4 +77,27 @@ public abstract class WorkbookReader {
         // nop: empty default implementation for Readers that don't take options
     }
 
+    /**
+     * Set the interner used for the values read.
+     * <br>
+     * By default, a new {@link ValueInterner#bounded() bounded interner} is used for each read and discarded
+     * afterward. Set a shared interner to reuse canonical instances across reads, i.e., when loading several files
+     * in parallel, or {@link ValueInterner#none()} to disable interning.
+     *
+     * @param interner the interner to use, {@code null} to restore the default
+     */
+    public void setValueInterner(@Nullable ValueInterner interner) {
+        this.valueInterner = interner;
+    }
+
+    /**
+     * Get the interner to use for the next read.
+     *
+     * @return the interner set by {@link #setValueInterner(ValueInterner)} or a new bounded interner
+     */
+    protected ValueInterner getValueInterner() {
+        ValueInterner interner = valueInterner;
+        return interner != null ? interner : ValueInterner.bounded();
+    }
+
 }
@@ -119,6 +119,16 @@ public abstract class AbstractCell<S extends AbstractSheet<S, R, C>, R extends A
      */
     protected abstract AbstractWorkbook<S, R, C> getAbstractWorkbook();
 
+    /**
+     * Check that the content of the workbook may be changed.
+     *
+     * @throws UnsupportedOperationException if the workbook is read-only
+     * @see Workbook#isReadOnly()
+     */
+    protected final void checkWritable() {
+        getAbstractWorkbook().checkWritable();
+    }
+
     @Override
     public final Workbook getWorkbook() {
         return getAbstractWorkbook();
@@ -3,6 +3,8 @@ package com.dua3.meja.model;
 import org.jspecify.annotations.Nullable;
 
 import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract base class for implementations of the {@link Row} interface.
@@ -36,6 +38,16 @@ public abstract class AbstractRow<S extends AbstractSheet<S, R, C>, R extends Ab
         return sheet.getAbstractWorkbook();
     }
 
+    /**
+     * Check that the content of the workbook may be changed.
+     *
+     * @throws UnsupportedOperationException if the workbook is read-only
+     * @see Workbook#isReadOnly()
+     */
+    protected final void checkWritable() {
+        getAbstractWorkbook().checkWritable();
+    }
+
     /**
      * Retrieves the {@link AbstractSheet} instance associated with the current row.
      *
@@ -71,6 +83,11 @@ public abstract class AbstractRow<S extends AbstractSheet<S, R, C>, R extends Ab
         return Optional.ofNullable(getAbstractCellOrNull(colIndex));
     }
 
+    @Override
+    public Stream<Cell> cells() {
+        return StreamSupport.stream(new IndexSpliterator<>(this::getCell, 0, getColumnCount()), false);
+    }
+
     @Override
     public final int getRowNumber() {
         return rowNumber;
@@ -1,5 +1,6 @@
 package com.dua3.meja.model;
 
+import com.dua3.meja.util.CellPosition;
 import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.concurrent.AutoLock;
 import com.dua3.utility.data.Pair;
@@ -10,15 +11,21 @@ import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.SubmissionPublisher;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The AbstractSheet class represents the abstract base class for a sheet in a spreadsheet.
@@ -33,12 +40,40 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
 
     private static final Logger LOG = LogManager.getLogger(AbstractSheet.class);
 
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
-    private final List<RectangularRegion> mergedRegions = new ArrayList<>();
+    /**
+     * The minimum number of rows searched by a single task in {@link #findAll(String, SearchSettings, int)}.
+     */
+    private static final int MIN_SEARCH_ROWS = 1024;
+
+    /**
+     * The estimated size of the sheet object itself, not including its {@link SheetLock}.
+     */
+    private static final long SHEET_BYTES = 1024L;
+
+    /**
+     * The locks of this sheet; created on first use because their layout depends on
+     * {@link #isRowLockingSupported()}, which subclasses can only answer once they are constructed.
+     */
+    private final AtomicReference<@Nullable SheetLock> lock = new AtomicReference<>();
+    private final MergedRegionIndex mergedRegions = new MergedRegionIndex();
 
-    private final SubmissionPublisher<SheetEvent> publisher = new SubmissionPublisher<>();
+    /**
+     * The publisher for sheet events; created when the first subscriber is added.
+     */
+    private volatile @Nullable SubmissionPublisher<SheetEvent> publisher;
+    private final Object publisherLock = new Object();
     private final Map<Flow.Subscriber<SheetEvent>, Flow.Subscription> subscriptions = new ConcurrentHashMap<>();
 
+    /**
+     * Set when the workbook has been frozen; locks are not needed anymore.
+     */
+    private volatile boolean frozen;
+
+    private final Object batchLock = new Object();
+    private volatile @Nullable EventBatch batch;
+
+    private volatile @Nullable SearchIndex searchIndex;
+
     /**
      * Constructor.
      */
@@ -52,6 +87,64 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      */
     protected abstract AbstractWorkbook<S, R, C> getAbstractWorkbook();
 
+    /**
+     * Check that the content of the workbook may be changed.
+     *
+     * @throws UnsupportedOperationException if the workbook is read-only
+     * @see Workbook#isReadOnly()
+     */
+    protected final void checkWritable() {
+        getAbstractWorkbook().checkWritable();
+    }
+
+    /**
+     * Check that the view state of the sheet may be changed.
+     *
+     * @throws UnsupportedOperationException if the workbook is frozen
+     * @see Workbook#freeze()
+     */
+    protected final void checkNotFrozen() {
+        getAbstractWorkbook().checkNotFrozen();
+    }
+
+    /**
+     * Release unused capacity of the storage used by this sheet.
+     * <p>
+     * Called while holding the write lock of this sheet when the workbook is {@link Workbook#freeze() frozen}.
+     */
+    protected void compact() {
+        // nothing to do by default
+    }
+
+    /**
+     * Add the estimated memory footprint of the rows, cells, and backend data structures of this sheet.
+     * <p>
+     * Called while holding the read lock of this sheet; merged regions, the search index and the sheet object
+     * itself are accounted for by the caller.
+     *
+     * @param stats the builder to add the estimates to
+     * @see #memoryStats()
+     */
+    protected abstract void estimateMemory(MemoryStats.Builder stats);
+
+    /**
+     * Freeze this sheet: compact the storage, stop using locks and close the event publisher.
+     */
+    final void freeze() {
+        try (var __ = writeLock("AbstractSheet.freeze()")) {
+            compact();
+            frozen = true;
+        }
+
+        synchronized (publisherLock) {
+            SubmissionPublisher<SheetEvent> p = publisher;
+            if (p != null) {
+                p.close();
+            }
+        }
+        subscriptions.clear();
+    }
+
     /**
      * Retrieves the abstract row at the specified index.
      *
@@ -60,6 +153,14 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      */
     protected abstract R getAbstractRow(int rowIndex);
 
+    /**
+     * Retrieves the abstract row at the specified index if it exists, without creating it.
+     *
+     * @param rowIndex the index of the row to retrieve
+     * @return the abstract row at the specified index or {@code null} if the row does not exist
+     */
+    protected abstract @Nullable R getAbstractRowOrNull(int rowIndex);
+
     /**
      * Retrieves the abstract cell located at the specified row and column
      * indices within the sheet.
@@ -105,7 +206,29 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
                 subscriber.onComplete();
             }
         };
-        publisher.subscribe(wrapper);
+        publisher().subscribe(wrapper);
+    }
+
+    /**
+     * Get the event publisher, creating it if necessary. The publisher of a frozen sheet is closed.
+     *
+     * @return the publisher
+     */
+    private SubmissionPublisher<SheetEvent> publisher() {
+        SubmissionPublisher<SheetEvent> p = publisher;
+        if (p == null) {
+            synchronized (publisherLock) {
+                p = publisher;
+                if (p == null) {
+                    p = new SubmissionPublisher<>();
+                    if (frozen) {
+                        p.close();
+                    }
+                    publisher = p;
+                }
+            }
+        }
+        return p;
     }
 
     @Override
@@ -117,8 +240,11 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
     }
 
     private void submit(SheetEvent event) {
-        LOG.trace("submitting event: {}", event);
-        publisher.submit(event);
+        SubmissionPublisher<SheetEvent> p = publisher;
+        if (p != null && !frozen) {
+            LOG.trace("submitting event: {}", event);
+            p.submit(event);
+        }
     }
 
     /**
@@ -141,7 +267,10 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * @param arg additional argument related to the style change
      */
     protected void cellStyleChanged(Cell cell, Object old, Object arg) {
-        submit(new SheetEvent.CellStyleChanged(this, cell, old, arg));
+        searchIndexRowsChanged(cell.getRowNumber(), cell.getRowNumber() + 1);
+        if (!collectCellChanged(cell)) {
+            submit(new SheetEvent.CellStyleChanged(this, cell, old, arg));
+        }
     }
 
     /**
@@ -152,7 +281,10 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * @param arg additional argument (optional)
      */
     protected void cellValueChanged(Cell cell, @Nullable Object old, @Nullable Object arg) {
-        submit(new SheetEvent.CellValueChanged(this, cell, old, arg));
+        searchIndexRowsChanged(cell.getRowNumber(), cell.getRowNumber() + 1);
+        if (!collectCellChanged(cell)) {
+            submit(new SheetEvent.CellValueChanged(this, cell, old, arg));
+        }
     }
 
     /**
@@ -161,6 +293,15 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * Subscribers can listen to this event and perform any necessary actions or updates.
      */
     protected void layoutChanged() {
+        if (batch != null) {
+            synchronized (batchLock) {
+                EventBatch b = batch;
+                if (b != null) {
+                    b.layoutChanged = true;
+                    return;
+                }
+            }
+        }
         submit(new SheetEvent.LayoutChanged(this));
     }
 
@@ -171,6 +312,18 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * @param last the index (exclusive) of the last added row
      */
     protected void rowsAdded(int first, int last) {
+        // rows may be filled without cell events, e.g., by an appender
+        searchIndexRowsChanged(first, last);
+        if (batch != null) {
+            synchronized (batchLock) {
+                EventBatch b = batch;
+                if (b != null) {
+                    b.firstAddedRow = Math.min(b.firstAddedRow, first);
+                    b.lastAddedRow = Math.max(b.lastAddedRow, last);
+                    return;
+                }
+            }
+        }
         submit(new SheetEvent.RowsAdded(this, first, last));
     }
 
@@ -181,9 +334,46 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * @param last the index (exclusive) of the last added column
      */
     protected void columnsAdded(int first, int last) {
+        if (batch != null) {
+            synchronized (batchLock) {
+                EventBatch b = batch;
+                if (b != null) {
+                    b.firstAddedColumn = Math.min(b.firstAddedColumn, first);
+                    b.lastAddedColumn = Math.max(b.lastAddedColumn, last);
+                    return;
+                }
+            }
+        }
         submit(new SheetEvent.ColumnsAdded(this, first, last));
     }
 
+    /**
+     * Record a changed cell if a batch update is in progress.
+     *
+     * @param cell the changed cell
+     * @return true, if the change was recorded, false if no batch update is in progress
+     */
+    private boolean collectCellChanged(Cell cell) {
+        if (batch == null) {
+            return false;
+        }
+        synchronized (batchLock) {
+            EventBatch b = batch;
+            if (b == null) {
+                return false;
+            }
+            int i = cell.getRowNumber();
+            int j = cell.getColumnNumber();
+            RectangularRegion rr = mergedRegions.find(i, j).orElse(null);
+            if (rr == null) {
+                b.addChangedRange(i, i, j, j);
+            } else {
+                b.addChangedRange(rr.firstRow(), rr.lastRow(), rr.firstColumn(), rr.lastColumn());
+            }
+            return true;
+        }
+    }
+
     /**
      * Broadcasts an event indicating a change in the zoom factor of the sheet.
      *
@@ -204,22 +394,397 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
         submit(new SheetEvent.SplitChanged(this, oldSplit, newSplit));
     }
 
+    private SheetLock lock() {
+        SheetLock sheetLock = lock.get();
+        if (sheetLock == null) {
+            sheetLock = new SheetLock(isRowLockingSupported());
+            if (!lock.compareAndSet(null, sheetLock)) {
+                sheetLock = Objects.requireNonNull(lock.get());
+            }
+        }
+        return sheetLock;
+    }
+
     @Override
     public AutoLock readLock(String name) {
-        return AutoLock.of(lock.readLock(), name);
+        if (frozen) {
+            return AutoLock.of(SheetLock.NO_LOCK, name);
+        }
+        return AutoLock.of(lock().readLock(), name);
     }
 
     @Override
     public AutoLock writeLock(String name) {
-        return AutoLock.of(lock.writeLock(), name);
+        if (frozen) {
+            return AutoLock.of(SheetLock.NO_LOCK, name);
+        }
+        return AutoLock.of(lock().structureWriteLock(), name);
+    }
+
+    @Override
+    public AutoLock readLock(String name, int firstRow, int lastRow) {
+        LangUtil.checkArg(0 <= firstRow && firstRow <= lastRow, "invalid row range: %d - %d", firstRow, lastRow);
+        if (frozen) {
+            return AutoLock.of(SheetLock.NO_LOCK, name);
+        }
+        return AutoLock.of(lock().readLock(firstRow, lastRow), name);
+    }
+
+    @Override
+    public AutoLock writeLock(String name, int firstRow, int lastRow) {
+        LangUtil.checkArg(0 <= firstRow && firstRow <= lastRow, "invalid row range: %d - %d", firstRow, lastRow);
+        if (frozen) {
+            return AutoLock.of(SheetLock.NO_LOCK, name);
+        }
+        return AutoLock.of(lock().writeLock(firstRow, lastRow), name);
+    }
+
+    @Override
+    public void enableSearchIndex(long maxBytes) {
+        LangUtil.checkArg(maxBytes > 0, "maxBytes must be positive: %d", maxBytes);
+        searchIndex = new SearchIndex(this, maxBytes);
+    }
+
+    @Override
+    public void disableSearchIndex() {
+        searchIndex = null;
+    }
+
+    @Override
+    public Optional<SearchIndexStats> getSearchIndexStats() {
+        return Optional.ofNullable(searchIndex).map(SearchIndex::stats);
+    }
+
+    @Override
+    public MemoryStats memoryStats() {
+        try (var __ = readLock("AbstractSheet.memoryStats()")) {
+            MemoryStats.Builder stats = MemoryStats.builder();
+            estimateMemory(stats);
+            stats.addMergedRegions(mergedRegions.estimatedBytes());
+            SearchIndex index = searchIndex;
+            if (index != null) {
+                stats.addCaches(index.stats().retainedBytes());
+            }
+            stats.addOther(SHEET_BYTES + lock().estimatedBytes());
+            return stats.build();
+        }
+    }
+
+    @Override
+    public Optional<Cell> find(String text, SearchSettings ss) {
+        SearchIndex index = searchIndex;
+        if (index == null) {
+            return Sheet.super.find(text, ss);
+        }
+
+        try (var __ = readLock("AbstractSheet.find()")) {
+            return index.isUsable(text, ss) ? index.find(text, ss) : Sheet.super.find(text, ss);
+        }
+    }
+
+    @Override
+    public List<CellPosition> findAll(String text, SearchSettings ss, int limit) {
+        LangUtil.checkArg(limit >= 0, "limit must not be negative: %d", limit);
+
+        List<CellPosition> matches = new ArrayList<>();
+        try (var __ = readLock("AbstractSheet.findAll()")) {
+            int rowCount = getRowCount();
+            if (limit == 0 || rowCount == 0) {
+                return List.of();
+            }
+
+            // split the sheet into ranges, in the order find() visits the cells
+            List<SearchRange> ranges = new ArrayList<>();
+            int rowsPerRange = Math.max(MIN_SEARCH_ROWS, rowCount / (4 * ForkJoinPool.getCommonPoolParallelism()));
+            if (ss.searchFromCurrent()) {
+                Cell current = getCurrentCell();
+                int i = current.getRowNumber();
+                int j = current.getColumnNumber();
+                ranges.add(new SearchRange(i, i + 1, j + 1, Integer.MAX_VALUE));
+                addSearchRanges(ranges, i + 1, rowCount, rowsPerRange);
+                addSearchRanges(ranges, 0, Math.min(i, rowCount), rowsPerRange);
+                ranges.add(new SearchRange(i, i + 1, 0, j + 1));
+            } else {
+                addSearchRanges(ranges, 0, rowCount, rowsPerRange);
+            }
+
+            // search the ranges; once the ranges up to some index hold limit matches, the ranges behind it are
+            // cancelled
+            TextMatcher matcher = new TextMatcher(text, ss);
+            SearchProgress progress = new SearchProgress(ranges.size(), limit);
+            IntStream indexes = IntStream.range(0, ranges.size());
+            if (isConcurrentReadSupported()) {
+                indexes = indexes.parallel();
+            }
+            List<List<CellPosition>> matchesByRange = indexes
+                    .mapToObj(k -> searchRange(ranges.get(k), k, matcher, limit, progress))
+                    .toList();
+
+            for (List<CellPosition> rangeMatches : matchesByRange) {
+                int n = Math.min(rangeMatches.size(), limit - matches.size());
+                matches.addAll(rangeMatches.subList(0, n));
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+
+        // update the current cell after releasing the lock, like events are published after a batch update
+        if (ss.updateCurrent() && !matches.isEmpty()) {
+            CellPosition first = matches.get(0);
+            setCurrentCell(first.row(), first.column());
+        }
+
+        return matches;
+    }
+
+    /**
+     * A range of cells to search.
+     *
+     * @param firstRow    the first row (inclusive)
+     * @param lastRow     the last row (exclusive)
+     * @param firstColumn the first column (inclusive)
+     * @param lastColumn  the last column (exclusive)
+     */
+    private record SearchRange(int firstRow, int lastRow, int firstColumn, int lastColumn) {}
+
+    private static void addSearchRanges(List<SearchRange> ranges, int firstRow, int lastRow, int rowsPerRange) {
+        for (int i = firstRow; i < lastRow; i += rowsPerRange) {
+            ranges.add(new SearchRange(i, Math.min(lastRow, i + rowsPerRange), 0, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Counts the matches found in each search range to determine the ranges that are not needed anymore.
+     */
+    private static final class SearchProgress {
+        private final AtomicIntegerArray matches;
+        private final int limit;
+        private final AtomicInteger cutoff = new AtomicInteger(Integer.MAX_VALUE);
+
+        SearchProgress(int ranges, int limit) {
+            this.matches = new AtomicIntegerArray(ranges);
+            this.limit = limit;
+        }
+
+        /**
+         * Test if a range is not needed because the ranges in front of it hold at least limit matches.
+         *
+         * @param k the index of the range
+         * @return true, if the search of the range can be cancelled
+         */
+        boolean isCancelled(int k) {
+            return k > cutoff.get();
+        }
+
+        /**
+         * Count a match and cancel the ranges that are not needed anymore.
+         *
+         * @param k the index of the range containing the match
+         */
+        void matchFound(int k) {
+            matches.incrementAndGet(k);
+            int total = 0;
+            for (int m = 0, cut = cutoff.get(); m < cut && m < matches.length(); m++) {
+                total += matches.get(m);
+                if (total >= limit) {
+                    cutoff.accumulateAndGet(m, Math::min);
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<CellPosition> searchRange(SearchRange range, int k, TextMatcher matcher, int limit, SearchProgress progress) {
+        List<CellPosition> matches = new ArrayList<>();
+        SheetCursor cursor = cursor();
+        for (int i = range.firstRow(); i < range.lastRow() && !progress.isCancelled(k); i++) {
+            if (!cursor.moveToRow(i)) {
+                continue;
+            }
+
+            int jTo = Math.min(range.lastColumn(), cursor.getColumnCount());
+            for (int j = range.firstColumn(); j < jTo && cursor.moveToColumn(j); j++) {
+                if (matcher.matches(cursor)) {
+                    matches.add(new CellPosition(i, j));
+                    progress.matchFound(k);
+                    if (matches.size() == limit) {
+                        return matches;
+                    }
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Test whether the cells of this sheet can be read from several threads at the same time while the read lock
+     * is held. If not supported, {@link #findAll(String, SearchSettings, int)} searches sequentially.
+     *
+     * @return true, if concurrent reads are supported
+     */
+    protected boolean isConcurrentReadSupported() {
+        return true;
+    }
+
+    /**
+     * Notifies the search index that the content of rows has changed.
+     *
+     * @param first the first row (inclusive)
+     * @param last  the last row (exclusive)
+     */
+    private void searchIndexRowsChanged(int first, int last) {
+        SearchIndex index = searchIndex;
+        if (index != null) {
+            index.rowsChanged(first, last);
+        }
+    }
+
+    /**
+     * Discards the search index content. Implementations must call this method when the sheet content is replaced
+     * without firing cell events, i.e., when the sheet is cleared. The index is rebuilt when it is used next.
+     */
+    protected void invalidateSearchIndex() {
+        SearchIndex index = searchIndex;
+        if (index != null) {
+            index.invalidate();
+        }
+    }
+
+    @Override
+    public long tryOptimisticRead() {
+        return lock().tryOptimisticRead();
+    }
+
+    @Override
+    public boolean validate(long stamp) {
+        return lock().validate(stamp);
+    }
+
+    /**
+     * Test whether this sheet supports concurrent modification of disjoint row ranges.
+     * <p>
+     * If supported, {@link #writeLock(String, int, int)} only locks the stripes covering the given rows, and
+     * {@link #readLock(String)} excludes these range writers. Otherwise, range locks fall back to the sheet-wide
+     * locks.
+     * Implementations returning {@code true} must allow rows and cells of different row ranges to be modified
+     * concurrently, and rows to be added while other rows are modified. The result is queried when the sheet is
+     * locked for the first time and must not change during the lifetime of the sheet.
+     * <p>
+     * Sheets that do not support row locking use a plain {@link java.util.concurrent.locks.ReentrantReadWriteLock}.
+     * Note that change notifications that update state shared by the whole sheet are still serialized: while a
+     * search index is enabled, or formulas of a generic workbook have been evaluated, every cell change
+     * synchronizes on the index or the formula engine, so range writers contend there for the duration of the
+     * update.
+     *
+     * @return true, if concurrent row range modification is supported
+     */
+    protected boolean isRowLockingSupported() {
+        return false;
+    }
+
+    @Override
+    public final void batchUpdate(Consumer<? super Sheet> action) {
+        List<SheetEvent> events = List.of();
+        try {
+            try (var __ = writeLock("AbstractSheet.batchUpdate()")) {
+                beginBatch();
+                try {
+                    action.accept(this);
+                } finally {
+                    events = endBatch();
+                }
+            }
+        } finally {
+            // publish after releasing the lock so that subscribers are not blocked when processing the events
+            publish(events);
+        }
+    }
+
+    @Override
+    public void copy(Sheet other, CellStyleMapping styles) {
+        checkWritable();
+
+        // publish a single summarizing event instead of one per cell, row height and column width
+        batchUpdate(sheet -> {
+            if (!copyBulk(other, styles)) {
+                Sheet.super.copy(other, styles);
+            }
+        });
+    }
+
+    /**
+     * Copy the data of another sheet in bulk, bypassing the row and cell API.
+     * <p>
+     * Called by {@link #copy(Sheet, CellStyleMapping)} while holding the write lock of this sheet during a batch
+     * update. Implementations that support copying from {@code other}, typically a sheet of the same implementation,
+     * copy cell storage, merged regions, split and autofilter position, row heights and column widths, and report
+     * added rows and columns and layout changes through {@link #rowsAdded(int, int)}, {@link #columnsAdded(int, int)}
+     * and {@link #layoutChanged()} instead of publishing cell events.
+     *
+     * @param other  the sheet to copy data from
+     * @param styles the mapping from the styles of the source workbook to the styles of this sheet's workbook
+     * @return true, if the data has been copied; false if a bulk copy is not supported and the data has to be
+     * copied cell by cell
+     */
+    protected boolean copyBulk(Sheet other, CellStyleMapping styles) {
+        return false;
+    }
+
+    /**
+     * Start collecting events instead of publishing them. Calls can be nested and must be matched by calls
+     * to {@link #endBatch()}.
+     */
+    void beginBatch() {
+        synchronized (batchLock) {
+            EventBatch b = batch;
+            if (b == null) {
+                b = new EventBatch();
+                batch = b;
+            }
+            b.depth++;
+        }
+    }
+
+    /**
+     * End collecting events.
+     *
+     * @return the summarizing events to publish if the outermost batch has ended, otherwise an empty list
+     */
+    List<SheetEvent> endBatch() {
+        synchronized (batchLock) {
+            EventBatch b = batch;
+            LangUtil.check(b != null, "no batch in progress");
+            if (--b.depth > 0) {
+                return List.of();
+            }
+            batch = null;
+            return b.events(this);
+        }
+    }
+
+    /**
+     * Publish events.
+     *
+     * @param events the events to publish
+     */
+    void publish(List<SheetEvent> events) {
+        events.forEach(this::submit);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public SheetAppender appender() {
+        checkWritable();
+        return new CellSheetAppender<>((S) this);
     }
 
     @Override
     public void addMergedRegion(RectangularRegion cells) {
+        checkWritable();
+
         // check that all cells are unmerged
-        for (RectangularRegion rr : mergedRegions) {
-            LangUtil.check(!rr.intersects(cells), "New merged region overlaps with an existing one.");
-        }
+        LangUtil.check(!mergedRegions.intersects(cells), "New merged region overlaps with an existing one.");
 
         // update cell data
         int spanX = cells.lastColumn() - cells.firstColumn() + 1;
@@ -240,12 +805,12 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
 
     @Override
     public List<RectangularRegion> getMergedRegions() {
-        return Collections.unmodifiableList(mergedRegions);
+        return mergedRegions.asList();
     }
 
     @Override
     public Optional<RectangularRegion> getMergedRegion(int rowIndex, int colIndex) {
-        return mergedRegions.stream().filter(rr -> rr.contains(rowIndex, colIndex)).findFirst();
+        return mergedRegions.find(rowIndex, colIndex);
     }
 
     /**
@@ -255,17 +820,19 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
      * @param columnNumber the column number of the merged region to be removed
      */
     protected void removeMergedRegion(int rowNumber, int columnNumber) {
-        for (int idx = 0; idx < mergedRegions.size(); idx++) {
-            RectangularRegion rr = mergedRegions.get(idx);
-            if (rr.firstRow() == rowNumber && rr.firstColumn() == columnNumber) {
-                mergedRegions.remove(idx--);
-                for (int i = rr.firstRow(); i <= rr.lastRow(); i++) {
-                    R row = getAbstractRow(i);
-                    for (int j = rr.firstColumn(); j <= rr.lastColumn(); j++) {
-                        C cell = row.getAbstractCellOrNull(j);
-                        if (cell != null) {
-                            cell.removedFromMergedRegion();
-                        }
+        checkWritable();
+        RectangularRegion rr = mergedRegions.find(rowNumber, columnNumber).orElse(null);
+        if (rr != null && rr.firstRow() == rowNumber && rr.firstColumn() == columnNumber) {
+            mergedRegions.remove(rr);
+            for (int i = rr.firstRow(); i <= rr.lastRow(); i++) {
+                R row = getAbstractRowOrNull(i);
+                if (row == null) {
+                    continue;
+                }
+                for (int j = rr.firstColumn(); j <= rr.lastColumn(); j++) {
+                    C cell = row.getAbstractCellOrNull(j);
+                    if (cell != null) {
+                        cell.removedFromMergedRegion();
                     }
                 }
             }
@@ -283,6 +850,25 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
         return getAbstractRow(rowIndex);
     }
 
+    @Override
+    public final Optional<Row> getRowIfExists(int rowIndex) {
+        return Optional.ofNullable(getAbstractRowOrNull(rowIndex));
+    }
+
+    @Override
+    public Stream<Row> rows() {
+        return StreamSupport.stream(new IndexSpliterator<>(this::getRow, 0, getRowCount()), false);
+    }
+
+    @Override
+    public Stream<Row> parallelRows() {
+        // like existingRows(), gaps are skipped instead of creating rows so that the stream never modifies the sheet
+        return IntStream.range(0, getRowCount())
+                .parallel()
+                .<Row>mapToObj(this::getAbstractRowOrNull)
+                .filter(Objects::nonNull);
+    }
+
     @Override
     public final Cell getCell(int rowIndex, int colIndex) {
         LangUtil.checkArg(rowIndex >= 0, "invalid row number: %d", rowIndex);
@@ -297,10 +883,10 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
 
     @Override
     public final void autoSizeColumn(int colIndex) {
-        float colWidth = (float) rows()
+        float colWidth = (float) existingRows()
                 .mapMultiToDouble((row, downstream) ->
-                        row.cells().forEach(cell -> {
-                            if (cell.getColumnNumber() == colIndex && !cell.isEmpty()) {
+                        row.getCellIfExists(colIndex).ifPresent(cell -> {
+                            if (!cell.isEmpty()) {
                                 downstream.accept(cell.calcCellDimension().width());
                             }
                         }))
@@ -316,24 +902,27 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
         float[] colWidth = new float[n];
         Arrays.fill(colWidth, 0.0f);
 
-        rows().forEach(row ->
-                row.cells().forEach(cell -> {
+        existingRows().forEach(row ->
+                row.existingCells().forEach(cell -> {
                     if (!cell.isEmpty()) {
                         int j = cell.getColumnNumber();
                         colWidth[j] = Math.max(colWidth[j], cell.calcCellDimension().width());
                     }
                 }));
 
-        for (int j = 0; j < n; j++) {
-            setColumnWidth(j, colWidth[j]);
-        }
-        layoutChanged();
+        // publish a single layout change instead of one per column
+        batchUpdate(sheet -> {
+            for (int j = 0; j < n; j++) {
+                sheet.setColumnWidth(j, colWidth[j]);
+            }
+            layoutChanged();
+        });
     }
 
     @Override
     public final void autoSizeRow(int rowIndex) {
         getRowIfExists(rowIndex).ifPresent(row -> {
-            float rowHeight = (float) row.cells()
+            float rowHeight = (float) row.existingCells()
                     .mapMultiToDouble((cell, downstream) -> {
                         if (!cell.isEmpty()) {
                             downstream.accept(cell.calcCellDimension().height());
@@ -351,4 +940,58 @@ public abstract class AbstractSheet<S extends AbstractSheet<S, R, C>, R extends
                 "name=" + getSheetName() +
                 '}';
     }
+
+    /**
+     * Collects the changes made during a batch update. Access is guarded by {@code batchLock}.
+     */
+    private static final class EventBatch {
+        private int depth;
+        private boolean layoutChanged;
+        private int firstRow = Integer.MAX_VALUE;
+        private int lastRow = -1;
+        private int firstColumn = Integer.MAX_VALUE;
+        private int lastColumn = -1;
+        private int firstAddedRow = Integer.MAX_VALUE;
+        private int lastAddedRow = -1;
+        private int firstAddedColumn = Integer.MAX_VALUE;
+        private int lastAddedColumn = -1;
+
+        /**
+         * Extend the bounding box of the changed cells to include a range.
+         *
+         * @param r1 the first row (inclusive)
+         * @param r2 the last row (inclusive)
+         * @param c1 the first column (inclusive)
+         * @param c2 the last column (inclusive)
+         */
+        void addChangedRange(int r1, int r2, int c1, int c2) {
+            firstRow = Math.min(firstRow, r1);
+            lastRow = Math.max(lastRow, r2);
+            firstColumn = Math.min(firstColumn, c1);
+            lastColumn = Math.max(lastColumn, c2);
+        }
+
+        /**
+         * Create the events to publish at the end of the batch update.
+         *
+         * @param sheet the sheet
+         * @return list of events in the order they should be published
+         */
+        List<SheetEvent> events(Sheet sheet) {
+            List<SheetEvent> events = new ArrayList<>(4);
+            if (lastAddedRow >= 0) {
+                events.add(new SheetEvent.RowsAdded(sheet, firstAddedRow, lastAddedRow));
+            }
+            if (lastAddedColumn >= 0) {
+                events.add(new SheetEvent.ColumnsAdded(sheet, firstAddedColumn, lastAddedColumn));
+            }
+            if (layoutChanged) {
+                events.add(new SheetEvent.LayoutChanged(sheet));
+            }
+            if (lastRow >= 0) {
+                events.add(new SheetEvent.RangeChanged(sheet, new RectangularRegion(firstRow, lastRow, firstColumn, lastColumn)));
+            }
+            return events;
+        }
+    }
 }
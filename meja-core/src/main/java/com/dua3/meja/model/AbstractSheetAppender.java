@@ -0,0 +1,74 @@
+package com.dua3.meja.model;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Objects;
+
+/**
+ * Abstract base class for {@link SheetAppender} implementations.
+ * <p>
+ * Event collection is started when the appender is created and the summarizing events are published when it is
+ * closed. Implementations append the rows in {@link #append(Object[], int)} and {@link #append(double[], int)}.
+ *
+ * @param <S> the concrete type of Sheet
+ */
+public abstract class AbstractSheetAppender<S extends AbstractSheet<S, ?, ?>> implements SheetAppender {
+
+    /**
+     * The sheet this appender appends to.
+     */
+    protected final S sheet;
+
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param sheet the sheet
+     */
+    protected AbstractSheetAppender(S sheet) {
+        this.sheet = sheet;
+        sheet.beginBatch();
+    }
+
+    /**
+     * Append a row.
+     *
+     * @param values the cell values
+     * @param length the number of values to use
+     */
+    protected abstract void append(@Nullable Object[] values, int length);
+
+    /**
+     * Append a row of numeric values.
+     *
+     * @param values the cell values
+     * @param length the number of values to use
+     */
+    protected abstract void append(double[] values, int length);
+
+    @Override
+    public final SheetAppender appendRow(@Nullable Object[] values, int length) {
+        LangUtil.check(!closed, "appender is closed");
+        Objects.checkFromToIndex(0, length, values.length);
+        append(values, length);
+        return this;
+    }
+
+    @Override
+    public final SheetAppender appendRow(double[] values, int length) {
+        LangUtil.check(!closed, "appender is closed");
+        Objects.checkFromToIndex(0, length, values.length);
+        append(values, length);
+        return this;
+    }
+
+    @Override
+    public final void close() {
+        if (!closed) {
+            closed = true;
+            sheet.publish(sheet.endBatch());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.dua3.meja.model;
+
+import com.dua3.meja.util.RectangularRegion;
+import com.dua3.utility.lang.LangUtil;
+import com.dua3.utility.text.RichText;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Abstract base class for {@link SheetCursor} implementations.
+ * <p>
+ * This class keeps track of the cursor position and provides implementations for the methods that
+ * can be derived from other cursor methods. Implementations load the data for the current row and cell
+ * in {@link #loadRow(int)} and {@link #loadCell(int)}.
+ *
+ * @param <S> the concrete type of Sheet
+ */
+public abstract class AbstractSheetCursor<S extends AbstractSheet<S, ?, ?>> implements SheetCursor {
+
+    /**
+     * The sheet this cursor walks.
+     */
+    protected final S sheet;
+
+    private int rowNumber = -1;
+    private int columnNumber = -1;
+    private int columnCount;
+
+    /**
+     * Constructor.
+     *
+     * @param sheet the sheet
+     */
+    protected AbstractSheetCursor(S sheet) {
+        this.sheet = sheet;
+    }
+
+    /**
+     * Load the data of the row with the given number.
+     *
+     * @param i the row number
+     * @return the number of columns of the row, 0 if the row does not exist
+     */
+    protected abstract int loadRow(int i);
+
+    /**
+     * Load the data of the cell at the given column of the current row.
+     *
+     * @param j the column number
+     */
+    protected abstract void loadCell(int j);
+
+    @Override
+    public final boolean nextRow() {
+        return moveToRow(rowNumber + 1);
+    }
+
+    @Override
+    public final boolean moveToRow(int i) {
+        columnNumber = -1;
+        if (i < 0 || i >= sheet.getRowCount()) {
+            rowNumber = Math.max(-1, Math.min(i, sheet.getRowCount()));
+            columnCount = 0;
+            return false;
+        }
+
+        rowNumber = i;
+        columnCount = loadRow(i);
+        return true;
+    }
+
+    @Override
+    public final boolean nextCell() {
+        return moveToColumn(columnNumber + 1);
+    }
+
+    @Override
+    public final boolean moveToColumn(int j) {
+        if (j < 0 || j >= columnCount) {
+            columnNumber = Math.max(-1, Math.min(j, columnCount));
+            return false;
+        }
+
+        columnNumber = j;
+        loadCell(j);
+        return true;
+    }
+
+    @Override
+    public final int getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public final int getColumnCount() {
+        return columnCount;
+    }
+
+    @Override
+    public final int getColumnNumber() {
+        return columnNumber;
+    }
+
+    /**
+     * Check that the cursor is positioned on a cell.
+     *
+     * @throws IllegalStateException if the cursor is not positioned on a cell
+     */
+    protected final void checkPosition() {
+        LangUtil.check(columnNumber >= 0 && columnNumber < columnCount, "cursor is not positioned on a cell");
+    }
+
+    /**
+     * Create the exception thrown when a value is requested that does not match the cell type.
+     *
+     * @param what a description of the requested value
+     * @return the exception
+     */
+    protected final IllegalStateException typeMismatch(String what) {
+        return new IllegalStateException("Cannot get " + what + " from cell " + Sheet.getColumnName(columnNumber)
+                + Sheet.getRowName(rowNumber) + " of type " + getCellType().name() + ".");
+    }
+
+    @Override
+    public RichText getAsText(Locale locale) {
+        return switch (getCellType()) {
+            case BLANK -> RichText.emptyText();
+            case TEXT -> getText();
+            default -> RichText.valueOf(toString(locale));
+        };
+    }
+
+    @Override
+    public Optional<URI> getHyperlink() {
+        checkPosition();
+        return sheet.getCellIfExists(rowNumber, columnNumber).flatMap(Cell::getHyperlink);
+    }
+
+    @Override
+    public int getHorizontalSpan() {
+        checkPosition();
+        return getMergedRegion()
+                .map(rr -> isTopLeft(rr) ? 1 + rr.lastColumn() - rr.firstColumn() : 0)
+                .orElse(1);
+    }
+
+    @Override
+    public int getVerticalSpan() {
+        checkPosition();
+        return getMergedRegion()
+                .map(rr -> isTopLeft(rr) ? 1 + rr.lastRow() - rr.firstRow() : 0)
+                .orElse(1);
+    }
+
+    private Optional<RectangularRegion> getMergedRegion() {
+        return sheet.getMergedRegion(rowNumber, columnNumber);
+    }
+
+    private boolean isTopLeft(RectangularRegion rr) {
+        return rr.firstRow() == rowNumber && rr.firstColumn() == columnNumber;
+    }
+
+    @Override
+    public Cell getCell() {
+        checkPosition();
+        return sheet.getCell(rowNumber, columnNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "SheetCursor[" + sheet.getSheetName() + "!" + Sheet.getColumnName(Math.max(0, columnNumber))
+                + Sheet.getRowName(Math.max(0, rowNumber)) + "]";
+    }
+}
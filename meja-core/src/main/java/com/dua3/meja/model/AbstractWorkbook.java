@@ -1,10 +1,13 @@
 package com.dua3.meja.model;
 
-import com.dua3.utility.data.ObjectCache;
+import com.dua3.meja.util.ValueInterner;
+import com.dua3.utility.concurrent.AutoLock;
 import org.jspecify.annotations.Nullable;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,13 +29,69 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
     private @Nullable URI uri;
 
     /**
-     * The object cache used to reduce memory usage.
+     * The interner used to reduce memory usage.
      */
-    private @Nullable ObjectCache objectCache;
+    private volatile ValueInterner valueInterner = ValueInterner.none();
 
-    private final SubmissionPublisher<WorkbookEvent> publisher = new SubmissionPublisher<>();
+    /**
+     * Set when the workbook has been made read-only.
+     */
+    private volatile boolean readOnly;
+
+    /**
+     * Set when the workbook has been frozen.
+     */
+    private volatile boolean frozen;
+
+    /**
+     * The publisher for workbook events; created when the first subscriber is added.
+     */
+    private volatile @Nullable SubmissionPublisher<WorkbookEvent> publisher;
+    private final Object publisherLock = new Object();
     private final Map<Flow.Subscriber<WorkbookEvent>, Flow.Subscription> subscriptions = new ConcurrentHashMap<>();
 
+    private void submit(WorkbookEvent event) {
+        SubmissionPublisher<WorkbookEvent> p = publisher;
+        if (p != null && !frozen) {
+            p.submit(event);
+        }
+    }
+
+    /**
+     * Get the event publisher, creating it if necessary. The publisher of a frozen workbook is closed.
+     *
+     * @return the publisher
+     */
+    private SubmissionPublisher<WorkbookEvent> publisher() {
+        SubmissionPublisher<WorkbookEvent> p = publisher;
+        if (p == null) {
+            synchronized (publisherLock) {
+                p = publisher;
+                if (p == null) {
+                    p = new SubmissionPublisher<>();
+                    if (frozen) {
+                        p.close();
+                    }
+                    publisher = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Close the event publisher, completing all subscribers.
+     */
+    private void closePublisher() {
+        synchronized (publisherLock) {
+            SubmissionPublisher<WorkbookEvent> p = publisher;
+            if (p != null) {
+                p.close();
+            }
+        }
+        subscriptions.clear();
+    }
+
     /**
      * Notifies subscribers that the active sheet of the workbook has changed.
      *
@@ -40,7 +99,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      * @param idxNew the index of the new active sheet.
      */
     protected void activeSheetChanged(int idxOld, int idxNew) {
-        publisher.submit(new WorkbookEvent.ActiveSheetChanged(this, idxOld, idxNew));
+        submit(new WorkbookEvent.ActiveSheetChanged(this, idxOld, idxNew));
     }
 
     /**
@@ -49,7 +108,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      * @param idx the index of the newly added sheet
      */
     protected void sheetAdded(int idx) {
-        publisher.submit(new WorkbookEvent.SheetAdded(this, idx));
+        submit(new WorkbookEvent.SheetAdded(this, idx));
     }
 
     /**
@@ -58,7 +117,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      * @param idx the index of the removed sheet
      */
     protected void sheetRemoved(int idx) {
-        publisher.submit(new WorkbookEvent.SheetRemoved(this, idx));
+        submit(new WorkbookEvent.SheetRemoved(this, idx));
     }
 
     /**
@@ -68,7 +127,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      * @param newUri The new URI of the workbook.
      */
     protected void uriChanged(@Nullable URI oldUri, @Nullable URI newUri) {
-        publisher.submit(new WorkbookEvent.UriChanged(this, oldUri, newUri));
+        submit(new WorkbookEvent.UriChanged(this, oldUri, newUri));
     }
 
     /**
@@ -113,7 +172,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
                 subscriber.onComplete();
             }
         };
-        publisher.subscribe(wrapper);
+        publisher().subscribe(wrapper);
     }
 
     @Override
@@ -126,7 +185,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
 
     @Override
     public final <T> T cache(T obj) {
-        return objectCache != null ? objectCache.get(obj) : obj;
+        return valueInterner.intern(obj);
     }
 
     @Override
@@ -141,7 +200,7 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      */
     @Override
     public boolean isObjectCachingEnabled() {
-        return objectCache != null;
+        return valueInterner.isEnabled();
     }
 
     /**
@@ -152,11 +211,138 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
      */
     @Override
     public void setObjectCaching(boolean enable) {
-        objectCache = enable && !isObjectCachingEnabled() ? new ObjectCache() : null;
+        if (!enable) {
+            valueInterner = ValueInterner.none();
+        } else if (!isObjectCachingEnabled()) {
+            valueInterner = ValueInterner.bounded();
+        }
+    }
+
+    @Override
+    public ValueInterner getValueInterner() {
+        return valueInterner;
+    }
+
+    @Override
+    public void setValueInterner(ValueInterner interner) {
+        this.valueInterner = interner;
+    }
+
+    @Override
+    public MemoryStats memoryStats() {
+        MemoryStats.Builder stats = MemoryStats.builder();
+        for (Sheet sheet : this) {
+            stats.add(sheet.memoryStats());
+        }
+        stats.addCaches(valueInterner.stats().retainedBytes());
+        estimateMemory(stats);
+        return stats.build();
+    }
+
+    /**
+     * Add the estimated memory footprint of the workbook level data structures, i.e., cell styles, fonts, caches,
+     * and backend internals that are not owned by a single sheet.
+     *
+     * @param stats the builder to add the estimates to
+     * @see #memoryStats()
+     */
+    protected abstract void estimateMemory(MemoryStats.Builder stats);
+
+    @Override
+    public final boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Copy this workbook into an empty workbook while holding the read locks of all sheets.
+     * <p>
+     * In contrast to {@link Workbook#copy(Workbook)}, which locks one sheet at a time, the copy reflects a single
+     * state of the whole workbook, even if other threads change several sheets concurrently. The locks are acquired
+     * in sheet order and released in reverse order. Implementations use this to create {@link #snapshot() snapshots}.
+     *
+     * @param target the empty workbook to copy this workbook into
+     */
+    protected final void copyConsistently(Workbook target) {
+        List<AutoLock> locks = new ArrayList<>(getSheetCount());
+        try {
+            for (Sheet sheet : this) {
+                locks.add(sheet.readLock("AbstractWorkbook.copyConsistently()"));
+            }
+            target.copy(this);
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).close();
+            }
+        }
+    }
+
+    /**
+     * Make this workbook read-only. This cannot be undone.
+     *
+     * @see #isReadOnly()
+     */
+    protected void setReadOnly() {
+        readOnly = true;
+    }
+
+    /**
+     * Check that the content of this workbook may be changed. Implementations must call this method before
+     * changing the workbook or its sheets, rows, cells or cell styles.
+     *
+     * @throws UnsupportedOperationException if the workbook is read-only
+     */
+    protected final void checkWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException("the workbook is read-only");
+        }
+    }
+
+    @Override
+    public final boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Prepare this workbook for being frozen. Called by {@link #freeze()} before the workbook is made read-only.
+     * <p>
+     * Implementations override this method to compute data that readers would otherwise compute and store lazily,
+     * because readers of a frozen workbook do not hold any locks.
+     */
+    protected void prepareFreeze() {
+        // nothing to do by default
+    }
+
+    @Override
+    public final void freeze() {
+        if (frozen) {
+            return;
+        }
+
+        prepareFreeze();
+        setReadOnly();
+        for (Sheet sheet : this) {
+            ((AbstractSheet<?, ?, ?>) sheet).freeze();
+        }
+        frozen = true;
+
+        closePublisher();
+    }
+
+    /**
+     * Check that the view state of this workbook, i.e., the URI, the current sheet, and the current cell and zoom
+     * factor of its sheets, may be changed. Implementations must call this method before changing the view state.
+     *
+     * @throws UnsupportedOperationException if the workbook is frozen
+     */
+    protected final void checkNotFrozen() {
+        if (frozen) {
+            throw new UnsupportedOperationException("the workbook is frozen");
+        }
     }
 
     @Override
     public final void setUri(@Nullable URI uri) {
+        checkNotFrozen();
         URI oldUri = this.uri;
         this.uri = uri;
         uriChanged(oldUri, uri);
@@ -169,7 +355,6 @@ public abstract class AbstractWorkbook<S extends AbstractSheet<S, R, C>, R exten
 
     @Override
     public void close() throws IOException {
-        publisher.close();
-        subscriptions.clear();
+        closePublisher();
     }
 }
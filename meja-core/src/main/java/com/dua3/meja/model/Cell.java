@@ -99,6 +99,21 @@ public interface Cell {
      */
     default void copy(Cell other) {
         setCellStyle(other.getCellStyle().getName());
+        copyData(other);
+    }
+
+    /**
+     * Copy cell data, resolving the cell style through a mapping.
+     *
+     * @param other  cell to copy data from
+     * @param styles the mapping from the styles of the source workbook to the styles of this cell's workbook
+     */
+    default void copy(Cell other, CellStyleMapping styles) {
+        setCellStyle(styles.get(other.getCellStyle()));
+        copyData(other);
+    }
+
+    private void copyData(Cell other) {
         switch (other.getCellType()) {
             case BLANK -> clear();
             case BOOLEAN -> set(other.getBoolean());
@@ -0,0 +1,36 @@
+package com.dua3.meja.model;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link SheetAppender} implementation that uses the {@link Row} and {@link Cell} API of the sheet.
+ * <p>
+ * This is the default for sheet implementations that do not provide a specialized appender.
+ *
+ * @param <S> the concrete type of Sheet
+ */
+final class CellSheetAppender<S extends AbstractSheet<S, ?, ?>> extends AbstractSheetAppender<S> {
+
+    CellSheetAppender(S sheet) {
+        super(sheet);
+    }
+
+    @Override
+    protected void append(@Nullable Object[] values, int length) {
+        Row row = sheet.getRow(sheet.getRowCount());
+        for (int j = 0; j < length; j++) {
+            Object value = values[j];
+            if (value != null) {
+                row.getCell(j).set(value);
+            }
+        }
+    }
+
+    @Override
+    protected void append(double[] values, int length) {
+        Row row = sheet.getRow(sheet.getRowCount());
+        for (int j = 0; j < length; j++) {
+            row.getCell(j).set(values[j]);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model;
+
+import com.dua3.utility.lang.LangUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps the cell styles of a source workbook to the styles of the same name in a target workbook.
+ * <p>
+ * Copy operations use a mapping to resolve the target style once per style instead of once per cell. Styles
+ * that have not been registered with {@link #put(String, CellStyle)} are looked up in the target workbook on
+ * first use.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public final class CellStyleMapping {
+
+    private final Workbook target;
+    private final Map<String, CellStyle> styles = new HashMap<>();
+
+    /**
+     * Create a new mapping.
+     *
+     * @param target the workbook the styles are mapped to
+     */
+    public CellStyleMapping(Workbook target) {
+        this.target = target;
+    }
+
+    /**
+     * Register the target style for a style name.
+     *
+     * @param name        the style name
+     * @param targetStyle the style in the target workbook
+     */
+    public void put(String name, CellStyle targetStyle) {
+        LangUtil.checkArg(targetStyle.getWorkbook() == target, "style is not from the target workbook: %s", name);
+        styles.put(name, targetStyle);
+    }
+
+    /**
+     * Get the target style for a source style.
+     *
+     * @param source the style in the source workbook
+     * @return the style with the same name in the target workbook
+     */
+    public CellStyle get(CellStyle source) {
+        return styles.computeIfAbsent(source.getName(), target::getCellStyle);
+    }
+}
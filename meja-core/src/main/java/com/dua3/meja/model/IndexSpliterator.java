@@ -0,0 +1,74 @@
+package com.dua3.meja.model;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Spliterator over the elements at the indexes of a range, i.e., the rows of a sheet or the cells of a row.
+ * <p>
+ * The range is fixed when the spliterator is created and split into halves, so that parallel streams can
+ * distribute the work evenly.
+ *
+ * @param <T> the element type
+ */
+final class IndexSpliterator<T> implements Spliterator<T> {
+
+    private final IntFunction<? extends T> getter;
+    private int index;
+    private final int fence;
+
+    /**
+     * Constructor.
+     *
+     * @param getter function returning the element at an index
+     * @param origin the first index (inclusive)
+     * @param fence  the last index (exclusive)
+     */
+    IndexSpliterator(IntFunction<? extends T> getter, int origin, int fence) {
+        this.getter = getter;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(getter.apply(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        int i = index;
+        index = fence;
+        for (; i < fence; i++) {
+            action.accept(getter.apply(i));
+        }
+    }
+
+    @Override
+    public @Nullable IndexSpliterator<T> trySplit() {
+        int lo = index;
+        int mid = (lo + fence) >>> 1;
+        if (lo >= mid) {
+            return null;
+        }
+        index = mid;
+        return new IndexSpliterator<>(getter, lo, mid);
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
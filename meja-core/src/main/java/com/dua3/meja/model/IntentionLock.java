@@ -0,0 +1,272 @@
+package com.dua3.meja.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A multiple granularity lock that guards a sheet as a whole while finer grained locks guard parts of it.
+ * <p>
+ * Threads that lock a part of the sheet first acquire this lock in one of the intention modes, threads that access
+ * the sheet as a whole acquire it in shared or exclusive mode:
+ * <table>
+ *     <caption>Compatibility of the lock modes</caption>
+ *     <tr><th></th><th>IS</th><th>IX</th><th>S</th><th>X</th></tr>
+ *     <tr><th>IS</th><td>yes</td><td>yes</td><td>yes</td><td>no</td></tr>
+ *     <tr><th>IX</th><td>yes</td><td>yes</td><td>no</td><td>no</td></tr>
+ *     <tr><th>S</th><td>yes</td><td>no</td><td>yes</td><td>no</td></tr>
+ *     <tr><th>X</th><td>no</td><td>no</td><td>no</td><td>no</td></tr>
+ * </table>
+ * A sheet-wide reader therefore excludes all writers by acquiring a single lock.
+ * <p>
+ * The lock state is a single word holding the number of threads holding each mode, which is updated by
+ * compare-and-set, so acquiring a compatible mode neither blocks on a mutex nor allocates. The reentrancy counts
+ * are kept per thread; only threads that have to wait use the internal mutex.
+ * <p>
+ * All modes are reentrant, and a thread is never blocked by locks it holds itself, so that, like with
+ * {@link java.util.concurrent.locks.ReentrantReadWriteLock}, the holder of the exclusive lock may acquire any other
+ * mode. Upgrading from shared mode to a conflicting mode blocks if another thread holds the lock in shared mode.
+ * Threads waiting for the exclusive lock take precedence over threads that do not hold the lock yet, so that
+ * writers are not starved by a continuous stream of readers.
+ */
+final class IntentionLock {
+
+    /**
+     * The lock modes.
+     */
+    enum Mode {
+        /**
+         * Intention shared: the holder reads a part of the sheet.
+         */
+        INTENTION_SHARED,
+        /**
+         * Intention exclusive: the holder modifies a part of the sheet.
+         */
+        INTENTION_EXCLUSIVE,
+        /**
+         * Shared: the holder reads the whole sheet.
+         */
+        SHARED,
+        /**
+         * Exclusive: the holder modifies the whole sheet.
+         */
+        EXCLUSIVE;
+
+        private static final Mode[] MODES = values();
+
+        boolean isCompatibleWith(Mode other) {
+            return switch (this) {
+                case INTENTION_SHARED -> other != EXCLUSIVE;
+                case INTENTION_EXCLUSIVE -> other == INTENTION_SHARED || other == INTENTION_EXCLUSIVE;
+                case SHARED -> other == INTENTION_SHARED || other == SHARED;
+                case EXCLUSIVE -> false;
+            };
+        }
+
+        private int shift() {
+            return ordinal() * BITS_PER_MODE;
+        }
+    }
+
+    private static final int BITS_PER_MODE = 16;
+    private static final long MAX_HOLDERS = (1L << BITS_PER_MODE) - 1;
+
+    // the number of threads holding each mode, BITS_PER_MODE bits per mode
+    private final AtomicLong state = new AtomicLong();
+    // the hold counts of the current thread by mode
+    private final ThreadLocal<int[]> holds = ThreadLocal.withInitial(() -> new int[Mode.MODES.length]);
+
+    // waiting threads hold the mutex while checking the state, and releasing threads take it to signal them
+    private final ReentrantLock mutex = new ReentrantLock();
+    private final Condition released = mutex.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger waitingExclusive = new AtomicInteger();
+
+    private final Lock[] locks = new Lock[Mode.MODES.length];
+
+    IntentionLock() {
+        for (Mode mode : Mode.MODES) {
+            locks[mode.ordinal()] = new ModeLock(mode);
+        }
+    }
+
+    /**
+     * Get the lock for a mode.
+     *
+     * @param mode the mode
+     * @return the lock
+     */
+    Lock lock(Mode mode) {
+        return locks[mode.ordinal()];
+    }
+
+    private static long holders(long s, Mode mode) {
+        return (s >>> mode.shift()) & MAX_HOLDERS;
+    }
+
+    /**
+     * Try to acquire a mode the current thread does not hold yet without waiting.
+     *
+     * @param mode the mode
+     * @param own  the hold counts of the current thread
+     * @return true, if the mode was acquired
+     */
+    private boolean tryAcquire(Mode mode, int[] own) {
+        boolean holdsAny = false;
+        for (int count : own) {
+            holdsAny |= count != 0;
+        }
+        if (!holdsAny && mode != Mode.EXCLUSIVE && waitingExclusive.get() > 0) {
+            return false;
+        }
+
+        while (true) {
+            long s = state.get();
+            for (Mode other : Mode.MODES) {
+                long count = holders(s, other) - (own[other.ordinal()] == 0 ? 0 : 1);
+                if (count > 0 && !mode.isCompatibleWith(other)) {
+                    return false;
+                }
+            }
+            if (holders(s, mode) == MAX_HOLDERS) {
+                throw new Error("maximum lock count exceeded");
+            }
+            if (state.compareAndSet(s, s + (1L << mode.shift()))) {
+                own[mode.ordinal()] = 1;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Acquire the lock in the given mode.
+     *
+     * @param mode          the mode
+     * @param interruptible whether waiting can be interrupted
+     * @param timed         whether to give up after {@code nanos} nanoseconds
+     * @param nanos         the maximum time to wait if {@code timed} is set
+     * @return true, if the lock was acquired
+     * @throws InterruptedException if {@code interruptible} is set and the thread is interrupted while waiting
+     */
+    private boolean acquire(Mode mode, boolean interruptible, boolean timed, long nanos) throws InterruptedException {
+        int[] own = holds.get();
+        if (own[mode.ordinal()] > 0) {
+            own[mode.ordinal()]++;
+            return true;
+        }
+        if (tryAcquire(mode, own)) {
+            return true;
+        }
+        if (timed && nanos <= 0) {
+            return false;
+        }
+
+        if (interruptible) {
+            mutex.lockInterruptibly();
+        } else {
+            mutex.lock();
+        }
+        boolean exclusive = mode == Mode.EXCLUSIVE;
+        waiting.incrementAndGet();
+        if (exclusive) {
+            waitingExclusive.incrementAndGet();
+        }
+        try {
+            // a thread releasing the lock after this thread has registered as waiting signals the condition
+            while (!tryAcquire(mode, own)) {
+                if (timed) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = released.awaitNanos(nanos);
+                } else if (interruptible) {
+                    released.await();
+                } else {
+                    released.awaitUninterruptibly();
+                }
+            }
+            return true;
+        } finally {
+            waiting.decrementAndGet();
+            if (exclusive && waitingExclusive.decrementAndGet() == 0) {
+                // threads held back in favor of this one may proceed now
+                released.signalAll();
+            }
+            mutex.unlock();
+        }
+    }
+
+    private void release(Mode mode) {
+        int[] own = holds.get();
+        if (own[mode.ordinal()] == 0) {
+            throw new IllegalMonitorStateException("lock not held by current thread: " + mode);
+        }
+        if (--own[mode.ordinal()] > 0) {
+            return;
+        }
+
+        state.addAndGet(-(1L << mode.shift()));
+        if (waiting.get() > 0) {
+            mutex.lock();
+            try {
+                released.signalAll();
+            } finally {
+                mutex.unlock();
+            }
+        }
+    }
+
+    /**
+     * The {@link Lock} view of a mode.
+     */
+    private final class ModeLock implements Lock {
+        private final Mode mode;
+
+        ModeLock(Mode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public void lock() {
+            try {
+                acquire(mode, false, false, 0);
+            } catch (InterruptedException e) {
+                // not thrown when acquiring uninterruptibly
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            acquire(mode, true, false, 0);
+        }
+
+        @Override
+        public boolean tryLock() {
+            try {
+                return acquire(mode, false, true, 0);
+            } catch (InterruptedException e) {
+                // not thrown when acquiring uninterruptibly
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            return acquire(mode, true, true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            release(mode);
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("conditions are not supported");
+        }
+    }
+}
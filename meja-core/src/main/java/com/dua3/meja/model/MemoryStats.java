@@ -0,0 +1,244 @@
+package com.dua3.meja.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Estimated memory footprint of a workbook or sheet.
+ * <p>
+ * The numbers are computed from shallow-size models of the objects used by the backend (64-bit JVM with compressed
+ * object pointers) and are meant to compare workbooks, sheets, and storage options, not to replace a heap dump.
+ * Values that are shared between cells because they were interned are counted once per referencing cell; values
+ * that the backend stores only once, like the texts in the shared string table of an Excel file, are counted once.
+ *
+ * @param rows              the number of rows
+ * @param cells             the number of cells
+ * @param rowBytes          the estimated number of bytes retained by the row objects
+ * @param cellBytes         the estimated number of bytes retained by the cell objects, excluding their values
+ * @param valueBytes        the estimated number of bytes retained by the cell values, by cell type
+ * @param styleBytes        the estimated number of bytes retained by cell styles and fonts
+ * @param mergedRegionBytes the estimated number of bytes retained by the merged regions
+ * @param cacheBytes        the estimated number of bytes retained by caches, e.g., the search index or the
+ *                          value interner
+ * @param backendBytes      the estimated number of bytes retained by the backend that are not covered by the other
+ *                          components, e.g., the internal data structures of Apache POI
+ * @param otherBytes        the estimated number of bytes retained by the workbook and sheet objects themselves,
+ *                          including locks and layout information
+ */
+public record MemoryStats(
+        long rows,
+        long cells,
+        long rowBytes,
+        long cellBytes,
+        Map<CellType, Long> valueBytes,
+        long styleBytes,
+        long mergedRegionBytes,
+        long cacheBytes,
+        long backendBytes,
+        long otherBytes
+) {
+
+    /**
+     * Statistics for an empty object.
+     */
+    public static final MemoryStats EMPTY = builder().build();
+
+    /**
+     * Constructor.
+     */
+    public MemoryStats {
+        EnumMap<CellType, Long> values = new EnumMap<>(CellType.class);
+        values.putAll(valueBytes);
+        valueBytes = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Get the estimated number of bytes retained by values of a cell type.
+     *
+     * @param type the cell type
+     * @return the estimated number of bytes
+     */
+    public long valueBytes(CellType type) {
+        return valueBytes.getOrDefault(type, 0L);
+    }
+
+    /**
+     * Get the estimated number of bytes retained by all cell values.
+     *
+     * @return the estimated number of bytes
+     */
+    public long totalValueBytes() {
+        return valueBytes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Get the estimated total number of bytes.
+     *
+     * @return the sum of all components
+     */
+    public long totalBytes() {
+        return rowBytes + cellBytes + totalValueBytes() + styleBytes + mergedRegionBytes + cacheBytes
+                + backendBytes + otherBytes;
+    }
+
+    /**
+     * Add two statistics.
+     *
+     * @param other the statistics to add
+     * @return new instance holding the sum of this instance and {@code other}
+     */
+    public MemoryStats plus(MemoryStats other) {
+        return builder().add(this).add(other).build();
+    }
+
+    /**
+     * Create a new builder.
+     *
+     * @return new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link MemoryStats}, used by the backends to accumulate their estimates.
+     */
+    public static final class Builder {
+        private long rows;
+        private long cells;
+        private long rowBytes;
+        private long cellBytes;
+        private final EnumMap<CellType, Long> valueBytes = new EnumMap<>(CellType.class);
+        private long styleBytes;
+        private long mergedRegionBytes;
+        private long cacheBytes;
+        private long backendBytes;
+        private long otherBytes;
+
+        private Builder() {}
+
+        /**
+         * Add rows.
+         *
+         * @param count the number of rows
+         * @param bytes the estimated number of bytes retained by the rows
+         * @return this builder
+         */
+        public Builder addRows(long count, long bytes) {
+            rows += count;
+            rowBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add cells.
+         *
+         * @param count the number of cells
+         * @param bytes the estimated number of bytes retained by the cells, excluding their values
+         * @return this builder
+         */
+        public Builder addCells(long count, long bytes) {
+            cells += count;
+            cellBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add the estimated size of cell values.
+         *
+         * @param type  the cell type
+         * @param bytes the estimated number of bytes retained by the values
+         * @return this builder
+         */
+        public Builder addValues(CellType type, long bytes) {
+            if (bytes != 0) {
+                valueBytes.merge(type, bytes, Long::sum);
+            }
+            return this;
+        }
+
+        /**
+         * Add the estimated size of cell styles and fonts.
+         *
+         * @param bytes the estimated number of bytes
+         * @return this builder
+         */
+        public Builder addStyles(long bytes) {
+            styleBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add the estimated size of merged regions.
+         *
+         * @param bytes the estimated number of bytes
+         * @return this builder
+         */
+        public Builder addMergedRegions(long bytes) {
+            mergedRegionBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add the estimated size of caches.
+         *
+         * @param bytes the estimated number of bytes
+         * @return this builder
+         */
+        public Builder addCaches(long bytes) {
+            cacheBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add the estimated size of backend internals.
+         *
+         * @param bytes the estimated number of bytes
+         * @return this builder
+         */
+        public Builder addBackend(long bytes) {
+            backendBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add the estimated size of other objects.
+         *
+         * @param bytes the estimated number of bytes
+         * @return this builder
+         */
+        public Builder addOther(long bytes) {
+            otherBytes += bytes;
+            return this;
+        }
+
+        /**
+         * Add all components of existing statistics.
+         *
+         * @param stats the statistics to add
+         * @return this builder
+         */
+        public Builder add(MemoryStats stats) {
+            addRows(stats.rows(), stats.rowBytes());
+            addCells(stats.cells(), stats.cellBytes());
+            stats.valueBytes().forEach(this::addValues);
+            addStyles(stats.styleBytes());
+            addMergedRegions(stats.mergedRegionBytes());
+            addCaches(stats.cacheBytes());
+            addBackend(stats.backendBytes());
+            addOther(stats.otherBytes());
+            return this;
+        }
+
+        /**
+         * Create the statistics.
+         *
+         * @return new {@link MemoryStats} instance
+         */
+        public MemoryStats build() {
+            return new MemoryStats(rows, cells, rowBytes, cellBytes, valueBytes, styleBytes, mergedRegionBytes,
+                    cacheBytes, backendBytes, otherBytes);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.dua3.meja.model;
+
+import com.dua3.meja.util.RectangularRegion;
+import org.jspecify.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Spatial index for the merged regions of a sheet.
+ * <p>
+ * Merged regions never overlap, so the regions covering a single row form a set of disjoint column intervals.
+ * For every row covered by at least one region, the index keeps these intervals in a sorted map keyed by the
+ * first column, which allows point lookups and overlap checks in O(log n) per row.
+ * <p>
+ * This class is not thread-safe; access is guarded by the sheet's lock.
+ */
+final class MergedRegionIndex {
+
+    // estimated sizes: region record with set entry and snapshot slot, per covered row a map entry with boxed key
+    // and tree map, per region and covered row a tree map entry with boxed key
+    private static final long REGION_BYTES = 80L;
+    private static final long ROW_BYTES = 104L;
+    private static final long ROW_ENTRY_BYTES = 56L;
+
+    private final Set<RectangularRegion> regions = new LinkedHashSet<>();
+    private final Map<Integer, NavigableMap<Integer, RectangularRegion>> rows = new HashMap<>();
+    // built on demand so that adding or removing n regions does not copy the list n times; concurrent readers
+    // may both build it, which is harmless because the list is immutable
+    private @Nullable List<RectangularRegion> snapshot = List.of();
+
+    /**
+     * Get the merged regions in the order they were added.
+     *
+     * @return unmodifiable list of the merged regions
+     */
+    List<RectangularRegion> asList() {
+        List<RectangularRegion> list = snapshot;
+        if (list == null) {
+            list = List.copyOf(regions);
+            snapshot = list;
+        }
+        return list;
+    }
+
+    /**
+     * Test if the index is empty.
+     *
+     * @return true, if no merged regions are present
+     */
+    boolean isEmpty() {
+        return regions.isEmpty();
+    }
+
+    /**
+     * Find the merged region containing a cell.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return the region containing the cell or an empty Optional
+     */
+    Optional<RectangularRegion> find(int i, int j) {
+        NavigableMap<Integer, RectangularRegion> row = rows.get(i);
+        if (row == null) {
+            return Optional.empty();
+        }
+        Map.Entry<Integer, RectangularRegion> entry = row.floorEntry(j);
+        return entry != null && entry.getValue().lastColumn() >= j ? Optional.of(entry.getValue()) : Optional.empty();
+    }
+
+    /**
+     * Test if a region overlaps with any of the indexed regions.
+     *
+     * @param region the region to test
+     * @return true, if the region overlaps with an indexed region
+     */
+    boolean intersects(RectangularRegion region) {
+        for (int i = region.firstRow(); i <= region.lastRow(); i++) {
+            NavigableMap<Integer, RectangularRegion> row = rows.get(i);
+            if (row == null) {
+                continue;
+            }
+            // the intervals in a row are disjoint, so only the last one starting at or before
+            // the last column of the region can overlap
+            Map.Entry<Integer, RectangularRegion> entry = row.floorEntry(region.lastColumn());
+            if (entry != null && entry.getValue().lastColumn() >= region.firstColumn()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a region. The caller must make sure that the region does not overlap with any indexed region.
+     *
+     * @param region the region to add
+     */
+    void add(RectangularRegion region) {
+        assert !intersects(region) : "overlapping merged region: " + region;
+
+        regions.add(region);
+        for (int i = region.firstRow(); i <= region.lastRow(); i++) {
+            rows.computeIfAbsent(i, k -> new TreeMap<>()).put(region.firstColumn(), region);
+        }
+        snapshot = null;
+    }
+
+    /**
+     * Remove a region.
+     *
+     * @param region the region to remove
+     * @return true, if the region was removed
+     */
+    boolean remove(RectangularRegion region) {
+        if (!regions.remove(region)) {
+            return false;
+        }
+
+        for (int i = region.firstRow(); i <= region.lastRow(); i++) {
+            NavigableMap<Integer, RectangularRegion> row = rows.get(i);
+            if (row != null) {
+                row.remove(region.firstColumn());
+                if (row.isEmpty()) {
+                    rows.remove(i);
+                }
+            }
+        }
+        snapshot = null;
+        return true;
+    }
+
+    /**
+     * Estimate the number of bytes retained by the index.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimatedBytes() {
+        long bytes = regions.size() * REGION_BYTES + rows.size() * ROW_BYTES;
+        for (NavigableMap<Integer, RectangularRegion> row : rows.values()) {
+            bytes += row.size() * ROW_ENTRY_BYTES;
+        }
+        return bytes;
+    }
+}
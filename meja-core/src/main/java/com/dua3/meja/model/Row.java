@@ -23,6 +23,7 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -40,6 +41,18 @@ public interface Row extends Iterable<Cell> {
      */
     void copy(Row other);
 
+    /**
+     * Copy row data, resolving cell styles through a mapping.
+     *
+     * @param other  row to copy data from
+     * @param styles the mapping from the styles of the source workbook to the styles of this row's workbook
+     */
+    default void copy(Row other, CellStyleMapping styles) {
+        for (Cell cell : other) {
+            getCell(cell.getColumnNumber()).copy(cell, styles);
+        }
+    }
+
     /**
      * Create new cell to the right of the existing cells.
      *
@@ -109,6 +122,8 @@ public interface Row extends Iterable<Cell> {
 
     /**
      * Create a stream of the cells in this row.
+     * <p>
+     * Missing cells are created. The stream is ordered, sequential, and sized.
      *
      * @return stream of cells
      */
@@ -116,6 +131,21 @@ public interface Row extends Iterable<Cell> {
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
     }
 
+    /**
+     * Create a stream of the cells that exist in this row.
+     * <p>
+     * In contrast to {@link #cells()}, missing cells are skipped instead of being created, so using this stream
+     * never modifies the row.
+     *
+     * @return stream of existing cells in ascending column order
+     * @see #getCellIfExists(int)
+     */
+    default Stream<Cell> existingCells() {
+        return IntStream.range(0, getColumnCount())
+                .mapToObj(this::getCellIfExists)
+                .flatMap(Optional::stream);
+    }
+
     /**
      * Create cell iterator.
      * <p>
@@ -0,0 +1,206 @@
+package com.dua3.meja.model;
+
+import com.dua3.utility.text.RichText;
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * A reusable handle that walks the cells of a row without creating {@link Cell} instances.
+ * <p>
+ * The cursor is positioned before the first cell when a row is entered. Use {@link #nextCell()} or
+ * {@link #moveToColumn(int)} to position it on a cell before calling any of the accessor methods.
+ * <p>
+ * Cursors are not thread-safe. Reading through a cursor does not create rows or cells, and the values
+ * returned by the accessors are the same as those returned by the corresponding methods of {@link Cell}.
+ * When the underlying sheet is modified structurally while the cursor is in use, the result is undefined.
+ */
+public interface RowCursor {
+
+    /**
+     * Get the row number of the current row.
+     *
+     * @return the row number (0-based)
+     */
+    int getRowNumber();
+
+    /**
+     * Get the number of columns of the current row, i.e., the column number of the last cell plus one.
+     *
+     * @return the number of columns in the current row, 0 if the row does not exist
+     */
+    int getColumnCount();
+
+    /**
+     * Get the column number of the current cell.
+     *
+     * @return the column number (0-based), -1 if the cursor is positioned before the first cell
+     */
+    int getColumnNumber();
+
+    /**
+     * Move to the next cell of the current row.
+     *
+     * @return true, if the cursor is positioned on a cell, false if there are no more cells in this row
+     */
+    boolean nextCell();
+
+    /**
+     * Move to the cell at the given column of the current row.
+     *
+     * @param j the column number (0-based)
+     * @return true, if the cursor is positioned on a cell, false if {@code j} is outside the current row
+     */
+    boolean moveToColumn(int j);
+
+    /**
+     * Get the cell type.
+     *
+     * @return cell type
+     * @see Cell#getCellType()
+     */
+    CellType getCellType();
+
+    /**
+     * Get the result type; for formulas, this is the type of the formula result.
+     *
+     * @return result type
+     * @see Cell#getResultType()
+     */
+    CellType getResultType();
+
+    /**
+     * Test for empty cell.
+     *
+     * @return true if the current cell is empty
+     * @see Cell#isEmpty()
+     */
+    boolean isEmpty();
+
+    /**
+     * Get the numeric value as a primitive {@code double}.
+     *
+     * @return the numeric value
+     * @throws IllegalStateException if the cell does not contain a number
+     * @see Cell#getNumber()
+     */
+    double getDouble();
+
+    /**
+     * Get the boolean value.
+     *
+     * @return the boolean value
+     * @throws IllegalStateException if the cell does not contain a boolean value
+     * @see Cell#getBoolean()
+     */
+    boolean getBoolean();
+
+    /**
+     * Get the text value.
+     *
+     * @return the text value
+     * @throws IllegalStateException if the cell does not contain text
+     * @see Cell#getText()
+     */
+    RichText getText();
+
+    /**
+     * Get the date value.
+     *
+     * @return the date value
+     * @throws IllegalStateException if the cell does not contain a date
+     * @see Cell#getDate()
+     */
+    LocalDate getDate();
+
+    /**
+     * Get the date-time value.
+     *
+     * @return the date-time value
+     * @throws IllegalStateException if the cell does not contain a date-time value
+     * @see Cell#getDateTime()
+     */
+    LocalDateTime getDateTime();
+
+    /**
+     * Get the formula text.
+     *
+     * @return the formula text
+     * @throws IllegalStateException if the cell does not contain a formula
+     * @see Cell#getFormula()
+     */
+    String getFormula();
+
+    /**
+     * Return the cell value or a default value if the cell is empty.
+     *
+     * @param defaultValue the default value
+     * @return the cell value or {@code defaultValue} if the cell is empty
+     * @see Cell#getOrDefault(Object)
+     */
+    @Nullable Object getOrDefault(@Nullable Object defaultValue);
+
+    /**
+     * Get the formatted cell value as text.
+     *
+     * @param locale the locale to use for formatting
+     * @return the formatted text
+     * @see Cell#getAsText(Locale)
+     */
+    RichText getAsText(Locale locale);
+
+    /**
+     * Get the formatted cell value as a string.
+     *
+     * @param locale the locale to use for formatting
+     * @return the formatted string
+     * @see Cell#toString(Locale)
+     */
+    String toString(Locale locale);
+
+    /**
+     * Get the cell style.
+     *
+     * @return the cell style
+     * @see Cell#getCellStyle()
+     */
+    CellStyle getCellStyle();
+
+    /**
+     * Get the hyperlink of the current cell.
+     *
+     * @return an Optional holding the hyperlink or an empty Optional if no hyperlink is set
+     * @see Cell#getHyperlink()
+     */
+    Optional<URI> getHyperlink();
+
+    /**
+     * Get the horizontal span.
+     *
+     * @return the horizontal span, 0 for cells that are merged into another cell
+     * @see Cell#getHorizontalSpan()
+     */
+    int getHorizontalSpan();
+
+    /**
+     * Get the vertical span.
+     *
+     * @return the vertical span, 0 for cells that are merged into another cell
+     * @see Cell#getVerticalSpan()
+     */
+    int getVerticalSpan();
+
+    /**
+     * Get the {@link Cell} instance for the current position.
+     * <p>
+     * Use this method when an operation is needed that is not available through the cursor. Depending on the
+     * implementation, this creates a new cell instance.
+     *
+     * @return the current cell
+     */
+    Cell getCell();
+}
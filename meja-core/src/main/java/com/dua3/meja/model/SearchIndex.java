@@ -0,0 +1,481 @@
+package com.dua3.meja.model;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * An inverted index over the text of the cells of a sheet, used to answer {@link Sheet#find(String, SearchSettings)}
+ * without visiting every cell.
+ * <p>
+ * For each cell, the index stores the text that {@code find()} compares against: the formula for formula cells and
+ * the formatted value for all other cells. Cells are identified by their position. The index consists of
+ * <ul>
+ *     <li>a map from the complete (case folded) text to the cells, used for complete matches,</li>
+ *     <li>a map from the {@value #GRAM_LENGTH}-grams of the (case folded) text to the cells, used for substring
+ *     searches,</li>
+ *     <li>the set of formula cells, whose formatted value depends on other cells and is therefore read from the
+ *     sheet when searching.</li>
+ * </ul>
+ * The cells obtained from the index are candidates that are checked using the same rules as the linear scan, so
+ * the results do not differ. Queries the index cannot answer (empty queries, substring queries shorter than
+ * {@value #GRAM_LENGTH} characters, and queries containing characters whose lower case form depends on the
+ * context) are rejected by {@link #isUsable(String, SearchSettings)}; the caller then falls back to the linear
+ * scan.
+ * <p>
+ * The index is built on first use. Changes are recorded by row and the affected rows are re-indexed before the
+ * next search; when too many rows have changed, the index is discarded and rebuilt instead. If the estimated size
+ * of the index exceeds its budget, the index is discarded and not rebuilt until the sheet is cleared.
+ * <p>
+ * All methods are synchronized.
+ */
+final class SearchIndex {
+
+    private static final Logger LOG = LogManager.getLogger(SearchIndex.class);
+
+    /**
+     * The length of the n-grams used for substring searches.
+     */
+    static final int GRAM_LENGTH = 3;
+
+    /**
+     * The number of changed rows that are always re-indexed incrementally; above that, the index is rebuilt if more
+     * than an eighth of the indexed cells' rows have changed.
+     */
+    private static final int MIN_DIRTY_ROWS = 4096;
+
+    // estimated object sizes
+    private static final long ENTRY_BYTES = 72L;
+    private static final long POSTINGS_BYTES = 88L;
+    private static final long[] NO_KEYS = {};
+
+    private final Sheet sheet;
+    private final long maxBytes;
+
+    private final TreeMap<Long, Entry> entries = new TreeMap<>();
+    private final Map<String, Postings> values = new HashMap<>();
+    private final Map<Long, Postings> grams = new HashMap<>();
+    private final Postings formulas = new Postings();
+    private final BitSet dirtyRows = new BitSet();
+    private int dirtyRowCount;
+
+    private boolean built;
+    private boolean overBudget;
+    private long postingCount;
+    private long retainedBytes;
+
+    /**
+     * The indexed text of a cell.
+     *
+     * @param text    the formula for formula cells, the formatted value for other cells
+     * @param formula {@code true} for formula cells
+     */
+    private record Entry(String text, boolean formula) {}
+
+    /**
+     * Constructor.
+     *
+     * @param sheet    the sheet to index
+     * @param maxBytes the memory budget in bytes
+     */
+    SearchIndex(Sheet sheet, long maxBytes) {
+        this.sheet = sheet;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the statistics of this index.
+     *
+     * @return the statistics
+     */
+    synchronized SearchIndexStats stats() {
+        return new SearchIndexStats(built, overBudget, entries.size(), grams.size(), postingCount, retainedBytes, maxBytes);
+    }
+
+    /**
+     * Record that rows have changed.
+     *
+     * @param first the first changed row (inclusive)
+     * @param last  the last changed row (exclusive)
+     */
+    synchronized void rowsChanged(int first, int last) {
+        if (!built) {
+            return;
+        }
+
+        int limit = Math.max(MIN_DIRTY_ROWS, entries.size() / 8);
+        for (int i = Math.max(0, first); i < last; i++) {
+            if (!dirtyRows.get(i)) {
+                dirtyRows.set(i);
+                if (++dirtyRowCount > limit) {
+                    LOG.debug("too many changed rows, discarding search index");
+                    reset();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Discard the index, e.g., after the sheet has been cleared. The index is rebuilt on next use.
+     */
+    synchronized void invalidate() {
+        reset();
+        overBudget = false;
+    }
+
+    /**
+     * Check whether a search can be answered from the index, building or updating the index if necessary.
+     * <p>
+     * The caller must hold the sheet's read lock and call {@link #find(String, SearchSettings)} without releasing it.
+     *
+     * @param text the text to search for
+     * @param ss   the {@link SearchSettings} to use
+     * @return true, if {@link #find(String, SearchSettings)} can be used
+     */
+    synchronized boolean isUsable(String text, SearchSettings ss) {
+        if (overBudget
+                || text.length() < (ss.matchComplete() ? 1 : GRAM_LENGTH)
+                || text.indexOf('\u0130') >= 0 // capital I with dot above, lower case form has two characters
+                || text.indexOf('\u0307') >= 0) { // combining dot above
+            return false;
+        }
+
+        if (!built) {
+            build();
+        } else if (dirtyRowCount > 0) {
+            update();
+        }
+        return built;
+    }
+
+    /**
+     * Find a cell using the index.
+     *
+     * @param text the text to search for
+     * @param ss   the {@link SearchSettings} to use
+     * @return {@code Optional} holding the cell found or empty
+     * @throws IllegalStateException if the index is not usable for the search
+     */
+    synchronized Optional<Cell> find(String text, SearchSettings ss) {
+        if (!built) {
+            throw new IllegalStateException("search index is not available");
+        }
+
+        String folded = fold(text);
+        long[] candidates = ss.matchComplete() ? keys(values.get(folded)) : gramCandidates(folded);
+        if (!ss.searchFormula()) {
+            // the formatted values of formula cells are not indexed
+            candidates = union(candidates, keys(formulas));
+        }
+        if (candidates.length == 0) {
+            return Optional.empty();
+        }
+
+        TextMatcher matcher = new TextMatcher(text, ss);
+
+        // visit the candidates in the same order as the linear scan, i.e., starting after the current cell
+        int start = 0;
+        if (ss.searchFromCurrent()) {
+            Cell current = sheet.getCurrentCell();
+            start = upperBound(candidates, key(current.getRowNumber(), current.getColumnNumber()));
+        }
+
+        SheetCursor cursor = sheet.cursor();
+        for (int k = 0; k < candidates.length; k++) {
+            long key = candidates[(start + k) % candidates.length];
+            int i = row(key);
+            int j = column(key);
+
+            Entry entry = entries.get(key);
+            assert entry != null;
+
+            boolean matches;
+            if (entry.formula() && !ss.searchFormula()) {
+                matches = cursor.moveToRow(i) && cursor.moveToColumn(j) && matcher.matches(cursor);
+            } else {
+                matches = matcher.matches(entry.text());
+            }
+
+            if (matches) {
+                Cell cell = sheet.getCell(i, j);
+                if (ss.updateCurrent()) {
+                    sheet.setCurrentCell(cell);
+                }
+                return Optional.of(cell);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private long[] gramCandidates(String folded) {
+        if (folded.length() < GRAM_LENGTH) {
+            throw new IllegalStateException("search text too short for the search index: " + folded.length());
+        }
+
+        // all grams of the text must be present; use the shortest posting list as candidates
+        @Nullable Postings best = null;
+        for (int k = 0; k + GRAM_LENGTH <= folded.length(); k++) {
+            Postings p = grams.get(gram(folded, k));
+            if (p == null) {
+                return NO_KEYS;
+            }
+            if (best == null || p.size < best.size) {
+                best = p;
+            }
+        }
+        return keys(best);
+    }
+
+    private void build() {
+        LOG.debug("building search index for sheet {}", sheet.getSheetName());
+
+        reset();
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            addRow(cursor);
+            if (retainedBytes > maxBytes) {
+                discardOverBudget();
+                return;
+            }
+        }
+        built = true;
+
+        LOG.debug("search index for sheet {} built: {}", sheet::getSheetName, this::stats);
+    }
+
+    private void update() {
+        LOG.trace("updating {} rows of the search index", dirtyRowCount);
+
+        SheetCursor cursor = sheet.cursor();
+        for (int i = dirtyRows.nextSetBit(0); i >= 0; i = dirtyRows.nextSetBit(i + 1)) {
+            removeRow(i);
+            if (cursor.moveToRow(i)) {
+                addRow(cursor);
+            }
+        }
+        dirtyRows.clear();
+        dirtyRowCount = 0;
+
+        if (retainedBytes > maxBytes) {
+            discardOverBudget();
+        }
+    }
+
+    private void discardOverBudget() {
+        LOG.warn("search index for sheet {} exceeds its budget of {} bytes and is disabled", sheet.getSheetName(), maxBytes);
+        reset();
+        overBudget = true;
+    }
+
+    private void reset() {
+        entries.clear();
+        values.clear();
+        grams.clear();
+        formulas.clear();
+        dirtyRows.clear();
+        dirtyRowCount = 0;
+        postingCount = 0;
+        retainedBytes = 0;
+        built = false;
+    }
+
+    private void addRow(SheetCursor cursor) {
+        int i = cursor.getRowNumber();
+        while (cursor.nextCell()) {
+            boolean formula = cursor.getCellType() == CellType.FORMULA;
+            String text = formula ? cursor.getFormula() : cursor.toString(Locale.ROOT);
+            if (!text.isEmpty()) {
+                add(key(i, cursor.getColumnNumber()), new Entry(text, formula));
+            }
+        }
+    }
+
+    private void removeRow(int i) {
+        List<Long> keys = new ArrayList<>(entries.subMap(key(i, 0), key(i + 1, 0)).keySet());
+        for (long key : keys) {
+            remove(key);
+        }
+    }
+
+    private void add(long key, Entry entry) {
+        entries.put(key, entry);
+        retainedBytes += ENTRY_BYTES + stringBytes(entry.text());
+
+        String folded = fold(entry.text());
+        values.computeIfAbsent(folded, s -> newPostings(stringBytes(s))).add(key);
+        for (int k = 0; k + GRAM_LENGTH <= folded.length(); k++) {
+            grams.computeIfAbsent(gram(folded, k), g -> newPostings(16L)).add(key);
+        }
+        if (entry.formula()) {
+            formulas.add(key);
+        }
+    }
+
+    private void remove(long key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        retainedBytes -= ENTRY_BYTES + stringBytes(entry.text());
+
+        String folded = fold(entry.text());
+        removePosting(values, folded, key, stringBytes(folded));
+        for (int k = 0; k + GRAM_LENGTH <= folded.length(); k++) {
+            removePosting(grams, gram(folded, k), key, 16L);
+        }
+        if (entry.formula()) {
+            formulas.remove(key);
+        }
+    }
+
+    private Postings newPostings(long keyBytes) {
+        retainedBytes += POSTINGS_BYTES + keyBytes;
+        return new Postings();
+    }
+
+    private <K> void removePosting(Map<K, Postings> map, K k, long key, long keyBytes) {
+        Postings p = map.get(k);
+        if (p != null && p.remove(key) && p.size == 0) {
+            map.remove(k);
+            retainedBytes -= POSTINGS_BYTES + keyBytes + 8L * p.keys.length;
+        }
+    }
+
+    /**
+     * Fold the case of a text. Characters are mapped one by one, so that the result has the same length as the
+     * text, and a text that contains another text, be it with or without regard to case, contains it also after
+     * folding.
+     */
+    private static String fold(String s) {
+        char[] chars = s.toCharArray();
+        for (int k = 0; k < chars.length; k++) {
+            chars[k] = Character.toLowerCase(Character.toUpperCase(chars[k]));
+        }
+        return new String(chars);
+    }
+
+    private static long gram(String s, int k) {
+        return (long) s.charAt(k) << 32 | (long) s.charAt(k + 1) << 16 | s.charAt(k + 2);
+    }
+
+    private static long stringBytes(String s) {
+        return 40L + 2L * s.length();
+    }
+
+    private static long key(int i, int j) {
+        return (long) i << 32 | j;
+    }
+
+    private static int row(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int column(long key) {
+        return (int) key;
+    }
+
+    private static long[] keys(@Nullable Postings p) {
+        return p == null ? NO_KEYS : Arrays.copyOf(p.keys, p.size);
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+
+        long[] result = new long[a.length + b.length];
+        int ia = 0;
+        int ib = 0;
+        int n = 0;
+        while (ia < a.length && ib < b.length) {
+            long ka = a[ia];
+            long kb = b[ib];
+            result[n++] = Math.min(ka, kb);
+            if (ka <= kb) {
+                ia++;
+            }
+            if (kb <= ka) {
+                ib++;
+            }
+        }
+        while (ia < a.length) {
+            result[n++] = a[ia++];
+        }
+        while (ib < b.length) {
+            result[n++] = b[ib++];
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Get the index of the first element greater than {@code key}, or 0 if there is none.
+     */
+    private static int upperBound(long[] keys, long key) {
+        int pos = Arrays.binarySearch(keys, key);
+        pos = pos >= 0 ? pos + 1 : -pos - 1;
+        return pos < keys.length ? pos : 0;
+    }
+
+    /**
+     * A sorted list of cell keys. The memory used by the key array is accounted in {@link #retainedBytes}.
+     */
+    private final class Postings {
+        private long[] keys = NO_KEYS;
+        private int size;
+
+        boolean add(long key) {
+            int pos;
+            if (size == 0 || key > keys[size - 1]) {
+                pos = size;
+            } else {
+                pos = Arrays.binarySearch(keys, 0, size, key);
+                if (pos >= 0) {
+                    return false;
+                }
+                pos = -pos - 1;
+            }
+
+            if (size == keys.length) {
+                int capacity = Math.max(4, keys.length * 2);
+                retainedBytes += 8L * (capacity - keys.length);
+                keys = Arrays.copyOf(keys, capacity);
+            }
+            System.arraycopy(keys, pos, keys, pos + 1, size - pos);
+            keys[pos] = key;
+            size++;
+            postingCount++;
+            return true;
+        }
+
+        boolean remove(long key) {
+            int pos = Arrays.binarySearch(keys, 0, size, key);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+            size--;
+            postingCount--;
+            return true;
+        }
+
+        void clear() {
+            keys = NO_KEYS;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.dua3.meja.model;
+
+/**
+ * Statistics of the search index of a sheet.
+ *
+ * @param built         {@code true} if the index has been built and is used by {@link Sheet#find(String, SearchSettings)}
+ * @param overBudget    {@code true} if the index was discarded because it exceeded its memory budget
+ * @param indexedCells  the number of indexed cells
+ * @param grams         the number of distinct n-grams
+ * @param postings      the total number of entries in the posting lists
+ * @param retainedBytes the estimated number of bytes retained by the index
+ * @param maxBytes      the memory budget of the index in bytes
+ */
+public record SearchIndexStats(
+        boolean built,
+        boolean overBudget,
+        int indexedCells,
+        int grams,
+        long postings,
+        long retainedBytes,
+        long maxBytes
+) {}
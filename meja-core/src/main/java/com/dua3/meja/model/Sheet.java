@@ -15,6 +15,7 @@
  */
 package com.dua3.meja.model;
 
+import com.dua3.meja.util.CellPosition;
 import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.concurrent.AutoLock;
 import org.jspecify.annotations.Nullable;
@@ -28,6 +29,8 @@ import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -159,6 +162,37 @@ public interface Sheet extends Iterable<Row> {
         return getRowIfExists(rowIndex).flatMap(row -> row.getCellIfExists(colIndex));
     }
 
+    /**
+     * Returns the type of the cell at the specified position without creating rows or cells.
+     * <p>
+     * Unlike {@code getCell(rowIndex, colIndex).getCellType()}, this method never modifies the sheet. Positions
+     * outside the sheet and cells that do not exist are reported as {@link CellType#BLANK}.
+     *
+     * @param rowIndex the row index (0-based)
+     * @param colIndex the column index (0-based)
+     * @return the cell type
+     * @see Cell#getCellType()
+     */
+    default CellType peekCellType(int rowIndex, int colIndex) {
+        return getCellIfExists(rowIndex, colIndex).map(Cell::getCellType).orElse(CellType.BLANK);
+    }
+
+    /**
+     * Returns the value of the cell at the specified position without creating rows or cells.
+     * <p>
+     * Unlike {@code getCell(rowIndex, colIndex).getOrDefault(null)}, this method never modifies the sheet.
+     * Positions outside the sheet and cells that do not exist are reported as {@code null}. For cells that are
+     * part of a merged region, the value of the cell itself is returned, not that of the top left cell.
+     *
+     * @param rowIndex the row index (0-based)
+     * @param colIndex the column index (0-based)
+     * @return the cell value or {@code null} if the cell is empty or does not exist
+     * @see Cell#getOrDefault(Object)
+     */
+    default @Nullable Object peekValue(int rowIndex, int colIndex) {
+        return getCellIfExists(rowIndex, colIndex).map(cell -> cell.getOrDefault(null)).orElse(null);
+    }
+
     /**
      * Returns the total number of columns in this sheet. This count includes all columns
      * between 0 and the last used column, inclusive, regardless of whether individual
@@ -458,12 +492,44 @@ public interface Sheet extends Iterable<Row> {
         };
     }
 
+    /**
+     * Create a new {@link SheetCursor} for this sheet.
+     * <p>
+     * The cursor walks all rows from 0 to {@link #getRowCount()}, exclusive, without creating row or cell
+     * instances. It is positioned before the first row.
+     *
+     * @return a new cursor
+     */
+    SheetCursor cursor();
+
+    /**
+     * Create a new {@link SheetAppender} for this sheet.
+     * <p>
+     * The appender appends rows at the bottom of the sheet and publishes summarizing events when it is closed.
+     *
+     * @return a new appender
+     * @see SheetAppender
+     */
+    SheetAppender appender();
+
     /**
      * Copy sheet data from another sheet.
      *
      * @param other sheet to copy data from
      */
     default void copy(Sheet other) {
+        copy(other, new CellStyleMapping(getWorkbook()));
+    }
+
+    /**
+     * Copy sheet data from another sheet, resolving cell styles through a mapping.
+     * <p>
+     * Use this method to share a single mapping when copying several sheets of the same workbook.
+     *
+     * @param other  sheet to copy data from
+     * @param styles the mapping from the styles of the source workbook to the styles of this sheet's workbook
+     */
+    default void copy(Sheet other, CellStyleMapping styles) {
         // get split and autofilter position
         int splitRow = other.getSplitRow();
         int splitColumn = other.getSplitColumn();
@@ -477,7 +543,7 @@ public interface Sheet extends Iterable<Row> {
         // copy row data
         for (Row row : other) {
             final int i = row.getRowNumber();
-            getRow(i).copy(row);
+            getRow(i).copy(row, styles);
             setRowHeight(i, other.getRowHeight(i));
 
             // apply split and autofilter after row is written (POI restriction)
@@ -495,6 +561,23 @@ public interface Sheet extends Iterable<Row> {
         }
     }
 
+    /**
+     * Create a snapshot of this sheet.
+     * <p>
+     * The snapshot is the corresponding sheet of a {@link Workbook#snapshot() snapshot} of this sheet's workbook,
+     * so that formulas referring to other sheets can still be evaluated. Note that this copies all sheets of the
+     * workbook; unless the implementation shares unchanged data between a workbook and its snapshots, the cost is
+     * that of a deep copy of the whole workbook. To snapshot several sheets, take a single workbook snapshot
+     * instead.
+     *
+     * @return a read-only snapshot of this sheet
+     * @throws UnsupportedOperationException if the implementation does not support snapshots of this sheet
+     */
+    default Sheet snapshot() {
+        Workbook workbook = getWorkbook();
+        return workbook.snapshot().getSheet(workbook.getSheetIndex(this));
+    }
+
     /**
      * Returns a sequential {@link Stream} of all rows in this sheet. This method provides
      * a stream-based alternative to the {@link #iterator()} method, enabling functional-style
@@ -502,7 +585,7 @@ public interface Sheet extends Iterable<Row> {
      *
      * <p>The stream traverses rows in ascending order from 0 to
      * {@link #getColumnCount()}, exclusive. Empty rows within this range are included in
-     * the stream. The stream is ordered and non-parallel.</p>
+     * the stream. The stream is ordered and non-parallel. Use {@link #parallelRows()} for parallel processing.</p>
      *
      * <p>Example usage:
      * {@code sheet.rows().filter(row -> !row.isEmpty()).forEach(row -> processRow(row));}</p>
@@ -514,6 +597,43 @@ public interface Sheet extends Iterable<Row> {
         return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED), false);
     }
 
+    /**
+     * Returns a parallel {@link Stream} of the rows that exist in this sheet.
+     * <p>
+     * The stream splits by row index ranges, so the work is distributed evenly between the worker threads. Like
+     * {@link #existingRows()}, missing rows are skipped instead of being created; the stream only reads from the
+     * sheet and never acquires the write lock. It is therefore safe to consume the stream while holding the
+     * sheet's {@link #readLock(String) read lock}, which keeps other threads from modifying the sheet:
+     * <pre>{@code
+     * try (var lock = sheet.readLock("sum")) {
+     *     double sum = sheet.parallelRows()
+     *             .mapToDouble(row -> sheet.peekValue(row.getRowNumber(), 3) instanceof Number n ? n.doubleValue() : 0.0)
+     *             .sum();
+     * }
+     * }</pre>
+     * Rows added after this method returns are not part of the stream. Cells must not be created while the
+     * stream is processed; use {@link Row#getCellIfExists(int)} or {@link #peekValue(int, int)} to read values.
+     *
+     * @return a parallel Stream of the existing rows
+     * @see #rows()
+     */
+    Stream<Row> parallelRows();
+
+    /**
+     * Returns a sequential {@link Stream} of the rows that exist in this sheet.
+     * <p>
+     * In contrast to {@link #rows()}, missing rows are skipped instead of being created, so using this stream
+     * never modifies the sheet. Use {@link Row#existingCells()} to iterate the existing cells of a row.
+     *
+     * @return a sequential Stream of the existing rows in ascending order
+     * @see #getRowIfExists(int)
+     */
+    default Stream<Row> existingRows() {
+        return IntStream.range(0, getRowCount())
+                .mapToObj(this::getRowIfExists)
+                .flatMap(Optional::stream);
+    }
+
     /**
      * Translate column number to column name.
      *
@@ -613,6 +733,10 @@ public interface Sheet extends Iterable<Row> {
      * <p><strong>Note:</strong> Write locks should be held for the shortest time possible
      * as they block all other threads from reading or writing.</p>
      *
+     * <p>The sheet-wide write lock must be used for structural operations like adding or removing merged
+     * regions, clearing the sheet, or changing the layout. Use {@link #writeLock(String, int, int)} to modify
+     * the content of a range of rows.</p>
+     *
      * @param name a descriptive name for the lock, used for debugging and monitoring.
      *            Should indicate the operation or component acquiring the lock.
      * @return an AutoLock that will automatically release the write lock when closed
@@ -622,8 +746,149 @@ public interface Sheet extends Iterable<Row> {
      */
     AutoLock writeLock(String name);
 
+    /**
+     * Acquires a read lock for a range of rows. The lock excludes writers of the same rows and the sheet-wide
+     * {@link #writeLock(String) write lock}.
+     *
+     * @param name     a descriptive name for the lock, used for debugging and monitoring
+     * @param firstRow the first row of the range (inclusive)
+     * @param lastRow  the last row of the range (inclusive)
+     * @return an AutoLock that will automatically release the lock when closed
+     * @throws IllegalArgumentException if the row range is invalid
+     * @see #writeLock(String, int, int)
+     */
+    AutoLock readLock(String name, int firstRow, int lastRow);
+
+    /**
+     * Acquires a write lock for a range of rows.
+     * <p>
+     * Rows are locked in blocks of 4096 rows. If supported by the implementation, threads holding write locks
+     * for disjoint row ranges can modify the sheet concurrently, i.e., to fill different parts of a large sheet
+     * in parallel:
+     * <pre>{@code
+     * try (var lock = sheet.writeLock("load", first, last)) {
+     *     for (int i = first; i <= last; i++) {
+     *         sheet.getRow(i).getCell(0).set(values[i]);
+     *     }
+     * }
+     * }</pre>
+     * The lock excludes the sheet-wide {@link #readLock(String) read} and {@link #writeLock(String) write} locks.
+     * Structural operations (merged regions, layout, clearing the sheet) still require the sheet-wide write lock.
+     * Implementations that do not support concurrent modification of rows, like the generic implementation with
+     * columnar storage and the POI based implementation, use the sheet-wide write lock instead.
+     *
+     * @param name     a descriptive name for the lock, used for debugging and monitoring
+     * @param firstRow the first row of the range (inclusive)
+     * @param lastRow  the last row of the range (inclusive)
+     * @return an AutoLock that will automatically release the lock when closed
+     * @throws IllegalArgumentException if the row range is invalid
+     * @see #readLock(String, int, int)
+     */
+    AutoLock writeLock(String name, int firstRow, int lastRow);
+
+    /**
+     * Start an optimistic read.
+     * <p>
+     * Optimistic reads do not block and are not blocked by writers. They are meant for readers that can
+     * discard or repeat their work, like painting code:
+     * <pre>{@code
+     * long stamp = sheet.tryOptimisticRead();
+     * // read from the sheet ...
+     * if (!sheet.validate(stamp)) {
+     *     // the sheet was modified concurrently; discard the data read and retry or take the read lock
+     * }
+     * }</pre>
+     * Only modifications made while holding one of the sheet's write locks are detected. Data read during an
+     * optimistic read may be inconsistent, and reading may even fail with an exception while a write is in
+     * progress; such exceptions should be ignored if validation fails.
+     *
+     * @return the stamp to pass to {@link #validate(long)}, or zero if a write lock is currently held
+     * @see java.util.concurrent.locks.StampedLock#tryOptimisticRead()
+     */
+    long tryOptimisticRead();
+
+    /**
+     * Check whether the sheet has not been write-locked since the stamp was issued.
+     *
+     * @param stamp the stamp returned by {@link #tryOptimisticRead()}
+     * @return true, if no write lock has been held since the stamp was issued; always false for a zero stamp
+     * @see java.util.concurrent.locks.StampedLock#validate(long)
+     */
+    boolean validate(long stamp);
+
+    /**
+     * Perform a batch update of the sheet.
+     * <p>
+     * The action is executed while holding the sheet's write lock. Instead of publishing an event for every
+     * single change, the changes made during the batch update are collected and published when the action
+     * completes:
+     * <ul>
+     *   <li>single {@link SheetEvent.RowsAdded} and {@link SheetEvent.ColumnsAdded} events covering all
+     *       added rows and columns,</li>
+     *   <li>at most one {@link SheetEvent.LayoutChanged} event,</li>
+     *   <li>a single {@link SheetEvent.RangeChanged} event covering all cells whose value or style changed.</li>
+     * </ul>
+     * Batch updates can be nested; the events are published when the outermost batch update completes.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * sheet.batchUpdate(s -> {
+     *     for (int i = 0; i < 100_000; i++) {
+     *         s.getCell(i, 0).set(i);
+     *     }
+     * });
+     * }</pre>
+     *
+     * @param action the action to perform on this sheet
+     */
+    void batchUpdate(Consumer<? super Sheet> action);
+
+    /**
+     * Enable the search index for this sheet.
+     * <p>
+     * Without an index, {@link #find(String, SearchSettings)} visits every cell until a match is found. With the
+     * index enabled, an inverted index over the cell texts (complete texts and 3-grams) is built on the next search
+     * and used to determine the cells to check. Changes to cell values and styles are tracked and the affected rows
+     * are re-indexed before the next search. Search results are the same with and without the index; searches the
+     * index cannot answer, like substring searches for less than three characters, fall back to visiting all cells.
+     * <p>
+     * The index is discarded if its estimated size exceeds {@code maxBytes}; use {@link #getSearchIndexStats()} to
+     * check. Changing the data format of a cell style that is already in use is not tracked; re-enable the index
+     * after such a change.
+     *
+     * @param maxBytes the memory budget of the index in bytes
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     */
+    void enableSearchIndex(long maxBytes);
+
+    /**
+     * Disable the search index for this sheet and release the memory used by it.
+     */
+    void disableSearchIndex();
+
+    /**
+     * Get the statistics of the search index of this sheet.
+     *
+     * @return {@code Optional} holding the statistics, or empty if the search index is not enabled
+     * @see #enableSearchIndex(long)
+     */
+    Optional<SearchIndexStats> getSearchIndexStats();
+
+    /**
+     * Estimate the memory retained by this sheet.
+     * <p>
+     * The estimate covers rows, cells, cell values, merged regions, the search index, and the backend data
+     * structures of this sheet; cell styles are shared between sheets and only counted by
+     * {@link Workbook#memoryStats()}. The sheet's read lock is held while the rows are traversed.
+     *
+     * @return the estimated memory footprint
+     */
+    MemoryStats memoryStats();
+
     /**
      * Find cell containing text in sheet.
+     * <p>
+     * If the search index is enabled, it is used to find the cell; see {@link #enableSearchIndex(long)}.
      *
      * @param text the text to search for
      * @param ss   the {@link SearchSettings} to use
@@ -635,47 +900,41 @@ public interface Sheet extends Iterable<Row> {
                 return Optional.empty();
             }
 
-            if (ss.ignoreCase()) {
-                text = text.toLowerCase(Locale.ROOT);
-            }
+            TextMatcher matcher = new TextMatcher(text, ss);
 
-            Cell end = null;
-            Cell cell;
+            // determine the first cell to check; when starting from the current cell, it is checked last
+            int iStart;
+            int jStart;
             if (ss.searchFromCurrent()) {
-                cell = nextCell(getCurrentCell());
+                Cell current = getCurrentCell();
+                iStart = current.getRowNumber();
+                jStart = current.getColumnNumber() + 1;
             } else {
-                cell = getCell(0, 0);
+                iStart = 0;
+                jStart = 0;
             }
 
-            while (end == null || !(cell.getRowNumber() == end.getRowNumber()
-                    && cell.getColumnNumber() == end.getColumnNumber())) {
-                if (end == null) {
-                    // remember the first visited cell
-                    end = cell;
-                }
-
-                // check cell content
-                String cellText;
-                if (ss.searchFormula() && cell.getCellType() == CellType.FORMULA) {
-                    cellText = cell.getFormula();
-                } else {
-                    cellText = cell.toString();
-                }
-
-                if (ss.ignoreCase()) {
-                    cellText = cellText.toLowerCase(Locale.ROOT);
+            // visit rows starting at iStart and wrap around, visiting the start row twice to cover the
+            // cells to the left of the start column
+            int rowCount = getRowCount();
+            SheetCursor cursor = cursor();
+            for (int k = 0; k <= rowCount; k++) {
+                if (!cursor.moveToRow((iStart + k) % rowCount)) {
+                    continue;
                 }
 
-                if (ss.matchComplete() ? cellText.equals(text) : cellText.contains(text)) {
-                    // found!
-                    if (ss.updateCurrent()) {
-                        setCurrentCell(cell);
+                int jFrom = k == 0 ? jStart : 0;
+                int jTo = k == rowCount ? Math.min(jStart, cursor.getColumnCount()) : cursor.getColumnCount();
+                for (int j = jFrom; j < jTo && cursor.moveToColumn(j); j++) {
+                    if (matcher.matches(cursor)) {
+                        // found!
+                        Cell cell = cursor.getCell();
+                        if (ss.updateCurrent()) {
+                            setCurrentCell(cell);
+                        }
+                        return Optional.of(cell);
                     }
-                    return Optional.of(cell);
                 }
-
-                // move to next cell
-                cell = nextCell(cell);
             }
 
             // not found
@@ -683,30 +942,42 @@ public interface Sheet extends Iterable<Row> {
         }
     }
 
-    private Cell nextCell(@Nullable Cell cell) {
-        assert cell != null && cell.getSheet() == this;
-
-        // move to next cell
-        Row row = cell.getRow();
-        int j = cell.getColumnNumber();
-        if (j < row.getColumnCount() - 1) {
-            // cell is not the last one in row -> move right
-            return row.getCell(j + 1);
-        } else {
-            // cell is the last one in row...
-            int i = row.getRowNumber();
-            if (i < getRowCount() - 1) {
-                // not the last row -> move to next row
-                row = getRow(i + 1);
-            } else {
-                // last row -> move to first row
-                row = getRow(0);
-            }
-            // return the first cell of the new row
-            return row.getCell(0);
-        }
+    /**
+     * Find all cells containing text in sheet.
+     * <p>
+     * Same as {@code findAll(text, ss, Integer.MAX_VALUE)}.
+     *
+     * @param text the text to search for
+     * @param ss   the {@link SearchSettings} to use
+     * @return the positions of the cells found
+     * @see #findAll(String, SearchSettings, int)
+     */
+    default List<CellPosition> findAll(String text, SearchSettings ss) {
+        return findAll(text, ss, Integer.MAX_VALUE);
     }
 
+    /**
+     * Find all cells containing text in sheet.
+     * <p>
+     * Cells are matched using the same rules as {@link #find(String, SearchSettings)}, and the result is in the
+     * order {@code find()} would return the matches when called repeatedly with {@code updateCurrent} set: in row
+     * major order, and when {@code searchFromCurrent} is set, starting after the current cell and wrapping around
+     * so that the current cell comes last. If {@code updateCurrent} is set, the current cell is set to the first
+     * match.
+     * <p>
+     * The sheet is split into row ranges that are searched in parallel on the fork-join pool the method is
+     * called from, or the common pool. Only the first {@code limit} matches are returned; ranges that lie behind
+     * a range that already holds {@code limit} matches are not searched, or their search is cancelled. The
+     * sheet's read lock is held during the search.
+     *
+     * @param text  the text to search for
+     * @param ss    the {@link SearchSettings} to use
+     * @param limit the maximum number of matches to return
+     * @return the positions of the cells found
+     * @throws IllegalArgumentException if {@code limit} is negative
+     */
+    List<CellPosition> findAll(String text, SearchSettings ss, int limit);
+
     /**
      * Get the default row height for this sheet, i.e., the height used when creating new rows.
      *
@@ -0,0 +1,78 @@
+package com.dua3.meja.model;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A bulk loader that appends rows at the bottom of a sheet.
+ * <p>
+ * Appenders are intended for loading large amounts of data. Implementations may write directly to the
+ * underlying storage, bypassing the creation of {@link Row} and {@link Cell} instances. No events are published
+ * for individual rows and cells; instead, summarizing {@link SheetEvent.RowsAdded} and
+ * {@link SheetEvent.ColumnsAdded} events are published when the appender is closed. Other changes made to the
+ * sheet while an appender is open are also collected and published when it is closed, just like in
+ * {@link Sheet#batchUpdate(java.util.function.Consumer)}.
+ * <p>
+ * Appenders do not lock the sheet. If the sheet is shared between threads, hold the sheet's write lock while
+ * the appender is in use.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * try (SheetAppender appender = sheet.appender()) {
+ *     appender.appendRow("Name", "Age");
+ *     appender.appendRow("Alice", 42);
+ * }
+ * }</pre>
+ */
+public interface SheetAppender extends AutoCloseable {
+
+    /**
+     * Append a row.
+     * <p>
+     * Values are converted as described in {@link Cell#set(Object)}; {@code null} values result in blank cells.
+     *
+     * @param values the cell values
+     * @return this appender
+     */
+    default SheetAppender appendRow(@Nullable Object... values) {
+        return appendRow(values, values.length);
+    }
+
+    /**
+     * Append a row using the first {@code length} entries of an array.
+     * <p>
+     * This allows reusing the same array for all rows. Values are converted as described in
+     * {@link Cell#set(Object)}; {@code null} values result in blank cells.
+     *
+     * @param values the cell values
+     * @param length the number of values to use
+     * @return this appender
+     * @throws IndexOutOfBoundsException if {@code length} is negative or greater than the length of the array
+     */
+    SheetAppender appendRow(@Nullable Object[] values, int length);
+
+    /**
+     * Append a row of numeric values.
+     *
+     * @param values the cell values
+     * @return this appender
+     */
+    default SheetAppender appendRow(double[] values) {
+        return appendRow(values, values.length);
+    }
+
+    /**
+     * Append a row of numeric values using the first {@code length} entries of an array.
+     *
+     * @param values the cell values
+     * @param length the number of values to use
+     * @return this appender
+     * @throws IndexOutOfBoundsException if {@code length} is negative or greater than the length of the array
+     */
+    SheetAppender appendRow(double[] values, int length);
+
+    /**
+     * Close this appender and publish the summarizing events. Calling this method more than once has no effect.
+     */
+    @Override
+    void close();
+}
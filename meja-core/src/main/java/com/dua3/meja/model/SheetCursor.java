@@ -0,0 +1,38 @@
+package com.dua3.meja.model;
+
+/**
+ * A reusable handle that walks the rows and cells of a sheet without creating {@link Row} or {@link Cell}
+ * instances.
+ * <p>
+ * A new cursor is positioned before the first row. Rows that do not exist are reported as rows with a
+ * column count of 0.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * SheetCursor cursor = sheet.cursor();
+ * while (cursor.nextRow()) {
+ *     while (cursor.nextCell()) {
+ *         if (cursor.getCellType() == CellType.NUMERIC) {
+ *             sum += cursor.getDouble();
+ *         }
+ *     }
+ * }
+ * }</pre>
+ */
+public interface SheetCursor extends RowCursor {
+
+    /**
+     * Move to the next row.
+     *
+     * @return true, if the cursor is positioned on a row, false if there are no more rows
+     */
+    boolean nextRow();
+
+    /**
+     * Move to the given row. The cursor is positioned before the first cell of the row.
+     *
+     * @param i the row number (0-based)
+     * @return true, if the cursor is positioned on a row, false if {@code i} is outside the sheet
+     */
+    boolean moveToRow(int i);
+}
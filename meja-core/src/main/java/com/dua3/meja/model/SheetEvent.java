@@ -1,5 +1,6 @@
 package com.dua3.meja.model;
 
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.data.Pair;
 import org.jspecify.annotations.Nullable;
 
@@ -40,6 +41,10 @@ public interface SheetEvent extends Event<Sheet> {
      * columns added.
      */
     String COLUMNS_ADDED = "COLUMNS_ADDED";
+    /**
+     * cell range content or style.
+     */
+    String RANGE_CHANGED = "RANGE_CHANGED";
 
     /**
      * Class representing a zoom change event for a {@link Sheet}.
@@ -278,4 +283,35 @@ public interface SheetEvent extends Event<Sheet> {
             return last;
         }
     }
+
+    /**
+     * Event representing a change of the values or styles of a range of cells.
+     *
+     * <p>This event is published instead of individual {@link CellValueChanged} and {@link CellStyleChanged}
+     * events when cells are changed inside {@link Sheet#batchUpdate(java.util.function.Consumer)}. The region
+     * is the bounding box of all changed cells, including the merged regions they belong to.
+     */
+    class RangeChanged extends AbstractEvent<Sheet> implements SheetEvent {
+        private final RectangularRegion region;
+
+        /**
+         * Constructs a RangeChanged event for a given Sheet.
+         *
+         * @param source the Sheet where the event originated.
+         * @param region the region containing all changed cells.
+         */
+        public RangeChanged(Sheet source, RectangularRegion region) {
+            super(source, RANGE_CHANGED);
+            this.region = region;
+        }
+
+        /**
+         * Returns the region containing all changed cells.
+         *
+         * @return the changed region
+         */
+        public RectangularRegion region() {
+            return region;
+        }
+    }
 }
@@ -0,0 +1,320 @@
+package com.dua3.meja.model;
+
+import com.dua3.meja.model.IntentionLock.Mode;
+import com.dua3.meja.util.MemoryEstimates;
+import org.jspecify.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The locks of a sheet.
+ * <p>
+ * Sheets that do not support concurrent modification of row ranges use a single
+ * {@link ReentrantReadWriteLock}; range locks are the sheet-wide locks.
+ * <p>
+ * Sheets that do are guarded as a whole by an {@link IntentionLock}. In addition, rows are divided into blocks of
+ * {@value #STRIPE_ROWS} rows, and each block is guarded by one of {@value #STRIPES} stripe locks (block {@code k}
+ * uses stripe {@code k % STRIPES}):
+ * <ul>
+ *     <li>range read locks hold the structure lock in intention shared mode and the stripes covering the range in
+ *     shared mode,
+ *     <li>range write locks hold the structure lock in intention exclusive mode and the stripes covering the range
+ *     exclusively,
+ *     <li>the sheet-wide read lock only holds the structure lock in shared mode, which excludes all range writers,
+ *     <li>the sheet-wide write lock holds the structure lock exclusively.
+ * </ul>
+ * Writers of disjoint row ranges therefore only block each other if their blocks map to the same stripe, while a
+ * sheet-wide reader acquires a single lock. All locks are acquired in the same order (structure lock first, then
+ * stripes in ascending order) to rule out deadlocks between them.
+ * <p>
+ * For readers that must not block, the lock also supports optimistic reads in the manner of
+ * {@link java.util.concurrent.locks.StampedLock}: {@link #tryOptimisticRead()} returns a stamp, and
+ * {@link #validate(long)} checks that no write lock was held in the meantime. A plain {@code StampedLock} cannot
+ * be used here because writers of different row ranges hold their locks concurrently, so the stamp is a version
+ * number that is incremented whenever a write lock is released, combined with a count of the active writers.
+ */
+final class SheetLock {
+
+    /**
+     * The number of rows covered by a stripe.
+     */
+    static final int STRIPE_ROWS = 4096;
+    private static final int STRIPES = 64;
+
+    // estimated sizes: a read-write lock with its sync object and lock views, the intention lock with its
+    // counters, thread local, mutex and mode locks
+    private static final long READ_WRITE_LOCK_BYTES = 96L;
+    private static final long INTENTION_LOCK_BYTES = 320L;
+
+    /**
+     * A lock that does not lock anything, used for frozen sheets that are never modified.
+     */
+    static final Lock NO_LOCK = new NoLock();
+
+    private final @Nullable IntentionLock structure;
+    private final ReadWriteLock @Nullable [] stripes;
+    private final Lock read;
+    private final Lock structureWrite;
+
+    private final AtomicInteger activeWriters = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong(1);
+
+    /**
+     * Constructor.
+     *
+     * @param rowLocking whether to support concurrent modification of disjoint row ranges
+     */
+    SheetLock(boolean rowLocking) {
+        if (rowLocking) {
+            IntentionLock intentionLock = new IntentionLock();
+            this.structure = intentionLock;
+            ReadWriteLock[] stripeLocks = new ReadWriteLock[STRIPES];
+            for (int k = 0; k < STRIPES; k++) {
+                stripeLocks[k] = new ReentrantReadWriteLock();
+            }
+            this.stripes = stripeLocks;
+            this.read = intentionLock.lock(Mode.SHARED);
+            this.structureWrite = new LockSet(new Lock[]{intentionLock.lock(Mode.EXCLUSIVE)}, true);
+        } else {
+            ReadWriteLock rwLock = new ReentrantReadWriteLock();
+            this.structure = null;
+            this.stripes = null;
+            this.read = rwLock.readLock();
+            this.structureWrite = new LockSet(new Lock[]{rwLock.writeLock()}, true);
+        }
+    }
+
+    /**
+     * Estimate the number of bytes retained by the locks.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimatedBytes() {
+        return stripes == null
+                ? READ_WRITE_LOCK_BYTES
+                : INTENTION_LOCK_BYTES + MemoryEstimates.arrayBytes(STRIPES, MemoryEstimates.REFERENCE_BYTES)
+                + STRIPES * READ_WRITE_LOCK_BYTES;
+    }
+
+    /**
+     * Get a stamp for an optimistic read.
+     *
+     * @return the stamp, or zero if a write lock is currently held
+     */
+    long tryOptimisticRead() {
+        return activeWriters.get() == 0 ? version.get() : 0L;
+    }
+
+    /**
+     * Check that no write lock has been held since the stamp was obtained.
+     *
+     * @param stamp the stamp returned by {@link #tryOptimisticRead()}
+     * @return true, if the data read since obtaining the stamp is consistent
+     */
+    boolean validate(long stamp) {
+        // make sure the reads of the caller are not reordered after reading the lock state
+        VarHandle.acquireFence();
+        return stamp != 0 && activeWriters.get() == 0 && version.get() == stamp;
+    }
+
+    /**
+     * Get the sheet-wide write lock. This excludes all other locks of the sheet.
+     *
+     * @return the lock
+     */
+    Lock structureWriteLock() {
+        return structureWrite;
+    }
+
+    /**
+     * Get the sheet-wide read lock. This excludes all writers.
+     *
+     * @return the lock
+     */
+    Lock readLock() {
+        return read;
+    }
+
+    /**
+     * Get a lock for reading a range of rows.
+     *
+     * @param firstRow the first row (inclusive)
+     * @param lastRow  the last row (inclusive)
+     * @return the lock
+     */
+    Lock readLock(int firstRow, int lastRow) {
+        return structure == null ? read : rowLock(structure, stripeMask(firstRow, lastRow), false);
+    }
+
+    /**
+     * Get a lock for writing a range of rows.
+     *
+     * @param firstRow the first row (inclusive)
+     * @param lastRow  the last row (inclusive)
+     * @return the lock
+     */
+    Lock writeLock(int firstRow, int lastRow) {
+        return structure == null ? structureWrite : rowLock(structure, stripeMask(firstRow, lastRow), true);
+    }
+
+    private static long stripeMask(int firstRow, int lastRow) {
+        int first = firstRow / STRIPE_ROWS;
+        int last = lastRow / STRIPE_ROWS;
+        if (last - first + 1 >= STRIPES) {
+            return -1L;
+        }
+
+        long mask = 0;
+        for (int k = first; k <= last; k++) {
+            mask |= 1L << (k % STRIPES);
+        }
+        return mask;
+    }
+
+    private Lock rowLock(IntentionLock structure, long mask, boolean exclusive) {
+        assert stripes != null;
+        Lock[] locks = new Lock[1 + Long.bitCount(mask)];
+        int n = 0;
+        locks[n++] = structure.lock(exclusive ? Mode.INTENTION_EXCLUSIVE : Mode.INTENTION_SHARED);
+        for (long m = mask; m != 0; m &= m - 1) {
+            ReadWriteLock stripe = stripes[Long.numberOfTrailingZeros(m)];
+            locks[n++] = exclusive ? stripe.writeLock() : stripe.readLock();
+        }
+        return new LockSet(locks, exclusive);
+    }
+
+    /**
+     * A lock that acquires several locks in order and releases them in reverse order. Exclusive lock sets
+     * invalidate the stamps of optimistic readers.
+     */
+    private final class LockSet implements Lock {
+        private final Lock[] locks;
+        private final boolean exclusive;
+
+        LockSet(Lock[] locks, boolean exclusive) {
+            this.locks = locks;
+            this.exclusive = exclusive;
+        }
+
+        private void acquired() {
+            if (exclusive) {
+                activeWriters.incrementAndGet();
+            }
+        }
+
+        @Override
+        public void lock() {
+            for (Lock lock : locks) {
+                lock.lock();
+            }
+            acquired();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int n = 0;
+            try {
+                for (; n < locks.length; n++) {
+                    locks[n].lockInterruptibly();
+                }
+            } catch (InterruptedException e) {
+                unlock(n);
+                throw e;
+            }
+            acquired();
+        }
+
+        @Override
+        public boolean tryLock() {
+            for (int n = 0; n < locks.length; n++) {
+                if (!locks[n].tryLock()) {
+                    unlock(n);
+                    return false;
+                }
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            int n = 0;
+            try {
+                for (; n < locks.length; n++) {
+                    if (!locks[n].tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        unlock(n);
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                unlock(n);
+                throw e;
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (exclusive) {
+                version.incrementAndGet();
+                activeWriters.decrementAndGet();
+            }
+            unlock(locks.length);
+        }
+
+        private void unlock(int n) {
+            for (int k = n - 1; k >= 0; k--) {
+                locks[k].unlock();
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("conditions are not supported");
+        }
+    }
+
+    /**
+     * A lock that is always available and does nothing.
+     */
+    private static final class NoLock implements Lock {
+        @Override
+        public void lock() {
+            // nothing to do
+        }
+
+        @Override
+        public void lockInterruptibly() {
+            // nothing to do
+        }
+
+        @Override
+        public boolean tryLock() {
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            // nothing to do
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("conditions are not supported");
+        }
+    }
+}
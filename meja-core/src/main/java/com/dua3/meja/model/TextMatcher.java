@@ -0,0 +1,59 @@
+package com.dua3.meja.model;
+
+import java.util.Locale;
+
+/**
+ * Tests cell texts against the text searched for, according to the rules of {@link Sheet#find(String, SearchSettings)}.
+ */
+final class TextMatcher {
+
+    private final String text;
+    private final SearchSettings ss;
+
+    /**
+     * Constructor.
+     *
+     * @param text the text to search for
+     * @param ss   the {@link SearchSettings} to use
+     */
+    TextMatcher(String text, SearchSettings ss) {
+        this.text = ss.ignoreCase() ? text.toLowerCase(Locale.ROOT) : text;
+        this.ss = ss;
+    }
+
+    /**
+     * Get the text a cell is compared against: the formula when searching formulas, the formatted value otherwise.
+     *
+     * @param cursor the cursor positioned on the cell
+     * @return the cell text
+     */
+    String cellText(RowCursor cursor) {
+        if (ss.searchFormula() && cursor.getCellType() == CellType.FORMULA) {
+            return cursor.getFormula();
+        }
+        return cursor.toString(Locale.ROOT);
+    }
+
+    /**
+     * Test the cell the cursor is positioned on.
+     *
+     * @param cursor the cursor positioned on the cell
+     * @return true, if the cell matches
+     */
+    boolean matches(RowCursor cursor) {
+        return matches(cellText(cursor));
+    }
+
+    /**
+     * Test a cell text.
+     *
+     * @param cellText the cell text as returned by {@link #cellText(RowCursor)}
+     * @return true, if the cell text matches
+     */
+    boolean matches(String cellText) {
+        if (ss.ignoreCase()) {
+            cellText = cellText.toLowerCase(Locale.ROOT);
+        }
+        return ss.matchComplete() ? cellText.equals(text) : cellText.contains(text);
+    }
+}
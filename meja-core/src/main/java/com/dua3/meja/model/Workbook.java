@@ -15,6 +15,7 @@
  */
 package com.dua3.meja.model;
 
+import com.dua3.meja.util.ValueInterner;
 import com.dua3.utility.io.FileType;
 import com.dua3.utility.io.IoUtil;
 import com.dua3.utility.options.Arguments;
@@ -81,17 +82,19 @@ public interface Workbook extends AutoCloseable, Iterable<Sheet> {
      */
     default void copy(Workbook other) {
         // copy styles
+        CellStyleMapping styles = new CellStyleMapping(this);
         for (String styleName : other.getCellStyleNames()) {
             CellStyle cellStyle = other.getCellStyle(styleName);
             CellStyle newCellStyle = getCellStyle(styleName);
             newCellStyle.copyStyle(cellStyle);
+            styles.put(styleName, newCellStyle);
         }
 
         // copy sheets
         for (int sheetNr = 0; sheetNr < other.getSheetCount(); sheetNr++) {
             Sheet sheet = other.getSheet(sheetNr);
             Sheet newSheet = createSheet(sheet.getSheetName());
-            newSheet.copy(sheet);
+            newSheet.copy(sheet, styles);
         }
     }
 
@@ -104,6 +107,74 @@ public interface Workbook extends AutoCloseable, Iterable<Sheet> {
      */
     CellStyle copyCellStyle(String styleName, CellStyle style);
 
+    /**
+     * Create a snapshot of this workbook.
+     * <p>
+     * The snapshot is a {@link #isReadOnly() read-only} workbook of the same implementation holding the sheets,
+     * cell styles, merged regions and layout of this workbook at the time of the call. Changes made to this
+     * workbook afterward are not visible in the snapshot, so that the snapshot can, e.g., be written on a
+     * background thread while editing continues. The read locks of all sheets are held together while copying, so
+     * that the snapshot reflects a single state of the workbook even if several sheets are changed concurrently.
+     * Whether the snapshot shares unchanged data with this workbook or is a deep copy depends on the implementation;
+     * see the documentation of the implementation for the cost of taking a snapshot.
+     *
+     * @return the snapshot
+     * @throws UnsupportedOperationException if the implementation does not support snapshots of this workbook
+     */
+    Workbook snapshot();
+
+    /**
+     * Test whether this workbook is read-only.
+     * <p>
+     * The content of a read-only workbook, i.e., its sheets, rows, cells, cell styles, merged regions and the layout
+     * of its sheets, cannot be changed. Methods that would change it throw an {@link UnsupportedOperationException};
+     * this includes methods that would create missing rows or cells, like {@link Sheet#getCell(int, int)}. View
+     * state, i.e., the URI, the current sheet, the current cell of a sheet and the zoom factor, can still be changed
+     * unless the workbook is {@link #freeze() frozen}.
+     *
+     * @return true, if this workbook is read-only
+     * @see #snapshot()
+     */
+    boolean isReadOnly();
+
+    /**
+     * Freeze this workbook.
+     * <p>
+     * A frozen workbook is {@link #isReadOnly() read-only}, and in addition, its view state cannot be changed either.
+     * Because a frozen workbook never changes, it can be read from any number of threads without locking:
+     * <ul>
+     *     <li>the locks returned by {@link Sheet#readLock(String)} and the related methods do not lock anything,
+     *     <li>no events are published; current subscribers are completed, and new subscribers are completed
+     *         immediately,
+     *     <li>unused capacity of the storage is released,
+     *     <li>data that readers would otherwise compute and store lazily, e.g., formula results of POI workbooks, is
+     *         computed in advance.
+     * </ul>
+     * The workbook must not be accessed by other threads while this method runs. Freezing cannot be undone; use
+     * {@link #copy(Workbook)} to obtain a modifiable copy.
+     */
+    void freeze();
+
+    /**
+     * Test whether this workbook is frozen.
+     *
+     * @return true, if this workbook is frozen
+     * @see #freeze()
+     */
+    boolean isFrozen();
+
+    /**
+     * Estimate the memory retained by this workbook.
+     * <p>
+     * The estimate covers all sheets (see {@link Sheet#memoryStats()}) plus the cell styles, fonts, and caches of the
+     * workbook and the internal data structures of the backend. It is computed from shallow-size models of the
+     * objects used by the implementation and traverses all rows, so it should not be called in tight loops.
+     *
+     * @return the estimated memory footprint
+     * @see com.dua3.meja.util.MemoryStatsMonitor
+     */
+    MemoryStats memoryStats();
+
     /**
      * Add a new sheet as last sheet of this workbook.
      *
@@ -324,11 +395,32 @@ public interface Workbook extends AutoCloseable, Iterable<Sheet> {
      * adding calculated dates to a workbook with many cells containing instances representing the same values.
      * The effect on memory consumption may vary between different workbook implementations. When in doubt, measure
      * with realistic data for your use case.
+     * <br>
+     * Enabling object caching installs a {@link ValueInterner#bounded() bounded interner} unless an interner is
+     * already installed; disabling it removes the current interner.
      *
      * @param enable flag indicating whether to en- or disable object caching
+     * @see #setValueInterner(ValueInterner)
      */
     void setObjectCaching(boolean enable);
 
+    /**
+     * Get the interner used for cell values.
+     *
+     * @return the value interner; {@link ValueInterner#none()} if object caching is disabled
+     */
+    ValueInterner getValueInterner();
+
+    /**
+     * Set the interner used for cell values.
+     * <br>
+     * The same interner instance may be shared between workbooks, i.e., to share canonical instances between
+     * workbooks filled by parallel loaders.
+     *
+     * @param interner the value interner; pass {@link ValueInterner#none()} to disable object caching
+     */
+    void setValueInterner(ValueInterner interner);
+
     /**
      * Writes the workbook to a URI using standard options.
      *
@@ -489,6 +581,7 @@ public interface Workbook extends AutoCloseable, Iterable<Sheet> {
      * @param <T> object type
      * @param obj the object to lookup
      * @return the cached instance, if caching is enabled, otherwise {@code obj}
+     * @see #getValueInterner()
      */
     <T> T cache(T obj);
 
@@ -51,17 +51,19 @@ public abstract class WorkbookFactory<W extends Workbook> {
         workbook.setUri(other.getUri().orElse(null));
 
         // copy styles
+        CellStyleMapping styles = new CellStyleMapping(workbook);
         for (String styleName : other.getCellStyleNames()) {
             CellStyle cellStyle = other.getCellStyle(styleName);
             CellStyle newCellStyle = workbook.getCellStyle(styleName);
             newCellStyle.copyStyle(cellStyle);
+            styles.put(styleName, newCellStyle);
         }
 
         // copy sheets
         for (int sheetNr = 0; sheetNr < other.getSheetCount(); sheetNr++) {
             Sheet sheet = other.getSheet(sheetNr);
             Sheet newSheet = workbook.createSheet(sheet.getSheetName());
-            newSheet.copy(sheet);
+            newSheet.copy(sheet, styles);
         }
         return workbook;
     }
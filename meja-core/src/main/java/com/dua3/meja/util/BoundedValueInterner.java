@@ -0,0 +1,221 @@
+package com.dua3.meja.util;
+
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link ValueInterner} with bounded memory usage.
+ * <p>
+ * Values of the frequent fixed-size types {@link Double}, {@link LocalDate}, and {@link LocalDateTime} are kept in
+ * direct-mapped tables: each value hashes to exactly one slot, and a miss simply replaces the slot's previous
+ * occupant. Lookups in these tables are lock-free.
+ * <p>
+ * All other values (most notably texts) are kept in a fixed number of segments, each of which is an
+ * access-ordered LRU map guarded by its own lock. A segment evicts its least recently used entries once their
+ * estimated weight exceeds the segment's share of the memory budget.
+ * <p>
+ * Weights are estimates for a 64-bit JVM using compressed object pointers and are only meant to keep the retained
+ * memory in the right order of magnitude.
+ */
+final class BoundedValueInterner implements ValueInterner {
+
+    private static final int SEGMENTS = 16;
+    private static final int SEGMENT_SHIFT = 32 - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int MIN_SLOTS = 16;
+
+    private static final long SLOT_BYTES = 4;
+    private static final long DOUBLE_BYTES = 16;
+    private static final long LOCAL_DATE_BYTES = 24;
+    private static final long LOCAL_DATE_TIME_BYTES = 72;
+    private static final long ENTRY_BYTES = 48;
+    private static final long STRING_BYTES = 40;
+    private static final long TEXT_BYTES = 96;
+    private static final long OBJECT_BYTES = 32;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Table doubles;
+    private final Table dates;
+    private final Table dateTimes;
+    private final Segment[] segments;
+
+    BoundedValueInterner(long maxBytes) {
+        LangUtil.checkArg(maxBytes > 0, "maxBytes must be positive: %d", maxBytes);
+
+        // an eighth of the budget for each of the tables, the rest is shared by the segments
+        long tableBudget = maxBytes / 8;
+        this.doubles = new Table(tableBudget, DOUBLE_BYTES);
+        this.dates = new Table(tableBudget, LOCAL_DATE_BYTES);
+        this.dateTimes = new Table(tableBudget, LOCAL_DATE_TIME_BYTES);
+
+        long segmentBudget = Math.max(1, (maxBytes - 3 * tableBudget) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentBudget);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T intern(T value) {
+        Object interned = switch (value) {
+            case Double d -> doubles.intern(d);
+            case LocalDate ld -> dates.intern(ld);
+            case LocalDateTime ldt -> dateTimes.intern(ldt);
+            case Boolean b -> Boolean.valueOf(b);
+            default -> segments[mix(value.hashCode()) >>> SEGMENT_SHIFT].intern(value);
+        };
+        return (T) interned;
+    }
+
+    @Override
+    public Stats stats() {
+        long size = doubles.size() + dates.size() + dateTimes.size();
+        long retained = doubles.retainedBytes() + dates.retainedBytes() + dateTimes.retainedBytes();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+                retained += segment.weight;
+            }
+        }
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size, retained);
+    }
+
+    @Override
+    public void clear() {
+        doubles.clear();
+        dates.clear();
+        dateTimes.clear();
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Fibonacci hashing; the high bits of the result are well distributed even if the input only differs in its
+     * high bits as is the case for the hash codes of small integral doubles.
+     */
+    private static int mix(int h) {
+        return h * 0x9E3779B9;
+    }
+
+    /**
+     * Estimate the memory retained by an entry of a segment.
+     */
+    private static long weigh(Object value) {
+        return ENTRY_BYTES + switch (value) {
+            case String s -> STRING_BYTES + s.length();
+            case CharSequence cs -> TEXT_BYTES + 2L * cs.length();
+            default -> OBJECT_BYTES;
+        };
+    }
+
+    /**
+     * Lock-free direct-mapped table for values of a single fixed-size type.
+     */
+    private final class Table {
+        private final AtomicReferenceArray<@Nullable Object> slots;
+        private final int shift;
+        private final long valueBytes;
+        private final LongAdder occupied = new LongAdder();
+
+        Table(long budget, long valueBytes) {
+            int n = (int) Math.min(1 << 30, Long.highestOneBit(Math.max(MIN_SLOTS, budget / (SLOT_BYTES + valueBytes))));
+            this.slots = new AtomicReferenceArray<>(n);
+            this.shift = 32 - Integer.numberOfTrailingZeros(n);
+            this.valueBytes = valueBytes;
+        }
+
+        Object intern(Object value) {
+            int idx = mix(value.hashCode()) >>> shift;
+            @Nullable Object current = slots.get(idx);
+            if (value.equals(current)) {
+                hits.increment();
+                assert current != null;
+                return current;
+            }
+
+            misses.increment();
+            // if another thread replaced the slot in the meantime, just leave it alone
+            if (slots.compareAndSet(idx, current, value)) {
+                if (current == null) {
+                    occupied.increment();
+                } else {
+                    evictions.increment();
+                }
+            }
+            return value;
+        }
+
+        long size() {
+            return occupied.sum();
+        }
+
+        long retainedBytes() {
+            return slots.length() * SLOT_BYTES + size() * valueBytes;
+        }
+
+        void clear() {
+            for (int i = 0; i < slots.length(); i++) {
+                slots.set(i, null);
+            }
+            occupied.reset();
+        }
+    }
+
+    /**
+     * LRU segment evicting entries by estimated weight.
+     */
+    private final class Segment {
+        private final long maxWeight;
+        private final LinkedHashMap<Object, Object> map = new LinkedHashMap<>(16, 0.75f, true);
+        private long weight;
+
+        Segment(long maxWeight) {
+            this.maxWeight = maxWeight;
+        }
+
+        synchronized Object intern(Object value) {
+            Object existing = map.get(value);
+            if (existing != null) {
+                hits.increment();
+                return existing;
+            }
+
+            misses.increment();
+            long w = weigh(value);
+            if (w > maxWeight) {
+                // the value would evict everything else
+                return value;
+            }
+
+            map.put(value, value);
+            weight += w;
+            Iterator<Object> iter = map.keySet().iterator();
+            while (weight > maxWeight) {
+                Object eldest = iter.next();
+                iter.remove();
+                weight -= weigh(eldest);
+                evictions.increment();
+            }
+            return value;
+        }
+
+        synchronized void clear() {
+            map.clear();
+            weight = 0;
+        }
+    }
+}
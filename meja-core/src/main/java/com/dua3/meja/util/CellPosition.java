@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015 axel@dua3.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.util;
+
+import com.dua3.meja.model.Sheet;
+import com.dua3.utility.lang.LangUtil;
+
+import java.util.Comparator;
+
+/**
+ * The position of a cell in a sheet.
+ * <p>
+ * Positions are ordered by row first, then by column, i.e., in the order the cells of a sheet are visited when
+ * iterating over rows and cells.
+ *
+ * @param row    the row number (0-based)
+ * @param column the column number (0-based)
+ */
+public record CellPosition(int row, int column) implements Comparable<CellPosition> {
+
+    private static final Comparator<CellPosition> COMPARATOR = Comparator.comparingInt(CellPosition::row)
+            .thenComparingInt(CellPosition::column);
+
+    /**
+     * Creates a CellPosition object.
+     *
+     * @param row    the row number
+     * @param column the column number
+     * @throws IllegalArgumentException if row or column is negative
+     */
+    public CellPosition {
+        LangUtil.checkArg(row >= 0 && column >= 0, "invalid cell position: row=%d, column=%d", row, column);
+    }
+
+    @Override
+    public int compareTo(CellPosition other) {
+        return COMPARATOR.compare(this, other);
+    }
+
+    /**
+     * Get the cell reference in A1 notation, i.e., "B3" for row 2, column 1.
+     *
+     * @return the cell reference
+     */
+    public String toA1() {
+        return Sheet.getColumnName(column) + Sheet.getRowName(row);
+    }
+}
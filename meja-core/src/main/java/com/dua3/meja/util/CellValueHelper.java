@@ -16,6 +16,7 @@
 package com.dua3.meja.util;
 
 import com.dua3.meja.model.Cell;
+import org.jspecify.annotations.Nullable;
 
 import java.text.NumberFormat;
 import java.text.ParsePosition;
@@ -50,43 +51,62 @@ public class CellValueHelper {
      * @param value the value to set
      */
     public void setCellValue(Cell cell, CharSequence value) {
-        // blank
-        if (value.isEmpty()) {
-            cell.clear();
+        // formula
+        if (isFormula(value)) {
+            cell.setFormula(value.subSequence(1, value.length()).toString());
             return;
         }
 
-        String valueString = value.toString();
+        cell.set(convert(value));
+    }
 
-        // formula
-        if (valueString.startsWith("=")) {
-            cell.setFormula(valueString.substring(1));
-            return;
+    /**
+     * Test if a value represents a formula, i.e., starts with '='.
+     *
+     * @param value the value
+     * @return true, if the value represents a formula
+     */
+    public static boolean isFormula(CharSequence value) {
+        return !value.isEmpty() && value.charAt(0) == '=';
+    }
+
+    /**
+     * Convert a value from {@link String} with automatic conversion.
+     * <p>
+     * Formulas are not recognized by this method; use {@link #isFormula(CharSequence)} to check for formulas.
+     *
+     * @param value the value to convert
+     * @return {@code null} for empty values, otherwise a {@link Boolean}, {@link Number}, {@link LocalDateTime},
+     * or the text if the value could not be converted
+     */
+    public @Nullable Object convert(CharSequence value) {
+        // blank
+        if (value.isEmpty()) {
+            return null;
         }
 
+        String valueString = value.toString();
+
         // boolean
         Optional<Boolean> b = parseBoolean(valueString);
         if (b.isPresent()) {
-            cell.set(b.get());
-            return;
+            return b.get();
         }
 
         // number
         Optional<Number> number = parseNumber(valueString);
         if (number.isPresent()) {
-            cell.set(number.get());
-            return;
+            return number.get();
         }
 
         // date
         Optional<LocalDateTime> date = parseDate(valueString);
         if (date.isPresent()) {
-            cell.set(date.get());
-            return;
+            return date.get();
         }
 
         // text
-        cell.set(value);
+        return value;
     }
 
     /**
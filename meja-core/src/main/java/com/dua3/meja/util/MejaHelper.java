@@ -15,8 +15,8 @@
  */
 package com.dua3.meja.util;
 
-import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
 import com.dua3.meja.model.Workbook;
 import com.dua3.utility.io.FileType;
 import com.dua3.utility.io.ReadableObjectStore;
@@ -152,9 +152,10 @@ public final class MejaHelper {
 
         // determine column dimensions
         int[] columnLength = new int[sheet.getColumnCount()];
-        for (Row row : sheet) {
-            for (int j = 0; j < sheet.getColumnCount(); j++) {
-                for (String s : PATTERN_NEWLINE.split(row.getCell(j).toString(locale))) {
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            for (int j = 0; j < columnLength.length && cursor.moveToColumn(j); j++) {
+                for (String s : PATTERN_NEWLINE.split(cursor.toString(locale))) {
                     columnLength[j] = Math.max(columnLength[j], s.length());
                 }
             }
@@ -179,14 +180,21 @@ public final class MejaHelper {
             }
 
             boolean isHeadRow = true;
-            for (Row row : sheet) {
+            cursor = sheet.cursor();
+            while (cursor.nextRow()) {
                 // collect data and determine row height
                 int lines = 0;
                 String[][] data = new String[sheet.getColumnCount()][];
                 int[] align = new int[sheet.getColumnCount()];
                 for (int j = 0; j < sheet.getColumnCount(); j++) {
-                    data[j] = PATTERN_NEWLINE.split(row.getCell(j).toString(locale));
-                    align[j] = row.getCell(j).getOrDefault(null) instanceof Number ? 1 : -1;
+                    if (cursor.moveToColumn(j)) {
+                        data[j] = PATTERN_NEWLINE.split(cursor.toString(locale));
+                        align[j] = cursor.getOrDefault(null) instanceof Number ? 1 : -1;
+                    } else {
+                        // missing cells are printed as empty text
+                        data[j] = new String[]{""};
+                        align[j] = -1;
+                    }
                     lines = Math.max(lines, data[j].length);
                 }
 
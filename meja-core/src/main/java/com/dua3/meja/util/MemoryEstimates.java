@@ -0,0 +1,129 @@
+package com.dua3.meja.util;
+
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Shallow-size models used to estimate the memory footprint of workbooks.
+ * <p>
+ * All estimates assume a 64-bit JVM with compressed object pointers, i.e., 12 byte object headers, 16 byte array
+ * headers, 4 byte references, and objects aligned to 8 bytes. Strings are assumed to use the compact Latin-1
+ * representation.
+ *
+ * @see com.dua3.meja.model.MemoryStats
+ */
+public final class MemoryEstimates {
+
+    /**
+     * Size of an object header.
+     */
+    public static final long HEADER_BYTES = 12;
+    /**
+     * Size of an array header, including the length field.
+     */
+    public static final long ARRAY_HEADER_BYTES = 16;
+    /**
+     * Size of a reference.
+     */
+    public static final long REFERENCE_BYTES = 4;
+    /**
+     * Size of a boxed primitive value.
+     */
+    public static final long BOXED_BYTES = 16;
+
+    private static final long LOCAL_DATE_BYTES = 24;
+    private static final long LOCAL_TIME_BYTES = 24;
+    private static final long LOCAL_DATE_TIME_BYTES = LOCAL_DATE_BYTES + LOCAL_TIME_BYTES + 24;
+    private static final long STRING_BYTES = 24;
+    private static final long TEXT_BYTES = 72;
+    private static final long URI_BYTES = 80;
+    private static final long OBJECT_BYTES = 32;
+    private static final long HASH_MAP_BYTES = 48;
+    private static final long HASH_MAP_ENTRY_BYTES = 32;
+
+    private MemoryEstimates() { /* utility class */ }
+
+    /**
+     * Round a size up to the object alignment.
+     *
+     * @param bytes the unaligned size
+     * @return the aligned size
+     */
+    public static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Estimate the size of an object.
+     *
+     * @param references     the number of reference fields
+     * @param primitiveBytes the total size of the primitive fields
+     * @return the estimated size in bytes
+     */
+    public static long objectBytes(int references, long primitiveBytes) {
+        return align(HEADER_BYTES + references * REFERENCE_BYTES + primitiveBytes);
+    }
+
+    /**
+     * Estimate the size of an array.
+     *
+     * @param length       the array length
+     * @param elementBytes the size of an element, {@link #REFERENCE_BYTES} for object arrays
+     * @return the estimated size in bytes
+     */
+    public static long arrayBytes(long length, long elementBytes) {
+        return align(ARRAY_HEADER_BYTES + length * elementBytes);
+    }
+
+    /**
+     * Estimate the size of a string including its backing array.
+     *
+     * @param length the string length
+     * @return the estimated size in bytes
+     */
+    public static long stringBytes(int length) {
+        return STRING_BYTES + arrayBytes(length, 1);
+    }
+
+    /**
+     * Estimate the size of a {@link java.util.HashMap} excluding keys and values.
+     *
+     * @param size the number of entries
+     * @return the estimated size in bytes
+     */
+    public static long hashMapBytes(int size) {
+        if (size == 0) {
+            return HASH_MAP_BYTES;
+        }
+        // tables are sized to the next power of two that keeps the load factor below 0.75
+        long capacity = Math.max(16, Long.highestOneBit(size * 4L / 3) << 1);
+        return HASH_MAP_BYTES + arrayBytes(capacity, REFERENCE_BYTES) + size * HASH_MAP_ENTRY_BYTES;
+    }
+
+    /**
+     * Estimate the size of a cell value.
+     * <p>
+     * Booleans and {@code null} are not counted because they are shared.
+     *
+     * @param value the value
+     * @return the estimated size in bytes
+     */
+    public static long valueBytes(@Nullable Object value) {
+        return switch (value) {
+            case null -> 0;
+            case Boolean b -> 0;
+            case Number n -> BOXED_BYTES;
+            case LocalDate d -> LOCAL_DATE_BYTES;
+            case LocalTime t -> LOCAL_TIME_BYTES;
+            case LocalDateTime dt -> LOCAL_DATE_TIME_BYTES;
+            case String s -> stringBytes(s.length());
+            case CharSequence cs -> TEXT_BYTES + stringBytes(cs.length());
+            case URI uri -> URI_BYTES + 2 * stringBytes(uri.toString().length());
+            default -> OBJECT_BYTES;
+        };
+    }
+}
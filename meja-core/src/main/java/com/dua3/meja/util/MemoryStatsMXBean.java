@@ -0,0 +1,102 @@
+package com.dua3.meja.util;
+
+import java.util.Map;
+
+/**
+ * Management interface exposing the estimated memory footprint of a workbook through JMX.
+ * <p>
+ * The attributes correspond to the components of {@link com.dua3.meja.model.MemoryStats}.
+ *
+ * @see MemoryStatsMonitor
+ */
+public interface MemoryStatsMXBean {
+
+    /**
+     * Get the name the workbook is registered under.
+     *
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    long getRows();
+
+    /**
+     * Get the number of cells.
+     *
+     * @return the number of cells
+     */
+    long getCells();
+
+    /**
+     * Get the estimated number of bytes retained by the row objects.
+     *
+     * @return the estimated number of bytes
+     */
+    long getRowBytes();
+
+    /**
+     * Get the estimated number of bytes retained by the cell objects, excluding their values.
+     *
+     * @return the estimated number of bytes
+     */
+    long getCellBytes();
+
+    /**
+     * Get the estimated number of bytes retained by the cell values, by the name of the cell type.
+     *
+     * @return map of cell type names to the estimated number of bytes
+     */
+    Map<String, Long> getValueBytes();
+
+    /**
+     * Get the estimated number of bytes retained by cell styles and fonts.
+     *
+     * @return the estimated number of bytes
+     */
+    long getStyleBytes();
+
+    /**
+     * Get the estimated number of bytes retained by merged regions.
+     *
+     * @return the estimated number of bytes
+     */
+    long getMergedRegionBytes();
+
+    /**
+     * Get the estimated number of bytes retained by caches.
+     *
+     * @return the estimated number of bytes
+     */
+    long getCacheBytes();
+
+    /**
+     * Get the estimated number of bytes retained by backend internals.
+     *
+     * @return the estimated number of bytes
+     */
+    long getBackendBytes();
+
+    /**
+     * Get the estimated number of bytes retained by other objects.
+     *
+     * @return the estimated number of bytes
+     */
+    long getOtherBytes();
+
+    /**
+     * Get the estimated total number of bytes.
+     *
+     * @return the estimated number of bytes
+     */
+    long getTotalBytes();
+
+    /**
+     * Recompute the estimate on the next attribute access instead of using the cached value.
+     */
+    void refresh();
+}
@@ -0,0 +1,199 @@
+package com.dua3.meja.util;
+
+import com.dua3.meja.model.MemoryStats;
+import com.dua3.meja.model.Workbook;
+import com.dua3.utility.lang.LangUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publishes the {@link Workbook#memoryStats() memory statistics} of a workbook as an MXBean on the platform
+ * MBean server.
+ * <p>
+ * The bean is registered as {@code com.dua3.meja:type=Workbook,name=<name>}. Computing the statistics traverses
+ * all rows of the workbook, so the result is cached for a configurable time and shared by all attributes read
+ * within that time. The monitor keeps a reference to the workbook; close it to unregister the bean and release
+ * the workbook.
+ * <pre>{@code
+ * try (var monitor = MemoryStatsMonitor.register(workbook, "orders")) {
+ *     // the workbook is visible in JConsole, VisualVM, etc.
+ * }
+ * }</pre>
+ */
+public final class MemoryStatsMonitor implements MemoryStatsMXBean, AutoCloseable {
+    private static final Logger LOG = LogManager.getLogger(MemoryStatsMonitor.class);
+
+    /**
+     * The JMX domain of the registered beans.
+     */
+    public static final String DOMAIN = "com.dua3.meja";
+
+    /**
+     * The default time in milliseconds that computed statistics are reused.
+     */
+    public static final long DEFAULT_MAX_AGE_MILLIS = 1000;
+
+    private final Workbook workbook;
+    private final String name;
+    private final long maxAgeMillis;
+    private final ObjectName objectName;
+
+    private @Nullable MemoryStats stats;
+    private long timestamp;
+
+    private MemoryStatsMonitor(Workbook workbook, String name, long maxAgeMillis) throws JMException {
+        this.workbook = workbook;
+        this.name = name;
+        this.maxAgeMillis = maxAgeMillis;
+        this.objectName = new ObjectName(DOMAIN + ":type=Workbook,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Register a workbook with the platform MBean server, caching the statistics for
+     * {@value #DEFAULT_MAX_AGE_MILLIS} milliseconds.
+     *
+     * @param workbook the workbook
+     * @param name     the name to register the workbook under
+     * @return the registered monitor
+     * @throws JMException if the bean could not be registered, e.g., because the name is already in use
+     */
+    public static MemoryStatsMonitor register(Workbook workbook, String name) throws JMException {
+        return register(workbook, name, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    /**
+     * Register a workbook with the platform MBean server.
+     *
+     * @param workbook     the workbook
+     * @param name         the name to register the workbook under
+     * @param maxAgeMillis the time in milliseconds that computed statistics are reused; 0 to compute the statistics
+     *                     on every access
+     * @return the registered monitor
+     * @throws JMException              if the bean could not be registered, e.g., because the name is already in use
+     * @throws IllegalArgumentException if {@code maxAgeMillis} is negative
+     */
+    public static MemoryStatsMonitor register(Workbook workbook, String name, long maxAgeMillis) throws JMException {
+        LangUtil.checkArg(maxAgeMillis >= 0, "maxAgeMillis must not be negative: %d", maxAgeMillis);
+
+        MemoryStatsMonitor monitor = new MemoryStatsMonitor(workbook, name, maxAgeMillis);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, monitor.objectName);
+        LOG.debug("registered memory statistics of workbook as {}", monitor.objectName);
+        return monitor;
+    }
+
+    /**
+     * Get the name of the registered bean.
+     *
+     * @return the object name
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Get the current statistics, computing them if the cached value has expired.
+     *
+     * @return the statistics
+     */
+    public synchronized MemoryStats getStats() {
+        long now = System.currentTimeMillis();
+        MemoryStats current = stats;
+        if (current == null || now - timestamp >= maxAgeMillis) {
+            current = workbook.memoryStats();
+            stats = current;
+            timestamp = now;
+        }
+        return current;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getRows() {
+        return getStats().rows();
+    }
+
+    @Override
+    public long getCells() {
+        return getStats().cells();
+    }
+
+    @Override
+    public long getRowBytes() {
+        return getStats().rowBytes();
+    }
+
+    @Override
+    public long getCellBytes() {
+        return getStats().cellBytes();
+    }
+
+    @Override
+    public Map<String, Long> getValueBytes() {
+        Map<String, Long> valueBytes = new LinkedHashMap<>();
+        getStats().valueBytes().forEach((type, bytes) -> valueBytes.put(type.name(), bytes));
+        return valueBytes;
+    }
+
+    @Override
+    public long getStyleBytes() {
+        return getStats().styleBytes();
+    }
+
+    @Override
+    public long getMergedRegionBytes() {
+        return getStats().mergedRegionBytes();
+    }
+
+    @Override
+    public long getCacheBytes() {
+        return getStats().cacheBytes();
+    }
+
+    @Override
+    public long getBackendBytes() {
+        return getStats().backendBytes();
+    }
+
+    @Override
+    public long getOtherBytes() {
+        return getStats().otherBytes();
+    }
+
+    @Override
+    public long getTotalBytes() {
+        return getStats().totalBytes();
+    }
+
+    @Override
+    public synchronized void refresh() {
+        stats = null;
+    }
+
+    /**
+     * Unregister the bean. Errors are logged and otherwise ignored.
+     */
+    @Override
+    public void close() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+                LOG.debug("unregistered {}", objectName);
+            }
+        } catch (JMException e) {
+            LOG.warn("could not unregister {}", objectName, e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.dua3.meja.util;
+
+/**
+ * {@link ValueInterner} that returns all values unchanged.
+ */
+enum NoValueInterner implements ValueInterner {
+    INSTANCE;
+
+    @Override
+    public <T> T intern(T value) {
+        return value;
+    }
+
+    @Override
+    public Stats stats() {
+        return Stats.EMPTY;
+    }
+
+    @Override
+    public void clear() {
+        // nop
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+}
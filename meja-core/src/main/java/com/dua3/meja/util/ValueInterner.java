@@ -0,0 +1,123 @@
+/*
+ * Copyright 2015 axel@dua3.com.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.util;
+
+/**
+ * Interner for cell values.
+ * <p>
+ * An interner maps values that are equal to a single canonical instance, so that a workbook containing many equal
+ * values (i.e., dates, repeated texts, or numbers) only keeps one instance of each. Implementations must be
+ * thread-safe so that a single interner can be shared by loaders running in parallel.
+ *
+ * @see com.dua3.meja.model.Workbook#setValueInterner(ValueInterner)
+ */
+public interface ValueInterner {
+
+    /**
+     * Default memory budget of interners created by {@link #bounded()}.
+     */
+    long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    /**
+     * Get an interner that does not intern at all, i.e., {@link #intern(Object)} always returns its argument.
+     *
+     * @return the pass-through interner
+     */
+    static ValueInterner none() {
+        return NoValueInterner.INSTANCE;
+    }
+
+    /**
+     * Create a new interner using the default memory budget of {@value #DEFAULT_MAX_BYTES} bytes.
+     *
+     * @return new interner
+     * @see #bounded(long)
+     */
+    static ValueInterner bounded() {
+        return bounded(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Create a new interner whose retained memory is bounded.
+     * <p>
+     * {@link Double}, {@link java.time.LocalDate}, and {@link java.time.LocalDateTime} values are kept in
+     * fixed-size lock-free tables; texts and all other values are kept in least-recently-used segments that are
+     * evicted by estimated weight.
+     *
+     * @param maxBytes the approximate maximum number of bytes retained by the interner
+     * @return new interner
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     */
+    static ValueInterner bounded(long maxBytes) {
+        return new BoundedValueInterner(maxBytes);
+    }
+
+    /**
+     * Get the canonical instance for a value.
+     *
+     * @param <T>   the value type
+     * @param value the value
+     * @return an instance equal to {@code value}; this is {@code value} itself if no equal instance is known
+     */
+    <T> T intern(T value);
+
+    /**
+     * Get the statistics for this interner.
+     *
+     * @return snapshot of the current statistics
+     */
+    Stats stats();
+
+    /**
+     * Remove all interned values and reset the statistics.
+     */
+    void clear();
+
+    /**
+     * Test whether this interner actually interns values.
+     *
+     * @return true, if values are interned
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * Interner statistics.
+     *
+     * @param hits          number of lookups that returned a previously interned instance
+     * @param misses        number of lookups that did not find an equal instance
+     * @param evictions     number of values removed to stay within the memory budget
+     * @param size          number of currently interned values
+     * @param retainedBytes estimated number of bytes retained by the interner
+     */
+    record Stats(long hits, long misses, long evictions, long size, long retainedBytes) {
+        /**
+         * Statistics of an empty interner.
+         */
+        public static final Stats EMPTY = new Stats(0, 0, 0, 0, 0);
+
+        /**
+         * Get the hit rate.
+         *
+         * @return the ratio of hits to lookups, or 0 if no lookups were done
+         */
+        public double hitRate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0.0 : (double) hits / lookups;
+        }
+    }
+}
@@ -27,6 +27,7 @@ module com.dua3.meja {
     opens com.dua3.meja.io;
 
     requires com.dua3.utility;
+    requires java.management;
 
     requires org.jspecify;
     requires org.apache.logging.log4j;
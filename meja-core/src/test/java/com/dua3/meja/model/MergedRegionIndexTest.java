@@ -0,0 +1,56 @@
+package com.dua3.meja.model;
+
+import com.dua3.meja.util.RectangularRegion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MergedRegionIndexTest {
+
+    @Test
+    void testFind() {
+        MergedRegionIndex index = new MergedRegionIndex();
+        RectangularRegion r1 = new RectangularRegion(0, 1, 0, 2);
+        RectangularRegion r2 = new RectangularRegion(1, 3, 4, 4);
+        index.add(r1);
+        index.add(r2);
+
+        assertEquals(Optional.of(r1), index.find(0, 0));
+        assertEquals(Optional.of(r1), index.find(1, 2));
+        assertEquals(Optional.empty(), index.find(1, 3));
+        assertEquals(Optional.of(r2), index.find(3, 4));
+        assertEquals(Optional.empty(), index.find(4, 4));
+        assertEquals(List.of(r1, r2), index.asList());
+    }
+
+    @Test
+    void testIntersects() {
+        MergedRegionIndex index = new MergedRegionIndex();
+        index.add(new RectangularRegion(2, 4, 2, 4));
+
+        assertTrue(index.intersects(new RectangularRegion(0, 2, 0, 2)));
+        assertTrue(index.intersects(new RectangularRegion(3, 3, 0, 10)));
+        assertTrue(index.intersects(new RectangularRegion(0, 10, 4, 5)));
+        assertFalse(index.intersects(new RectangularRegion(0, 1, 0, 10)));
+        assertFalse(index.intersects(new RectangularRegion(2, 4, 5, 5)));
+        assertFalse(index.intersects(new RectangularRegion(5, 5, 2, 4)));
+    }
+
+    @Test
+    void testRemove() {
+        MergedRegionIndex index = new MergedRegionIndex();
+        RectangularRegion r = new RectangularRegion(0, 1, 0, 1);
+        index.add(r);
+
+        assertTrue(index.remove(r));
+        assertFalse(index.remove(r));
+        assertTrue(index.isEmpty());
+        assertEquals(Optional.empty(), index.find(0, 0));
+        assertFalse(index.intersects(r));
+    }
+}
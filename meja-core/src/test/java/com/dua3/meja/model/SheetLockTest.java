@@ -0,0 +1,167 @@
+package com.dua3.meja.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SheetLockTest {
+
+    /**
+     * Try to acquire a lock from another thread and release it again if successful.
+     */
+    private static boolean canLock(Lock lock) {
+        return CompletableFuture.supplyAsync(() -> {
+            if (!lock.tryLock()) {
+                return false;
+            }
+            lock.unlock();
+            return true;
+        }).join();
+    }
+
+    @Test
+    void testRowRanges() {
+        SheetLock sheetLock = new SheetLock(true);
+        Lock lock = sheetLock.writeLock(0, SheetLock.STRIPE_ROWS - 1);
+        lock.lock();
+        try {
+            // disjoint ranges in other stripes
+            assertTrue(canLock(sheetLock.writeLock(SheetLock.STRIPE_ROWS, 2 * SheetLock.STRIPE_ROWS - 1)));
+            assertTrue(canLock(sheetLock.readLock(SheetLock.STRIPE_ROWS, SheetLock.STRIPE_ROWS)));
+            // overlapping ranges
+            assertFalse(canLock(sheetLock.writeLock(100, 200)));
+            assertFalse(canLock(sheetLock.readLock(SheetLock.STRIPE_ROWS - 1, SheetLock.STRIPE_ROWS)));
+            // sheet-wide locks
+            assertFalse(canLock(sheetLock.readLock()));
+            assertFalse(canLock(sheetLock.structureWriteLock()));
+        } finally {
+            lock.unlock();
+        }
+
+        assertTrue(canLock(sheetLock.readLock()));
+        assertTrue(canLock(sheetLock.structureWriteLock()));
+    }
+
+    @Test
+    void testWithoutRowLocking() {
+        SheetLock sheetLock = new SheetLock(false);
+        Lock lock = sheetLock.writeLock(0, 0);
+        lock.lock();
+        try {
+            // range locks are sheet-wide locks
+            assertFalse(canLock(sheetLock.writeLock(SheetLock.STRIPE_ROWS, SheetLock.STRIPE_ROWS)));
+            assertFalse(canLock(sheetLock.readLock(SheetLock.STRIPE_ROWS, SheetLock.STRIPE_ROWS)));
+            assertEquals(0, sheetLock.tryOptimisticRead());
+        } finally {
+            lock.unlock();
+        }
+
+        lock = sheetLock.readLock(0, 0);
+        lock.lock();
+        try {
+            assertTrue(canLock(sheetLock.readLock()));
+            assertFalse(canLock(sheetLock.writeLock(SheetLock.STRIPE_ROWS, SheetLock.STRIPE_ROWS)));
+        } finally {
+            lock.unlock();
+        }
+
+        assertTrue(canLock(sheetLock.structureWriteLock()));
+    }
+
+    @Test
+    void testSheetWideLocks() {
+        SheetLock sheetLock = new SheetLock(true);
+        Lock lock = sheetLock.readLock();
+        lock.lock();
+        try {
+            assertTrue(canLock(sheetLock.readLock()));
+            assertTrue(canLock(sheetLock.readLock(0, 1_000_000)));
+            assertFalse(canLock(sheetLock.writeLock(0, 0)));
+            assertFalse(canLock(sheetLock.structureWriteLock()));
+        } finally {
+            lock.unlock();
+        }
+
+        lock = sheetLock.structureWriteLock();
+        lock.lock();
+        try {
+            assertFalse(canLock(sheetLock.readLock(0, 0)));
+            assertFalse(canLock(sheetLock.readLock()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Test
+    void testReentrancy() {
+        SheetLock sheetLock = new SheetLock(true);
+
+        // the holder of the sheet-wide write lock may acquire all other locks
+        Lock writeLock = sheetLock.structureWriteLock();
+        writeLock.lock();
+        try {
+            assertTrue(sheetLock.readLock().tryLock());
+            sheetLock.readLock().unlock();
+            Lock rangeLock = sheetLock.writeLock(0, 10);
+            assertTrue(rangeLock.tryLock());
+            rangeLock.unlock();
+        } finally {
+            writeLock.unlock();
+        }
+
+        // a range writer is not blocked by its own locks when reading the sheet
+        Lock rangeLock = sheetLock.writeLock(0, 10);
+        rangeLock.lock();
+        try {
+            assertTrue(sheetLock.readLock().tryLock());
+            try {
+                assertFalse(canLock(sheetLock.readLock()));
+                assertFalse(canLock(sheetLock.writeLock(SheetLock.STRIPE_ROWS, SheetLock.STRIPE_ROWS)));
+            } finally {
+                sheetLock.readLock().unlock();
+            }
+        } finally {
+            rangeLock.unlock();
+        }
+
+        assertTrue(canLock(sheetLock.structureWriteLock()));
+    }
+
+    @Test
+    void testOptimisticRead() {
+        SheetLock sheetLock = new SheetLock(true);
+
+        long stamp = sheetLock.tryOptimisticRead();
+        assertNotEquals(0, stamp);
+        assertTrue(sheetLock.validate(stamp));
+
+        // readers do not invalidate stamps
+        Lock readLock = sheetLock.readLock();
+        readLock.lock();
+        readLock.unlock();
+        assertTrue(sheetLock.validate(stamp));
+
+        // writers do, both while holding the lock and after releasing it
+        Lock writeLock = sheetLock.writeLock(10, 20);
+        writeLock.lock();
+        try {
+            assertFalse(sheetLock.validate(stamp));
+            assertEquals(0, sheetLock.tryOptimisticRead());
+        } finally {
+            writeLock.unlock();
+        }
+        assertFalse(sheetLock.validate(stamp));
+
+        stamp = sheetLock.tryOptimisticRead();
+        assertTrue(sheetLock.validate(stamp));
+        assertTrue(canLock(sheetLock.structureWriteLock()));
+        assertFalse(sheetLock.validate(stamp));
+        assertFalse(sheetLock.validate(0));
+    }
+}
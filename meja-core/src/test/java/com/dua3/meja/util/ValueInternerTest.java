@@ -0,0 +1,91 @@
+package com.dua3.meja.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ValueInternerTest {
+
+    @Test
+    void testIntern() {
+        ValueInterner interner = ValueInterner.bounded();
+
+        String s = interner.intern(new String("text"));
+        assertSame(s, interner.intern(new String("text")));
+
+        Double d = interner.intern(Double.valueOf(1234.5));
+        assertSame(d, interner.intern(Double.valueOf(1234.5)));
+
+        LocalDate date = interner.intern(LocalDate.of(2024, 2, 29));
+        assertSame(date, interner.intern(LocalDate.of(2024, 2, 29)));
+
+        LocalDateTime dateTime = interner.intern(LocalDateTime.of(2024, 2, 29, 12, 0));
+        assertSame(dateTime, interner.intern(LocalDateTime.of(2024, 2, 29, 12, 0)));
+
+        // 0.0 and -0.0 are different values
+        assertEquals(-0.0, interner.intern(-0.0));
+
+        ValueInterner.Stats stats = interner.stats();
+        assertEquals(4, stats.hits());
+        assertEquals(5, stats.misses());
+        assertEquals(5, stats.size());
+        assertTrue(stats.retainedBytes() > 0);
+        assertEquals(4.0 / 9.0, stats.hitRate(), 1.0e-9);
+
+        interner.clear();
+        assertEquals(ValueInterner.Stats.EMPTY, interner.stats());
+        assertNotSame(s, interner.intern(new String("text")));
+    }
+
+    @Test
+    void testEviction() {
+        long maxBytes = 64 * 1024;
+        ValueInterner interner = ValueInterner.bounded(maxBytes);
+
+        for (int i = 0; i < 100_000; i++) {
+            interner.intern("value " + i);
+            interner.intern((double) i);
+            interner.intern(LocalDate.ofEpochDay(i));
+        }
+
+        ValueInterner.Stats stats = interner.stats();
+        assertTrue(stats.evictions() > 0);
+        assertTrue(stats.retainedBytes() <= maxBytes, "retained bytes: " + stats.retainedBytes());
+        assertEquals(300_000, stats.hits() + stats.misses());
+    }
+
+    @Test
+    void testConcurrentIntern() {
+        ValueInterner interner = ValueInterner.bounded();
+
+        List<String> values = IntStream.range(0, 10_000)
+                .parallel()
+                .mapToObj(i -> interner.intern(new String("value " + i % 100)))
+                .toList();
+
+        for (String value : values) {
+            assertEquals(value, interner.intern(value));
+        }
+        assertEquals(100, interner.stats().size());
+    }
+
+    @Test
+    void testNone() {
+        ValueInterner interner = ValueInterner.none();
+        String s = new String("text");
+
+        assertFalse(interner.isEnabled());
+        assertSame(s, interner.intern(s));
+        assertNotSame(s, interner.intern(new String("text")));
+        assertEquals(ValueInterner.Stats.EMPTY, interner.stats());
+    }
+}
@@ -1,9 +1,12 @@
 package com.dua3.meja.db;
 
-import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import com.dua3.meja.model.Workbook;
+import com.dua3.meja.util.ValueInterner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
 
 import java.sql.Clob;
 import java.sql.ResultSet;
@@ -24,7 +27,8 @@ public final class DbMejaUtil {
     /**
      * Fill Sheet with data from {@link ResultSet}.
      * <p>
-     * The result set data will be appended at the bottom of the sheet.
+     * The result set data will be appended at the bottom of the sheet. Values are interned using the workbook's
+     * interner if object caching is enabled, or a new bounded interner otherwise.
      *
      * @param sheet          the sheet to fill
      * @param rs             the ResultSet
@@ -33,6 +37,35 @@ public final class DbMejaUtil {
      * @throws SQLException if an error occurs while reading from the ResultSet.
      */
     public static int fill(Sheet sheet, ResultSet rs, boolean addTableHeader) throws SQLException {
+        ValueInterner interner = sheet.getWorkbook().getValueInterner();
+        return fill(sheet, rs, addTableHeader, interner.isEnabled() ? interner : ValueInterner.bounded());
+    }
+
+    /**
+     * Fill Sheet with data from {@link ResultSet} using the given interner.
+     * <p>
+     * The result set data will be appended at the bottom of the sheet. The interner is installed in the workbook
+     * while reading; the workbook's previous interner is restored afterward.
+     *
+     * @param sheet          the sheet to fill
+     * @param rs             the ResultSet
+     * @param addTableHeader whether to generate a header row
+     * @param interner       the interner to use for the values read
+     * @return the number of rows read
+     * @throws SQLException if an error occurs while reading from the ResultSet.
+     */
+    public static int fill(Sheet sheet, ResultSet rs, boolean addTableHeader, ValueInterner interner) throws SQLException {
+        Workbook workbook = sheet.getWorkbook();
+        ValueInterner previous = workbook.getValueInterner();
+        workbook.setValueInterner(interner);
+        try {
+            return doFill(sheet, rs, addTableHeader);
+        } finally {
+            workbook.setValueInterner(previous);
+        }
+    }
+
+    private static int doFill(Sheet sheet, ResultSet rs, boolean addTableHeader) throws SQLException {
         LOG.debug("populating Sheet with ResultSet data");
 
         // read result metadata
@@ -40,25 +73,28 @@ public final class DbMejaUtil {
         ResultSetMetaData meta = rs.getMetaData();
         int nColumns = meta.getColumnCount();
 
-        // create table header
-        if (addTableHeader) {
-            LOG.trace("creating table header");
-            Row header = sheet.createRow();
-            for (int i = 1; i <= nColumns; i++) {
-                String label = meta.getColumnLabel(i);
-                header.createCell().set(label);
+        int k = 0;
+        try (SheetAppender appender = sheet.appender()) {
+            // create table header
+            if (addTableHeader) {
+                LOG.trace("creating table header");
+                Object[] labels = new Object[nColumns];
+                for (int i = 1; i <= nColumns; i++) {
+                    labels[i - 1] = meta.getColumnLabel(i);
+                }
+                appender.appendRow(labels);
             }
-        }
 
-        // read result
-        LOG.trace("reading result data");
-        int k = 0;
-        while (rs.next()) {
-            Row row = sheet.createRow();
-            for (int i = 1; i <= nColumns; i++) {
-                row.createCell().set(getObject(rs, i));
+            // read result
+            LOG.trace("reading result data");
+            @Nullable Object[] values = new Object[nColumns];
+            while (rs.next()) {
+                for (int i = 1; i <= nColumns; i++) {
+                    values[i - 1] = getObject(rs, i);
+                }
+                appender.appendRow(values);
+                k++;
             }
-            k++;
         }
         final int n = k;
         LOG.debug("read {} rows of data", n);
@@ -66,7 +102,7 @@ public final class DbMejaUtil {
         return n;
     }
 
-    private static Object getObject(ResultSet rs, int i) throws SQLException {
+    private static @Nullable Object getObject(ResultSet rs, int i) throws SQLException {
         Object obj = rs.getObject(i);
         return obj instanceof Clob clob ? toString(clob) : obj;
     }
@@ -0,0 +1,119 @@
+package com.dua3.meja.ui.fx;
+
+import com.dua3.meja.model.SearchOptions;
+import com.dua3.meja.model.SearchSettings;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.ui.SearchResults;
+import com.dua3.meja.util.CellPosition;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import org.jspecify.annotations.Nullable;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * The search dialog of {@link FxSheetView}.
+ */
+final class FxSearchDialog extends Stage {
+
+    private final FxSheetView sheetView;
+    private final TextField tfText = new TextField();
+    private final CheckBox cbIgnoreCase = new CheckBox("ignore case");
+    private final CheckBox cbMatchCompleteText = new CheckBox("match complete text");
+    private final Label lblStatus = new Label();
+    private @Nullable SearchResults results;
+
+    FxSearchDialog(FxSheetView sheetView, @Nullable Window owner) {
+        this.sheetView = sheetView;
+
+        setTitle("Search");
+        setResizable(false);
+        initModality(Modality.WINDOW_MODAL);
+        if (owner != null) {
+            initOwner(owner);
+        }
+
+        tfText.setPrefColumnCount(40);
+        cbIgnoreCase.setSelected(true);
+
+        Button btnSearch = new Button("Search");
+        btnSearch.setDefaultButton(true);
+        btnSearch.setOnAction(evt -> doSearch(SearchResults::next));
+
+        Button btnPrevious = new Button("Previous");
+        btnPrevious.setOnAction(evt -> doSearch(SearchResults::previous));
+
+        Button btnClose = new Button("Close");
+        btnClose.setCancelButton(true);
+        btnClose.setOnAction(evt -> hide());
+
+        GridPane grid = new GridPane();
+        grid.setHgap(4);
+        grid.setVgap(4);
+        grid.setPadding(new Insets(4));
+        grid.add(new Label("Text:"), 0, 0);
+        grid.add(tfText, 1, 0, 4, 1);
+        grid.add(new Label("Options:"), 0, 1);
+        grid.add(cbIgnoreCase, 1, 1);
+        grid.add(cbMatchCompleteText, 2, 1);
+        grid.add(btnSearch, 3, 1);
+        grid.add(btnClose, 4, 1);
+        grid.add(lblStatus, 1, 2, 2, 1);
+        grid.add(btnPrevious, 3, 2);
+        setScene(new Scene(grid));
+
+        // the sheet may be edited while the dialog is hidden
+        setOnShowing(evt -> {
+            results = null;
+            lblStatus.setText("");
+        });
+        setOnShown(evt -> {
+            tfText.requestFocus();
+            tfText.selectAll();
+        });
+    }
+
+    private void doSearch(Function<SearchResults, Optional<CellPosition>> step) {
+        EnumSet<SearchOptions> options = EnumSet.of(SearchOptions.SEARCH_FROM_CURRENT);
+
+        if (cbIgnoreCase.isSelected()) {
+            options.add(SearchOptions.IGNORE_CASE);
+        }
+
+        if (cbMatchCompleteText.isSelected()) {
+            options.add(SearchOptions.MATCH_COMPLETE_TEXT);
+        }
+
+        // search the sheet only when text or options have changed, otherwise step through the known matches
+        Sheet sheet = sheetView.getSheet();
+        String text = tfText.getText();
+        SearchSettings ss = SearchSettings.of(options);
+        SearchResults r = results;
+        if (r == null || !r.isFor(sheet, text, ss)) {
+            r = SearchResults.search(sheet, text, ss, SearchResults.DEFAULT_LIMIT);
+            results = r;
+        }
+
+        Optional<CellPosition> match = step.apply(r);
+        lblStatus.setText(r.getStatusText());
+        if (match.isEmpty()) {
+            Alert alert = new Alert(Alert.AlertType.INFORMATION, "Text was not found.");
+            alert.initOwner(this);
+            alert.showAndWait();
+        } else {
+            CellPosition pos = match.get();
+            sheetView.setCurrentCell(pos.row(), pos.column());
+        }
+    }
+}
@@ -87,6 +87,30 @@ public final class FxSegmentView extends Control implements SegmentView {
         }
     }
 
+    /**
+     * Requests a layout update for all visible rows within a range of rows.
+     *
+     * @param first the index of the first row (inclusive)
+     * @param last  the index of the last row (inclusive)
+     */
+    public void requestLayoutForRows(int first, int last) {
+        FxRow firstCell = flow.getFirstVisibleCell();
+        FxRow lastCell = flow.getLastVisibleCell();
+        if (firstCell == null || lastCell == null) {
+            return;
+        }
+
+        for (int k = firstCell.getIndex(); k <= lastCell.getIndex(); k++) {
+            Row row = rows.get(k);
+            if (row != null && row.getRowNumber() >= first && row.getRowNumber() <= last) {
+                FxRow cell = flow.getVisibleCell(k);
+                if (cell != null) {
+                    cell.requestLayout();
+                }
+            }
+        }
+    }
+
     /**
      * Retrieves the index of the flow for a given row index.
      *
@@ -7,6 +7,7 @@ import com.dua3.meja.model.Direction;
 import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.ui.SheetView;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.meja.util.CellValueHelper;
 import com.dua3.utility.fx.controls.TextEditorPane;
 import com.dua3.utility.fx.FxUtil;
@@ -89,6 +90,8 @@ public final class FxSheetView extends StackPane implements SheetView {
 
     private final ObjectProperty<@Nullable Pane> toolbarParentProperty = new SimpleObjectProperty<>(null);
 
+    private @Nullable FxSearchDialog searchDialog;
+
     /**
      * Constructs a new instance of FxSheetView using the specified Sheet object.
      * Initializes the layout and scrollbars, and sets up the view quadrants based on the provided sheet.
@@ -485,6 +488,17 @@ public final class FxSheetView extends StackPane implements SheetView {
         }
     }
 
+    @Override
+    public void repaintRange(RectangularRegion region) {
+        LOG.trace("repaintRange({})", region);
+        PlatformHelper.checkApplicationThread();
+
+        try (var __ = delegate.readLock("FxSheetView.repaintRange()")) {
+            topSegment.requestLayoutForRows(region.firstRow(), region.lastRow());
+            bottomSegment.requestLayoutForRows(region.firstRow(), region.lastRow());
+        }
+    }
+
     /**
      * Updates the layout of the FxSheetView instance and its associated components.
      * <p>
@@ -551,7 +565,17 @@ public final class FxSheetView extends StackPane implements SheetView {
 
     @Override
     public void showSearchDialog() {
-        LOG.warn("showSearchDialog() not implemented");
+        LOG.debug("showSearchDialog()");
+        PlatformHelper.runLater(() -> {
+            FxSearchDialog dlg = searchDialog;
+            if (dlg == null) {
+                Scene scene = getScene();
+                dlg = new FxSearchDialog(this, scene == null ? null : scene.getWindow());
+                searchDialog = dlg;
+            }
+            dlg.show();
+            dlg.toFront();
+        });
     }
 
     @Override
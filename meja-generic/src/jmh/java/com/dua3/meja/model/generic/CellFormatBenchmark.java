@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import com.dua3.meja.model.SheetCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting the values of a sheet for display, as done by the sheet views and the CSV and HTML export.
+ * <p>
+ * Column A holds numbers using the default format, column B numbers with a custom format, and column C dates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CellFormatBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private Sheet sheet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        GenericWorkbook workbook = GenericWorkbookFactory.instance().create();
+        workbook.getCellStyle("amount").setDataFormat("#,##0.00");
+        workbook.getCellStyle("date").setDataFormat("dd.MM.yyyy");
+
+        sheet = workbook.createSheet("data");
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        try (SheetAppender appender = sheet.appender()) {
+            for (int i = 0; i < rows; i++) {
+                appender.appendRow(i * 0.25, i * 1.5, start.plusDays(i));
+            }
+        }
+        for (int i = 0; i < rows; i++) {
+            sheet.getCell(i, 1).setCellStyle("amount");
+            sheet.getCell(i, 2).setCellStyle("date");
+        }
+    }
+
+    @Benchmark
+    public long formatCells() {
+        long length = 0;
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            while (cursor.nextCell()) {
+                length += cursor.toString(Locale.GERMANY).length();
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.Sheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a full recalculation of all formulas with the incremental recalculation after a single input change.
+ * <p>
+ * Column A holds the inputs, column B running totals that each depend on the previous total, and C1 the sum of
+ * all totals. {@code incrementalRecalculation} changes an input near the end of the sheet and reads the sum, so
+ * only the totals below the changed input have to be recalculated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FormulaRecalculationBenchmark {
+
+    @Param({"ROW_OBJECTS", "COLUMNAR"})
+    public GenericCellStorage storage;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private GenericWorkbook workbook;
+    private Sheet sheet;
+    private Cell total;
+    private int counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workbook = GenericWorkbookFactory.instance(storage).create();
+        sheet = workbook.createSheet("data");
+        for (int i = 0; i < rows; i++) {
+            sheet.getCell(i, 0).set(i);
+            sheet.getCell(i, 1).setFormula(i == 0 ? "A1" : "B" + i + "+A" + (i + 1));
+        }
+        total = sheet.getCell(0, 2).setFormula("SUM(B1:B" + rows + ")");
+        total.getNumber();
+    }
+
+    @Benchmark
+    public double fullRecalculation() {
+        workbook.evaluateAllFormulaCells();
+        return total.getNumber().doubleValue();
+    }
+
+    @Benchmark
+    public double incrementalRecalculation() {
+        sheet.getCell(rows - 100, 0).set(counter++);
+        return total.getNumber().doubleValue();
+    }
+}
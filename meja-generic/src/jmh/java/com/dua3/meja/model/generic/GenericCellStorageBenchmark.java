@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Row;
+import com.dua3.meja.model.Sheet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the memory footprint of the {@link GenericCellStorage} layouts.
+ * <p>
+ * Each invocation fills a sheet with numeric, date and text columns. Run with the GC profiler
+ * ({@code -prof gc}) to compare the allocated bytes per operation ({@code gc.alloc.rate.norm});
+ * the heap retained by the last populated workbook is printed at the end of each iteration, together with
+ * the {@link GenericWorkbook#memoryStats() estimated} size, to check the accuracy of the estimate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GenericCellStorageBenchmark {
+
+    private static final int COLUMNS = 10;
+    private static final String[] CATEGORIES = {"alpha", "beta", "gamma", "delta", "epsilon"};
+
+    @Param({"ROW_OBJECTS", "COLUMNAR"})
+    public GenericCellStorage storage;
+
+    @Param({"200000"})
+    public int rows;
+
+    private GenericWorkbook workbook;
+
+    @Benchmark
+    public void populate(Blackhole bh) {
+        GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create();
+        Sheet sheet = wb.createSheet("data");
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.getRow(i);
+            row.getCell(0).set(start.plusDays(i % 10_000));
+            row.getCell(1).set(CATEGORIES[i % CATEGORIES.length]);
+            for (int j = 2; j < COLUMNS; j++) {
+                row.getCell(j).set(i * 0.5 + j);
+            }
+        }
+        workbook = wb;
+        bh.consume(wb);
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportRetainedHeap() throws IOException {
+        long estimated = workbook.memoryStats().totalBytes();
+        long withWorkbook = usedHeapAfterGc();
+        workbook.close();
+        workbook = null;
+        long withoutWorkbook = usedHeapAfterGc();
+        System.out.printf("%n%s: %,d cells retain approx. %,d bytes (estimated: %,d bytes)%n",
+                storage, (long) rows * COLUMNS, withWorkbook - withoutWorkbook, estimated);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
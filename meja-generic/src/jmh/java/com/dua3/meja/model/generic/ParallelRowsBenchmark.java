@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Row;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how a column aggregation over {@link Sheet#parallelRows()} scales with the number of threads.
+ * <p>
+ * The aggregation runs in a dedicated {@link ForkJoinPool} whose parallelism is given by the {@code threads}
+ * parameter; {@code sequential} uses {@link Sheet#rows()} as the baseline. Compare the results for increasing
+ * thread counts up to the number of available cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParallelRowsBenchmark {
+
+    private static final int COLUMNS = 8;
+
+    @Param({"ROW_OBJECTS", "COLUMNAR"})
+    public GenericCellStorage storage;
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    public int threads;
+
+    private Sheet sheet;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sheet = GenericWorkbookFactory.instance(storage).create().createSheet("data");
+        double[] values = new double[COLUMNS];
+        try (SheetAppender appender = sheet.appender()) {
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < COLUMNS; j++) {
+                    values[j] = i * 0.25 + j;
+                }
+                appender.appendRow(values);
+            }
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    private static double value(Row row) {
+        return row.getCellIfExists(COLUMNS / 2)
+                .map(cell -> cell.getNumber().doubleValue())
+                .orElse(0.0);
+    }
+
+    @Benchmark
+    public double sequential() {
+        return sheet.rows().mapToDouble(ParallelRowsBenchmark::value).sum();
+    }
+
+    @Benchmark
+    public double parallel() throws ExecutionException, InterruptedException {
+        try (var lock = sheet.readLock("ParallelRowsBenchmark.parallel()")) {
+            return pool.submit(() -> sheet.parallelRows().mapToDouble(ParallelRowsBenchmark::value).sum()).get();
+        }
+    }
+}
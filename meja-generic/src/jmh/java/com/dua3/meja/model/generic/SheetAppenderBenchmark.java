@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Row;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading a sheet cell by cell with loading it through a {@link SheetAppender}.
+ * <p>
+ * Both benchmarks fill a sheet with the same numeric, date and text columns. Divide the number of cells
+ * ({@code rows * 10}) by the measured time to get the load rate in cells per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SheetAppenderBenchmark {
+
+    private static final int COLUMNS = 10;
+    private static final String[] CATEGORIES = {"alpha", "beta", "gamma", "delta", "epsilon"};
+
+    @Param({"ROW_OBJECTS", "COLUMNAR"})
+    public GenericCellStorage storage;
+
+    @Param({"500000"})
+    public int rows;
+
+    @Benchmark
+    public void cellByCell(Blackhole bh) {
+        GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create();
+        Sheet sheet = wb.createSheet("data");
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            Row row = sheet.getRow(i);
+            row.getCell(0).set(start.plusDays(i % 10_000));
+            row.getCell(1).set(CATEGORIES[i % CATEGORIES.length]);
+            for (int j = 2; j < COLUMNS; j++) {
+                row.getCell(j).set(i * 0.5 + j);
+            }
+        }
+        bh.consume(wb);
+    }
+
+    @Benchmark
+    public void appender(Blackhole bh) {
+        GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create();
+        Sheet sheet = wb.createSheet("data");
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        Object[] values = new Object[COLUMNS];
+        try (SheetAppender appender = sheet.appender()) {
+            for (int i = 0; i < rows; i++) {
+                values[0] = start.plusDays(i % 10_000);
+                values[1] = CATEGORIES[i % CATEGORIES.length];
+                for (int j = 2; j < COLUMNS; j++) {
+                    values[j] = i * 0.5 + j;
+                }
+                appender.appendRow(values);
+            }
+        }
+        bh.consume(wb);
+    }
+}
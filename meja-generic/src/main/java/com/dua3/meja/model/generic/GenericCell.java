@@ -19,6 +19,9 @@ import com.dua3.meja.model.AbstractCell;
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.CellStyle;
 import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
+import com.dua3.meja.model.generic.formula.FormulaEngine;
+import com.dua3.meja.util.MemoryEstimates;
 import com.dua3.utility.lang.LangUtil;
 import com.dua3.utility.text.RichText;
 import org.jspecify.annotations.Nullable;
@@ -29,16 +32,33 @@ import java.time.LocalDateTime;
 import java.util.EnumMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Implementation of the {@link Cell} interface for {@link GenericSheet}.
+ * <p>
+ * For sheets using {@link GenericCellStorage#ROW_OBJECTS}, the cell holds its data. For sheets using
+ * {@link GenericCellStorage#COLUMNAR}, instances are views created on demand that read and write
+ * the sheet's {@link GenericColumnStore}.
+ * <p>
+ * Formula cells hold the formula text. The accessors for the result types, i.e., {@link #getNumber()}, return the
+ * formula result calculated by the workbook's formula engine.
  */
 public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericCell> {
     private static final int MAX_HORIZONTAL_SPAN = 0xefff;
     private static final int MAX_VERTICAL_SPAN = 0xef_ffff;
     private static final int MAX_COLUMN_NUMBER = 0xef_ffff;
 
+    /**
+     * The estimated size of a cell object: six references and the data field.
+     */
+    private static final long CELL_BYTES = MemoryEstimates.objectBytes(6, Long.BYTES);
+    /**
+     * The estimated size of the {@link EnumMap} holding the attributes of a cell.
+     */
+    private static final long ATTRIBUTES_BYTES = 72;
+
     /**
      * The precalculated initial value for the data field with rowspan=colspan=1 and
      * a cell type of blank.
@@ -48,6 +68,7 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     private @Nullable Object value;
     private GenericCellStyle cellStyle;
     private @Nullable Map<Attribute, Object> attributes;
+    private final @Nullable GenericColumnStore store;
 
     enum Attribute {
         LINK_URI,
@@ -55,6 +76,9 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     }
 
     private Optional<Object> getAttribute(Attribute name) {
+        if (store != null) {
+            return store.getAttribute(getRowNumber(), getColumnNumber(), name);
+        }
         if (attributes == null) {
             return Optional.empty();
         }
@@ -62,6 +86,12 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     }
 
     private void setAttribute(Attribute name, @Nullable Object value) {
+        checkWritable();
+
+        if (store != null) {
+            store.setAttribute(getRowNumber(), getColumnNumber(), name, value);
+            return;
+        }
         if (value == null) {
             if (attributes != null) {
                 attributes.remove(name);
@@ -107,25 +137,112 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
         this.cellStyle = cellStyle;
         this.value = null;
+        this.store = null;
 
         initData(colNr);
     }
 
+    /**
+     * Construct a copy of a cell of a sheet using {@link GenericCellStorage#ROW_OBJECTS}.
+     * <p>
+     * Value, type and attributes are copied; merged region information is not.
+     *
+     * @param row       the row this cell belongs to
+     * @param other     the cell to copy
+     * @param cellStyle the cell style to use
+     */
+    GenericCell(GenericRow row, GenericCell other, GenericCellStyle cellStyle) {
+        super(row);
+
+        assert other.store == null : "cell is a view";
+
+        this.cellStyle = cellStyle;
+        this.value = other.value;
+        this.store = null;
+        this.attributes = other.attributes == null ? null : new EnumMap<>(other.attributes);
+
+        // keep column number and cell type, reset the spans
+        this.data = (other.data & 0xffff_0000_0000_00ffL) | (INITIAL_DATA & 0x0000_ffff_ffff_ff00L);
+    }
+
+    /**
+     * Construct a new {@code GenericCell} view for a sheet using {@link GenericCellStorage#COLUMNAR}.
+     *
+     * @param row   the row this cell belongs to
+     * @param colNr the column number
+     * @param store the column store holding the cell data
+     */
+    GenericCell(GenericRow row, int colNr, GenericColumnStore store) {
+        super(row);
+
+        LangUtil.check(colNr >= 0 && colNr <= MAX_COLUMN_NUMBER, () -> new CellException(this, "column number out of range: " + colNr));
+
+        this.store = store;
+        this.cellStyle = store.getCellStyle(row.getRowNumber(), colNr);
+        this.value = null;
+
+        initData(colNr);
+
+        // views do not keep merge information, so it has to be restored from the sheet's merged regions
+        GenericSheet sheet = getAbstractSheet();
+        sheet.getMergedRegion(row.getRowNumber(), colNr)
+                .ifPresent(mergedRegion -> {
+                    boolean isTopLeft = row.getRowNumber() == mergedRegion.firstRow() && colNr == mergedRegion.firstColumn();
+                    GenericCell topLeftCell = isTopLeft
+                            ? this
+                            : sheet.getAbstractRow(mergedRegion.firstRow()).getAbstractCell(mergedRegion.firstColumn());
+
+                    int mergedSpanX = 1 + mergedRegion.lastColumn() - mergedRegion.firstColumn();
+                    int mergedSpanY = 1 + mergedRegion.lastRow() - mergedRegion.firstRow();
+
+                    addedToMergedRegion(topLeftCell, mergedSpanX, mergedSpanY);
+                });
+    }
+
+    /**
+     * Get the cell value from this cell or the column store.
+     *
+     * @return the cell value
+     */
+    private @Nullable Object value() {
+        return store != null ? store.getValue(getRowNumber(), getColumnNumber()) : value;
+    }
+
+    /**
+     * Get the result of the formula in this cell.
+     *
+     * @return the formula result, or {@code null} if this is not a formula cell
+     */
+    private @Nullable Object formulaResult() {
+        if (getCellType() != CellType.FORMULA) {
+            return null;
+        }
+        return getAbstractSheet().evaluateFormula(getRowNumber(), getColumnNumber(), (String) Objects.requireNonNull(value()));
+    }
+
     @Override
     public void clear() {
-        Object old = value;
-        setCellType(CellType.BLANK);
-        this.value = null;
+        checkWritable();
+
+        if (isEmpty()) {
+            return;
+        }
+
+        Object old = value();
+        setValue(null, CellType.BLANK);
         valueChanged(old, null);
     }
 
     @Override
     public @Nullable Object getOrDefault(@Nullable Object defaultValue) {
-        return value != null ? value : defaultValue;
+        Object v = value();
+        return v != null ? v : defaultValue;
     }
 
     @Override
     public RichText getAsText(Locale locale) {
+        Object value = value();
+        GenericCellStyle cellStyle = getCellStyle();
         assert value != null || getCellType() == CellType.BLANK;
 
         return switch (getCellType()) {
@@ -134,6 +251,7 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
             case NUMERIC -> RichText.valueOf(cellStyle.format((Number) value, locale));
             case DATE -> RichText.valueOf(cellStyle.format((LocalDate) value, locale));
             case DATE_TIME -> RichText.valueOf(cellStyle.format((LocalDateTime) value, locale));
+            case FORMULA -> RichText.valueOf(toString(locale));
             default -> RichText.valueOf(value);
         };
     }
@@ -141,19 +259,43 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     @Override
     public boolean getBoolean() {
         if (getCellType() == CellType.BOOLEAN) {
+            Object value = value();
             assert value != null;
             return (boolean) value;
         }
+        if (formulaResult() instanceof Boolean b) {
+            return b;
+        }
         throw new CellException(this, "Cannot get boolean value from cell of type " + getCellType().name() + ".");
     }
 
     @Override
     public GenericCellStyle getCellStyle() {
-        return cellStyle;
+        return store != null ? store.getCellStyle(getRowNumber(), getColumnNumber()) : cellStyle;
+    }
+
+    /**
+     * Add the estimated memory footprint of this cell and its value.
+     *
+     * @param stats the builder to add the estimates to
+     */
+    void estimateMemory(MemoryStats.Builder stats) {
+        long bytes = CELL_BYTES;
+        if (attributes != null) {
+            bytes += ATTRIBUTES_BYTES;
+            for (Object attribute : attributes.values()) {
+                bytes += MemoryEstimates.valueBytes(attribute);
+            }
+        }
+        stats.addCells(1, bytes);
+        stats.addValues(getCellType(), MemoryEstimates.valueBytes(value));
     }
 
     @Override
     public CellType getCellType() {
+        if (store != null) {
+            return store.getCellType(getRowNumber(), getColumnNumber());
+        }
         return CellType.values()[(int) (data & 0xffL)];
     }
 
@@ -165,24 +307,33 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     @Override
     public LocalDate getDate() {
         if (getCellType() == CellType.DATE) {
+            Object value = value();
             assert value != null;
             return (LocalDate) value;
         }
+        if (formulaResult() instanceof LocalDate d) {
+            return d;
+        }
         throw new CellException(this, "Cannot get date value from cell of type " + getCellType().name() + ".");
     }
 
     @Override
     public LocalDateTime getDateTime() {
         if (getCellType() == CellType.DATE_TIME) {
+            Object value = value();
             assert value != null;
             return (LocalDateTime) value;
         }
+        if (formulaResult() instanceof LocalDateTime dt) {
+            return dt;
+        }
         throw new CellException(this, "Cannot get date value from cell of type " + getCellType().name() + ".");
     }
 
     @Override
     public String getFormula() {
         if (getCellType() == CellType.FORMULA) {
+            Object value = value();
             assert value != null;
             return (String) value;
         }
@@ -197,15 +348,20 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     @Override
     public Number getNumber() {
         if (getCellType() == CellType.NUMERIC) {
+            Object value = value();
             assert value != null;
             return (Number) value;
         }
+        if (formulaResult() instanceof Double d) {
+            return d;
+        }
         throw new CellException(this, "Cannot get numeric value from cell of type " + getCellType().name() + ".");
     }
 
     @Override
     public CellType getResultType() {
-        return getCellType();
+        Object result = formulaResult();
+        return result != null ? FormulaEngine.getResultType(result) : getCellType();
     }
 
     @Override
@@ -215,8 +371,12 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
     @Override
     public RichText getText() {
+        Object value = value();
         assert value != null || getCellType() == CellType.BLANK;
 
+        if (getCellType() == CellType.FORMULA && formulaResult() instanceof String s) {
+            return RichText.valueOf(s);
+        }
         return switch (getCellType()) {
             case BLANK -> RichText.emptyText();
             case TEXT -> (RichText) value;
@@ -237,6 +397,9 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
     @Override
     public boolean isEmpty() {
+        if (store != null) {
+            return store.isBlank(getRowNumber(), getColumnNumber());
+        }
         return getCellType() == CellType.BLANK;
     }
 
@@ -261,9 +424,21 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
     }
 
     private GenericCell set(@Nullable Object arg, CellType type) {
+        checkWritable();
+
         if (arg == null) {
             clear();
         } else {
+            if (store != null) {
+                // the column store holds primitives and dictionary-encoded values, no need to use the cache
+                Object old = value();
+                if (type != getCellType() || !Objects.equals(arg, old)) {
+                    setValue(arg, type);
+                    valueChanged(old, arg);
+                }
+                return this;
+            }
+
             GenericSheet sheet = getAbstractSheet();
             arg = sheet.getWorkbook().cache(arg);
             if (arg != value || type != getCellType()) {
@@ -297,24 +472,96 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
     @Override
     public GenericCell setCellStyle(CellStyle cellStyle) {
+        checkWritable();
+
         //noinspection ObjectEquality
         LangUtil.check(cellStyle.getWorkbook() == getWorkbook(),
                 () -> new CellException(this, "Cell style does not belong to this workbook."));
 
+        GenericCellStyle old = getCellStyle();
         //noinspection ObjectEquality
-        if (cellStyle != this.cellStyle) {
-            GenericCellStyle old = this.cellStyle;
+        if (cellStyle != old) {
             this.cellStyle = (GenericCellStyle) cellStyle;
+            if (store != null) {
+                store.setCellStyle(getRowNumber(), getColumnNumber(), this.cellStyle);
+            }
             styleChanged(old, this.cellStyle);
         }
 
         return this;
     }
 
+    /**
+     * Initialize the value of a newly created cell without publishing an event.
+     * <p>
+     * Only used for sheets using {@link GenericCellStorage#ROW_OBJECTS}.
+     *
+     * @param arg  the value as returned by {@link #normalize(Object)}
+     * @param type the cell type as returned by {@link #cellTypeOf(Object)}
+     */
+    void initValue(Object arg, CellType type) {
+        assert store == null : "cell is a view";
+        setCellType(type);
+        value = arg;
+    }
+
+    /**
+     * Convert a value to the representation stored in cells, applying the same conversions as
+     * {@link Cell#set(Object)}.
+     *
+     * @param arg the value
+     * @return the converted value, or {@code null} if the value results in a blank cell
+     */
+    static @Nullable Object normalize(@Nullable Object arg) {
+        return switch (arg) {
+            case null -> null;
+            case Number n -> n;
+            case Boolean b -> b;
+            case LocalDateTime ldt -> ldt;
+            case LocalDate ld -> ld;
+            case RichText rt -> rt.isEmpty() ? null : rt;
+            default -> {
+                String s = String.valueOf(arg);
+                yield s.isEmpty() ? null : RichText.valueOf(s);
+            }
+        };
+    }
+
+    /**
+     * Determine the cell type for a value returned by {@link #normalize(Object)}.
+     *
+     * @param arg the value
+     * @return the cell type
+     */
+    static CellType cellTypeOf(Object arg) {
+        return switch (arg) {
+            case Number n -> CellType.NUMERIC;
+            case Boolean b -> CellType.BOOLEAN;
+            case LocalDateTime ldt -> CellType.DATE_TIME;
+            case LocalDate ld -> CellType.DATE;
+            default -> CellType.TEXT;
+        };
+    }
+
     private void setCellType(CellType type) {
         data = (data & 0xffff_ffff_ffff_ff00L) | type.ordinal();
     }
 
+    /**
+     * Store the value and type of this cell, either in this instance or in the column store.
+     *
+     * @param arg  the new value
+     * @param type the new cell type
+     */
+    private void setValue(@Nullable Object arg, CellType type) {
+        if (store != null) {
+            store.setValue(getRowNumber(), getColumnNumber(), arg, type);
+        } else {
+            setCellType(type);
+            value = arg;
+        }
+    }
+
     @Override
     public GenericCell setFormula(@Nullable String value) {
         set(value, CellType.FORMULA);
@@ -335,8 +582,8 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
     @Override
     public Cell setError() {
-        setCellType(CellType.ERROR);
-        value = null;
+        checkWritable();
+        setValue(null, CellType.ERROR);
         return this;
     }
 
@@ -374,9 +621,26 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
 
     @Override
     public String toString(Locale locale) {
-        assert value != null || getCellType() == CellType.BLANK;
+        Object result = formulaResult();
+        if (result != null) {
+            return format(getCellStyle(), FormulaEngine.getResultType(result), result, locale);
+        }
+        return format(getCellStyle(), getCellType(), value(), locale);
+    }
 
-        return switch (getCellType()) {
+    /**
+     * Format a cell value.
+     *
+     * @param cellStyle the cell style
+     * @param type      the cell type
+     * @param value     the cell value
+     * @param locale    the locale to use
+     * @return the formatted value
+     */
+    static String format(GenericCellStyle cellStyle, CellType type, @Nullable Object value, Locale locale) {
+        assert value != null || type == CellType.BLANK || type == CellType.ERROR;
+
+        return switch (type) {
             case BLANK -> "";
             case NUMERIC -> cellStyle.format((Number) value, locale);
             case DATE -> cellStyle.format((LocalDate) value, locale);
@@ -385,4 +649,25 @@ public class GenericCell extends AbstractCell<GenericSheet, GenericRow, GenericC
         };
     }
 
+    @Override
+    public boolean equals(@Nullable Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        // views of the same cell are equal
+        return store != null
+                && obj instanceof GenericCell other
+                && other.store == store
+                && other.getAbstractRow() == getAbstractRow()
+                && other.getColumnNumber() == getColumnNumber();
+    }
+
+    @Override
+    public int hashCode() {
+        if (store == null) {
+            return super.hashCode();
+        }
+        return System.identityHashCode(getAbstractRow()) * 31 + getColumnNumber();
+    }
+
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+/**
+ * The storage layout used by the cells of a {@link GenericWorkbook}.
+ */
+public enum GenericCellStorage {
+    /**
+     * Each row keeps a list of {@link GenericCell} instances that hold the cell data.
+     * <p>
+     * This is the default layout. Cell instances are stable, i.e., the same instance is returned
+     * every time a cell is accessed.
+     */
+    ROW_OBJECTS,
+    /**
+     * Cell data is kept in per-column primitive arrays ({@code double[]}, {@code long[]} and
+     * dictionary-encoded text), together with a type tag per cell.
+     * <p>
+     * {@link GenericCell} instances are lightweight views that are created on demand and do not hold
+     * the cell data. Use this layout for large sheets where object headers and boxed values would
+     * otherwise dominate heap usage. Because views are created on demand, cells must be compared
+     * using {@link Object#equals(Object)} instead of reference comparison.
+     */
+    COLUMNAR
+}
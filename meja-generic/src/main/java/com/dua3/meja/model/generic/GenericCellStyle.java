@@ -25,18 +25,12 @@ import com.dua3.utility.data.Color;
 import com.dua3.utility.lang.LangUtil;
 import com.dua3.utility.text.Font;
 import com.dua3.utility.text.FontUtil;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
-import org.jspecify.annotations.Nullable;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Implementation of the {@link CellStyle} interface for {@link GenericSheet}.
@@ -45,8 +39,6 @@ public class GenericCellStyle implements CellStyle {
 
     private static final BorderStyle defaultBorderStyle = new BorderStyle(0.0f, Color.BLACK);
 
-    private static final Logger LOGGER = LogManager.getLogger(GenericCellStyle.class);
-
     private final GenericWorkbook workbook;
 
     private Font font;
@@ -57,11 +49,11 @@ public class GenericCellStyle implements CellStyle {
     private VAlign vAlign;
     private final BorderStyle[] borderStyle = new BorderStyle[Direction.values().length];
     private boolean wrap;
-    private String dataFormat;
+    private volatile String dataFormat;
     private short rotation;
 
-    // formatting helper
-    private @Nullable DateTimeFormatter dateFormatter;
+    // formatting helper: the data format compiled per locale, replaced when the data format changes
+    private volatile Map<Locale, GenericDataFormat> compiledFormats = new ConcurrentHashMap<>();
 
     /**
      * Construct a new {@code GenericCellStyle}.
@@ -94,7 +86,7 @@ public class GenericCellStyle implements CellStyle {
      */
     @SuppressWarnings("TypeMayBeWeakened")
     public String format(LocalDateTime arg, Locale locale) {
-        return getDateFormatter(locale).format(arg);
+        return getCompiledFormat(locale).format(arg);
     }
 
     /**
@@ -106,23 +98,7 @@ public class GenericCellStyle implements CellStyle {
      */
     @SuppressWarnings("TypeMayBeWeakened")
     public String format(LocalDate arg, Locale locale) {
-        return getDateFormatter(locale).format(arg);
-    }
-
-    private DateTimeFormatter getDateFormatter(Locale locale) {
-        if (dateFormatter == null) {
-            try {
-                if (dataFormat.isEmpty()) {
-                    dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
-                } else {
-                    dateFormatter = DateTimeFormatter.ofPattern(dataFormat, locale);
-                }
-            } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
-                LOGGER.warn("not a date pattern: '{}'", dataFormat);
-                dateFormatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
-            }
-        }
-        return dateFormatter.localizedBy(locale);
+        return getCompiledFormat(locale).format(arg);
     }
 
     /**
@@ -133,17 +109,11 @@ public class GenericCellStyle implements CellStyle {
      * @return text representation of {@code n}
      */
     public String format(Number n, Locale locale) {
-        String fmt = dataFormat.isEmpty() ? "0.##########" : dataFormat;
-        NumberFormat numberFormatter;
-        try {
-            DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
-            numberFormatter = new DecimalFormat(fmt, symbols);
-        } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
-            LOGGER.warn("not a number pattern: '{}'", fmt);
-            numberFormatter = NumberFormat.getInstance(locale);
-            numberFormatter.setGroupingUsed(false);
-        }
-        return numberFormatter.format(n);
+        return getCompiledFormat(locale).format(n);
+    }
+
+    private GenericDataFormat getCompiledFormat(Locale locale) {
+        return compiledFormats.computeIfAbsent(locale, loc -> new GenericDataFormat(dataFormat, loc));
     }
 
     @Override
@@ -203,52 +173,62 @@ public class GenericCellStyle implements CellStyle {
 
     @Override
     public void setBorderStyle(Direction d, BorderStyle borderStyle) {
+        checkWritable();
         this.borderStyle[d.ordinal()] = borderStyle;
     }
 
     @Override
     public void setDataFormat(String format) {
+        checkWritable();
         this.dataFormat = format;
-        this.dateFormatter = null;
+        this.compiledFormats = new ConcurrentHashMap<>();
     }
 
     @Override
     public void setFillBgColor(Color color) {
+        checkWritable();
         this.fillBgColor = color;
     }
 
     @Override
     public void setFillFgColor(Color color) {
+        checkWritable();
         this.fillFgColor = color;
     }
 
     @Override
     public void setFillPattern(FillPattern pattern) {
+        checkWritable();
         this.fillPattern = pattern;
     }
 
     @Override
     public void setFont(Font font) {
+        checkWritable();
         this.font = font;
     }
 
     @Override
     public void setHAlign(HAlign hAlign) {
+        checkWritable();
         this.hAlign = hAlign;
     }
 
     @Override
     public void setVAlign(VAlign vAlign) {
+        checkWritable();
         this.vAlign = vAlign;
     }
 
     @Override
     public void setWrap(boolean wrap) {
+        checkWritable();
         this.wrap = wrap;
     }
 
     @Override
     public void setRotation(short angle) {
+        checkWritable();
         this.rotation = LangUtil.requireInInterval(angle, (short) -90, (short) 90);
     }
 
@@ -256,4 +236,10 @@ public class GenericCellStyle implements CellStyle {
     public short getRotation() {
         return rotation;
     }
+
+    private void checkWritable() {
+        if (workbook.isReadOnly()) {
+            throw new UnsupportedOperationException("the workbook is read-only");
+        }
+    }
 }
@@ -0,0 +1,618 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
+import com.dua3.meja.util.MemoryEstimates;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+/**
+ * Columnar cell storage for a {@link GenericSheet} using {@link GenericCellStorage#COLUMNAR}.
+ * <p>
+ * Each column stores a type tag per row and keeps values in primitive arrays that are allocated lazily
+ * when the first value of a matching type is stored:
+ * <ul>
+ *     <li>{@code double[]} for {@link Double} values,
+ *     <li>{@code long[]} for {@link Long} and {@link Integer} values, dates (epoch day), and date-time values
+ *         (nanoseconds since the epoch),
+ *     <li>{@code int[]} codes into a sheet-wide dictionary for text, formulas and all other values.
+ * </ul>
+ * Cell styles are stored as indexes into a style table, and hyperlinks are kept in a sparse map since they
+ * are rare.
+ * <p>
+ * Dictionary entries are never removed, so overwriting many distinct texts leaves unused entries behind
+ * until the sheet is cleared.
+ * <p>
+ * {@link #copyFrom(GenericColumnStore, UnaryOperator)} shares the columns of another store instead of copying them.
+ * Shared columns are never modified; a store copies a shared column before modifying it for the first time.
+ */
+final class GenericColumnStore {
+
+    private static final byte TAG_BLANK = 0;
+    private static final byte TAG_DOUBLE = 1;
+    private static final byte TAG_LONG = 2;
+    private static final byte TAG_INTEGER = 3;
+    private static final byte TAG_DATE = 4;
+    private static final byte TAG_DATE_TIME = 5;
+    private static final byte TAG_TEXT = 6;
+    private static final byte TAG_FORMULA = 7;
+    private static final byte TAG_FALSE = 8;
+    private static final byte TAG_TRUE = 9;
+    private static final byte TAG_ERROR = 10;
+    private static final byte TAG_NUMBER_OBJECT = 11;
+    private static final byte TAG_DATE_TIME_OBJECT = 12;
+
+    private static final CellType[] CELL_TYPE_BY_TAG = {
+            CellType.BLANK,
+            CellType.NUMERIC,
+            CellType.NUMERIC,
+            CellType.NUMERIC,
+            CellType.DATE,
+            CellType.DATE_TIME,
+            CellType.TEXT,
+            CellType.FORMULA,
+            CellType.BOOLEAN,
+            CellType.BOOLEAN,
+            CellType.ERROR,
+            CellType.NUMERIC,
+            CellType.DATE_TIME
+    };
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long MAX_EPOCH_SECOND_AS_NANOS = Long.MAX_VALUE / NANOS_PER_SECOND - 1;
+
+    /**
+     * The estimated size of a {@link Column} object without its arrays.
+     */
+    private static final long COLUMN_BYTES = MemoryEstimates.objectBytes(5, 1);
+    /**
+     * The estimated size of the attributes of a cell: the boxed key and the {@link EnumMap} holding the values.
+     */
+    private static final long ATTRIBUTES_BYTES = MemoryEstimates.BOXED_BYTES + 72;
+
+    private static final byte[] EMPTY_TAGS = {};
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The storage for a single column.
+     */
+    private static final class Column {
+        private byte[] tags = EMPTY_TAGS;
+        private double @Nullable [] doubles;
+        private long @Nullable [] longs;
+        private int @Nullable [] codes;
+        private int @Nullable [] styles;
+        /**
+         * Set when the column is referenced by more than one store; the column must not be modified anymore.
+         */
+        private volatile boolean shared;
+
+        /**
+         * Create an unshared copy of this column.
+         *
+         * @return the copy
+         */
+        Column copy() {
+            Column column = new Column();
+            column.tags = tags.clone();
+            column.doubles = doubles == null ? null : doubles.clone();
+            column.longs = longs == null ? null : longs.clone();
+            column.codes = codes == null ? null : codes.clone();
+            column.styles = styles == null ? null : styles.clone();
+            return column;
+        }
+
+        /**
+         * Release the capacity of the arrays beyond the given number of rows.
+         *
+         * @param rowCount the number of rows
+         */
+        void trimToSize(int rowCount) {
+            if (tags.length > rowCount) {
+                tags = Arrays.copyOf(tags, rowCount);
+            }
+            if (doubles != null && doubles.length > rowCount) {
+                doubles = Arrays.copyOf(doubles, rowCount);
+            }
+            if (longs != null && longs.length > rowCount) {
+                longs = Arrays.copyOf(longs, rowCount);
+            }
+            if (codes != null && codes.length > rowCount) {
+                codes = Arrays.copyOf(codes, rowCount);
+            }
+            if (styles != null && styles.length > rowCount) {
+                styles = Arrays.copyOf(styles, rowCount);
+            }
+        }
+    }
+
+    private final GenericCellStyle defaultCellStyle;
+    private final ArrayList<Column> columns = new ArrayList<>();
+    private final ArrayList<Object> dictionary = new ArrayList<>();
+    private final Map<Object, Integer> dictionaryIndex = new HashMap<>();
+    private final ArrayList<GenericCellStyle> styles = new ArrayList<>();
+    private final Map<GenericCellStyle, Integer> styleIndex = new IdentityHashMap<>();
+    private final Map<Long, Map<GenericCell.Attribute, Object>> attributes = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param defaultCellStyle the cell style of cells that have no explicitly set style
+     */
+    GenericColumnStore(GenericCellStyle defaultCellStyle) {
+        this.defaultCellStyle = defaultCellStyle;
+        clear();
+    }
+
+    /**
+     * Remove all data from this store.
+     */
+    void clear() {
+        columns.clear();
+        dictionary.clear();
+        dictionaryIndex.clear();
+        styles.clear();
+        styleIndex.clear();
+        attributes.clear();
+
+        styles.add(defaultCellStyle);
+        styleIndex.put(defaultCellStyle, 0);
+    }
+
+    /**
+     * Copy the content of another store into this empty store.
+     * <p>
+     * The column data is shared with {@code other} and copied by either store before it is modified. Only the
+     * dictionary, the style table and the cell attributes are copied immediately.
+     *
+     * @param other        the store to copy
+     * @param styleMapping maps the cell styles of {@code other} to the cell styles to use in this store
+     * @return true, if the content was copied; false if the default cell style of {@code other} is not mapped to
+     * the default cell style of this store, in which case this store is not changed
+     */
+    boolean copyFrom(GenericColumnStore other, UnaryOperator<GenericCellStyle> styleMapping) {
+        assert columns.isEmpty() && dictionary.isEmpty() && styles.size() == 1 : "store is not empty";
+
+        List<GenericCellStyle> mappedStyles = new ArrayList<>(other.styles.size());
+        for (GenericCellStyle cellStyle : other.styles) {
+            mappedStyles.add(styleMapping.apply(cellStyle));
+        }
+        if (mappedStyles.getFirst() != defaultCellStyle) {
+            // cells without style storage use the default style
+            return false;
+        }
+
+        styles.clear();
+        styleIndex.clear();
+        for (int idx = 0; idx < mappedStyles.size(); idx++) {
+            GenericCellStyle cellStyle = mappedStyles.get(idx);
+            styles.add(cellStyle);
+            styleIndex.putIfAbsent(cellStyle, idx);
+        }
+
+        dictionary.addAll(other.dictionary);
+        dictionaryIndex.putAll(other.dictionaryIndex);
+
+        for (Column column : other.columns) {
+            column.shared = true;
+            columns.add(column);
+        }
+
+        other.attributes.forEach((key, cellAttributes) -> attributes.put(key, new EnumMap<>(cellAttributes)));
+
+        return true;
+    }
+
+    /**
+     * Release unused capacity. Columns shared with another store are not changed.
+     *
+     * @param rowCount the number of rows of the sheet
+     */
+    void trimToSize(int rowCount) {
+        for (Column column : columns) {
+            if (!column.shared) {
+                column.trimToSize(rowCount);
+            }
+        }
+        columns.trimToSize();
+        dictionary.trimToSize();
+        styles.trimToSize();
+    }
+
+    /**
+     * Add the estimated memory footprint of this store.
+     * <p>
+     * Primitive values are counted with their element size for the type of the cell they belong to; the remaining
+     * array capacity, the type tags, and the style indexes are counted as cell overhead. Dictionary entries are
+     * counted once, regardless of the number of cells referencing them.
+     *
+     * @param stats the builder to add the estimates to
+     */
+    void estimateMemory(MemoryStats.Builder stats) {
+        long cells = 0;
+        long bytes = MemoryEstimates.arrayBytes(columns.size(), MemoryEstimates.REFERENCE_BYTES);
+        EnumMap<CellType, Long> primitives = new EnumMap<>(CellType.class);
+        for (Column column : columns) {
+            bytes += COLUMN_BYTES + MemoryEstimates.arrayBytes(column.tags.length, 1);
+            bytes += column.doubles == null ? 0 : MemoryEstimates.arrayBytes(column.doubles.length, Double.BYTES);
+            bytes += column.longs == null ? 0 : MemoryEstimates.arrayBytes(column.longs.length, Long.BYTES);
+            bytes += column.codes == null ? 0 : MemoryEstimates.arrayBytes(column.codes.length, Integer.BYTES);
+            bytes += column.styles == null ? 0 : MemoryEstimates.arrayBytes(column.styles.length, Integer.BYTES);
+            for (byte tag : column.tags) {
+                if (tag == TAG_BLANK) {
+                    continue;
+                }
+                cells++;
+                if (tag == TAG_DOUBLE || tag == TAG_LONG || tag == TAG_INTEGER || tag == TAG_DATE || tag == TAG_DATE_TIME) {
+                    primitives.merge(CELL_TYPE_BY_TAG[tag], (long) Long.BYTES, Long::sum);
+                }
+            }
+        }
+
+        // the primitive values are part of the arrays counted above
+        for (Map.Entry<CellType, Long> entry : primitives.entrySet()) {
+            stats.addValues(entry.getKey(), entry.getValue());
+            bytes -= entry.getValue();
+        }
+
+        for (Object value : dictionary) {
+            CellType type = switch (value) {
+                case String s -> CellType.FORMULA;
+                case Number n -> CellType.NUMERIC;
+                case LocalDateTime dt -> CellType.DATE_TIME;
+                default -> CellType.TEXT;
+            };
+            stats.addValues(type, MemoryEstimates.valueBytes(value));
+        }
+        // the dictionary index maps each entry to its boxed code
+        bytes += MemoryEstimates.arrayBytes(dictionary.size(), MemoryEstimates.REFERENCE_BYTES)
+                + MemoryEstimates.hashMapBytes(dictionaryIndex.size())
+                + dictionaryIndex.size() * MemoryEstimates.BOXED_BYTES;
+
+        bytes += MemoryEstimates.arrayBytes(styles.size(), MemoryEstimates.REFERENCE_BYTES)
+                + MemoryEstimates.hashMapBytes(styleIndex.size());
+
+        bytes += MemoryEstimates.hashMapBytes(attributes.size()) + attributes.size() * ATTRIBUTES_BYTES;
+        for (Map<GenericCell.Attribute, Object> cellAttributes : attributes.values()) {
+            for (Object value : cellAttributes.values()) {
+                bytes += MemoryEstimates.valueBytes(value);
+            }
+        }
+
+        stats.addCells(cells, bytes);
+    }
+
+    /**
+     * Get the cell type.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return the cell type
+     */
+    CellType getCellType(int i, int j) {
+        return CELL_TYPE_BY_TAG[tag(i, j)];
+    }
+
+    /**
+     * Test if the cell is blank.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return true, if the cell is blank
+     */
+    boolean isBlank(int i, int j) {
+        return tag(i, j) == TAG_BLANK;
+    }
+
+    /**
+     * Get the cell value.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return the cell value, {@code null} for blank cells and cells with errors
+     */
+    @Nullable Object getValue(int i, int j) {
+        byte tag = tag(i, j);
+        if (tag == TAG_BLANK || tag == TAG_ERROR) {
+            return null;
+        }
+
+        Column column = columns.get(j);
+        return switch (tag) {
+            case TAG_DOUBLE -> primitive(column.doubles)[i];
+            case TAG_LONG -> primitive(column.longs)[i];
+            case TAG_INTEGER -> (int) primitive(column.longs)[i];
+            case TAG_DATE -> LocalDate.ofEpochDay(primitive(column.longs)[i]);
+            case TAG_DATE_TIME -> {
+                long nanos = primitive(column.longs)[i];
+                yield LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(nanos, NANOS_PER_SECOND),
+                        (int) Math.floorMod(nanos, NANOS_PER_SECOND),
+                        ZoneOffset.UTC
+                );
+            }
+            case TAG_FALSE -> Boolean.FALSE;
+            case TAG_TRUE -> Boolean.TRUE;
+            case TAG_TEXT, TAG_FORMULA, TAG_NUMBER_OBJECT, TAG_DATE_TIME_OBJECT ->
+                    dictionary.get(primitive(column.codes)[i]);
+            default -> throw new IllegalStateException("invalid tag: " + tag);
+        };
+    }
+
+    /**
+     * Get the numeric cell value as a primitive {@code double} without boxing.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return the numeric value
+     * @throws IllegalStateException if the cell is not numeric
+     */
+    double getDouble(int i, int j) {
+        return switch (tag(i, j)) {
+            case TAG_DOUBLE -> primitive(columns.get(j).doubles)[i];
+            case TAG_LONG, TAG_INTEGER -> primitive(columns.get(j).longs)[i];
+            case TAG_NUMBER_OBJECT -> ((Number) dictionary.get(primitive(columns.get(j).codes)[i])).doubleValue();
+            default -> throw new IllegalStateException("cell is not numeric");
+        };
+    }
+
+    /**
+     * Set the cell value.
+     *
+     * @param i     the row number
+     * @param j     the column number
+     * @param value the value; may only be {@code null} for types {@link CellType#BLANK} and {@link CellType#ERROR}
+     * @param type  the cell type
+     */
+    void setValue(int i, int j, @Nullable Object value, CellType type) {
+        Column column = column(j);
+        switch (type) {
+            case BLANK -> setTag(column, i, TAG_BLANK);
+            case ERROR -> setTag(column, i, TAG_ERROR);
+            case BOOLEAN -> setTag(column, i, Boolean.TRUE.equals(value) ? TAG_TRUE : TAG_FALSE);
+            case NUMERIC -> {
+                switch (value) {
+                    case Double d -> {
+                        column.doubles = ensureCapacity(column.doubles, i);
+                        column.doubles[i] = d;
+                        setTag(column, i, TAG_DOUBLE);
+                    }
+                    case Long n -> setLong(column, i, n, TAG_LONG);
+                    case Integer n -> setLong(column, i, n, TAG_INTEGER);
+                    case null -> throw new IllegalArgumentException("value must not be null");
+                    default -> setCode(column, i, value, TAG_NUMBER_OBJECT);
+                }
+            }
+            case DATE -> setLong(column, i, ((LocalDate) nonNull(value)).toEpochDay(), TAG_DATE);
+            case DATE_TIME -> {
+                LocalDateTime dt = (LocalDateTime) nonNull(value);
+                long seconds = dt.toEpochSecond(ZoneOffset.UTC);
+                if (Math.abs(seconds) <= MAX_EPOCH_SECOND_AS_NANOS) {
+                    setLong(column, i, seconds * NANOS_PER_SECOND + dt.getNano(), TAG_DATE_TIME);
+                } else {
+                    setCode(column, i, dt, TAG_DATE_TIME_OBJECT);
+                }
+            }
+            case TEXT -> setCode(column, i, nonNull(value), TAG_TEXT);
+            case FORMULA -> setCode(column, i, nonNull(value), TAG_FORMULA);
+            default -> throw new IllegalArgumentException("unsupported cell type: " + type);
+        }
+    }
+
+    /**
+     * Set a numeric cell value without boxing.
+     *
+     * @param i     the row number
+     * @param j     the column number
+     * @param value the value
+     */
+    void setDouble(int i, int j, double value) {
+        Column column = column(j);
+        column.doubles = ensureCapacity(column.doubles, i);
+        column.doubles[i] = value;
+        setTag(column, i, TAG_DOUBLE);
+    }
+
+    /**
+     * Get the cell style.
+     *
+     * @param i the row number
+     * @param j the column number
+     * @return the cell style
+     */
+    GenericCellStyle getCellStyle(int i, int j) {
+        if (j >= columns.size()) {
+            return defaultCellStyle;
+        }
+        int[] columnStyles = columns.get(j).styles;
+        return columnStyles != null && i < columnStyles.length ? styles.get(columnStyles[i]) : defaultCellStyle;
+    }
+
+    /**
+     * Set the cell style.
+     *
+     * @param i         the row number
+     * @param j         the column number
+     * @param cellStyle the cell style
+     */
+    void setCellStyle(int i, int j, GenericCellStyle cellStyle) {
+        int idx = styleIndex.computeIfAbsent(cellStyle, cs -> {
+            styles.add(cs);
+            return styles.size() - 1;
+        });
+
+        if (idx == 0) {
+            // the default style does not need any storage; do not create or unshare the column just to store it
+            int[] columnStyles = j < columns.size() ? columns.get(j).styles : null;
+            if (columnStyles == null || i >= columnStyles.length || columnStyles[i] == 0) {
+                return;
+            }
+        }
+
+        Column column = column(j);
+        column.styles = ensureCapacity(column.styles, i);
+        column.styles[i] = idx;
+    }
+
+    /**
+     * Get a cell attribute.
+     *
+     * @param i    the row number
+     * @param j    the column number
+     * @param name the attribute
+     * @return the attribute value, or an empty Optional if the attribute is not set
+     */
+    Optional<Object> getAttribute(int i, int j, GenericCell.Attribute name) {
+        Map<GenericCell.Attribute, Object> cellAttributes = attributes.get(key(i, j));
+        return cellAttributes == null ? Optional.empty() : Optional.ofNullable(cellAttributes.get(name));
+    }
+
+    /**
+     * Set or remove a cell attribute.
+     *
+     * @param i     the row number
+     * @param j     the column number
+     * @param name  the attribute
+     * @param value the attribute value, {@code null} to remove the attribute
+     */
+    void setAttribute(int i, int j, GenericCell.Attribute name, @Nullable Object value) {
+        Long key = key(i, j);
+        if (value == null) {
+            Map<GenericCell.Attribute, Object> cellAttributes = attributes.get(key);
+            if (cellAttributes != null) {
+                cellAttributes.remove(name);
+                if (cellAttributes.isEmpty()) {
+                    attributes.remove(key);
+                }
+            }
+            return;
+        }
+
+        attributes.computeIfAbsent(key, k -> new EnumMap<>(GenericCell.Attribute.class)).put(name, value);
+    }
+
+    private byte tag(int i, int j) {
+        if (j >= columns.size()) {
+            return TAG_BLANK;
+        }
+        byte[] tags = columns.get(j).tags;
+        return i < tags.length ? tags[i] : TAG_BLANK;
+    }
+
+    private Column column(int j) {
+        while (columns.size() <= j) {
+            columns.add(new Column());
+        }
+        Column column = columns.get(j);
+        if (column.shared) {
+            column = column.copy();
+            columns.set(j, column);
+        }
+        return column;
+    }
+
+    private static void setTag(Column column, int i, byte tag) {
+        if (i >= column.tags.length) {
+            if (tag == TAG_BLANK) {
+                // rows beyond the end of the tag array are blank anyway
+                return;
+            }
+            column.tags = Arrays.copyOf(column.tags, newCapacity(column.tags.length, i));
+        }
+        column.tags[i] = tag;
+    }
+
+    private static void setLong(Column column, int i, long value, byte tag) {
+        column.longs = ensureCapacity(column.longs, i);
+        column.longs[i] = value;
+        setTag(column, i, tag);
+    }
+
+    private void setCode(Column column, int i, Object value, byte tag) {
+        int code = dictionaryIndex.computeIfAbsent(value, v -> {
+            dictionary.add(v);
+            return dictionary.size() - 1;
+        });
+        column.codes = ensureCapacity(column.codes, i);
+        column.codes[i] = code;
+        setTag(column, i, tag);
+    }
+
+    private static double[] ensureCapacity(double @Nullable [] arr, int i) {
+        if (arr == null) {
+            return new double[newCapacity(0, i)];
+        }
+        return i < arr.length ? arr : Arrays.copyOf(arr, newCapacity(arr.length, i));
+    }
+
+    private static long[] ensureCapacity(long @Nullable [] arr, int i) {
+        if (arr == null) {
+            return new long[newCapacity(0, i)];
+        }
+        return i < arr.length ? arr : Arrays.copyOf(arr, newCapacity(arr.length, i));
+    }
+
+    private static int[] ensureCapacity(int @Nullable [] arr, int i) {
+        if (arr == null) {
+            return new int[newCapacity(0, i)];
+        }
+        return i < arr.length ? arr : Arrays.copyOf(arr, newCapacity(arr.length, i));
+    }
+
+    private static int newCapacity(int currentCapacity, int index) {
+        return Math.max(index + 1, Math.max(MIN_CAPACITY, currentCapacity + (currentCapacity >> 1)));
+    }
+
+    private static long key(int i, int j) {
+        return ((long) i << 32) | (j & 0xffff_ffffL);
+    }
+
+    private static double[] primitive(double @Nullable [] arr) {
+        assert arr != null : "inconsistent column data";
+        return arr;
+    }
+
+    private static long[] primitive(long @Nullable [] arr) {
+        assert arr != null : "inconsistent column data";
+        return arr;
+    }
+
+    private static int[] primitive(int @Nullable [] arr) {
+        assert arr != null : "inconsistent column data";
+        return arr;
+    }
+
+    private static Object nonNull(@Nullable Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        return value;
+    }
+}
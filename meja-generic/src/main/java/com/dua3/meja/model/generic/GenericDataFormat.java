@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
+/**
+ * The data format of a {@link GenericCellStyle} compiled for a single locale.
+ * <p>
+ * The date and number formatters are created on first use. Instances are thread-safe: {@link DateTimeFormatter} is
+ * immutable, and because {@link NumberFormat} is not, each thread formats numbers using its own copy of the
+ * compiled number format.
+ */
+final class GenericDataFormat {
+
+    private static final Logger LOGGER = LogManager.getLogger(GenericDataFormat.class);
+
+    private static final String DEFAULT_NUMBER_FORMAT = "0.##########";
+
+    private final String dataFormat;
+    private final Locale locale;
+
+    private volatile @Nullable DateTimeFormatter dateFormatter;
+    private volatile @Nullable ThreadLocal<NumberFormat> numberFormatter;
+
+    /**
+     * Constructor.
+     *
+     * @param dataFormat the data format as returned by {@link GenericCellStyle#getDataFormat()}
+     * @param locale     the locale
+     */
+    GenericDataFormat(String dataFormat, Locale locale) {
+        this.dataFormat = dataFormat;
+        this.locale = locale;
+    }
+
+    /**
+     * Format a date or date-time value.
+     *
+     * @param arg the value to format
+     * @return text representation of {@code arg}
+     */
+    String format(TemporalAccessor arg) {
+        DateTimeFormatter formatter = dateFormatter;
+        if (formatter == null) {
+            formatter = compileDateFormat();
+            dateFormatter = formatter;
+        }
+        return formatter.format(arg);
+    }
+
+    /**
+     * Format a number.
+     *
+     * @param n the number to format
+     * @return text representation of {@code n}
+     */
+    String format(Number n) {
+        ThreadLocal<NumberFormat> formatter = numberFormatter;
+        if (formatter == null) {
+            NumberFormat prototype = compileNumberFormat();
+            formatter = ThreadLocal.withInitial(() -> (NumberFormat) prototype.clone());
+            numberFormatter = formatter;
+        }
+        return formatter.get().format(n);
+    }
+
+    private DateTimeFormatter compileDateFormat() {
+        DateTimeFormatter formatter;
+        try {
+            if (dataFormat.isEmpty()) {
+                formatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
+            } else {
+                formatter = DateTimeFormatter.ofPattern(dataFormat, locale);
+            }
+        } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
+            LOGGER.warn("not a date pattern: '{}'", dataFormat);
+            formatter = DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM);
+        }
+        return formatter.localizedBy(locale);
+    }
+
+    private NumberFormat compileNumberFormat() {
+        String fmt = dataFormat.isEmpty() ? DEFAULT_NUMBER_FORMAT : dataFormat;
+        try {
+            return new DecimalFormat(fmt, DecimalFormatSymbols.getInstance(locale));
+        } catch (@SuppressWarnings("unused") IllegalArgumentException e) {
+            LOGGER.warn("not a number pattern: '{}'", fmt);
+            NumberFormat numberFormat = NumberFormat.getInstance(locale);
+            numberFormat.setGroupingUsed(false);
+            return numberFormat;
+        }
+    }
+}
@@ -17,19 +17,32 @@ package com.dua3.meja.model.generic;
 
 import com.dua3.meja.model.AbstractRow;
 import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
 import com.dua3.meja.model.Row;
 import com.dua3.meja.util.IteratorAdapter;
+import com.dua3.meja.util.MemoryEstimates;
 import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.UnaryOperator;
 
 /**
  * Implementation of the {@link Row} interface for {@link GenericSheet}.
  */
 public class GenericRow extends AbstractRow<GenericSheet, GenericRow, GenericCell> {
 
+    /**
+     * The estimated size of a row object including its cell list, excluding the list's array.
+     */
+    private static final long ROW_BYTES = MemoryEstimates.objectBytes(3, 2 * Integer.BYTES)
+            + MemoryEstimates.objectBytes(1, 2 * Integer.BYTES);
+
     private final ArrayList<GenericCell> cells;
+    private final @Nullable GenericColumnStore store;
+    private int columnCount;
 
     /**
      * Construct a new {@code GenericRow}.
@@ -39,7 +52,9 @@ public class GenericRow extends AbstractRow<GenericSheet, GenericRow, GenericCel
      */
     public GenericRow(GenericSheet sheet, int rowNumber) {
         super(sheet, rowNumber);
-        this.cells = new ArrayList<>(sheet.getColumnCount());
+        this.store = sheet.getColumnStore();
+        this.cells = store == null ? new ArrayList<>(sheet.getColumnCount()) : new ArrayList<>(0);
+        this.columnCount = 0;
     }
 
     @Override
@@ -51,6 +66,15 @@ public class GenericRow extends AbstractRow<GenericSheet, GenericRow, GenericCel
 
     @Override
     protected GenericCell getAbstractCell(int colIndex) {
+        if (store != null) {
+            if (colIndex >= columnCount) {
+                checkWritable();
+                columnCount = colIndex + 1;
+            }
+            getAbstractSheet().setColumnUsed(colIndex);
+            return new GenericCell(this, colIndex, store);
+        }
+
         reserve(colIndex);
         GenericCell cell = cells.get(colIndex);
         getAbstractSheet().setColumnUsed(colIndex);
@@ -59,22 +83,157 @@ public class GenericRow extends AbstractRow<GenericSheet, GenericRow, GenericCel
 
     @Override
     protected @Nullable GenericCell getAbstractCellOrNull(int col) {
+        if (store != null) {
+            return 0 <= col && col < columnCount ? new GenericCell(this, col, store) : null;
+        }
         return 0 <= col && col < cells.size() ? cells.get(col) : null;
     }
 
     @Override
     public final int getColumnCount() {
-        return cells.size();
+        return store != null ? columnCount : cells.size();
     }
 
     @Override
     public Iterator<Cell> iterator() {
+        if (store != null) {
+            return new Iterator<>() {
+                private int colNum;
+
+                @Override
+                public boolean hasNext() {
+                    return colNum < columnCount;
+                }
+
+                @Override
+                public Cell next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return new GenericCell(GenericRow.this, colNum++, store);
+                }
+            };
+        }
         return new IteratorAdapter<>(cells.iterator());
     }
 
+    /**
+     * Set the values of a newly created row without publishing cell events.
+     *
+     * @param values the values, converted as described in {@link Cell#set(Object)}
+     * @param length the number of values to use
+     */
+    void setValues(@Nullable Object[] values, int length) {
+        assert getColumnCount() == 0 : "row is not empty";
+
+        GenericSheet sheet = getAbstractSheet();
+        if (store != null) {
+            int i = getRowNumber();
+            for (int j = 0; j < length; j++) {
+                Object value = GenericCell.normalize(values[j]);
+                if (value != null) {
+                    store.setValue(i, j, value, GenericCell.cellTypeOf(value));
+                }
+            }
+            columnCount = length;
+        } else {
+            GenericWorkbook workbook = sheet.getAbstractWorkbook();
+            GenericCellStyle cellStyle = workbook.getDefaultCellStyle();
+            cells.ensureCapacity(length);
+            for (int j = 0; j < length; j++) {
+                GenericCell cell = new GenericCell(this, j, cellStyle);
+                Object value = GenericCell.normalize(values[j]);
+                if (value != null) {
+                    cell.initValue(workbook.cache(value), GenericCell.cellTypeOf(value));
+                }
+                cells.add(cell);
+            }
+        }
+
+        if (length > 0) {
+            sheet.reserveColumn(length - 1);
+        }
+    }
+
+    /**
+     * Set the numeric values of a newly created row without publishing cell events.
+     *
+     * @param values the values
+     * @param length the number of values to use
+     */
+    void setValues(double[] values, int length) {
+        assert getColumnCount() == 0 : "row is not empty";
+
+        GenericSheet sheet = getAbstractSheet();
+        if (store != null) {
+            int i = getRowNumber();
+            for (int j = 0; j < length; j++) {
+                store.setDouble(i, j, values[j]);
+            }
+            columnCount = length;
+        } else {
+            GenericWorkbook workbook = sheet.getAbstractWorkbook();
+            GenericCellStyle cellStyle = workbook.getDefaultCellStyle();
+            cells.ensureCapacity(length);
+            for (int j = 0; j < length; j++) {
+                GenericCell cell = new GenericCell(this, j, cellStyle);
+                cell.initValue(workbook.cache(values[j]), CellType.NUMERIC);
+                cells.add(cell);
+            }
+        }
+
+        if (length > 0) {
+            sheet.reserveColumn(length - 1);
+        }
+    }
+
+    /**
+     * Copy the cells of a row of another sheet into this newly created row without publishing cell events.
+     * <p>
+     * For sheets using {@link GenericCellStorage#COLUMNAR}, the cell data must already have been copied to the
+     * column store, and only the column count is taken from {@code other}.
+     *
+     * @param other  the row to copy, using the same cell storage as this row
+     * @param styles maps the cell styles of the source sheet to those of this sheet
+     */
+    void copyCells(GenericRow other, UnaryOperator<GenericCellStyle> styles) {
+        assert getColumnCount() == 0 : "row is not empty";
+        assert (store == null) == (other.store == null) : "cell storage differs";
+
+        if (store != null) {
+            columnCount = other.columnCount;
+        } else {
+            cells.ensureCapacity(other.cells.size());
+            for (GenericCell cell : other.cells) {
+                cells.add(new GenericCell(this, cell, styles.apply(cell.getCellStyle())));
+            }
+        }
+    }
+
+    /**
+     * Add the estimated memory footprint of this row and its cells. With {@link GenericCellStorage#COLUMNAR}, the
+     * cells are accounted for by the column store.
+     *
+     * @param stats the builder to add the estimates to
+     */
+    void estimateMemory(MemoryStats.Builder stats) {
+        stats.addRows(1, ROW_BYTES + MemoryEstimates.arrayBytes(cells.size(), MemoryEstimates.REFERENCE_BYTES));
+        for (GenericCell cell : cells) {
+            cell.estimateMemory(stats);
+        }
+    }
+
+    /**
+     * Release unused capacity of the cell list.
+     */
+    void trimToSize() {
+        cells.trimToSize();
+    }
+
     private void reserve(int col) {
         int n = Math.max(0, col - cells.size() + 1);
         if (n > 0) {
+            checkWritable();
             GenericCellStyle cellStyle = getAbstractSheet().getAbstractWorkbook().getDefaultCellStyle();
             cells.ensureCapacity(col + 1);
             for (int colNum = cells.size(); colNum <= col; colNum++) {
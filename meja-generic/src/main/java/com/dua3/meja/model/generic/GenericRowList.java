@@ -0,0 +1,146 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.util.MemoryEstimates;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * The rows of a {@link GenericSheet}.
+ * <p>
+ * Rows are kept in blocks of fixed size, so adding rows never moves existing rows. New blocks and rows are
+ * published through volatile fields; reading rows therefore needs no locking, even while other threads add
+ * rows. Adding rows is synchronized.
+ */
+final class GenericRowList {
+
+    private static final int BLOCK_SHIFT = 12;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private static final @Nullable GenericRow[][] NO_BLOCKS = new GenericRow[0][];
+
+    private volatile @Nullable GenericRow[][] blocks = NO_BLOCKS;
+    private volatile int size;
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Get a row.
+     *
+     * @param i the row number
+     * @return the row or {@code null} if {@code i} is out of range
+     */
+    @Nullable GenericRow getOrNull(int i) {
+        // read size before blocks; blocks are always published before the size is updated
+        if (i < 0 || i >= size) {
+            return null;
+        }
+        @Nullable GenericRow[][] b = blocks;
+        int k = i >>> BLOCK_SHIFT;
+        // the list might have been cleared in the meantime
+        return k < b.length ? b[k][i & BLOCK_MASK] : null;
+    }
+
+    /**
+     * Make sure the list contains at least {@code n} rows.
+     *
+     * @param n       the minimum number of rows
+     * @param factory the factory used to create missing rows; takes the row number as argument
+     * @return the number of rows before this call
+     */
+    synchronized int ensureSize(int n, IntFunction<GenericRow> factory) {
+        int oldSize = size;
+        if (n <= oldSize) {
+            return oldSize;
+        }
+
+        @Nullable GenericRow[][] b = blocks;
+        int nBlocks = ((n - 1) >>> BLOCK_SHIFT) + 1;
+        if (nBlocks > b.length) {
+            int oldLength = b.length;
+            b = Arrays.copyOf(b, nBlocks);
+            for (int k = oldLength; k < nBlocks; k++) {
+                b[k] = new GenericRow[BLOCK_SIZE];
+            }
+        }
+        if (oldSize > 0) {
+            // the last block may have been trimmed
+            int k = (oldSize - 1) >>> BLOCK_SHIFT;
+            if (b[k].length < BLOCK_SIZE) {
+                b[k] = Arrays.copyOf(b[k], BLOCK_SIZE);
+            }
+        }
+
+        for (int i = oldSize; i < n; i++) {
+            b[i >>> BLOCK_SHIFT][i & BLOCK_MASK] = factory.apply(i);
+        }
+
+        blocks = b;
+        size = n;
+        return oldSize;
+    }
+
+    /**
+     * Release the unused capacity of the last block.
+     */
+    synchronized void trimToSize() {
+        int n = size;
+        if (n == 0) {
+            return;
+        }
+
+        @Nullable GenericRow[][] b = blocks.clone();
+        int k = (n - 1) >>> BLOCK_SHIFT;
+        int length = n - (k << BLOCK_SHIFT);
+        if (b[k].length > length) {
+            b[k] = Arrays.copyOf(b[k], length);
+            blocks = b;
+        }
+    }
+
+    /**
+     * Estimate the number of bytes retained by the block arrays, excluding the rows.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimatedBytes() {
+        @Nullable GenericRow[][] b = blocks;
+        long bytes = MemoryEstimates.arrayBytes(b.length, MemoryEstimates.REFERENCE_BYTES);
+        for (@Nullable GenericRow[] block : b) {
+            bytes += MemoryEstimates.arrayBytes(block.length, MemoryEstimates.REFERENCE_BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * Remove all rows.
+     */
+    synchronized void clear() {
+        size = 0;
+        blocks = NO_BLOCKS;
+    }
+}
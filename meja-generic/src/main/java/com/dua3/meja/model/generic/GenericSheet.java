@@ -17,15 +17,27 @@ package com.dua3.meja.model.generic;
 
 import com.dua3.meja.model.AbstractSheet;
 import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellStyleMapping;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.model.generic.formula.FormulaEngine;
+import com.dua3.meja.util.MemoryEstimates;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.data.Pair;
 import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.Logger;
 import org.jspecify.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
 
 /**
  * A generic implementation of {@link Sheet}.
@@ -38,13 +50,14 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
 
     private final GenericWorkbook workbook;
     private final String sheetName;
-    private final List<GenericRow> rows = new ArrayList<>(4_000);
+    private final @Nullable GenericColumnStore columnStore;
+    private final GenericRowList rows = new GenericRowList();
     private final ArrayList<@Nullable Float> columnWidth = new ArrayList<>(200);
     private final ArrayList<@Nullable Float> rowHeight = new ArrayList<>(4_000);
     private int splitRow;
     private int splitColumn;
     private int autoFilterRow = -1;
-    private int numberOfColumns;
+    private final AtomicInteger numberOfColumns = new AtomicInteger();
     private int currentRow;
     private int currentColumn;
     private float zoom = 1.0f;
@@ -58,15 +71,174 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     public GenericSheet(GenericWorkbook workbook, String sheetName) {
         this.workbook = workbook;
         this.sheetName = sheetName;
-        this.numberOfColumns = 0;
+        this.columnStore = switch (workbook.getCellStorage()) {
+            case ROW_OBJECTS -> null;
+            case COLUMNAR -> new GenericColumnStore(workbook.getDefaultCellStyle());
+        };
     }
 
     @Override
     public void clear() {
         LOG.trace("clearing the sheet");
+        checkWritable();
 
         rows.clear();
+        if (columnStore != null) {
+            columnStore.clear();
+        }
         copy(new GenericSheet(workbook, sheetName));
+        invalidateSearchIndex();
+        workbook.getFormulaEngine().sheetCleared(this);
+    }
+
+    @Override
+    protected void compact() {
+        rows.trimToSize();
+        int n = rows.size();
+        if (columnStore != null) {
+            columnStore.trimToSize(n);
+        } else {
+            for (int i = 0; i < n; i++) {
+                GenericRow row = rows.getOrNull(i);
+                assert row != null;
+                row.trimToSize();
+            }
+        }
+        columnWidth.trimToSize();
+        rowHeight.trimToSize();
+    }
+
+    @Override
+    protected void estimateMemory(MemoryStats.Builder stats) {
+        int n = rows.size();
+        for (int i = 0; i < n; i++) {
+            GenericRow row = rows.getOrNull(i);
+            if (row != null) {
+                row.estimateMemory(stats);
+            }
+        }
+        stats.addRows(0, rows.estimatedBytes());
+        if (columnStore != null) {
+            columnStore.estimateMemory(stats);
+        }
+        stats.addOther(sizesBytes(columnWidth) + sizesBytes(rowHeight));
+    }
+
+    private static long sizesBytes(List<@Nullable Float> sizes) {
+        long bytes = MemoryEstimates.arrayBytes(sizes.size(), MemoryEstimates.REFERENCE_BYTES);
+        for (Float size : sizes) {
+            bytes += size == null ? 0 : MemoryEstimates.BOXED_BYTES;
+        }
+        return bytes;
+    }
+
+    /**
+     * Copies another generic sheet using the same cell storage into this empty sheet.
+     * <p>
+     * With {@link GenericCellStorage#ROW_OBJECTS}, the cells are copied directly without going through the cell
+     * setters. With {@link GenericCellStorage#COLUMNAR}, the column data is shared with the source sheet and copied
+     * by either sheet when it modifies a column for the first time. The source sheet is read-locked while copying.
+     */
+    @Override
+    protected boolean copyBulk(Sheet other, CellStyleMapping styles) {
+        if (!(other instanceof GenericSheet src) || src == this
+                || (columnStore == null) != (src.columnStore == null)
+                || rows.size() > 0 || !getMergedRegions().isEmpty()) {
+            return false;
+        }
+
+        Map<GenericCellStyle, GenericCellStyle> mappedStyles = new IdentityHashMap<>();
+        UnaryOperator<GenericCellStyle> styleMapping = cs -> mappedStyles.computeIfAbsent(cs, k -> (GenericCellStyle) styles.get(k));
+
+        try (var __ = src.readLock("GenericSheet.copyBulk()")) {
+            if (columnStore != null && !columnStore.copyFrom(Objects.requireNonNull(src.columnStore), styleMapping)) {
+                return false;
+            }
+
+            int n = src.rows.size();
+            rows.ensureSize(n, rowNum -> new GenericRow(this, rowNum));
+            for (int i = 0; i < n; i++) {
+                GenericRow row = rows.getOrNull(i);
+                GenericRow srcRow = src.rows.getOrNull(i);
+                assert row != null && srcRow != null;
+                row.copyCells(srcRow, styleMapping);
+            }
+
+            copyDimensions(src.rowHeight, rowHeight);
+            copyDimensions(src.columnWidth, columnWidth);
+
+            for (RectangularRegion rr : src.getMergedRegions()) {
+                addMergedRegion(rr);
+            }
+
+            if (src.splitRow != splitRow || src.splitColumn != splitColumn) {
+                splitAt(src.splitRow, src.splitColumn);
+            }
+            autoFilterRow = src.autoFilterRow;
+
+            if (n > 0) {
+                rowsAdded(0, n);
+            }
+            int m = src.getColumnCount();
+            if (m > 0) {
+                reserveColumn(m - 1);
+            }
+            layoutChanged();
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy explicitly set row heights or column widths, keeping values not set in the source.
+     *
+     * @param source the source values, {@code null} elements denote default values
+     * @param target the target list
+     */
+    private static void copyDimensions(List<@Nullable Float> source, ArrayList<@Nullable Float> target) {
+        target.ensureCapacity(source.size());
+        for (int k = 0; k < source.size(); k++) {
+            Float value = source.get(k);
+            if (k >= target.size()) {
+                target.add(value);
+            } else if (value != null) {
+                target.set(k, value);
+            }
+        }
+    }
+
+    @Override
+    protected void cellValueChanged(Cell cell, @Nullable Object old, @Nullable Object arg) {
+        workbook.getFormulaEngine().cellChanged(this, cell.getRowNumber(), cell.getColumnNumber());
+        super.cellValueChanged(cell, old, arg);
+    }
+
+    @Override
+    protected void rowsAdded(int first, int last) {
+        // rows may be filled without cell events, e.g., by an appender
+        workbook.getFormulaEngine().rowsChanged(this, first, last);
+        super.rowsAdded(first, last);
+    }
+
+    /**
+     * Get the result of a formula in this sheet.
+     *
+     * @param rowIndex the row index
+     * @param colIndex the column index
+     * @param formula  the formula
+     * @return the formula result as described in {@link FormulaEngine#evaluate(GenericSheet, int, int, String)}
+     */
+    Object evaluateFormula(int rowIndex, int colIndex, String formula) {
+        return workbook.getFormulaEngine().evaluate(this, rowIndex, colIndex, formula);
+    }
+
+    /**
+     * Get the column store of this sheet.
+     *
+     * @return the column store if the sheet uses {@link GenericCellStorage#COLUMNAR}, otherwise {@code null}
+     */
+    @Nullable GenericColumnStore getColumnStore() {
+        return columnStore;
     }
 
     @Override
@@ -76,7 +248,7 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
 
     @Override
     public int getColumnCount() {
-        return numberOfColumns;
+        return numberOfColumns.get();
     }
 
     @Override
@@ -93,7 +265,73 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     protected GenericRow getAbstractRow(int rowIndex) {
         reserve(rowIndex);
-        return rows.get(rowIndex);
+        GenericRow row = rows.getOrNull(Objects.checkIndex(rowIndex, rows.size()));
+        assert row != null;
+        return row;
+    }
+
+    @Override
+    protected @Nullable GenericRow getAbstractRowOrNull(int rowIndex) {
+        return rows.getOrNull(rowIndex);
+    }
+
+    /**
+     * Rows and cells of sheets using {@link GenericCellStorage#ROW_OBJECTS} can be modified concurrently in
+     * disjoint row ranges; the column store used by {@link GenericCellStorage#COLUMNAR} is shared by all rows.
+     *
+     * @return true, if the sheet uses row objects
+     */
+    @Override
+    protected boolean isRowLockingSupported() {
+        return columnStore == null;
+    }
+
+    @Override
+    public CellType peekCellType(int rowIndex, int colIndex) {
+        GenericRow row = getAbstractRowOrNull(rowIndex);
+        if (row == null || colIndex < 0 || colIndex >= row.getColumnCount()) {
+            return CellType.BLANK;
+        }
+        if (columnStore != null) {
+            return columnStore.getCellType(rowIndex, colIndex);
+        }
+        GenericCell cell = row.getAbstractCellOrNull(colIndex);
+        assert cell != null;
+        return cell.getCellType();
+    }
+
+    @Override
+    public @Nullable Object peekValue(int rowIndex, int colIndex) {
+        GenericRow row = getAbstractRowOrNull(rowIndex);
+        if (row == null || colIndex < 0 || colIndex >= row.getColumnCount()) {
+            return null;
+        }
+        if (columnStore != null) {
+            return columnStore.getValue(rowIndex, colIndex);
+        }
+        GenericCell cell = row.getAbstractCellOrNull(colIndex);
+        assert cell != null;
+        return cell.getOrDefault(null);
+    }
+
+    @Override
+    public SheetCursor cursor() {
+        return new GenericSheetCursor(this);
+    }
+
+    @Override
+    public SheetAppender appender() {
+        checkWritable();
+        return new GenericSheetAppender(this);
+    }
+
+    /**
+     * Append a new empty row at the bottom of the sheet.
+     *
+     * @return the new row
+     */
+    GenericRow appendRow() {
+        return getAbstractRow(rows.size());
     }
 
     @Override
@@ -133,12 +371,13 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     }
 
     private void reserve(int row) {
-        int first = rows.size();
-        for (int rowNum = rows.size(); rowNum <= row; rowNum++) {
-            rows.add(new GenericRow(this, rowNum));
+        if (row < rows.size()) {
+            return;
         }
-        int last = rows.size();
+        checkWritable();
 
+        int first = rows.ensureSize(row + 1, rowNum -> new GenericRow(this, rowNum));
+        int last = row + 1;
         if (last > first) {
             rowsAdded(first, last);
         }
@@ -151,16 +390,16 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
      * @param col the column number to reserve space for
      */
     void reserveColumn(int col) {
-        int oldValue = numberOfColumns;
-        numberOfColumns = Math.max(col + 1, numberOfColumns);
-        if (numberOfColumns != oldValue) {
-            columnsAdded(oldValue, numberOfColumns);
+        int oldValue = numberOfColumns.getAndAccumulate(col + 1, Math::max);
+        if (col + 1 > oldValue) {
+            columnsAdded(oldValue, col + 1);
         }
     }
 
     @Override
     public void setAutofilterRow(int rowIndex) {
         LOG.trace("setting auto filter row {}", rowIndex);
+        checkWritable();
         LangUtil.check(rowIndex >= 0, "Invalid row number: %d", rowIndex);
         autoFilterRow = rowIndex;
     }
@@ -168,6 +407,7 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     public void setColumnWidth(int colIndex, float width) {
         LOG.trace("setting column width of column {} to {}", colIndex, width);
+        checkWritable();
         LangUtil.check(width >= 0, "Invalid column width: %f", width);
 
         if (colIndex < columnWidth.size()) {
@@ -187,11 +427,12 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     public boolean setCurrentCell(Cell cell) {
         LOG.trace("setting current cell to {}", cell::getCellRef);
+        checkNotFrozen();
 
         LangUtil.checkArg(cell.getSheet() == this, "cell  belongs to another sheet");
 
         Cell old = getCurrentCell();
-        if (cell == old) {
+        if (cell.equals(old)) {
             return false;
         }
 
@@ -206,6 +447,7 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     public void setRowHeight(int rowIndex, float height) {
         LOG.trace("setting row height of row {} to {}", rowIndex, height);
+        checkWritable();
         LangUtil.check(height >= 0, "Invalid row height: %f", height);
 
         if (rowIndex < rowHeight.size()) {
@@ -223,6 +465,7 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     public void setZoom(float zoom) {
         LOG.trace("setting zoom to {}", zoom);
+        checkNotFrozen();
         LangUtil.check(zoom > 0, "Invalid zoom factor: %f", zoom);
 
         if (zoom != this.zoom) {
@@ -235,6 +478,7 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
     @Override
     public void splitAt(int rowIndex, int colIndex) {
         LOG.trace("setting split to ({}, {})", rowIndex, colIndex);
+        checkWritable();
         LangUtil.check(rowIndex >= 0 && colIndex >= 0, "Invalid split position: (%d, %d)", rowIndex, colIndex);
 
         Pair<Integer, Integer> oldSplit = Pair.of(getSplitRow(), getSplitColumn());
@@ -261,10 +505,8 @@ public final class GenericSheet extends AbstractSheet<GenericSheet, GenericRow,
      * @param columnNumber the column number to mark as used
      */
     void setColumnUsed(int columnNumber) {
-        if (columnNumber > numberOfColumns - 1) {
-            int oldLast = getColumnCount() - 1;
-            numberOfColumns = columnNumber + 1;
-            columnsAdded(oldLast, numberOfColumns);
+        if (columnNumber >= numberOfColumns.get()) {
+            reserveColumn(columnNumber);
         }
     }
 }
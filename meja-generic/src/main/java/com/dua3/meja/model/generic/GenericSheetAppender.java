@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.AbstractSheetAppender;
+import com.dua3.meja.model.SheetAppender;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * {@link SheetAppender} implementation for {@link GenericSheet}.
+ * <p>
+ * Rows are filled directly: for {@link GenericCellStorage#COLUMNAR}, the values are written to the column store
+ * without creating cell views; for {@link GenericCellStorage#ROW_OBJECTS}, the cells are created with their
+ * values already set. The column count of the sheet is updated once per row instead of once per cell.
+ */
+final class GenericSheetAppender extends AbstractSheetAppender<GenericSheet> {
+
+    GenericSheetAppender(GenericSheet sheet) {
+        super(sheet);
+    }
+
+    @Override
+    protected void append(@Nullable Object[] values, int length) {
+        sheet.appendRow().setValues(values, length);
+    }
+
+    @Override
+    protected void append(double[] values, int length) {
+        sheet.appendRow().setValues(values, length);
+    }
+}
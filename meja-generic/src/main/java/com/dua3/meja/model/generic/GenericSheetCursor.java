@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.AbstractSheetCursor;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.model.generic.formula.FormulaEngine;
+import com.dua3.utility.text.RichText;
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * {@link SheetCursor} implementation for {@link GenericSheet}.
+ * <p>
+ * For sheets using {@link GenericCellStorage#ROW_OBJECTS}, the cursor reads the existing cell instances; for
+ * {@link GenericCellStorage#COLUMNAR}, it reads the column store directly without creating cell views.
+ */
+final class GenericSheetCursor extends AbstractSheetCursor<GenericSheet> {
+
+    private final @Nullable GenericColumnStore store;
+    private @Nullable GenericRow row;
+    private @Nullable GenericCell cell;
+
+    GenericSheetCursor(GenericSheet sheet) {
+        super(sheet);
+        this.store = sheet.getColumnStore();
+    }
+
+    @Override
+    protected int loadRow(int i) {
+        row = sheet.getAbstractRowOrNull(i);
+        cell = null;
+        return row == null ? 0 : row.getColumnCount();
+    }
+
+    @Override
+    protected void loadCell(int j) {
+        if (store == null) {
+            assert row != null;
+            cell = row.getAbstractCellOrNull(j);
+        }
+    }
+
+    private GenericCell cell() {
+        checkPosition();
+        assert cell != null;
+        return cell;
+    }
+
+    private @Nullable Object value() {
+        checkPosition();
+        return store != null ? store.getValue(getRowNumber(), getColumnNumber()) : cell().getOrDefault(null);
+    }
+
+    @Override
+    public CellType getCellType() {
+        checkPosition();
+        return store != null ? store.getCellType(getRowNumber(), getColumnNumber()) : cell().getCellType();
+    }
+
+    /**
+     * Get the result of the formula in the current cell.
+     *
+     * @return the formula result, or {@code null} if the current cell is not a formula cell
+     */
+    private @Nullable Object formulaResult() {
+        if (getCellType() != CellType.FORMULA) {
+            return null;
+        }
+        return sheet.evaluateFormula(getRowNumber(), getColumnNumber(), (String) get());
+    }
+
+    @Override
+    public CellType getResultType() {
+        Object result = formulaResult();
+        return result != null ? FormulaEngine.getResultType(result) : getCellType();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        checkPosition();
+        return store != null ? store.isBlank(getRowNumber(), getColumnNumber()) : cell().isEmpty();
+    }
+
+    @Override
+    public double getDouble() {
+        if (getCellType() != CellType.NUMERIC) {
+            if (formulaResult() instanceof Double d) {
+                return d;
+            }
+            throw typeMismatch("numeric value");
+        }
+        return store != null ? store.getDouble(getRowNumber(), getColumnNumber()) : cell().getNumber().doubleValue();
+    }
+
+    @Override
+    public boolean getBoolean() {
+        if (getCellType() != CellType.BOOLEAN) {
+            if (formulaResult() instanceof Boolean b) {
+                return b;
+            }
+            throw typeMismatch("boolean value");
+        }
+        return (Boolean) get();
+    }
+
+    @Override
+    public RichText getText() {
+        if (getCellType() == CellType.FORMULA && formulaResult() instanceof String s) {
+            return RichText.valueOf(s);
+        }
+        return switch (getCellType()) {
+            case BLANK -> RichText.emptyText();
+            case TEXT -> (RichText) get();
+            default -> throw typeMismatch("text value");
+        };
+    }
+
+    @Override
+    public LocalDate getDate() {
+        if (getCellType() != CellType.DATE) {
+            if (formulaResult() instanceof LocalDate d) {
+                return d;
+            }
+            throw typeMismatch("date value");
+        }
+        return (LocalDate) get();
+    }
+
+    @Override
+    public LocalDateTime getDateTime() {
+        if (getCellType() != CellType.DATE_TIME) {
+            if (formulaResult() instanceof LocalDateTime dt) {
+                return dt;
+            }
+            throw typeMismatch("date-time value");
+        }
+        return (LocalDateTime) get();
+    }
+
+    @Override
+    public String getFormula() {
+        if (getCellType() != CellType.FORMULA) {
+            throw typeMismatch("formula");
+        }
+        return (String) get();
+    }
+
+    private Object get() {
+        Object value = value();
+        assert value != null;
+        return value;
+    }
+
+    @Override
+    public @Nullable Object getOrDefault(@Nullable Object defaultValue) {
+        Object value = value();
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    public String toString(Locale locale) {
+        Object result = formulaResult();
+        if (result != null) {
+            return GenericCell.format(getCellStyle(), FormulaEngine.getResultType(result), result, locale);
+        }
+        return GenericCell.format(getCellStyle(), getCellType(), value(), locale);
+    }
+
+    @Override
+    public GenericCellStyle getCellStyle() {
+        checkPosition();
+        return store != null ? store.getCellStyle(getRowNumber(), getColumnNumber()) : cell().getCellStyle();
+    }
+
+    @Override
+    public Optional<URI> getHyperlink() {
+        return store != null ? super.getHyperlink() : cell().getHyperlink();
+    }
+
+    @Override
+    public int getHorizontalSpan() {
+        return store != null ? super.getHorizontalSpan() : cell().getHorizontalSpan();
+    }
+
+    @Override
+    public int getVerticalSpan() {
+        return store != null ? super.getVerticalSpan() : cell().getVerticalSpan();
+    }
+
+    @Override
+    public GenericCell getCell() {
+        return store != null ? (GenericCell) super.getCell() : cell();
+    }
+}
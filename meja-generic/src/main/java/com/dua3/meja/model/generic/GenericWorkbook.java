@@ -19,8 +19,11 @@ import com.dua3.meja.io.FileTypeWorkbook;
 import com.dua3.meja.io.WorkbookWriter;
 import com.dua3.meja.model.AbstractWorkbook;
 import com.dua3.meja.model.CellStyle;
+import com.dua3.meja.model.MemoryStats;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.Workbook;
+import com.dua3.meja.model.generic.formula.FormulaEngine;
+import com.dua3.meja.util.MemoryEstimates;
 import com.dua3.utility.io.FileType;
 import com.dua3.utility.options.Arguments;
 import org.jspecify.annotations.Nullable;
@@ -30,22 +33,33 @@ import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.function.DoubleConsumer;
 import java.util.stream.Stream;
 
 /**
  * Generic implementation of {@link Workbook}.
+ * <p>
+ * Formulas are evaluated by the workbook's formula engine; results are calculated when first requested and
+ * recalculated after a change to one of the cells they depend on.
  */
 public final class GenericWorkbook extends AbstractWorkbook<GenericSheet, GenericRow, GenericCell> {
 
+    /**
+     * The estimated size of a cell style including its border array and format cache, excluding strings.
+     */
+    private static final long CELL_STYLE_BYTES = 192;
+
     private final List<GenericSheet> sheets = new ArrayList<>();
     private final Map<String, GenericCellStyle> cellStyles = new HashMap<>();
+    private final Map<GenericCellStyle, String> cellStyleNames = new IdentityHashMap<>();
     private final GenericCellStyle defaultCellStyle;
+    private final GenericCellStorage cellStorage;
+    private final FormulaEngine formulaEngine = new FormulaEngine();
     private int currentSheetIdx;
 
     /**
@@ -54,39 +68,106 @@ public final class GenericWorkbook extends AbstractWorkbook<GenericSheet, Generi
      * @param uri the URI to set
      */
     public GenericWorkbook(@Nullable URI uri) {
+        this(uri, GenericCellStorage.ROW_OBJECTS);
+    }
+
+    /**
+     * Construct a new {@code GenericWorkbook} using the given cell storage layout.
+     *
+     * @param uri         the URI to set
+     * @param cellStorage the storage layout used for the cells of this workbook's sheets
+     */
+    public GenericWorkbook(@Nullable URI uri, GenericCellStorage cellStorage) {
         super(uri);
         this.defaultCellStyle = new GenericCellStyle(this);
+        this.cellStorage = cellStorage;
         cellStyles.put("", defaultCellStyle);
+        cellStyleNames.put(defaultCellStyle, "");
+    }
+
+    /**
+     * Get the storage layout used for the cells of this workbook.
+     *
+     * @return the cell storage layout
+     */
+    public GenericCellStorage getCellStorage() {
+        return cellStorage;
+    }
+
+    /**
+     * Get the formula engine of this workbook.
+     *
+     * @return the formula engine
+     */
+    FormulaEngine getFormulaEngine() {
+        return formulaEngine;
+    }
+
+    /**
+     * Recalculate all formula cells of this workbook.
+     * <p>
+     * Formula results are recalculated on demand after changes, so calling this method is only needed to refresh
+     * formulas using volatile functions like {@code TODAY()} or to calculate all results in advance.
+     */
+    public void evaluateAllFormulaCells() {
+        formulaEngine.recalculateAll(sheets);
     }
 
     @Override
     public GenericCellStyle copyCellStyle(String styleName, CellStyle style) {
+        checkWritable();
         GenericCellStyle cellStyle = getCellStyle(styleName);
         cellStyle.copyStyle(style);
         return cellStyle;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The snapshot uses the same cell storage as this workbook. With {@link GenericCellStorage#COLUMNAR}, the column
+     * data is shared between this workbook and the snapshot until a column is changed in this workbook, so taking a
+     * snapshot is cheap. With {@link GenericCellStorage#ROW_OBJECTS}, the snapshot is a deep copy of all rows and
+     * cells; only the immutable cell values are shared. Its cost is therefore proportional to the size of the
+     * workbook.
+     */
+    @Override
+    public GenericWorkbook snapshot() {
+        GenericWorkbook snapshot = new GenericWorkbook(getUri().orElse(null), cellStorage);
+        copyConsistently(snapshot);
+        if (currentSheetIdx < snapshot.getSheetCount()) {
+            snapshot.setCurrentSheet(currentSheetIdx);
+        }
+        snapshot.setReadOnly();
+        return snapshot;
+    }
+
     @Override
     public GenericSheet createSheet(String sheetName) {
+        checkWritable();
         GenericSheet sheet = new GenericSheet(this, sheetName);
         sheets.add(sheet);
+        // references to the new sheet have to be resolved again
+        formulaEngine.reset();
         sheetAdded(sheets.size() - 1);
         return sheet;
     }
 
     @Override
     public GenericCellStyle getCellStyle(String name) {
-        return cellStyles.computeIfAbsent(name, n -> new GenericCellStyle(this));
+        return cellStyles.computeIfAbsent(name, n -> {
+            checkWritable();
+            GenericCellStyle cellStyle = new GenericCellStyle(this);
+            cellStyleNames.put(cellStyle, n);
+            return cellStyle;
+        });
     }
 
     String getCellStyleName(GenericCellStyle cellStyle) {
-        for (Entry<String, GenericCellStyle> entry : cellStyles.entrySet()) {
-            //noinspection ObjectEquality
-            if (entry.getValue() == cellStyle) {
-                return entry.getKey();
-            }
+        String name = cellStyleNames.get(cellStyle);
+        if (name == null) {
+            throw new IllegalArgumentException("CellStyle is not from this workbook.");
         }
-        throw new IllegalArgumentException("CellStyle is not from this workbook.");
+        return name;
     }
 
     @Override
@@ -99,6 +180,17 @@ public final class GenericWorkbook extends AbstractWorkbook<GenericSheet, Generi
         return cellStyles.values().stream().map(CellStyle.class::cast);
     }
 
+    @Override
+    protected void estimateMemory(MemoryStats.Builder stats) {
+        long bytes = MemoryEstimates.hashMapBytes(cellStyles.size()) + MemoryEstimates.hashMapBytes(cellStyleNames.size());
+        for (Map.Entry<String, GenericCellStyle> entry : cellStyles.entrySet()) {
+            bytes += CELL_STYLE_BYTES
+                    + MemoryEstimates.stringBytes(entry.getKey().length())
+                    + MemoryEstimates.stringBytes(entry.getValue().getDataFormat().length());
+        }
+        stats.addStyles(bytes);
+    }
+
     @Override
     protected @Nullable GenericSheet getCurrentAbstractSheetOrNull() {
         if (currentSheetIdx < sheets.size()) {
@@ -150,19 +242,24 @@ public final class GenericWorkbook extends AbstractWorkbook<GenericSheet, Generi
 
             @Override
             public void remove() {
+                checkWritable();
                 iter.remove();
+                formulaEngine.reset();
             }
         };
     }
 
     @Override
     public void removeSheet(int sheetIndex) {
+        checkWritable();
         sheets.remove(sheetIndex);
+        formulaEngine.reset();
         sheetRemoved(sheetIndex);
     }
 
     @Override
     public void setCurrentSheet(int sheetIndex) {
+        checkNotFrozen();
         if (sheetIndex >= 0) {
             Objects.checkIndex(sheetIndex, sheets.size());
         }
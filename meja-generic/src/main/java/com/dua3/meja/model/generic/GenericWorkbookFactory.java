@@ -34,6 +34,9 @@ import com.dua3.utility.lang.LangUtil;
 public class GenericWorkbookFactory extends WorkbookFactory<GenericWorkbook> {
 
     private static final GenericWorkbookFactory INSTANCE = new GenericWorkbookFactory();
+    private static final GenericWorkbookFactory INSTANCE_COLUMNAR = new GenericWorkbookFactory(GenericCellStorage.COLUMNAR);
+
+    private final GenericCellStorage cellStorage;
 
     /**
      * Get instance of factory.
@@ -44,18 +47,51 @@ public class GenericWorkbookFactory extends WorkbookFactory<GenericWorkbook> {
         return INSTANCE;
     }
 
+    /**
+     * Get instance of factory that creates workbooks using the given cell storage layout.
+     *
+     * @param cellStorage the cell storage layout
+     * @return factory instance
+     */
+    public static GenericWorkbookFactory instance(GenericCellStorage cellStorage) {
+        return switch (cellStorage) {
+            case ROW_OBJECTS -> INSTANCE;
+            case COLUMNAR -> INSTANCE_COLUMNAR;
+        };
+    }
+
     /**
      * Constructor.
      */
     public GenericWorkbookFactory() {
+        this(GenericCellStorage.ROW_OBJECTS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param cellStorage the cell storage layout used for workbooks created by this factory
+     */
+    public GenericWorkbookFactory(GenericCellStorage cellStorage) {
+        this.cellStorage = cellStorage;
+
         // force initialization of FileType instances
         //noinspection ResultOfMethodCallIgnored
         FileTypeCsv.instance();
     }
 
+    /**
+     * Get the cell storage layout used for workbooks created by this factory.
+     *
+     * @return the cell storage layout
+     */
+    public GenericCellStorage getCellStorage() {
+        return cellStorage;
+    }
+
     @Override
     public GenericWorkbook create() {
-        return new GenericWorkbook(null);
+        return new GenericWorkbook(null, cellStorage);
     }
 
     @Override
@@ -73,7 +109,7 @@ public class GenericWorkbookFactory extends WorkbookFactory<GenericWorkbook> {
         WorkbookReader reader = CsvWorkbookReader.create();
         reader.setOptions(importSettings);
 
-        return reader.read(instance(), uri);
+        return reader.read(this, uri);
     }
 
 }
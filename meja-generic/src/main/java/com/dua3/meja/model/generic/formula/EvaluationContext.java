@@ -0,0 +1,35 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.generic.GenericSheet;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Provides cell values to formulas during evaluation.
+ */
+@FunctionalInterface
+interface EvaluationContext {
+    /**
+     * Get the value of a cell, evaluating it first if it contains a formula.
+     *
+     * @param sheet  the sheet
+     * @param row    the row number
+     * @param column the column number
+     * @return the cell value as described in {@link FormulaValues}, {@code null} for blank cells
+     */
+    @Nullable Object valueAt(GenericSheet sheet, int row, int column);
+}
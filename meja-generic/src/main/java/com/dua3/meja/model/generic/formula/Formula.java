@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.generic.GenericSheet;
+
+import java.util.List;
+
+/**
+ * A compiled formula.
+ *
+ * @param text       the formula text
+ * @param root       the root node of the syntax tree
+ * @param cellRefs   the single-cell references used in the formula
+ * @param areaRefs   the range references used in the formula
+ * @param isVolatile true, if the formula uses functions whose results can change without a cell change,
+ *                   i.e., {@code TODAY()}
+ */
+record Formula(String text, FormulaNode root, List<FormulaNode.CellRef> cellRefs, List<FormulaNode.AreaRef> areaRefs,
+               boolean isVolatile) {
+
+    /**
+     * Compile a formula.
+     * <p>
+     * Formulas that cannot be parsed compile to a constant {@link FormulaError#NAME} error.
+     *
+     * @param sheet the sheet containing the formula, used for references without sheet name
+     * @param text  the formula text, with or without leading '='
+     * @return the compiled formula
+     */
+    static Formula compile(GenericSheet sheet, String text) {
+        return new FormulaParser(sheet, text).parse();
+    }
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.model.generic.GenericSheet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Evaluates the formulas of a workbook.
+ * <p>
+ * Formulas are compiled once per cell and kept together with their last result. The engine maintains the
+ * dependency graph between formula cells and the cells they reference. When a cell changes, the formulas that
+ * depend on it, directly or indirectly, are marked dirty; they are recalculated when their value is requested
+ * next. Recalculation first visits the dirty precedents in dependency order, so that long chains of formulas do
+ * not lead to deep recursion.
+ * <p>
+ * Formula cells are registered when they are evaluated for the first time. Cells that have never been evaluated
+ * have no cached result, so changes to their precedents do not need to be tracked.
+ * <p>
+ * Formulas using volatile functions like {@code TODAY()} are marked dirty whenever a cell changes. Circular
+ * references evaluate to {@link FormulaError#REF}. All methods are thread-safe.
+ */
+public final class FormulaEngine {
+    private static final Logger LOG = LogManager.getLogger(FormulaEngine.class);
+
+    // the referenced areas are indexed in blocks of 64 rows
+    private static final int AREA_BLOCK_SHIFT = 6;
+    // the maximum number of index entries (columns times blocks) of an area indexed by block
+    private static final int MAX_AREA_BLOCKS = 64;
+
+    /**
+     * A formula cell together with its compiled formula and its cached result.
+     */
+    private static final class FormulaCell {
+        final GenericSheet sheet;
+        final int row;
+        final int column;
+        final Formula formula;
+        @Nullable Object result;
+        boolean dirty = true;
+        boolean visiting;
+        @Nullable Iterator<FormulaCell> pending;
+
+        FormulaCell(GenericSheet sheet, int row, int column, Formula formula) {
+            this.sheet = sheet;
+            this.row = row;
+            this.column = column;
+            this.formula = formula;
+        }
+    }
+
+    /**
+     * The formula cells of a sheet and the formulas referencing cells of the sheet.
+     * <p>
+     * The referenced areas are indexed by column and block of rows, so that looking up the areas containing a cell
+     * only visits areas near that cell. Areas covering more than {@link #MAX_AREA_BLOCKS} blocks, like whole-column
+     * references, are indexed by column only.
+     */
+    private static final class SheetState {
+        final Map<Long, FormulaCell> formulas = new HashMap<>();
+        final NavigableMap<Long, Set<FormulaCell>> cellDependents = new TreeMap<>();
+        final Map<FormulaNode.AreaRef, Set<FormulaCell>> areaDependents = new HashMap<>();
+        final Map<Long, Set<FormulaNode.AreaRef>> areasByBlock = new HashMap<>();
+        final Map<Integer, Set<FormulaNode.AreaRef>> areasByColumn = new HashMap<>();
+
+        /**
+         * Add an area to the index or remove it from the index.
+         *
+         * @param area the area
+         * @param add  true to add the area, false to remove it
+         */
+        void index(FormulaNode.AreaRef area, boolean add) {
+            int firstBlock = area.firstRow() >> AREA_BLOCK_SHIFT;
+            int lastBlock = area.lastRow() >> AREA_BLOCK_SHIFT;
+            long blocks = (long) (lastBlock - firstBlock + 1) * (area.lastColumn() - area.firstColumn() + 1);
+            for (int j = area.firstColumn(); j <= area.lastColumn(); j++) {
+                if (blocks > MAX_AREA_BLOCKS) {
+                    update(areasByColumn, j, area, add);
+                } else {
+                    for (int block = firstBlock; block <= lastBlock; block++) {
+                        update(areasByBlock, key(block, j), area, add);
+                    }
+                }
+            }
+        }
+
+        private static <K> void update(Map<K, Set<FormulaNode.AreaRef>> index, K key, FormulaNode.AreaRef area, boolean add) {
+            if (add) {
+                index.computeIfAbsent(key, k -> new HashSet<>()).add(area);
+            } else {
+                Set<FormulaNode.AreaRef> areas = index.get(key);
+                if (areas != null && areas.remove(area) && areas.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+
+        /**
+         * Add the formulas referencing an area that contains a cell.
+         *
+         * @param row        the row number
+         * @param column     the column number
+         * @param dependents the collection to add the formulas to
+         */
+        void addAreaDependents(int row, int column, Collection<FormulaCell> dependents) {
+            addAreaDependents(areasByBlock.get(key(row >> AREA_BLOCK_SHIFT, column)), row, column, dependents);
+            addAreaDependents(areasByColumn.get(column), row, column, dependents);
+        }
+
+        private void addAreaDependents(@Nullable Set<FormulaNode.AreaRef> areas, int row, int column, Collection<FormulaCell> dependents) {
+            if (areas != null) {
+                for (FormulaNode.AreaRef area : areas) {
+                    if (area.contains(row, column)) {
+                        dependents.addAll(areaDependents.get(area));
+                    }
+                }
+            }
+        }
+    }
+
+    private final Map<GenericSheet, SheetState> sheets = new HashMap<>();
+    private final Set<FormulaCell> volatileFormulas = new HashSet<>();
+    private final EvaluationContext context = this::valueAt;
+    private volatile boolean active;
+    private long evaluationCount;
+
+    /**
+     * Constructor.
+     */
+    public FormulaEngine() {
+        // nothing to do
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private SheetState state(GenericSheet sheet) {
+        return sheets.computeIfAbsent(sheet, s -> new SheetState());
+    }
+
+    /**
+     * Get the result of a formula, recalculating it if necessary.
+     *
+     * @param sheet   the sheet containing the formula
+     * @param row     the row number
+     * @param column  the column number
+     * @param formula the formula text
+     * @return the result, one of {@link Double}, {@link String}, {@link Boolean}, {@link LocalDate},
+     * {@link LocalDateTime} or {@link FormulaError}
+     */
+    public synchronized Object evaluate(GenericSheet sheet, int row, int column, String formula) {
+        FormulaCell fc = lookup(sheet, row, column, formula);
+        if (fc.dirty) {
+            recalculate(fc);
+        }
+        assert fc.result != null;
+        return fc.result;
+    }
+
+    /**
+     * Get the cell type corresponding to a formula result.
+     *
+     * @param result the result as returned by {@link #evaluate(GenericSheet, int, int, String)}
+     * @return the result type
+     */
+    public static CellType getResultType(Object result) {
+        return switch (result) {
+            case Double d -> CellType.NUMERIC;
+            case String s -> CellType.TEXT;
+            case Boolean b -> CellType.BOOLEAN;
+            case LocalDate d -> CellType.DATE;
+            case LocalDateTime dt -> CellType.DATE_TIME;
+            default -> CellType.ERROR;
+        };
+    }
+
+    /**
+     * Get the number of formula evaluations performed by this engine.
+     *
+     * @return the number of evaluations
+     */
+    public synchronized long getEvaluationCount() {
+        return evaluationCount;
+    }
+
+    /**
+     * Recalculate all formulas of the given sheets.
+     *
+     * @param sheets the sheets
+     */
+    public synchronized void recalculateAll(Iterable<GenericSheet> sheets) {
+        this.sheets.values().forEach(state -> state.formulas.values().forEach(fc -> fc.dirty = true));
+        for (GenericSheet sheet : sheets) {
+            SheetCursor cursor = sheet.cursor();
+            while (cursor.nextRow()) {
+                while (cursor.nextCell()) {
+                    if (cursor.getCellType() == CellType.FORMULA) {
+                        evaluate(sheet, cursor.getRowNumber(), cursor.getColumnNumber(), cursor.getFormula());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Notify the engine that a cell has changed.
+     *
+     * @param sheet  the sheet
+     * @param row    the row number
+     * @param column the column number
+     */
+    public void cellChanged(GenericSheet sheet, int row, int column) {
+        if (!active) {
+            return;
+        }
+        synchronized (this) {
+            markDirty(volatileFormulas);
+            SheetState state = sheets.get(sheet);
+            if (state == null) {
+                return;
+            }
+            FormulaCell fc = state.formulas.remove(key(row, column));
+            if (fc != null) {
+                unregister(fc);
+            }
+            markDirty(dependents(state, row, row + 1, column));
+        }
+    }
+
+    /**
+     * Notify the engine that rows have been added or filled without notifying individual cell changes.
+     *
+     * @param sheet    the sheet
+     * @param firstRow the first row (inclusive)
+     * @param lastRow  the last row (exclusive)
+     */
+    public void rowsChanged(GenericSheet sheet, int firstRow, int lastRow) {
+        if (!active) {
+            return;
+        }
+        synchronized (this) {
+            markDirty(volatileFormulas);
+            SheetState state = sheets.get(sheet);
+            if (state != null) {
+                markDirty(dependents(state, firstRow, lastRow, -1));
+            }
+        }
+    }
+
+    /**
+     * Notify the engine that all cells of a sheet have been removed.
+     *
+     * @param sheet the sheet
+     */
+    public synchronized void sheetCleared(GenericSheet sheet) {
+        SheetState state = sheets.get(sheet);
+        if (state == null) {
+            return;
+        }
+        List<FormulaCell> formulas = new ArrayList<>(state.formulas.values());
+        state.formulas.clear();
+        formulas.forEach(this::unregister);
+        markDirty(dependents(state, 0, Integer.MAX_VALUE, -1));
+    }
+
+    /**
+     * Discard all compiled formulas and cached results, i.e., because sheets have been added or removed and
+     * references to sheets have to be resolved again.
+     */
+    public synchronized void reset() {
+        LOG.trace("resetting formula engine");
+        sheets.clear();
+        volatileFormulas.clear();
+        active = false;
+    }
+
+    /**
+     * Get the registered formula cell, compiling and registering the formula if necessary.
+     */
+    private FormulaCell lookup(GenericSheet sheet, int row, int column, String formula) {
+        SheetState state = state(sheet);
+        long key = key(row, column);
+        FormulaCell fc = state.formulas.get(key);
+        if (fc != null) {
+            if (fc.formula.text().equals(formula)) {
+                return fc;
+            }
+            // the formula was replaced without a change notification
+            unregister(fc);
+            markDirty(dependents(state, row, row + 1, column));
+        }
+
+        fc = new FormulaCell(sheet, row, column, Formula.compile(sheet, formula));
+        state.formulas.put(key, fc);
+        register(fc);
+        active = true;
+        return fc;
+    }
+
+    private void register(FormulaCell fc) {
+        if (fc.formula.isVolatile()) {
+            volatileFormulas.add(fc);
+        }
+        for (FormulaNode.CellRef ref : fc.formula.cellRefs()) {
+            state(ref.sheet()).cellDependents.computeIfAbsent(key(ref.row(), ref.column()), k -> new HashSet<>()).add(fc);
+        }
+        for (FormulaNode.AreaRef ref : fc.formula.areaRefs()) {
+            SheetState state = state(ref.sheet());
+            state.areaDependents.computeIfAbsent(ref, k -> {
+                state.index(k, true);
+                return new HashSet<>();
+            }).add(fc);
+        }
+    }
+
+    private void unregister(FormulaCell fc) {
+        volatileFormulas.remove(fc);
+        for (FormulaNode.CellRef ref : fc.formula.cellRefs()) {
+            SheetState state = sheets.get(ref.sheet());
+            if (state != null) {
+                long key = key(ref.row(), ref.column());
+                Set<FormulaCell> dependents = state.cellDependents.get(key);
+                if (dependents != null && dependents.remove(fc) && dependents.isEmpty()) {
+                    state.cellDependents.remove(key);
+                }
+            }
+        }
+        for (FormulaNode.AreaRef ref : fc.formula.areaRefs()) {
+            SheetState state = sheets.get(ref.sheet());
+            if (state != null) {
+                Set<FormulaCell> dependents = state.areaDependents.get(ref);
+                if (dependents != null && dependents.remove(fc) && dependents.isEmpty()) {
+                    state.areaDependents.remove(ref);
+                    state.index(ref, false);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collect the formulas that directly reference cells in the given rows.
+     *
+     * @param state    the state of the sheet containing the cells
+     * @param firstRow the first row (inclusive)
+     * @param lastRow  the last row (exclusive)
+     * @param column   the column, or -1 for all columns
+     * @return the dependent formula cells
+     */
+    private static Collection<FormulaCell> dependents(SheetState state, int firstRow, int lastRow, int column) {
+        List<FormulaCell> dependents = new ArrayList<>();
+        if (column >= 0) {
+            Set<FormulaCell> cellDependents = state.cellDependents.get(key(firstRow, column));
+            if (cellDependents != null) {
+                dependents.addAll(cellDependents);
+            }
+            state.addAreaDependents(firstRow, column, dependents);
+        } else {
+            state.cellDependents.subMap(key(firstRow, 0), true, key(lastRow, 0), false)
+                    .values()
+                    .forEach(dependents::addAll);
+            // row changes are notified once per batch of rows, so checking every area is acceptable here
+            state.areaDependents.forEach((area, areaDependents) -> {
+                if (area.firstRow() < lastRow && firstRow <= area.lastRow()) {
+                    dependents.addAll(areaDependents);
+                }
+            });
+        }
+        return dependents;
+    }
+
+    /**
+     * Mark formula cells and all formula cells depending on them dirty.
+     * <p>
+     * A formula cell is only recalculated after its dirty precedents, so the dependents of a dirty cell are dirty
+     * as well and need not be visited again.
+     *
+     * @param formulas the formula cells
+     */
+    private void markDirty(Collection<FormulaCell> formulas) {
+        Deque<FormulaCell> work = new ArrayDeque<>(formulas);
+        while (!work.isEmpty()) {
+            FormulaCell fc = work.pop();
+            if (!fc.dirty) {
+                fc.dirty = true;
+                SheetState state = sheets.get(fc.sheet);
+                if (state != null) {
+                    work.addAll(dependents(state, fc.row, fc.row + 1, fc.column));
+                }
+            }
+        }
+    }
+
+    /**
+     * Recalculate a dirty formula cell after recalculating its dirty precedents.
+     *
+     * @param target the formula cell
+     */
+    private void recalculate(FormulaCell target) {
+        Deque<FormulaCell> stack = new ArrayDeque<>();
+        target.visiting = true;
+        stack.push(target);
+        try {
+            while (!stack.isEmpty()) {
+                FormulaCell fc = stack.peek();
+                if (fc.pending == null) {
+                    fc.pending = dirtyPrecedents(fc).iterator();
+                }
+
+                FormulaCell next = null;
+                while (next == null && fc.pending.hasNext()) {
+                    FormulaCell p = fc.pending.next();
+                    if (p.dirty && !p.visiting) {
+                        next = p;
+                    }
+                }
+
+                if (next != null) {
+                    next.visiting = true;
+                    stack.push(next);
+                } else {
+                    stack.pop();
+                    fc.pending = null;
+                    compute(fc);
+                    fc.visiting = false;
+                }
+            }
+        } finally {
+            stack.forEach(fc -> {
+                fc.visiting = false;
+                fc.pending = null;
+            });
+        }
+    }
+
+    /**
+     * Collect the referenced formula cells that are dirty.
+     */
+    private List<FormulaCell> dirtyPrecedents(FormulaCell fc) {
+        List<FormulaCell> precedents = new ArrayList<>();
+        for (FormulaNode.CellRef ref : fc.formula.cellRefs()) {
+            addIfDirtyFormula(precedents, ref.sheet(), ref.row(), ref.column());
+        }
+        for (FormulaNode.AreaRef ref : fc.formula.areaRefs()) {
+            int lastRow = Math.min(ref.lastRow(), ref.sheet().getRowCount() - 1);
+            int lastColumn = Math.min(ref.lastColumn(), ref.sheet().getColumnCount() - 1);
+            for (int i = ref.firstRow(); i <= lastRow; i++) {
+                for (int j = ref.firstColumn(); j <= lastColumn; j++) {
+                    addIfDirtyFormula(precedents, ref.sheet(), i, j);
+                }
+            }
+        }
+        return precedents;
+    }
+
+    private void addIfDirtyFormula(List<FormulaCell> precedents, GenericSheet sheet, int row, int column) {
+        if (sheet.peekCellType(row, column) == CellType.FORMULA) {
+            FormulaCell p = lookup(sheet, row, column, (String) sheet.peekValue(row, column));
+            if (p.dirty) {
+                precedents.add(p);
+            }
+        }
+    }
+
+    private void compute(FormulaCell fc) {
+        Object result;
+        try {
+            result = FormulaValues.scalar(fc.formula.root().evaluate(context));
+            if (result == null) {
+                // a reference to a blank cell evaluates to zero
+                result = 0.0;
+            }
+        } catch (FormulaError.EvaluationException e) {
+            result = e.error();
+        }
+        fc.result = result;
+        fc.dirty = false;
+        evaluationCount++;
+    }
+
+    /**
+     * Get a cell value for use in formulas; see {@link EvaluationContext#valueAt(GenericSheet, int, int)}.
+     */
+    private @Nullable Object valueAt(GenericSheet sheet, int row, int column) {
+        Object value = sheet.peekValue(row, column);
+        return switch (sheet.peekCellType(row, column)) {
+            case BLANK -> null;
+            case FORMULA -> formulaValueAt(sheet, row, column, (String) value);
+            case NUMERIC -> ((Number) value).doubleValue();
+            case TEXT -> String.valueOf(value);
+            case BOOLEAN, DATE, DATE_TIME -> value;
+            case ERROR -> FormulaError.VALUE;
+        };
+    }
+
+    private Object formulaValueAt(GenericSheet sheet, int row, int column, String formula) {
+        FormulaCell fc = lookup(sheet, row, column, formula);
+        if (fc.dirty) {
+            if (fc.visiting) {
+                LOG.debug("circular reference in {}!{}:{}", sheet.getSheetName(), row, column);
+                return FormulaError.REF;
+            }
+            recalculate(fc);
+        }
+        assert fc.result != null;
+        return fc.result;
+    }
+}
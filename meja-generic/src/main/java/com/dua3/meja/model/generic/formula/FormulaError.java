@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The error values a formula can evaluate to.
+ */
+public enum FormulaError {
+    /**
+     * Intersection of ranges that do not intersect.
+     */
+    NULL("#NULL!"),
+    /**
+     * Division by zero.
+     */
+    DIV0("#DIV/0!"),
+    /**
+     * Wrong type of argument or operand.
+     */
+    VALUE("#VALUE!"),
+    /**
+     * Invalid or circular cell reference.
+     */
+    REF("#REF!"),
+    /**
+     * Unknown function name or invalid formula.
+     */
+    NAME("#NAME?"),
+    /**
+     * Invalid numeric value.
+     */
+    NUM("#NUM!"),
+    /**
+     * Value not available, e.g., when a lookup finds no match.
+     */
+    NA("#N/A");
+
+    private final String text;
+
+    FormulaError(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Get the error value as displayed in a cell.
+     *
+     * @return the error text, i.e., "#DIV/0!"
+     */
+    public String text() {
+        return text;
+    }
+
+    /**
+     * Get the error value for an error text.
+     *
+     * @param text the error text, i.e., "#N/A"
+     * @return the error value or {@code null} if the text is not an error value
+     */
+    static @Nullable FormulaError fromText(String text) {
+        for (FormulaError error : values()) {
+            if (error.text.equalsIgnoreCase(text)) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create an exception that aborts the evaluation of a formula with this error value.
+     *
+     * @return the exception
+     */
+    EvaluationException exception() {
+        return new EvaluationException(this);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Thrown to abort the evaluation of a formula with an error value.
+     * <p>
+     * Errors propagate through most operators and functions, so they are thrown where an operand is converted
+     * and caught where the formula result is stored. No stack trace is recorded.
+     */
+    static final class EvaluationException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final FormulaError error;
+
+        private EvaluationException(FormulaError error) {
+            super(error.text, null, false, false);
+            this.error = error;
+        }
+
+        /**
+         * Get the error value.
+         *
+         * @return the error value
+         */
+        FormulaError error() {
+            return error;
+        }
+    }
+}
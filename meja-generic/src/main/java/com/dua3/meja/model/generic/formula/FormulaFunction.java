@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * A function that can be used in formulas.
+ *
+ * @param name           the function name in upper case
+ * @param minArguments   the minimal number of arguments
+ * @param maxArguments   the maximal number of arguments
+ * @param isVolatile     true, if the function result can change without any of the referenced cells changing
+ * @param implementation the implementation
+ */
+record FormulaFunction(String name, int minArguments, int maxArguments, boolean isVolatile, Implementation implementation) {
+
+    /**
+     * The implementation of a function.
+     * <p>
+     * Arguments are passed unevaluated, so that functions like {@code IF} only evaluate the arguments they need.
+     */
+    @FunctionalInterface
+    interface Implementation {
+        /**
+         * Calculate the function result.
+         *
+         * @param arguments the arguments
+         * @param context   the evaluation context
+         * @return the result
+         * @throws FormulaError.EvaluationException if the calculation results in an error
+         */
+        @Nullable Object apply(List<FormulaNode> arguments, EvaluationContext context);
+    }
+
+    /**
+     * Test if the function accepts the given number of arguments.
+     *
+     * @param n the number of arguments
+     * @return true, if the number of arguments is valid
+     */
+    boolean accepts(int n) {
+        return minArguments <= n && n <= maxArguments;
+    }
+}
@@ -0,0 +1,704 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The functions available in formulas.
+ * <p>
+ * Function names are case-insensitive. The library covers the commonly used math and aggregation, logical,
+ * information, text, lookup and date functions.
+ */
+final class FormulaFunctions {
+
+    private static final Map<String, FormulaFunction> FUNCTIONS = new HashMap<>();
+
+    static {
+        // math and aggregation
+        register("SUM", 1, 255, (args, ctx) -> aggregate(args, ctx, 0.0, Double::sum));
+        register("PRODUCT", 1, 255, (args, ctx) -> aggregate(args, ctx, 1.0, (a, b) -> a * b));
+        register("MIN", 1, 255, (args, ctx) -> extremum(args, ctx, Math::min));
+        register("MAX", 1, 255, (args, ctx) -> extremum(args, ctx, Math::max));
+        register("AVERAGE", 1, 255, FormulaFunctions::average);
+        register("COUNT", 1, 255, FormulaFunctions::count);
+        register("COUNTA", 1, 255, FormulaFunctions::countA);
+        register("COUNTBLANK", 1, 1, FormulaFunctions::countBlank);
+        register("SUMIF", 2, 3, FormulaFunctions::sumIf);
+        register("COUNTIF", 2, 2, FormulaFunctions::countIf);
+        register("AVERAGEIF", 2, 3, FormulaFunctions::averageIf);
+        register("ROUND", 2, 2, (args, ctx) -> round(args, ctx, RoundingMode.HALF_UP));
+        register("ROUNDUP", 2, 2, (args, ctx) -> round(args, ctx, RoundingMode.UP));
+        register("ROUNDDOWN", 2, 2, (args, ctx) -> round(args, ctx, RoundingMode.DOWN));
+        register("INT", 1, 1, (args, ctx) -> math(args, ctx, Math::floor));
+        register("ABS", 1, 1, (args, ctx) -> math(args, ctx, Math::abs));
+        register("SQRT", 1, 1, (args, ctx) -> math(args, ctx, d -> {
+            if (d < 0) {
+                throw FormulaError.NUM.exception();
+            }
+            return Math.sqrt(d);
+        }));
+        register("POWER", 2, 2, (args, ctx) -> FormulaValues.checkNumber(Math.pow(number(args, 0, ctx), number(args, 1, ctx))));
+        register("MOD", 2, 2, FormulaFunctions::mod);
+
+        // logical
+        register("IF", 1, 3, FormulaFunctions::ifFunction);
+        register("IFERROR", 2, 2, (args, ctx) -> ifError(args, ctx, e -> true));
+        register("IFNA", 2, 2, (args, ctx) -> ifError(args, ctx, e -> e == FormulaError.NA));
+        register("AND", 1, 255, (args, ctx) -> logical(args, ctx, true));
+        register("OR", 1, 255, (args, ctx) -> logical(args, ctx, false));
+        register("NOT", 1, 1, (args, ctx) -> !FormulaValues.toBoolean(value(args, 0, ctx)));
+        register("TRUE", 0, 0, (args, ctx) -> Boolean.TRUE);
+        register("FALSE", 0, 0, (args, ctx) -> Boolean.FALSE);
+
+        // information
+        register("ISBLANK", 1, 1, (args, ctx) -> valueOrError(args, 0, ctx) == null);
+        register("ISNUMBER", 1, 1, (args, ctx) -> FormulaValues.isNumber(valueOrError(args, 0, ctx)));
+        register("ISTEXT", 1, 1, (args, ctx) -> valueOrError(args, 0, ctx) instanceof String);
+        register("ISERROR", 1, 1, (args, ctx) -> valueOrError(args, 0, ctx) instanceof FormulaError);
+        register("ISNA", 1, 1, (args, ctx) -> valueOrError(args, 0, ctx) == FormulaError.NA);
+        register("NA", 0, 0, (args, ctx) -> {
+            throw FormulaError.NA.exception();
+        });
+
+        // text
+        register("CONCATENATE", 1, 255, FormulaFunctions::concatenate);
+        register("CONCAT", 1, 255, FormulaFunctions::concatenate);
+        register("LEN", 1, 1, (args, ctx) -> (double) text(args, 0, ctx).length());
+        register("LEFT", 1, 2, (args, ctx) -> {
+            String s = text(args, 0, ctx);
+            return s.substring(0, Math.min(s.length(), characters(args, 1, ctx)));
+        });
+        register("RIGHT", 1, 2, (args, ctx) -> {
+            String s = text(args, 0, ctx);
+            return s.substring(s.length() - Math.min(s.length(), characters(args, 1, ctx)));
+        });
+        register("MID", 3, 3, FormulaFunctions::mid);
+        register("UPPER", 1, 1, (args, ctx) -> text(args, 0, ctx).toUpperCase(Locale.ROOT));
+        register("LOWER", 1, 1, (args, ctx) -> text(args, 0, ctx).toLowerCase(Locale.ROOT));
+        register("TRIM", 1, 1, (args, ctx) -> text(args, 0, ctx).strip().replaceAll(" {2,}", " "));
+
+        // lookup
+        register("VLOOKUP", 3, 4, (args, ctx) -> lookup(args, ctx, true));
+        register("HLOOKUP", 3, 4, (args, ctx) -> lookup(args, ctx, false));
+        register("MATCH", 2, 3, FormulaFunctions::match);
+        register("INDEX", 2, 3, FormulaFunctions::index);
+
+        // date and time
+        register("DATE", 3, 3, FormulaFunctions::dateFunction);
+        register("YEAR", 1, 1, (args, ctx) -> (double) date(args, 0, ctx).getYear());
+        register("MONTH", 1, 1, (args, ctx) -> (double) date(args, 0, ctx).getMonthValue());
+        register("DAY", 1, 1, (args, ctx) -> (double) date(args, 0, ctx).getDayOfMonth());
+        register("HOUR", 1, 1, (args, ctx) -> (double) FormulaValues.toDateTime(value(args, 0, ctx)).getHour());
+        register("MINUTE", 1, 1, (args, ctx) -> (double) FormulaValues.toDateTime(value(args, 0, ctx)).getMinute());
+        register("SECOND", 1, 1, (args, ctx) -> (double) FormulaValues.toDateTime(value(args, 0, ctx)).getSecond());
+        register("WEEKDAY", 1, 2, FormulaFunctions::weekday);
+        register("EDATE", 2, 2, (args, ctx) -> date(args, 0, ctx).plusMonths((long) number(args, 1, ctx)));
+        register("EOMONTH", 2, 2, (args, ctx) -> {
+            LocalDate d = date(args, 0, ctx).plusMonths((long) number(args, 1, ctx));
+            return d.withDayOfMonth(d.lengthOfMonth());
+        });
+        register("DAYS", 2, 2, (args, ctx) -> (double) ChronoUnit.DAYS.between(date(args, 1, ctx), date(args, 0, ctx)));
+        registerVolatile("TODAY", (args, ctx) -> LocalDate.now());
+        registerVolatile("NOW", (args, ctx) -> LocalDateTime.now().withNano(0));
+    }
+
+    private FormulaFunctions() {
+        // utility class
+    }
+
+    private static void register(String name, int minArguments, int maxArguments, FormulaFunction.Implementation implementation) {
+        FUNCTIONS.put(name, new FormulaFunction(name, minArguments, maxArguments, false, implementation));
+    }
+
+    private static void registerVolatile(String name, FormulaFunction.Implementation implementation) {
+        FUNCTIONS.put(name, new FormulaFunction(name, 0, 0, true, implementation));
+    }
+
+    /**
+     * Look up a function by name.
+     *
+     * @param name the function name, case-insensitive
+     * @return the function or {@code null} if there is no function with this name
+     */
+    static @Nullable FormulaFunction get(String name) {
+        return FUNCTIONS.get(name.toUpperCase(Locale.ROOT));
+    }
+
+    // -- argument helpers
+
+    /**
+     * Evaluate an argument to a single value.
+     *
+     * @throws FormulaError.EvaluationException if the argument evaluates to an error
+     */
+    private static @Nullable Object value(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        return FormulaValues.check(FormulaValues.scalar(args.get(k).evaluate(ctx)));
+    }
+
+    /**
+     * Evaluate an argument to a single value, returning errors instead of throwing them.
+     */
+    private static @Nullable Object valueOrError(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        try {
+            return FormulaValues.scalar(args.get(k).evaluate(ctx));
+        } catch (FormulaError.EvaluationException e) {
+            return e.error();
+        }
+    }
+
+    private static double number(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        return FormulaValues.toNumber(value(args, k, ctx));
+    }
+
+    private static String text(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        return FormulaValues.toText(value(args, k, ctx));
+    }
+
+    private static LocalDate date(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        return FormulaValues.toDate(value(args, k, ctx));
+    }
+
+    /**
+     * Evaluate an optional character count argument that defaults to 1.
+     */
+    private static int characters(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        if (k >= args.size()) {
+            return 1;
+        }
+        double n = number(args, k, ctx);
+        if (n < 0) {
+            throw FormulaError.VALUE.exception();
+        }
+        return (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    private static Range range(List<FormulaNode> args, int k, EvaluationContext ctx) {
+        if (args.get(k).evaluate(ctx) instanceof Range r) {
+            return r;
+        }
+        throw FormulaError.VALUE.exception();
+    }
+
+    /**
+     * Pass the numbers in the arguments to a consumer. Numbers in ranges and referenced cells are used as-is while
+     * texts, booleans and blanks are skipped; values given directly are converted to numbers.
+     *
+     * @return the number of values passed to the consumer
+     */
+    private static int numbers(List<FormulaNode> args, EvaluationContext ctx, DoubleConsumer consumer) {
+        int n = 0;
+        for (FormulaNode arg : args) {
+            Object v = arg.evaluate(ctx);
+            if (v instanceof Range r) {
+                for (int i = 0; i < r.rows(); i++) {
+                    for (int j = 0; j < r.columns(); j++) {
+                        Object x = FormulaValues.check(r.get(i, j));
+                        if (FormulaValues.isNumber(x)) {
+                            consumer.accept(FormulaValues.toNumber(x));
+                            n++;
+                        }
+                    }
+                }
+            } else if (arg instanceof FormulaNode.CellRef) {
+                if (FormulaValues.isNumber(FormulaValues.check(v))) {
+                    consumer.accept(FormulaValues.toNumber(v));
+                    n++;
+                }
+            } else if (v != null) {
+                consumer.accept(FormulaValues.toNumber(v));
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // -- math and aggregation
+
+    private static double aggregate(List<FormulaNode> args, EvaluationContext ctx, double identity, DoubleBinaryOperator op) {
+        double[] acc = {identity};
+        int n = numbers(args, ctx, d -> acc[0] = op.applyAsDouble(acc[0], d));
+        return n == 0 ? 0.0 : FormulaValues.checkNumber(acc[0]);
+    }
+
+    private static double extremum(List<FormulaNode> args, EvaluationContext ctx, DoubleBinaryOperator op) {
+        double[] acc = {Double.NaN};
+        int n = numbers(args, ctx, d -> acc[0] = Double.isNaN(acc[0]) ? d : op.applyAsDouble(acc[0], d));
+        return n == 0 ? 0.0 : acc[0];
+    }
+
+    private static double average(List<FormulaNode> args, EvaluationContext ctx) {
+        double[] sum = {0.0};
+        int n = numbers(args, ctx, d -> sum[0] += d);
+        if (n == 0) {
+            throw FormulaError.DIV0.exception();
+        }
+        return sum[0] / n;
+    }
+
+    private static double count(List<FormulaNode> args, EvaluationContext ctx) {
+        int n = 0;
+        for (FormulaNode arg : args) {
+            Object v;
+            try {
+                v = arg.evaluate(ctx);
+            } catch (FormulaError.EvaluationException e) {
+                continue;
+            }
+            if (v instanceof Range r) {
+                for (int i = 0; i < r.rows(); i++) {
+                    for (int j = 0; j < r.columns(); j++) {
+                        if (FormulaValues.isNumber(r.get(i, j))) {
+                            n++;
+                        }
+                    }
+                }
+            } else if (FormulaValues.isNumber(v) || !(arg instanceof FormulaNode.CellRef) && isNumeric(v)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static boolean isNumeric(@Nullable Object v) {
+        if (v == null || v instanceof FormulaError) {
+            return false;
+        }
+        try {
+            FormulaValues.toNumber(v);
+            return true;
+        } catch (FormulaError.EvaluationException e) {
+            return false;
+        }
+    }
+
+    private static double countA(List<FormulaNode> args, EvaluationContext ctx) {
+        int n = 0;
+        for (FormulaNode arg : args) {
+            Object v;
+            try {
+                v = arg.evaluate(ctx);
+            } catch (FormulaError.EvaluationException e) {
+                v = e.error();
+            }
+            if (v instanceof Range r) {
+                for (int i = 0; i < r.rows(); i++) {
+                    for (int j = 0; j < r.columns(); j++) {
+                        if (r.get(i, j) != null) {
+                            n++;
+                        }
+                    }
+                }
+            } else if (v != null) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static double countBlank(List<FormulaNode> args, EvaluationContext ctx) {
+        Range r = range(args, 0, ctx);
+        int[] n = {0};
+        r.forEach(v -> {
+            if (v == null || "".equals(v)) {
+                n[0]++;
+            }
+        });
+        return n[0];
+    }
+
+    /**
+     * Calls the consumer with the numbers of the value range whose corresponding cells in the criteria range match
+     * the criterion. The value range is resized to the size of the criteria range.
+     *
+     * @return the number of matching cells
+     */
+    private static int conditional(List<FormulaNode> args, EvaluationContext ctx, DoubleConsumer consumer) {
+        Range criteriaRange = range(args, 0, ctx);
+        Predicate<@Nullable Object> criterion = criterion(value(args, 1, ctx));
+        Range valueRange = args.size() > 2
+                ? range(args, 2, ctx).resize(criteriaRange.rows(), criteriaRange.columns())
+                : criteriaRange;
+        int n = 0;
+        for (int i = 0; i < criteriaRange.rows(); i++) {
+            for (int j = 0; j < criteriaRange.columns(); j++) {
+                if (criterion.test(criteriaRange.get(i, j))) {
+                    Object v = FormulaValues.check(valueRange.get(i, j));
+                    if (FormulaValues.isNumber(v)) {
+                        consumer.accept(FormulaValues.toNumber(v));
+                    }
+                    n++;
+                }
+            }
+        }
+        return n;
+    }
+
+    private static double sumIf(List<FormulaNode> args, EvaluationContext ctx) {
+        double[] sum = {0.0};
+        conditional(args, ctx, d -> sum[0] += d);
+        return sum[0];
+    }
+
+    private static double countIf(List<FormulaNode> args, EvaluationContext ctx) {
+        return conditional(args, ctx, d -> {});
+    }
+
+    private static double averageIf(List<FormulaNode> args, EvaluationContext ctx) {
+        double[] sum = {0.0};
+        int[] n = {0};
+        conditional(args, ctx, d -> {
+            sum[0] += d;
+            n[0]++;
+        });
+        if (n[0] == 0) {
+            throw FormulaError.DIV0.exception();
+        }
+        return sum[0] / n[0];
+    }
+
+    /**
+     * Create a predicate for criteria as used by {@code SUMIF} and {@code COUNTIF}, i.e., {@code 5}, {@code ">=5"},
+     * {@code "<>text"} or {@code "a*"}.
+     */
+    private static Predicate<@Nullable Object> criterion(@Nullable Object criteria) {
+        if (!(criteria instanceof String s)) {
+            return v -> FormulaValues.isSameKind(v, criteria) && FormulaValues.compare(v, criteria) == 0;
+        }
+
+        String op = "=";
+        for (String candidate : List.of(">=", "<=", "<>", "=", ">", "<")) {
+            if (s.startsWith(candidate)) {
+                op = candidate;
+                s = s.substring(candidate.length());
+                break;
+            }
+        }
+
+        Object operand = operand(s);
+        Predicate<@Nullable Object> equal;
+        if (operand == null) {
+            equal = v -> v == null || "".equals(v);
+        } else if (operand instanceof String t && (t.contains("*") || t.contains("?"))) {
+            Pattern pattern = wildcardPattern(t);
+            equal = v -> v instanceof String text && pattern.matcher(text).matches();
+        } else {
+            equal = v -> FormulaValues.isSameKind(v, operand) && FormulaValues.compare(v, operand) == 0;
+        }
+
+        return switch (op) {
+            case "=" -> equal;
+            case "<>" -> equal.negate();
+            default -> {
+                String cmp = op;
+                yield v -> {
+                    if (!FormulaValues.isSameKind(v, operand)) {
+                        return false;
+                    }
+                    int c = FormulaValues.compare(v, operand);
+                    return switch (cmp) {
+                        case ">" -> c > 0;
+                        case ">=" -> c >= 0;
+                        case "<" -> c < 0;
+                        default -> c <= 0;
+                    };
+                };
+            }
+        };
+    }
+
+    private static @Nullable Object operand(String s) {
+        if (s.isEmpty()) {
+            return null;
+        }
+        if (s.equalsIgnoreCase("TRUE") || s.equalsIgnoreCase("FALSE")) {
+            return Boolean.valueOf(s);
+        }
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return s;
+        }
+    }
+
+    private static Pattern wildcardPattern(String s) {
+        StringBuilder regex = new StringBuilder(s.length() + 8);
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '~' -> {
+                    if (i + 1 < s.length()) {
+                        regex.append(Pattern.quote(String.valueOf(s.charAt(++i))));
+                    }
+                }
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+    }
+
+    private static double round(List<FormulaNode> args, EvaluationContext ctx, RoundingMode mode) {
+        double d = number(args, 0, ctx);
+        int digits = (int) number(args, 1, ctx);
+        return BigDecimal.valueOf(d).setScale(digits, mode).doubleValue();
+    }
+
+    private static double math(List<FormulaNode> args, EvaluationContext ctx, DoubleUnaryOperator op) {
+        return FormulaValues.checkNumber(op.applyAsDouble(number(args, 0, ctx)));
+    }
+
+    private static double mod(List<FormulaNode> args, EvaluationContext ctx) {
+        double a = number(args, 0, ctx);
+        double b = number(args, 1, ctx);
+        if (b == 0.0) {
+            throw FormulaError.DIV0.exception();
+        }
+        return a - b * Math.floor(a / b);
+    }
+
+    // -- logical
+
+    private static @Nullable Object ifFunction(List<FormulaNode> args, EvaluationContext ctx) {
+        boolean condition = FormulaValues.toBoolean(value(args, 0, ctx));
+        int k = condition ? 1 : 2;
+        if (k < args.size()) {
+            return args.get(k).evaluate(ctx);
+        }
+        return condition;
+    }
+
+    private static @Nullable Object ifError(List<FormulaNode> args, EvaluationContext ctx, Predicate<FormulaError> handled) {
+        Object v;
+        try {
+            v = args.get(0).evaluate(ctx);
+        } catch (FormulaError.EvaluationException e) {
+            v = e.error();
+        }
+        if (v instanceof FormulaError e && handled.test(e)) {
+            return args.get(1).evaluate(ctx);
+        }
+        return v;
+    }
+
+    private static boolean logical(List<FormulaNode> args, EvaluationContext ctx, boolean and) {
+        boolean result = and;
+        int n = 0;
+        for (FormulaNode arg : args) {
+            Object v = arg.evaluate(ctx);
+            if (v instanceof Range r) {
+                for (int i = 0; i < r.rows(); i++) {
+                    for (int j = 0; j < r.columns(); j++) {
+                        Object x = FormulaValues.check(r.get(i, j));
+                        if (x instanceof Boolean || x instanceof Double) {
+                            boolean b = FormulaValues.toBoolean(x);
+                            result = and ? result && b : result || b;
+                            n++;
+                        }
+                    }
+                }
+            } else if (v != null) {
+                boolean b = FormulaValues.toBoolean(v);
+                result = and ? result && b : result || b;
+                n++;
+            }
+        }
+        if (n == 0) {
+            throw FormulaError.VALUE.exception();
+        }
+        return result;
+    }
+
+    // -- text
+
+    private static String concatenate(List<FormulaNode> args, EvaluationContext ctx) {
+        StringBuilder sb = new StringBuilder();
+        for (FormulaNode arg : args) {
+            Object v = arg.evaluate(ctx);
+            if (v instanceof Range r) {
+                r.forEach(x -> sb.append(FormulaValues.toText(x)));
+            } else {
+                sb.append(FormulaValues.toText(v));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String mid(List<FormulaNode> args, EvaluationContext ctx) {
+        String s = text(args, 0, ctx);
+        double start = number(args, 1, ctx);
+        double n = number(args, 2, ctx);
+        if (start < 1 || n < 0) {
+            throw FormulaError.VALUE.exception();
+        }
+        int from = (int) Math.min(start - 1, s.length());
+        int to = (int) Math.min(from + n, s.length());
+        return s.substring(from, to);
+    }
+
+    // -- lookup
+
+    private static @Nullable Object lookup(List<FormulaNode> args, EvaluationContext ctx, boolean vertical) {
+        Object key = value(args, 0, ctx);
+        Range table = range(args, 1, ctx);
+        double index = number(args, 2, ctx);
+        boolean approximate = args.size() < 4 || FormulaValues.toBoolean(value(args, 3, ctx));
+
+        int size = vertical ? table.columns() : table.rows();
+        if (index < 1) {
+            throw FormulaError.VALUE.exception();
+        }
+        if (index > size) {
+            throw FormulaError.REF.exception();
+        }
+
+        int length = vertical ? table.rows() : table.columns();
+        IntFunction<@Nullable Object> keys = vertical ? k -> table.get(k, 0) : k -> table.get(0, k);
+        int k = approximate ? findSorted(keys, length, key, true) : findExact(keys, length, key);
+        if (k < 0) {
+            throw FormulaError.NA.exception();
+        }
+        int offset = (int) index - 1;
+        return vertical ? table.get(k, offset) : table.get(offset, k);
+    }
+
+    private static double match(List<FormulaNode> args, EvaluationContext ctx) {
+        Object key = value(args, 0, ctx);
+        Range range = range(args, 1, ctx);
+        int type = args.size() > 2 ? (int) number(args, 2, ctx) : 1;
+
+        int length = range.length();
+        if (length < 0) {
+            throw FormulaError.NA.exception();
+        }
+        int k = switch (Integer.signum(type)) {
+            case 0 -> findExact(range::get, length, key);
+            case 1 -> findSorted(range::get, length, key, true);
+            default -> findSorted(range::get, length, key, false);
+        };
+        if (k < 0) {
+            throw FormulaError.NA.exception();
+        }
+        return k + 1.0;
+    }
+
+    /**
+     * Find the first value equal to the key; texts may contain the wildcards '*' and '?'.
+     */
+    private static int findExact(IntFunction<@Nullable Object> values, int length, @Nullable Object key) {
+        Predicate<@Nullable Object> matches = key instanceof String s && (s.contains("*") || s.contains("?"))
+                ? criterion("=" + s)
+                : v -> FormulaValues.isSameKind(v, key) && FormulaValues.compare(v, key) == 0;
+        for (int k = 0; k < length; k++) {
+            if (matches.test(values.apply(k))) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the position of the key in sorted values: for ascending order, the last value less than or equal to the
+     * key, for descending order, the last value greater than or equal to the key. Values of a different kind than
+     * the key are skipped.
+     */
+    private static int findSorted(IntFunction<@Nullable Object> values, int length, @Nullable Object key, boolean ascending) {
+        int found = -1;
+        for (int k = 0; k < length; k++) {
+            Object v = values.apply(k);
+            if (!FormulaValues.isSameKind(v, key)) {
+                continue;
+            }
+            int c = FormulaValues.compare(v, key);
+            if (ascending ? c > 0 : c < 0) {
+                break;
+            }
+            found = k;
+        }
+        return found;
+    }
+
+    private static @Nullable Object index(List<FormulaNode> args, EvaluationContext ctx) {
+        Range range = range(args, 0, ctx);
+        int row = (int) number(args, 1, ctx);
+        int column = args.size() > 2 ? (int) number(args, 2, ctx) : 0;
+
+        // INDEX(range, n) addresses the n-th cell of a single row
+        if (args.size() == 2 && range.rows() == 1) {
+            column = row;
+            row = 1;
+        }
+
+        if (row < 0 || column < 0 || row > range.rows() || column > range.columns()) {
+            throw FormulaError.REF.exception();
+        }
+        if (column == 0 && range.columns() == 1) {
+            column = 1;
+        }
+
+        // a zero row or column selects the whole column or row
+        int firstRow = row == 0 ? 0 : row - 1;
+        int firstColumn = column == 0 ? 0 : column - 1;
+        int rows = row == 0 ? range.rows() : 1;
+        int columns = column == 0 ? range.columns() : 1;
+        Range result = range.subRange(firstRow, firstColumn, rows, columns);
+        return rows == 1 && columns == 1 ? result.get(0, 0) : result;
+    }
+
+    // -- date and time
+
+    private static LocalDate dateFunction(List<FormulaNode> args, EvaluationContext ctx) {
+        int year = (int) number(args, 0, ctx);
+        long month = (long) number(args, 1, ctx);
+        long day = (long) number(args, 2, ctx);
+        if (0 <= year && year < 1900) {
+            year += 1900;
+        }
+        if (year < 1900 || year > 9999) {
+            throw FormulaError.NUM.exception();
+        }
+        // months and days outside their ranges carry over
+        return LocalDate.of(year, 1, 1).plusMonths(month - 1).plusDays(day - 1);
+    }
+
+    private static double weekday(List<FormulaNode> args, EvaluationContext ctx) {
+        int dow = date(args, 0, ctx).getDayOfWeek().getValue(); // Monday = 1, Sunday = 7
+        int type = args.size() > 1 ? (int) number(args, 1, ctx) : 1;
+        return switch (type) {
+            case 1 -> dow % 7 + 1;
+            case 2 -> dow;
+            case 3 -> dow - 1;
+            default -> throw FormulaError.NUM.exception();
+        };
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.generic.GenericSheet;
+import org.jspecify.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A node of a compiled formula.
+ * <p>
+ * Nodes are immutable; references are resolved to sheets when the formula is compiled, and functions are
+ * looked up by name only once.
+ */
+sealed interface FormulaNode {
+
+    /**
+     * Evaluate this node.
+     *
+     * @param context the evaluation context
+     * @return the value as described in {@link FormulaValues}; may be a {@link Range} or a {@link FormulaError}
+     * @throws FormulaError.EvaluationException if the evaluation results in an error
+     */
+    @Nullable Object evaluate(EvaluationContext context);
+
+    /**
+     * A constant value.
+     *
+     * @param value the value
+     */
+    record Literal(@Nullable Object value) implements FormulaNode {
+        @Override
+        public @Nullable Object evaluate(EvaluationContext context) {
+            return value;
+        }
+    }
+
+    /**
+     * A reference to a single cell.
+     *
+     * @param sheet  the referenced sheet
+     * @param row    the row number
+     * @param column the column number
+     */
+    record CellRef(GenericSheet sheet, int row, int column) implements FormulaNode {
+        @Override
+        public @Nullable Object evaluate(EvaluationContext context) {
+            return context.valueAt(sheet, row, column);
+        }
+    }
+
+    /**
+     * A reference to a rectangular range of cells.
+     * <p>
+     * Whole-column references use {@link Integer#MAX_VALUE} as last row; the range is limited to the
+     * rows and columns present in the sheet when evaluated.
+     *
+     * @param sheet       the referenced sheet
+     * @param firstRow    the first row (inclusive)
+     * @param firstColumn the first column (inclusive)
+     * @param lastRow     the last row (inclusive)
+     * @param lastColumn  the last column (inclusive)
+     */
+    record AreaRef(GenericSheet sheet, int firstRow, int firstColumn, int lastRow, int lastColumn) implements FormulaNode {
+        @Override
+        public Range evaluate(EvaluationContext context) {
+            int rows = Math.max(0, Math.min(lastRow, sheet.getRowCount() - 1) - firstRow + 1);
+            int columns = Math.max(0, Math.min(lastColumn, sheet.getColumnCount() - 1) - firstColumn + 1);
+            return new Range(context, sheet, firstRow, firstColumn, rows, columns);
+        }
+
+        /**
+         * Test if a cell lies inside this range.
+         *
+         * @param row    the row number
+         * @param column the column number
+         * @return true, if the cell is part of the range
+         */
+        boolean contains(int row, int column) {
+            return firstRow <= row && row <= lastRow && firstColumn <= column && column <= lastColumn;
+        }
+    }
+
+    /**
+     * A unary operation.
+     *
+     * @param operator the operator, one of '-', '+' or '%'
+     * @param operand  the operand
+     */
+    record Unary(char operator, FormulaNode operand) implements FormulaNode {
+        @Override
+        public Object evaluate(EvaluationContext context) {
+            double d = FormulaValues.toNumber(operand.evaluate(context));
+            return switch (operator) {
+                case '-' -> -d;
+                case '%' -> d / 100.0;
+                default -> d;
+            };
+        }
+    }
+
+    /**
+     * The binary operators.
+     */
+    enum Operator {
+        ADD, SUBTRACT, MULTIPLY, DIVIDE, POWER, CONCATENATE, EQ, NE, LT, LE, GT, GE
+    }
+
+    /**
+     * A binary operation.
+     *
+     * @param operator the operator
+     * @param left     the left operand
+     * @param right    the right operand
+     */
+    record Binary(Operator operator, FormulaNode left, FormulaNode right) implements FormulaNode {
+        @Override
+        public Object evaluate(EvaluationContext context) {
+            Object a = FormulaValues.check(FormulaValues.scalar(left.evaluate(context)));
+            Object b = FormulaValues.check(FormulaValues.scalar(right.evaluate(context)));
+            return switch (operator) {
+                case ADD -> add(a, b);
+                case SUBTRACT -> subtract(a, b);
+                case MULTIPLY -> FormulaValues.checkNumber(FormulaValues.toNumber(a) * FormulaValues.toNumber(b));
+                case DIVIDE -> divide(FormulaValues.toNumber(a), FormulaValues.toNumber(b));
+                case POWER -> FormulaValues.checkNumber(Math.pow(FormulaValues.toNumber(a), FormulaValues.toNumber(b)));
+                case CONCATENATE -> FormulaValues.toText(a).concat(FormulaValues.toText(b));
+                case EQ -> FormulaValues.compare(a, b) == 0;
+                case NE -> FormulaValues.compare(a, b) != 0;
+                case LT -> FormulaValues.compare(a, b) < 0;
+                case LE -> FormulaValues.compare(a, b) <= 0;
+                case GT -> FormulaValues.compare(a, b) > 0;
+                case GE -> FormulaValues.compare(a, b) >= 0;
+            };
+        }
+
+        private static Object add(@Nullable Object a, @Nullable Object b) {
+            double d = FormulaValues.checkNumber(FormulaValues.toNumber(a) + FormulaValues.toNumber(b));
+            // adding days to a date yields a date
+            return isDate(a) != isDate(b) ? FormulaValues.fromSerial(d) : d;
+        }
+
+        private static Object subtract(@Nullable Object a, @Nullable Object b) {
+            double d = FormulaValues.checkNumber(FormulaValues.toNumber(a) - FormulaValues.toNumber(b));
+            // subtracting days from a date yields a date, the difference of two dates is a number of days
+            return isDate(a) && !isDate(b) ? FormulaValues.fromSerial(d) : d;
+        }
+
+        private static double divide(double a, double b) {
+            if (b == 0.0) {
+                throw FormulaError.DIV0.exception();
+            }
+            return FormulaValues.checkNumber(a / b);
+        }
+
+        private static boolean isDate(@Nullable Object value) {
+            return value instanceof LocalDate || value instanceof LocalDateTime;
+        }
+    }
+
+    /**
+     * A function call.
+     *
+     * @param function  the function
+     * @param arguments the arguments
+     */
+    record Call(FormulaFunction function, List<FormulaNode> arguments) implements FormulaNode {
+        @Override
+        public @Nullable Object evaluate(EvaluationContext context) {
+            return function.implementation().apply(arguments, context);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.generic.GenericSheet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recursive descent parser for formulas in A1 notation.
+ * <p>
+ * Operator precedence from lowest to highest: comparison ({@code = <> < <= > >=}), concatenation ({@code &}),
+ * addition and subtraction, multiplication and division, exponentiation ({@code ^}), sign, percent.
+ * References may be relative or absolute ({@code $A$1}), ranges ({@code A1:B2}), whole columns ({@code A:B}) and
+ * qualified with a sheet name ({@code Sheet2!A1}, {@code 'My Sheet'!A1:B2}).
+ */
+final class FormulaParser {
+    private static final Logger LOG = LogManager.getLogger(FormulaParser.class);
+
+    private static final Pattern CELL_REF = Pattern.compile("\\$?([A-Za-z]{1,3})\\$?([0-9]{1,7})");
+    private static final Pattern COLUMN_REF = Pattern.compile("\\$?([A-Za-z]{1,3})");
+
+    private final GenericSheet sheet;
+    private final String text;
+    private final List<FormulaNode.CellRef> cellRefs = new ArrayList<>();
+    private final List<FormulaNode.AreaRef> areaRefs = new ArrayList<>();
+    private boolean isVolatile;
+    private int pos;
+
+    /**
+     * Thrown when the formula text cannot be parsed.
+     */
+    private static final class SyntaxException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        SyntaxException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sheet the sheet containing the formula
+     * @param text  the formula text
+     */
+    FormulaParser(GenericSheet sheet, String text) {
+        this.sheet = sheet;
+        this.text = text;
+        this.pos = text.startsWith("=") ? 1 : 0;
+    }
+
+    /**
+     * Parse the formula.
+     *
+     * @return the compiled formula
+     */
+    Formula parse() {
+        try {
+            FormulaNode root = comparison();
+            skipWhitespace();
+            if (pos < text.length()) {
+                throw error("unexpected input");
+            }
+            return new Formula(text, root, List.copyOf(cellRefs), List.copyOf(areaRefs), isVolatile);
+        } catch (SyntaxException e) {
+            LOG.debug("could not parse formula '{}': {}", text, e.getMessage());
+            return new Formula(text, new FormulaNode.Literal(FormulaError.NAME), List.of(), List.of(), false);
+        }
+    }
+
+    private SyntaxException error(String message) {
+        return new SyntaxException(message + " at position " + pos);
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private boolean consume(String token) {
+        skipWhitespace();
+        if (text.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(String.valueOf(c))) {
+            throw error("'" + c + "' expected");
+        }
+    }
+
+    private FormulaNode comparison() {
+        FormulaNode node = concatenation();
+        while (true) {
+            FormulaNode.Operator op;
+            if (consume("<>")) {
+                op = FormulaNode.Operator.NE;
+            } else if (consume("<=")) {
+                op = FormulaNode.Operator.LE;
+            } else if (consume(">=")) {
+                op = FormulaNode.Operator.GE;
+            } else if (consume("<")) {
+                op = FormulaNode.Operator.LT;
+            } else if (consume(">")) {
+                op = FormulaNode.Operator.GT;
+            } else if (consume("=")) {
+                op = FormulaNode.Operator.EQ;
+            } else {
+                return node;
+            }
+            node = new FormulaNode.Binary(op, node, concatenation());
+        }
+    }
+
+    private FormulaNode concatenation() {
+        FormulaNode node = additive();
+        while (consume("&")) {
+            node = new FormulaNode.Binary(FormulaNode.Operator.CONCATENATE, node, additive());
+        }
+        return node;
+    }
+
+    private FormulaNode additive() {
+        FormulaNode node = multiplicative();
+        while (true) {
+            if (consume("+")) {
+                node = new FormulaNode.Binary(FormulaNode.Operator.ADD, node, multiplicative());
+            } else if (consume("-")) {
+                node = new FormulaNode.Binary(FormulaNode.Operator.SUBTRACT, node, multiplicative());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private FormulaNode multiplicative() {
+        FormulaNode node = power();
+        while (true) {
+            if (consume("*")) {
+                node = new FormulaNode.Binary(FormulaNode.Operator.MULTIPLY, node, power());
+            } else if (consume("/")) {
+                node = new FormulaNode.Binary(FormulaNode.Operator.DIVIDE, node, power());
+            } else {
+                return node;
+            }
+        }
+    }
+
+    private FormulaNode power() {
+        FormulaNode node = unary();
+        while (consume("^")) {
+            node = new FormulaNode.Binary(FormulaNode.Operator.POWER, node, unary());
+        }
+        return node;
+    }
+
+    private FormulaNode unary() {
+        // the sign binds tighter than '^', i.e., -2^2 = 4
+        if (consume("-")) {
+            return new FormulaNode.Unary('-', unary());
+        }
+        if (consume("+")) {
+            return new FormulaNode.Unary('+', unary());
+        }
+        FormulaNode node = primary();
+        while (consume("%")) {
+            node = new FormulaNode.Unary('%', node);
+        }
+        return node;
+    }
+
+    private FormulaNode primary() {
+        skipWhitespace();
+        if (pos >= text.length()) {
+            throw error("unexpected end of formula");
+        }
+
+        char c = text.charAt(pos);
+        if (c == '(') {
+            pos++;
+            FormulaNode node = comparison();
+            expect(')');
+            return node;
+        }
+        if (c == '"') {
+            return new FormulaNode.Literal(string());
+        }
+        if (c == '#') {
+            return new FormulaNode.Literal(errorLiteral());
+        }
+        if (Character.isDigit(c) || c == '.') {
+            return new FormulaNode.Literal(number());
+        }
+        if (c == '\'') {
+            String sheetName = quotedSheetName();
+            expect('!');
+            return reference(sheetName);
+        }
+        if (Character.isLetter(c) || c == '$' || c == '_') {
+            return nameOrReference();
+        }
+        throw error("unexpected character '" + c + "'");
+    }
+
+    private String string() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '"') {
+                if (pos < text.length() && text.charAt(pos) == '"') {
+                    sb.append('"');
+                    pos++;
+                } else {
+                    return sb.toString();
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    private FormulaError errorLiteral() {
+        for (FormulaError e : FormulaError.values()) {
+            if (text.regionMatches(true, pos, e.text(), 0, e.text().length())) {
+                pos += e.text().length();
+                return e;
+            }
+        }
+        throw error("unknown error value");
+    }
+
+    private Double number() {
+        int start = pos;
+        while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            pos++;
+        }
+        if (pos < text.length() && (text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+            int mark = pos++;
+            if (pos < text.length() && (text.charAt(pos) == '+' || text.charAt(pos) == '-')) {
+                pos++;
+            }
+            if (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+                    pos++;
+                }
+            } else {
+                pos = mark;
+            }
+        }
+        try {
+            return Double.valueOf(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            throw error("invalid number");
+        }
+    }
+
+    private String quotedSheetName() {
+        StringBuilder sb = new StringBuilder();
+        pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos++);
+            if (c == '\'') {
+                if (pos < text.length() && text.charAt(pos) == '\'') {
+                    sb.append('\'');
+                    pos++;
+                } else {
+                    return sb.toString();
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("unterminated sheet name");
+    }
+
+    private String word() {
+        int start = pos;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '.' && c != '$') {
+                break;
+            }
+            pos++;
+        }
+        return text.substring(start, pos);
+    }
+
+    private FormulaNode nameOrReference() {
+        int start = pos;
+        String word = word();
+
+        if (pos < text.length() && text.charAt(pos) == '!') {
+            pos++;
+            return reference(word);
+        }
+
+        skipWhitespace();
+        if (pos < text.length() && text.charAt(pos) == '(') {
+            pos++;
+            return call(word);
+        }
+
+        if (word.equalsIgnoreCase("TRUE")) {
+            return new FormulaNode.Literal(Boolean.TRUE);
+        }
+        if (word.equalsIgnoreCase("FALSE")) {
+            return new FormulaNode.Literal(Boolean.FALSE);
+        }
+
+        pos = start;
+        return reference(null);
+    }
+
+    private FormulaNode call(String name) {
+        List<FormulaNode> arguments = new ArrayList<>();
+        if (!consume(")")) {
+            do {
+                arguments.add(comparison());
+            } while (consume(","));
+            expect(')');
+        }
+
+        FormulaFunction function = FormulaFunctions.get(name);
+        if (function == null) {
+            return new FormulaNode.Literal(FormulaError.NAME);
+        }
+        if (!function.accepts(arguments.size())) {
+            return new FormulaNode.Literal(FormulaError.VALUE);
+        }
+        isVolatile |= function.isVolatile();
+        return new FormulaNode.Call(function, List.copyOf(arguments));
+    }
+
+    private FormulaNode reference(@Nullable String sheetName) {
+        String first = word();
+        String second = null;
+        if (pos < text.length() && text.charAt(pos) == ':') {
+            pos++;
+            second = word();
+        }
+
+        GenericSheet target = sheetName == null ? sheet : findSheet(sheetName);
+
+        Matcher m1 = CELL_REF.matcher(first);
+        if (m1.matches()) {
+            int row1 = Integer.parseInt(m1.group(2)) - 1;
+            int col1 = Sheet.getColumnNumber(m1.group(1));
+            if (second == null) {
+                if (target == null || row1 < 0) {
+                    return new FormulaNode.Literal(FormulaError.REF);
+                }
+                FormulaNode.CellRef ref = new FormulaNode.CellRef(target, row1, col1);
+                cellRefs.add(ref);
+                return ref;
+            }
+            Matcher m2 = CELL_REF.matcher(second);
+            if (!m2.matches()) {
+                throw error("invalid range '" + first + ":" + second + "'");
+            }
+            int row2 = Integer.parseInt(m2.group(2)) - 1;
+            int col2 = Sheet.getColumnNumber(m2.group(1));
+            return area(target, row1, col1, row2, col2);
+        }
+
+        Matcher c1 = COLUMN_REF.matcher(first);
+        Matcher c2 = COLUMN_REF.matcher(second == null ? "" : second);
+        if (c1.matches() && c2.matches()) {
+            return area(target, 0, Sheet.getColumnNumber(c1.group(1)), Integer.MAX_VALUE, Sheet.getColumnNumber(c2.group(1)));
+        }
+
+        if (sheetName == null && second == null && !first.isEmpty()) {
+            // named ranges are not supported
+            return new FormulaNode.Literal(FormulaError.NAME);
+        }
+        throw error("invalid reference '" + first + "'");
+    }
+
+    private FormulaNode area(@Nullable GenericSheet target, int row1, int col1, int row2, int col2) {
+        if (target == null || Math.min(row1, row2) < 0) {
+            return new FormulaNode.Literal(FormulaError.REF);
+        }
+        FormulaNode.AreaRef ref = new FormulaNode.AreaRef(
+                target, Math.min(row1, row2), Math.min(col1, col2), Math.max(row1, row2), Math.max(col1, col2)
+        );
+        areaRefs.add(ref);
+        return ref;
+    }
+
+    private @Nullable GenericSheet findSheet(String sheetName) {
+        return sheet.getWorkbook().findSheetByName(sheetName)
+                .map(GenericSheet.class::cast)
+                .orElse(null);
+    }
+}
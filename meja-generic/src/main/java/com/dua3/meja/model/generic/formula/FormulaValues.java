@@ -0,0 +1,332 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import org.jspecify.annotations.Nullable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Conversions and comparisons of the values used during formula evaluation.
+ * <p>
+ * Formulas operate on {@link Double}, {@link String}, {@link Boolean}, {@link LocalDate}, {@link LocalDateTime},
+ * {@link FormulaError} and {@link Range} values; {@code null} stands for a blank cell. Dates are converted to and
+ * from serial numbers the same way spreadsheet applications do, i.e., 1900-01-01 is day 1 (ignoring the
+ * non-existent 1900-02-29).
+ */
+final class FormulaValues {
+
+    /**
+     * Day zero of the serial date numbers.
+     */
+    private static final LocalDate SERIAL_EPOCH = LocalDate.of(1899, 12, 30);
+    private static final double SECONDS_PER_DAY = 24 * 60 * 60;
+
+    private FormulaValues() {
+        // utility class
+    }
+
+    /**
+     * Reduce a value to a single value. Ranges consisting of a single cell yield the cell value, larger ranges
+     * evaluate to {@link FormulaError#VALUE}.
+     *
+     * @param value the value
+     * @return the single value
+     */
+    static @Nullable Object scalar(@Nullable Object value) {
+        if (value instanceof Range r) {
+            return r.rows() == 1 && r.columns() == 1 ? r.get(0, 0) : FormulaError.VALUE;
+        }
+        return value;
+    }
+
+    /**
+     * Throw if a value is an error value.
+     *
+     * @param value the value
+     * @return the value
+     * @throws FormulaError.EvaluationException if the value is an error value
+     */
+    static @Nullable Object check(@Nullable Object value) {
+        if (value instanceof FormulaError e) {
+            throw e.exception();
+        }
+        return value;
+    }
+
+    /**
+     * Convert a value to a number.
+     *
+     * @param value the value
+     * @return the numeric value
+     * @throws FormulaError.EvaluationException if the value cannot be converted
+     */
+    static double toNumber(@Nullable Object value) {
+        return switch (scalar(value)) {
+            case null -> 0.0;
+            case Double d -> d;
+            case Number n -> n.doubleValue();
+            case Boolean b -> b ? 1.0 : 0.0;
+            case LocalDate d -> toSerial(d);
+            case LocalDateTime dt -> toSerial(dt);
+            case FormulaError e -> throw e.exception();
+            case String s -> parseNumber(s);
+            default -> throw FormulaError.VALUE.exception();
+        };
+    }
+
+    private static double parseNumber(String s) {
+        String t = s.strip();
+        if (t.isEmpty()) {
+            throw FormulaError.VALUE.exception();
+        }
+        try {
+            if (t.endsWith("%")) {
+                return Double.parseDouble(t.substring(0, t.length() - 1).strip()) / 100.0;
+            }
+            return Double.parseDouble(t);
+        } catch (NumberFormatException e) {
+            try {
+                return toSerial(LocalDate.parse(t));
+            } catch (DateTimeParseException e2) {
+                throw FormulaError.VALUE.exception();
+            }
+        }
+    }
+
+    /**
+     * Convert a value to text.
+     *
+     * @param value the value
+     * @return the text
+     * @throws FormulaError.EvaluationException if the value is an error value
+     */
+    static String toText(@Nullable Object value) {
+        return switch (scalar(value)) {
+            case null -> "";
+            case String s -> s;
+            case Double d -> formatNumber(d);
+            case Boolean b -> b ? "TRUE" : "FALSE";
+            case LocalDate d -> formatNumber(toSerial(d));
+            case LocalDateTime dt -> formatNumber(toSerial(dt));
+            case FormulaError e -> throw e.exception();
+            default -> throw FormulaError.VALUE.exception();
+        };
+    }
+
+    /**
+     * Convert a value to a boolean.
+     *
+     * @param value the value
+     * @return the boolean value
+     * @throws FormulaError.EvaluationException if the value cannot be converted
+     */
+    static boolean toBoolean(@Nullable Object value) {
+        return switch (scalar(value)) {
+            case null -> false;
+            case Boolean b -> b;
+            case String s when s.equalsIgnoreCase("TRUE") -> true;
+            case String s when s.equalsIgnoreCase("FALSE") -> false;
+            case String s -> throw FormulaError.VALUE.exception();
+            case FormulaError e -> throw e.exception();
+            default -> toNumber(value) != 0.0;
+        };
+    }
+
+    /**
+     * Convert a value to a date.
+     *
+     * @param value the value
+     * @return the date
+     * @throws FormulaError.EvaluationException if the value cannot be converted
+     */
+    static LocalDate toDate(@Nullable Object value) {
+        return switch (scalar(value)) {
+            case null -> toDateTime(0.0).toLocalDate();
+            case LocalDate d -> d;
+            case LocalDateTime dt -> dt.toLocalDate();
+            case FormulaError e -> throw e.exception();
+            case Object v -> toDateTime(toNumber(v)).toLocalDate();
+        };
+    }
+
+    /**
+     * Convert a value to a date and time.
+     *
+     * @param value the value
+     * @return the date and time
+     * @throws FormulaError.EvaluationException if the value cannot be converted
+     */
+    static LocalDateTime toDateTime(@Nullable Object value) {
+        return switch (scalar(value)) {
+            case null -> toDateTime(0.0);
+            case LocalDate d -> d.atStartOfDay();
+            case LocalDateTime dt -> dt;
+            case FormulaError e -> throw e.exception();
+            case Object v -> toDateTime(toNumber(v));
+        };
+    }
+
+    /**
+     * Convert a date to its serial number.
+     *
+     * @param date the date
+     * @return the serial number
+     */
+    static double toSerial(LocalDate date) {
+        return ChronoUnit.DAYS.between(SERIAL_EPOCH, date);
+    }
+
+    /**
+     * Convert a date and time to its serial number.
+     *
+     * @param dateTime the date and time
+     * @return the serial number; the time is stored in the fraction
+     */
+    static double toSerial(LocalDateTime dateTime) {
+        return toSerial(dateTime.toLocalDate()) + dateTime.toLocalTime().toNanoOfDay() / (SECONDS_PER_DAY * 1.0e9);
+    }
+
+    /**
+     * Convert a serial number to a date and time.
+     *
+     * @param serial the serial number
+     * @return the date and time
+     * @throws FormulaError.EvaluationException if the serial number is negative or too large
+     */
+    static LocalDateTime toDateTime(double serial) {
+        if (serial < 0 || serial > 2_958_465) { // 9999-12-31
+            throw FormulaError.NUM.exception();
+        }
+        double days = Math.floor(serial);
+        long seconds = Math.round((serial - days) * SECONDS_PER_DAY);
+        return SERIAL_EPOCH.plusDays((long) days).atStartOfDay().plusSeconds(seconds);
+    }
+
+    /**
+     * Create a date or date and time from a serial number, depending on whether the serial number has a fraction.
+     *
+     * @param serial the serial number
+     * @return a {@link LocalDate} or {@link LocalDateTime}
+     */
+    static Object fromSerial(double serial) {
+        LocalDateTime dt = toDateTime(serial);
+        return dt.toLocalTime().equals(LocalTime.MIDNIGHT) ? dt.toLocalDate() : dt;
+    }
+
+    /**
+     * Check the result of a numeric calculation.
+     *
+     * @param d the result
+     * @return the result
+     * @throws FormulaError.EvaluationException if the result is not a finite number
+     */
+    static double checkNumber(double d) {
+        if (!Double.isFinite(d)) {
+            throw FormulaError.NUM.exception();
+        }
+        return d;
+    }
+
+    /**
+     * Format a number the way it is shown in the general number format.
+     *
+     * @param d the number
+     * @return the text
+     */
+    static String formatNumber(double d) {
+        if (d == Math.rint(d) && Math.abs(d) < 1.0e15) {
+            return Long.toString((long) d);
+        }
+        return BigDecimal.valueOf(d).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Test if a value is a number, including dates.
+     *
+     * @param value the value
+     * @return true, if the value is a number
+     */
+    static boolean isNumber(@Nullable Object value) {
+        return value instanceof Double || value instanceof LocalDate || value instanceof LocalDateTime;
+    }
+
+    /**
+     * Compare two values using the ordering of spreadsheet applications: numbers (including dates) are
+     * ordered before texts, texts before booleans; texts are compared ignoring case. Blank values are treated as
+     * zero when compared to numbers, as empty text when compared to texts and as {@code FALSE} when compared to
+     * booleans.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @return a negative number, zero, or a positive number
+     * @throws FormulaError.EvaluationException if one of the values is an error value
+     */
+    static int compare(@Nullable Object a, @Nullable Object b) {
+        a = check(scalar(a));
+        b = check(scalar(b));
+        if (a == null) {
+            a = blankFor(b);
+        }
+        if (b == null) {
+            b = blankFor(a);
+        }
+
+        int ra = typeRank(a);
+        int rb = typeRank(b);
+        if (ra != rb) {
+            return Integer.compare(ra, rb);
+        }
+        return switch (ra) {
+            case 0 -> Double.compare(toNumber(a), toNumber(b));
+            case 1 -> ((String) a).toLowerCase(Locale.ROOT).compareTo(((String) b).toLowerCase(Locale.ROOT));
+            default -> Boolean.compare((Boolean) a, (Boolean) b);
+        };
+    }
+
+    /**
+     * Test if two values can be compared without converting between numbers, texts and booleans.
+     *
+     * @param a the first value
+     * @param b the second value
+     * @return true, if both values are of the same kind
+     */
+    static boolean isSameKind(@Nullable Object a, @Nullable Object b) {
+        return a != null && b != null && typeRank(a) == typeRank(b);
+    }
+
+    private static Object blankFor(@Nullable Object other) {
+        return switch (other) {
+            case String s -> "";
+            case Boolean b -> Boolean.FALSE;
+            case null, default -> 0.0;
+        };
+    }
+
+    private static int typeRank(Object value) {
+        return switch (value) {
+            case String s -> 1;
+            case Boolean b -> 2;
+            default -> 0;
+        };
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.generic.formula;
+
+import com.dua3.meja.model.generic.GenericSheet;
+import org.jspecify.annotations.Nullable;
+
+import java.util.function.Consumer;
+
+/**
+ * The value of a range reference during formula evaluation.
+ * <p>
+ * Cell values are read when accessed, so passing a range to a function does not copy the cells.
+ *
+ * @param context     the evaluation context used to read cell values
+ * @param sheet       the sheet
+ * @param firstRow    the first row of the range
+ * @param firstColumn the first column of the range
+ * @param rows        the number of rows
+ * @param columns     the number of columns
+ */
+record Range(EvaluationContext context, GenericSheet sheet, int firstRow, int firstColumn, int rows, int columns) {
+
+    /**
+     * Get a cell value.
+     *
+     * @param i the row relative to the first row of the range
+     * @param j the column relative to the first column of the range
+     * @return the cell value
+     */
+    @Nullable Object get(int i, int j) {
+        return context.valueAt(sheet, firstRow + i, firstColumn + j);
+    }
+
+    /**
+     * Get a cell value of a range consisting of a single row or column.
+     *
+     * @param k the index of the cell
+     * @return the cell value
+     */
+    @Nullable Object get(int k) {
+        return rows == 1 ? get(0, k) : get(k, 0);
+    }
+
+    /**
+     * Get the number of cells of a range consisting of a single row or column.
+     *
+     * @return the number of cells, or -1 if the range has more than one row and column
+     */
+    int length() {
+        if (rows == 1) {
+            return columns;
+        }
+        return columns == 1 ? rows : -1;
+    }
+
+    /**
+     * Get a range with the same top left cell and a different size.
+     *
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @return the range
+     */
+    Range resize(int rows, int columns) {
+        return new Range(context, sheet, firstRow, firstColumn, rows, columns);
+    }
+
+    /**
+     * Get a part of this range.
+     *
+     * @param i       the first row relative to the first row of the range
+     * @param j       the first column relative to the first column of the range
+     * @param rows    the number of rows
+     * @param columns the number of columns
+     * @return the range
+     */
+    Range subRange(int i, int j, int rows, int columns) {
+        return new Range(context, sheet, firstRow + i, firstColumn + j, rows, columns);
+    }
+
+    /**
+     * Process all cell values in row-major order.
+     *
+     * @param action the action to perform for each value
+     */
+    void forEach(Consumer<@Nullable Object> action) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                action.accept(get(i, j));
+            }
+        }
+    }
+}
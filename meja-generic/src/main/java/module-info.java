@@ -25,6 +25,9 @@ module com.dua3.meja.generic {
     exports com.dua3.meja.model.generic.io;
     opens com.dua3.meja.model.generic.io;
 
+    exports com.dua3.meja.model.generic.formula;
+    opens com.dua3.meja.model.generic.formula;
+
     provides com.dua3.meja.model.WorkbookFactory
             with com.dua3.meja.model.generic.GenericWorkbookFactory;
 
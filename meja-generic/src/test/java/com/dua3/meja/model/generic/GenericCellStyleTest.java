@@ -0,0 +1,52 @@
+package com.dua3.meja.model.generic;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GenericCellStyleTest {
+
+    @Test
+    void testFormat() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            GenericCellStyle cs = wb.getCellStyle("test");
+            LocalDate date = LocalDate.of(2024, 2, 29);
+
+            assertEquals("1234.5", cs.format(1234.5, Locale.US));
+            assertEquals("1234,5", cs.format(1234.5, Locale.GERMANY));
+            assertEquals("Feb 29, 2024", cs.format(date, Locale.US));
+            assertEquals("29.02.2024", cs.format(date, Locale.GERMANY));
+
+            // changing the data format discards the compiled formats
+            cs.setDataFormat("#,##0.00");
+            assertEquals("1,234.50", cs.format(1234.5, Locale.US));
+            assertEquals("1.234,50", cs.format(1234.5, Locale.GERMANY));
+
+            cs.setDataFormat("yyyy/MM/dd");
+            assertEquals("2024/02/29", cs.format(date, Locale.US));
+        }
+    }
+
+    @Test
+    void testFormatConcurrently() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            GenericCellStyle cs = wb.getCellStyle("test");
+            cs.setDataFormat("0.00");
+
+            List<String> expected = IntStream.range(0, 100_000)
+                    .mapToObj(i -> String.format(Locale.US, "%d.25", i))
+                    .toList();
+            List<String> actual = IntStream.range(0, 100_000)
+                    .parallel()
+                    .mapToObj(i -> cs.format(i + 0.25, Locale.US))
+                    .toList();
+            assertEquals(expected, actual);
+        }
+    }
+}
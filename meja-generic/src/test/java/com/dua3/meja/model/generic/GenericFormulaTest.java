@@ -0,0 +1,174 @@
+package com.dua3.meja.model.generic;
+
+import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.model.generic.formula.FormulaEngine;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenericFormulaTest {
+
+    @Test
+    void testEvaluate() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet sheet = wb.createSheet("data");
+                Sheet other = wb.createSheet("other sheet");
+                for (int i = 0; i < 5; i++) {
+                    sheet.getCell(i, 0).set(i + 1);
+                    sheet.getCell(i, 1).set("key" + i);
+                }
+                other.getCell(0, 0).set(100);
+
+                Cell cell = sheet.getCell(0, 5);
+
+                cell.setFormula("SUM(A1:A5)*2");
+                assertEquals(CellType.FORMULA, cell.getCellType());
+                assertEquals(CellType.NUMERIC, cell.getResultType());
+                assertEquals(30.0, cell.getNumber().doubleValue(), storage.name());
+
+                cell.setFormula("=VLOOKUP(3, A1:B5, 2, FALSE)");
+                assertEquals("key2", cell.getText().toString(), storage.name());
+
+                cell.setFormula("INDEX(B1:B5, MATCH(4, A1:A5, 0))");
+                assertEquals("key3", cell.getText().toString(), storage.name());
+
+                cell.setFormula("IF(A2>1, 'other sheet'!A1 + 1, 0)");
+                assertEquals(101.0, cell.getNumber().doubleValue(), storage.name());
+
+                cell.setFormula("EOMONTH(DATE(2024, 1, 15), 1)");
+                assertEquals(CellType.DATE, cell.getResultType());
+                assertEquals(LocalDate.of(2024, 2, 29), cell.getDate(), storage.name());
+
+                cell.setFormula("1/0");
+                assertEquals(CellType.ERROR, cell.getResultType());
+                assertEquals("#DIV/0!", cell.toString(Locale.ROOT), storage.name());
+
+                cell.setFormula("NOSUCHFUNCTION(1)");
+                assertEquals("#NAME?", cell.toString(Locale.ROOT), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testIncrementalRecalculation() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet sheet = wb.createSheet("data");
+                int n = 1000;
+
+                // column A: inputs, column B: running totals, C1: the sum of all totals
+                for (int i = 0; i < n; i++) {
+                    sheet.getCell(i, 0).set(1);
+                    sheet.getCell(i, 1).setFormula(i == 0 ? "A1" : "B" + i + "+A" + (i + 1));
+                }
+                Cell total = sheet.getCell(0, 2).setFormula("SUM(B1:B" + n + ")");
+                assertEquals(n * (n + 1) / 2.0, total.getNumber().doubleValue(), storage.name());
+
+                FormulaEngine engine = wb.getFormulaEngine();
+
+                // reading again does not evaluate anything
+                long count = engine.getEvaluationCount();
+                assertEquals(n * (n + 1) / 2.0, total.getNumber().doubleValue(), storage.name());
+                assertEquals(count, engine.getEvaluationCount(), storage.name());
+
+                // changing an input near the end only recalculates the totals that depend on it
+                sheet.getCell(n - 10, 0).set(2);
+                assertEquals(n * (n + 1) / 2.0 + 10, total.getNumber().doubleValue(), storage.name());
+                assertEquals(count + 11, engine.getEvaluationCount(), storage.name());
+
+                // a full recalculation evaluates every formula once
+                count = engine.getEvaluationCount();
+                wb.evaluateAllFormulaCells();
+                assertEquals(count + n + 1, engine.getEvaluationCount(), storage.name());
+                assertEquals(n * (n + 1) / 2.0 + 10, total.getNumber().doubleValue(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testAreaDependents() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            Sheet sheet = wb.createSheet("data");
+            int n = 500;
+            for (int i = 0; i < n; i++) {
+                sheet.getCell(i, 0).set(1);
+                sheet.getCell(i, 1).set(1);
+            }
+
+            // small areas, areas spanning several blocks of rows, wide areas and whole columns
+            Cell window = sheet.getCell(0, 3).setFormula("SUM(A60:A70)");
+            Cell tall = sheet.getCell(1, 3).setFormula("SUM(A1:A" + n + ")");
+            Cell wide = sheet.getCell(2, 3).setFormula("SUM(A100:B300)");
+            Cell column = sheet.getCell(3, 3).setFormula("SUM(B:B)");
+            assertEquals(11.0, window.getNumber().doubleValue());
+            assertEquals(n, tall.getNumber().doubleValue());
+            assertEquals(402.0, wide.getNumber().doubleValue());
+            assertEquals(n, column.getNumber().doubleValue());
+
+            FormulaEngine engine = wb.getFormulaEngine();
+            long count = engine.getEvaluationCount();
+
+            // only the formulas referencing the changed cell are recalculated
+            sheet.getCell(64, 0).set(2);
+            assertEquals(12.0, window.getNumber().doubleValue());
+            assertEquals(n + 1.0, tall.getNumber().doubleValue());
+            assertEquals(402.0, wide.getNumber().doubleValue());
+            assertEquals(n, column.getNumber().doubleValue());
+            assertEquals(count + 2, engine.getEvaluationCount());
+
+            sheet.getCell(299, 1).set(3);
+            sheet.getCell(n + 100, 1).set(1);
+            assertEquals(12.0, window.getNumber().doubleValue());
+            assertEquals(n + 1.0, tall.getNumber().doubleValue());
+            assertEquals(404.0, wide.getNumber().doubleValue());
+            assertEquals(n + 3.0, column.getNumber().doubleValue());
+            assertEquals(count + 4, engine.getEvaluationCount());
+
+            // replaced formulas no longer depend on their former areas
+            window.setFormula("A1");
+            sheet.getCell(65, 0).set(2);
+            assertEquals(1.0, window.getNumber().doubleValue());
+            assertEquals(n + 2.0, tall.getNumber().doubleValue());
+        }
+    }
+
+    @Test
+    void testCircularReference() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            Sheet sheet = wb.createSheet("data");
+            sheet.getCell(0, 0).setFormula("B1+1");
+            sheet.getCell(0, 1).setFormula("A1+1");
+            assertEquals("#REF!", sheet.getCell(0, 0).toString(Locale.ROOT));
+
+            // breaking the cycle makes the formula evaluate again
+            sheet.getCell(0, 1).set(1);
+            assertEquals(2.0, sheet.getCell(0, 0).getNumber().doubleValue());
+        }
+    }
+
+    @Test
+    void testCursor() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance(GenericCellStorage.COLUMNAR).create()) {
+            Sheet sheet = wb.createSheet("data");
+            sheet.getCell(0, 0).set(20);
+            sheet.getCell(0, 1).setFormula("A1+22");
+
+            SheetCursor cursor = sheet.cursor();
+            assertTrue(cursor.nextRow());
+            assertTrue(cursor.nextCell());
+            assertTrue(cursor.nextCell());
+            assertEquals(CellType.FORMULA, cursor.getCellType());
+            assertEquals(CellType.NUMERIC, cursor.getResultType());
+            assertEquals(42.0, cursor.getDouble());
+        }
+    }
+}
@@ -3,15 +3,37 @@ package com.dua3.meja.model.generic;
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.CellType;
 import com.dua3.meja.model.Row;
+import com.dua3.meja.model.SearchIndexStats;
+import com.dua3.meja.model.SearchOptions;
+import com.dua3.meja.model.SearchSettings;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetAppender;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.model.SheetEvent;
+import com.dua3.meja.util.CellPosition;
+import com.dua3.meja.util.RectangularRegion;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Locale;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GenericSheetTest {
 
@@ -70,4 +92,625 @@ class GenericSheetTest {
             assertEquals(Boolean.TRUE, c4.getBoolean());
         }
     }
+
+    @Test
+    void testColumnarStorage() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance(GenericCellStorage.COLUMNAR).create()) {
+            assertEquals(GenericCellStorage.COLUMNAR, wb.getCellStorage());
+
+            Sheet s = wb.createSheet("Test");
+            LocalDateTime dt = LocalDateTime.of(2023, 1, 1, 12, 30, 15, 123_456_789);
+            LocalDateTime dtFarFuture = LocalDateTime.of(9999, 12, 31, 23, 59);
+            s.createRow("a", 123.5, null, LocalDate.of(2023, 1, 1), true, dt, dtFarFuture, 42L, 7);
+
+            assertEquals(1, s.getRowCount());
+            assertEquals(9, s.getColumnCount());
+
+            Row r = s.getRow(0);
+            assertEquals(CellType.TEXT, r.getCell(0).getCellType());
+            assertEquals("a", r.getCell(0).toString());
+            assertEquals(123.5, r.getCell(1).getNumber());
+            assertEquals(CellType.BLANK, r.getCell(2).getCellType());
+            assertEquals(LocalDate.of(2023, 1, 1), r.getCell(3).getDate());
+            assertEquals("01.01.2023", r.getCell(3).toString(Locale.GERMANY));
+            assertTrue(r.getCell(4).getBoolean());
+            assertEquals(dt, r.getCell(5).getDateTime());
+            assertEquals(dtFarFuture, r.getCell(6).getDateTime());
+            assertEquals(42L, r.getCell(7).getNumber());
+            assertEquals(7, r.getCell(8).getNumber());
+
+            // views of the same cell are equal
+            assertEquals(r.getCell(1), s.getCell(0, 1));
+
+            // overwrite values and change type
+            r.getCell(1).set("b");
+            assertEquals(CellType.TEXT, r.getCell(1).getCellType());
+            assertEquals("b", r.getCell(1).toString());
+            r.getCell(0).clear();
+            assertTrue(r.getCell(0).isEmpty());
+
+            // styles and hyperlinks
+            s.getCell(1000, 2).setCellStyle("bold");
+            assertSame(wb.getCellStyle("bold"), s.getCell(1000, 2).getCellStyle());
+            assertSame(wb.getDefaultCellStyle(), s.getCell(999, 2).getCellStyle());
+
+            // setting the default style on cells without style storage does not allocate anything
+            Cell unstyled = s.getCell(2000, 20);
+            long bytes = s.memoryStats().totalBytes();
+            unstyled.setCellStyle(wb.getDefaultCellStyle());
+            s.getCell(2000, 2).setCellStyle(wb.getDefaultCellStyle());
+            assertEquals(bytes, s.memoryStats().totalBytes());
+            assertSame(wb.getDefaultCellStyle(), unstyled.getCellStyle());
+
+            URI link = URI.create("https://www.dua3.com");
+            s.getCell(3, 3).setHyperlink(link);
+            assertEquals(Optional.of(link), s.getCell(3, 3).getHyperlink());
+            assertEquals(Optional.empty(), s.getCell(3, 4).getHyperlink());
+
+            // merged regions
+            s.getCell(10, 0).set("merged");
+            s.getCell(11, 1).set("cleared");
+            s.getCell(10, 0).merge(2, 2);
+            assertEquals(2, s.getCell(10, 0).getHorizontalSpan());
+            assertEquals(s.getCell(10, 0), s.getCell(11, 1).getLogicalCell());
+            assertTrue(s.getCell(11, 1).isEmpty());
+            assertFalse(s.getCell(12, 2).isMerged());
+        }
+    }
+
+    @Test
+    void testCursor() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet s = wb.createSheet("Test");
+                s.createRow("a", 123.5, null, LocalDate.of(2023, 1, 1), true);
+                s.getCell(2, 1).set(2.0);
+                s.getCell(2, 0).merge(2, 1);
+
+                SheetCursor cursor = s.cursor();
+                assertTrue(cursor.nextRow());
+                assertEquals(0, cursor.getRowNumber());
+                assertEquals(5, cursor.getColumnCount());
+
+                assertTrue(cursor.nextCell());
+                assertEquals(CellType.TEXT, cursor.getCellType());
+                assertEquals("a", cursor.getText().toString());
+                assertTrue(cursor.nextCell());
+                assertEquals(123.5, cursor.getDouble());
+                assertEquals("123,5", cursor.toString(Locale.GERMANY));
+                assertTrue(cursor.nextCell());
+                assertTrue(cursor.isEmpty());
+                assertEquals("x", cursor.getOrDefault("x"));
+                assertTrue(cursor.nextCell());
+                assertEquals(LocalDate.of(2023, 1, 1), cursor.getDate());
+                assertTrue(cursor.nextCell());
+                assertTrue(cursor.getBoolean());
+                assertFalse(cursor.nextCell());
+
+                // the second row is empty
+                assertTrue(cursor.nextRow());
+                assertEquals(0, cursor.getColumnCount());
+                assertFalse(cursor.nextCell());
+
+                // merged cells
+                assertTrue(cursor.moveToRow(2));
+                assertTrue(cursor.moveToColumn(0));
+                assertEquals(2, cursor.getHorizontalSpan());
+                assertEquals(1, cursor.getVerticalSpan());
+                assertTrue(cursor.moveToColumn(1));
+                assertEquals(0, cursor.getHorizontalSpan());
+                assertSame(s.getCell(2, 0).getCellStyle(), cursor.getCellStyle());
+
+                assertFalse(cursor.nextRow());
+                assertEquals(3, s.getRowCount());
+            }
+        }
+    }
+
+    @Test
+    void testPeek() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet s = wb.createSheet("Test");
+                s.createRow("a", 123.5);
+                s.getCell(3, 4).set(true);
+
+                assertEquals(CellType.TEXT, s.peekCellType(0, 0));
+                assertEquals(123.5, s.peekValue(0, 1));
+                assertEquals(Boolean.TRUE, s.peekValue(3, 4));
+
+                // reading missing positions does not change the sheet
+                assertEquals(CellType.BLANK, s.peekCellType(0, 10));
+                assertEquals(CellType.BLANK, s.peekCellType(100, 0));
+                assertEquals(null, s.peekValue(1, 2));
+                assertEquals(4, s.getRowCount());
+                assertEquals(5, s.getColumnCount());
+                assertEquals(2, s.getRow(0).getColumnCount());
+
+                assertEquals(7, s.existingRows().mapToLong(row -> row.existingCells().count()).sum());
+                assertEquals(2, s.getRow(0).getColumnCount());
+            }
+        }
+    }
+
+    @Test
+    void testBatchUpdate() throws Exception {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            Sheet s = wb.createSheet("Test");
+
+            List<SheetEvent> events = new CopyOnWriteArrayList<>();
+            CountDownLatch done = new CountDownLatch(1);
+            collectEvents(s, events, done);
+
+            s.batchUpdate(sheet -> {
+                for (int i = 0; i < 100; i++) {
+                    for (int j = 0; j < 3; j++) {
+                        sheet.getCell(i, j).set(i * j);
+                    }
+                }
+                sheet.batchUpdate(inner -> inner.setColumnWidth(0, 50));
+                sheet.setColumnWidth(1, 60);
+            });
+            s.setZoom(2.0f);
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(
+                    List.of(SheetEvent.ROWS_ADDED, SheetEvent.COLUMNS_ADDED, SheetEvent.LAYOUT_CHANGED, SheetEvent.RANGE_CHANGED),
+                    events.stream().map(SheetEvent::type).toList()
+            );
+            SheetEvent.RowsAdded rowsAdded = (SheetEvent.RowsAdded) events.get(0);
+            assertEquals(0, rowsAdded.first());
+            assertEquals(100, rowsAdded.last());
+            assertEquals(new RectangularRegion(0, 99, 0, 2), ((SheetEvent.RangeChanged) events.get(3)).region());
+        }
+    }
+
+    @Test
+    void testAppender() throws Exception {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet s = wb.createSheet("Test");
+                s.createRow("header");
+
+                List<SheetEvent> events = new CopyOnWriteArrayList<>();
+                CountDownLatch done = new CountDownLatch(1);
+                collectEvents(s, events, done);
+
+                try (SheetAppender appender = s.appender()) {
+                    appender.appendRow("a", 1, null, true, LocalDate.of(2024, 1, 2), "");
+                    appender.appendRow(new double[]{1.5, 2.5, 3.5}, 2);
+                    appender.appendRow();
+                }
+                s.setZoom(2.0f);
+
+                assertEquals(4, s.getRowCount());
+                assertEquals(6, s.getColumnCount());
+                assertEquals("a", s.getCell(1, 0).toString());
+                assertEquals(CellType.NUMERIC, s.getCell(1, 1).getCellType());
+                assertEquals(1, s.getCell(1, 1).getNumber().intValue());
+                assertEquals(CellType.BLANK, s.getCell(1, 2).getCellType());
+                assertTrue(s.getCell(1, 3).getBoolean());
+                assertEquals(LocalDate.of(2024, 1, 2), s.getCell(1, 4).getDate());
+                assertEquals(CellType.BLANK, s.getCell(1, 5).getCellType());
+                assertEquals(2.5, s.getCell(2, 1).getNumber().doubleValue());
+                assertEquals(2, s.getRow(2).getColumnCount());
+                assertEquals(0, s.getRow(3).getColumnCount());
+
+                assertTrue(done.await(10, TimeUnit.SECONDS));
+                assertEquals(
+                        List.of(SheetEvent.ROWS_ADDED, SheetEvent.COLUMNS_ADDED),
+                        events.stream().map(SheetEvent::type).toList()
+                );
+                SheetEvent.RowsAdded rowsAdded = (SheetEvent.RowsAdded) events.get(0);
+                assertEquals(1, rowsAdded.first());
+                assertEquals(4, rowsAdded.last());
+                SheetEvent.ColumnsAdded columnsAdded = (SheetEvent.ColumnsAdded) events.get(1);
+                assertEquals(1, columnsAdded.first());
+                assertEquals(6, columnsAdded.last());
+            }
+        }
+    }
+
+    @Test
+    void testBulkCopy() throws Exception {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet source = wb.createSheet("source");
+                for (int i = 0; i < 100; i++) {
+                    source.getCell(i, 0).set(i);
+                    source.getCell(i, 1).set("text " + i).setCellStyle(wb.getCellStyle(i % 2 == 0 ? "even" : "odd"));
+                }
+                source.getCell(0, 2).setFormula("SUM(A1:A100)");
+                source.getCell(1, 2).set("link").setHyperlink(URI.create("https://www.dua3.com"));
+                source.addMergedRegion(new RectangularRegion(2, 3, 2, 3));
+                source.setRowHeight(5, 30.0f);
+                source.setColumnWidth(1, 120.0f);
+                source.splitAt(1, 1);
+
+                Sheet copy = wb.createSheet("copy");
+                List<SheetEvent> events = new CopyOnWriteArrayList<>();
+                CountDownLatch done = new CountDownLatch(1);
+                collectEvents(copy, events, done);
+
+                copy.copy(source);
+                copy.setZoom(2.0f);
+
+                assertTrue(done.await(10, TimeUnit.SECONDS));
+                assertEquals(
+                        List.of(SheetEvent.SPLIT_CHANGED, SheetEvent.ROWS_ADDED, SheetEvent.COLUMNS_ADDED, SheetEvent.LAYOUT_CHANGED),
+                        events.stream().map(SheetEvent::type).toList(),
+                        storage.name()
+                );
+
+                assertEquals(100, copy.getRowCount(), storage.name());
+                assertEquals(4, copy.getColumnCount(), storage.name());
+                for (int i = 0; i < 100; i++) {
+                    assertEquals(i, copy.getCell(i, 0).getNumber().intValue(), storage.name());
+                    assertEquals("text " + i, copy.getCell(i, 1).toString(), storage.name());
+                    assertSame(wb.getCellStyle(i % 2 == 0 ? "even" : "odd"), copy.getCell(i, 1).getCellStyle(), storage.name());
+                }
+                assertEquals(4950.0, copy.getCell(0, 2).getNumber().doubleValue(), storage.name());
+                assertEquals(Optional.of(URI.create("https://www.dua3.com")), copy.getCell(1, 2).getHyperlink(), storage.name());
+                assertEquals(List.of(new RectangularRegion(2, 3, 2, 3)), copy.getMergedRegions(), storage.name());
+                assertEquals(2, copy.getCell(2, 2).getHorizontalSpan(), storage.name());
+                Cell logicalCell = copy.getCell(3, 3).getLogicalCell();
+                assertSame(copy, logicalCell.getSheet(), storage.name());
+                assertEquals(2, logicalCell.getRowNumber(), storage.name());
+                assertEquals(30.0f, copy.getRowHeight(5), storage.name());
+                assertEquals(120.0f, copy.getColumnWidth(1), storage.name());
+                assertEquals(1, copy.getSplitRow(), storage.name());
+
+                // changes to either sheet are not visible in the other one
+                copy.getCell(10, 0).set(-1);
+                source.getCell(20, 0).set(-2);
+                assertEquals(10, source.getCell(10, 0).getNumber().intValue(), storage.name());
+                assertEquals(20, copy.getCell(20, 0).getNumber().intValue(), storage.name());
+                assertEquals(4939.0, copy.getCell(0, 2).getNumber().doubleValue(), storage.name());
+                assertEquals(4928.0, source.getCell(0, 2).getNumber().doubleValue(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testSnapshot() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet sheet = wb.createSheet("Test");
+                for (int i = 0; i < 100; i++) {
+                    sheet.getCell(i, 0).set(i);
+                    sheet.getCell(i, 1).set("text " + i);
+                }
+                sheet.getCell(0, 2).setFormula("SUM(A1:A100)");
+                sheet.addMergedRegion(new RectangularRegion(2, 3, 2, 3));
+                sheet.setColumnWidth(1, 120.0f);
+
+                Sheet snapshot = sheet.snapshot();
+                assertTrue(snapshot.getWorkbook().isReadOnly(), storage.name());
+                assertFalse(wb.isReadOnly(), storage.name());
+                assertSame(snapshot, snapshot.getCell(5, 1).getSheet(), storage.name());
+
+                // changes to the sheet are not visible in the snapshot
+                sheet.getCell(10, 0).set(-1);
+                sheet.getCell(10, 1).set("changed");
+                sheet.getCell(100, 0).set(100);
+                sheet.setColumnWidth(1, 50.0f);
+                assertEquals(100, snapshot.getRowCount(), storage.name());
+                assertEquals(10, snapshot.getCell(10, 0).getNumber().intValue(), storage.name());
+                assertEquals("text 10", snapshot.getCell(10, 1).toString(), storage.name());
+                assertEquals(4950.0, snapshot.getCell(0, 2).getNumber().doubleValue(), storage.name());
+                assertEquals(120.0f, snapshot.getColumnWidth(1), storage.name());
+                assertEquals(List.of(new RectangularRegion(2, 3, 2, 3)), snapshot.getMergedRegions(), storage.name());
+
+                // the content of the snapshot cannot be changed
+                Cell cell = snapshot.getCell(10, 0);
+                assertThrows(UnsupportedOperationException.class, () -> cell.set(1), storage.name());
+                assertThrows(UnsupportedOperationException.class, cell::clear, storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> cell.setCellStyle(snapshot.getWorkbook().getDefaultCellStyle()), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getCell(200, 0), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getCell(10, 20), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.setRowHeight(0, 10.0f), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.addMergedRegion(new RectangularRegion(5, 6, 5, 6)), storage.name());
+                assertThrows(UnsupportedOperationException.class, snapshot::clear, storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getWorkbook().createSheet("new"), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getWorkbook().getCellStyle("new"), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getWorkbook().getDefaultCellStyle().setWrap(true), storage.name());
+                assertEquals(10, snapshot.getCell(10, 0).getNumber().intValue(), storage.name());
+
+                // view state can still be changed
+                snapshot.setZoom(2.0f);
+                assertTrue(snapshot.setCurrentCell(snapshot.getCell(5, 1)), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testFreeze() throws Exception {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet sheet = wb.createSheet("Test");
+                for (int i = 0; i < 5_000; i++) {
+                    sheet.getCell(i, 0).set(i);
+                    sheet.getCell(i, i % 3 + 1).set("text " + i);
+                }
+                sheet.getCell(0, 5).setFormula("SUM(A1:A5000)");
+
+                CountDownLatch completed = new CountDownLatch(1);
+                sheet.subscribe(new Flow.Subscriber<>() {
+                    @Override
+                    public void onSubscribe(Flow.Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(SheetEvent item) {
+                        // nothing to do
+                    }
+
+                    @Override
+                    public void onError(Throwable throwable) {
+                        // nothing to do
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        completed.countDown();
+                    }
+                });
+
+                wb.freeze();
+                assertTrue(wb.isFrozen(), storage.name());
+                assertTrue(wb.isReadOnly(), storage.name());
+                assertTrue(completed.await(10, TimeUnit.SECONDS), storage.name());
+
+                // the content is unchanged after compacting the storage
+                assertEquals(5_000, sheet.getRowCount(), storage.name());
+                assertEquals(6, sheet.getColumnCount(), storage.name());
+                assertEquals(4999, sheet.getCell(4999, 0).getNumber().intValue(), storage.name());
+                assertEquals("text 4999", sheet.getCell(4999, 2).toString(), storage.name());
+                assertEquals(12_497_500.0, sheet.getCell(0, 5).getNumber().doubleValue(), storage.name());
+                assertEquals(12_497_500L, sheet.parallelRows().mapToLong(row -> row.getCell(0).getNumber().longValue()).sum(), storage.name());
+
+                // locks do not block
+                try (var __ = sheet.writeLock("testFreeze")) {
+                    Thread reader = Thread.ofPlatform().start(() -> {
+                        try (var ___ = sheet.readLock("testFreeze")) {
+                            assertEquals(10, sheet.getCell(10, 0).getNumber().intValue());
+                        }
+                    });
+                    reader.join(10_000);
+                    assertFalse(reader.isAlive(), storage.name());
+                }
+
+                // neither the content nor the view state can be changed
+                assertThrows(UnsupportedOperationException.class, () -> sheet.getCell(0, 0).set(1), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> sheet.getCell(5_000, 0), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> sheet.setZoom(2.0f), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> sheet.setCurrentCell(sheet.getCell(1, 0)), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> wb.setCurrentSheet(0), storage.name());
+                assertThrows(UnsupportedOperationException.class, () -> wb.setUri(null), storage.name());
+            }
+        }
+    }
+
+    private static Optional<String> findPosition(Sheet s, String text, SearchSettings ss) {
+        return s.find(text, ss).map(cell -> cell.getRowNumber() + ":" + cell.getColumnNumber());
+    }
+
+    @Test
+    void testSearchIndex() throws IOException {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            Sheet s = wb.createSheet("Test");
+            for (int i = 0; i < 200; i++) {
+                s.getCell(i, 0).set("Item " + i);
+                s.getCell(i, 1).set(i * 1.5);
+                if (i % 10 == 0) {
+                    s.getCell(i, 2).setFormula("SUM(B1:B" + (i + 1) + ")");
+                }
+            }
+            s.setCurrentCell(100, 1);
+
+            List<String> queries = List.of("Item 1", "ITEM 19", "item 42", "7.5", "em 1", "SUM", "b1:b", "x", "", "Item 1000");
+            for (int options = 0; options < 16; options++) {
+                SearchSettings ss = new SearchSettings(
+                        (options & 1) != 0, (options & 2) != 0, (options & 4) != 0, false, (options & 8) != 0
+                );
+                for (String query : queries) {
+                    s.disableSearchIndex();
+                    Optional<String> expected = findPosition(s, query, ss);
+                    s.enableSearchIndex(16L << 20);
+                    assertEquals(expected, findPosition(s, query, ss), () -> "query: '" + query + "', settings: " + ss);
+                }
+            }
+
+            SearchIndexStats stats = s.getSearchIndexStats().orElseThrow();
+            assertTrue(stats.built());
+            assertFalse(stats.overBudget());
+            assertEquals(420, stats.indexedCells());
+            assertTrue(stats.retainedBytes() > 0);
+
+            // changes are picked up by the index
+            SearchSettings ss = SearchSettings.of(SearchOptions.IGNORE_CASE);
+            s.getCell(150, 0).set("Needle");
+            assertEquals(Optional.of("150:0"), findPosition(s, "needle", ss));
+            s.getCell(150, 0).set("Item 150");
+            assertEquals(Optional.empty(), findPosition(s, "needle", ss));
+
+            try (SheetAppender appender = s.appender()) {
+                appender.appendRow(new Object[]{"appended needle"});
+            }
+            assertEquals(Optional.of("200:0"), findPosition(s, "needle", ss));
+
+            // the index is discarded when over budget, but search still works
+            s.enableSearchIndex(1024);
+            assertEquals(Optional.of("200:0"), findPosition(s, "needle", ss));
+            stats = s.getSearchIndexStats().orElseThrow();
+            assertFalse(stats.built());
+            assertTrue(stats.overBudget());
+            assertEquals(0, stats.retainedBytes());
+
+            s.disableSearchIndex();
+            assertEquals(Optional.empty(), s.getSearchIndexStats());
+        }
+    }
+
+    @Test
+    void testFindAll() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet s = wb.createSheet("Test");
+                int n = 10_000;
+                try (SheetAppender appender = s.appender()) {
+                    for (int i = 0; i < n; i++) {
+                        appender.appendRow("row " + i, i % 7 == 0 ? "seven" : "other");
+                    }
+                }
+
+                SearchSettings ss = SearchSettings.of(SearchOptions.MATCH_COMPLETE_TEXT);
+                List<CellPosition> all = s.findAll("seven", ss);
+                assertEquals(
+                        IntStream.range(0, n).filter(i -> i % 7 == 0).mapToObj(i -> new CellPosition(i, 1)).toList(),
+                        all
+                );
+
+                // limit
+                assertEquals(all.subList(0, 100), s.findAll("seven", ss, 100));
+                // a limit reached only by the matches of several ranges
+                assertEquals(all.subList(0, 500), s.findAll("seven", ss, 500));
+                assertEquals(List.of(), s.findAll("seven", ss, 0));
+
+                // start after the current cell and wrap around
+                s.setCurrentCell(5000, 1);
+                SearchSettings ssCurrent = SearchSettings.of(SearchOptions.MATCH_COMPLETE_TEXT, SearchOptions.SEARCH_FROM_CURRENT);
+                List<CellPosition> fromCurrent = s.findAll("seven", ssCurrent);
+                assertEquals(all.size(), fromCurrent.size());
+                assertEquals(new CellPosition(5005, 1), fromCurrent.get(0));
+                assertEquals(new CellPosition(4998, 1), fromCurrent.get(fromCurrent.size() - 1));
+
+                // the order is the same as for repeated calls to find()
+                SearchSettings ssUpdate = SearchSettings.of(
+                        SearchOptions.MATCH_COMPLETE_TEXT,
+                        SearchOptions.SEARCH_FROM_CURRENT,
+                        SearchOptions.UPDATE_CURRENT_CELL_WHEN_FOUND
+                );
+                for (int k = 0; k < 3; k++) {
+                    Cell cell = s.find("seven", ssUpdate).orElseThrow();
+                    assertEquals(fromCurrent.get(k), new CellPosition(cell.getRowNumber(), cell.getColumnNumber()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void testParallelRows() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = GenericWorkbookFactory.instance(storage).create()) {
+                Sheet s = wb.createSheet("Test");
+                int n = 10_000;
+                try (SheetAppender appender = s.appender()) {
+                    for (int i = 0; i < n; i++) {
+                        appender.appendRow(new double[]{i, 2.0 * i});
+                    }
+                }
+
+                Spliterator<Row> spliterator = s.rows().spliterator();
+                assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+                assertEquals(n, spliterator.getExactSizeIfKnown());
+                assertNotNull(spliterator.trySplit());
+
+                assertEquals(2, s.getRow(0).cells().spliterator().getExactSizeIfKnown());
+
+                try (var lock = s.readLock("testParallelRows")) {
+                    assertTrue(s.parallelRows().isParallel());
+                    assertEquals(
+                            n * (n - 1.0),
+                            s.parallelRows().mapToDouble(row -> s.peekValue(row.getRowNumber(), 1) instanceof Number x ? x.doubleValue() : 0.0).sum()
+                    );
+                    assertEquals(
+                            IntStream.range(0, n).boxed().toList(),
+                            s.parallelRows().map(Row::getRowNumber).toList()
+                    );
+                }
+
+                // gaps are skipped and no rows are created
+                Sheet g = wb.createSheet("Gaps");
+                g.getCell(0, 0).set(1);
+                g.getCell(9_000, 0).set(2);
+                List<Integer> existing = g.existingRows().map(Row::getRowNumber).toList();
+                try (var lock = g.readLock("testParallelRows")) {
+                    assertEquals(existing, g.parallelRows().map(Row::getRowNumber).toList(), storage.name());
+                    assertEquals(3.0, g.parallelRows().mapToDouble(row -> g.peekValue(row.getRowNumber(), 0) instanceof Number x ? x.doubleValue() : 0.0).sum(), storage.name());
+                }
+                assertEquals(existing, g.existingRows().map(Row::getRowNumber).toList(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testConcurrentRowRangeWrites() throws Exception {
+        try (GenericWorkbook wb = GenericWorkbookFactory.instance().create()) {
+            Sheet s = wb.createSheet("Test");
+            int blocks = 8;
+            int rowsPerBlock = 5_000;
+
+            List<Thread> threads = IntStream.range(0, blocks)
+                    .mapToObj(k -> Thread.ofPlatform().start(() -> {
+                        int first = k * rowsPerBlock;
+                        int last = first + rowsPerBlock - 1;
+                        try (var lock = s.writeLock("testConcurrentRowRangeWrites", first, last)) {
+                            for (int i = last; i >= first; i--) {
+                                Row row = s.getRow(i);
+                                row.getCell(0).set(i);
+                                row.getCell(k + 1).set("block " + k);
+                            }
+                        }
+                    }))
+                    .toList();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            try (var lock = s.readLock("testConcurrentRowRangeWrites")) {
+                assertEquals(blocks * rowsPerBlock, s.getRowCount());
+                assertEquals(blocks + 1, s.getColumnCount());
+                for (int i = 0; i < s.getRowCount(); i++) {
+                    assertEquals(i, s.getCell(i, 0).getNumber().intValue());
+                    assertEquals(i, s.getRow(i).getRowNumber());
+                    int k = i / rowsPerBlock;
+                    assertEquals("block " + k, s.getCell(i, k + 1).toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Subscribe to a sheet and collect all events. A zoom change is used as end marker and counts down
+     * the latch instead of being collected.
+     */
+    private static void collectEvents(Sheet sheet, List<SheetEvent> events, CountDownLatch done) {
+        sheet.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(SheetEvent item) {
+                if (item instanceof SheetEvent.ZoomChanged) {
+                    done.countDown();
+                } else {
+                    events.add(item);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                // nothing to do
+            }
+
+            @Override
+            public void onComplete() {
+                // nothing to do
+            }
+        });
+    }
 }
@@ -1,25 +1,35 @@
 package com.dua3.meja.model.generic;
 
 import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellStyle;
 import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.Workbook;
 import com.dua3.meja.model.generic.io.FileTypeCsv;
+import com.dua3.meja.util.MemoryStatsMonitor;
 import com.dua3.utility.io.IoOptions;
 import com.dua3.utility.io.IoUtil;
 import com.dua3.utility.options.Arguments;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.EnumMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertLinesMatch;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GenericWorkbookTest {
 
@@ -145,4 +155,143 @@ class GenericWorkbookTest {
         sheet.createRow(1, 2, 3, 4);
     }
 
+    @Test
+    void testCellStyleNamesAndCopy() throws IOException {
+        try (Workbook wb = GenericWorkbookFactory.instance().create()) {
+            assertEquals("", wb.getDefaultCellStyle().getName());
+
+            CellStyle bold = wb.getCellStyle("bold");
+            CellStyle italic = wb.getCellStyle("italic");
+            assertEquals("bold", bold.getName());
+            assertEquals("italic", italic.getName());
+            assertSame(bold, wb.getCellStyle("bold"));
+
+            Sheet sheet = wb.createSheet("data");
+            for (int i = 0; i < 100; i++) {
+                sheet.getCell(i, 0).set(i).setCellStyle(i % 2 == 0 ? bold : italic);
+            }
+
+            try (Workbook copy = GenericWorkbookFactory.instance().copyOf(wb)) {
+                Sheet copiedSheet = copy.getSheet(0);
+                CellStyle copiedBold = copy.getCellStyle("bold");
+                CellStyle copiedItalic = copy.getCellStyle("italic");
+                for (int i = 0; i < 100; i++) {
+                    Cell cell = copiedSheet.getCell(i, 0);
+                    assertEquals(i, cell.getNumber().intValue());
+                    assertSame(i % 2 == 0 ? copiedBold : copiedItalic, cell.getCellStyle());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testConsistentSnapshot() throws Exception {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = new GenericWorkbook(null, storage)) {
+                Sheet first = wb.createSheet("first");
+                Sheet second = wb.createSheet("second");
+                first.getCell(0, 0).set(0);
+                second.getCell(0, 0).set(0);
+
+                // the writer keeps both sheets in sync
+                AtomicBoolean done = new AtomicBoolean();
+                Thread writer = Thread.ofPlatform().start(() -> {
+                    for (int i = 1; !done.get(); i++) {
+                        try (var lock1 = first.writeLock("testConsistentSnapshot");
+                             var lock2 = second.writeLock("testConsistentSnapshot")) {
+                            first.getCell(0, 0).set(i);
+                            second.getCell(0, 0).set(i);
+                        }
+                    }
+                });
+
+                try {
+                    for (int i = 0; i < 100; i++) {
+                        Workbook snapshot = wb.snapshot();
+                        assertEquals(
+                                snapshot.getSheet(0).getCell(0, 0).getNumber(),
+                                snapshot.getSheet(1).getCell(0, 0).getNumber(),
+                                storage.name()
+                        );
+                    }
+                } finally {
+                    done.set(true);
+                    writer.join();
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMemoryStats() throws Exception {
+        Path path = testdataDir.resolve("population by country_US.csv");
+        Map<GenericCellStorage, MemoryStats> statsByStorage = new EnumMap<>(GenericCellStorage.class);
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (Workbook csv = openWorkbookCsv(path, Locale.US);
+                 Workbook wb = new GenericWorkbook(null, storage)) {
+                wb.copy(csv);
+
+                Sheet sheet = wb.getSheet(0);
+                MemoryStats sheetStats = sheet.memoryStats();
+                MemoryStats stats = wb.memoryStats();
+                assertEquals(sheet.getRowCount(), stats.rows(), storage.name());
+                assertTrue(stats.cells() > 0, storage.name());
+                assertTrue(stats.valueBytes(CellType.TEXT) > 0, storage.name());
+                assertTrue(stats.valueBytes(CellType.NUMERIC) > 0, storage.name());
+                assertTrue(stats.styleBytes() > 0, storage.name());
+                assertEquals(sheetStats.rowBytes(), stats.rowBytes(), storage.name());
+                assertEquals(sheetStats.cellBytes(), stats.cellBytes(), storage.name());
+                assertTrue(stats.totalBytes() > sheetStats.totalBytes(), storage.name());
+                statsByStorage.put(storage, stats);
+            }
+        }
+
+        // columnar storage does not need row and cell objects
+        MemoryStats rowObjects = statsByStorage.get(GenericCellStorage.ROW_OBJECTS);
+        MemoryStats columnar = statsByStorage.get(GenericCellStorage.COLUMNAR);
+        assertEquals(rowObjects.cells(), columnar.cells());
+        assertTrue(columnar.totalBytes() < rowObjects.totalBytes(), statsByStorage::toString);
+    }
+
+    @Test
+    void testMemoryStatsGrowAndShrink() throws IOException {
+        for (GenericCellStorage storage : GenericCellStorage.values()) {
+            try (GenericWorkbook wb = new GenericWorkbook(null, storage)) {
+                Sheet sheet = wb.createSheet("data");
+
+                // the estimate grows with the number of cells
+                MemoryStats previous = wb.memoryStats();
+                for (int k = 1; k <= 3; k++) {
+                    for (int i = (k - 1) * 1_000; i < k * 1_000; i++) {
+                        sheet.getCell(i, 0).set(i);
+                        sheet.getCell(i, 1).set("text " + i);
+                    }
+                    MemoryStats stats = wb.memoryStats();
+                    assertTrue(stats.cells() > previous.cells(), storage.name());
+                    assertTrue(stats.valueBytes(CellType.TEXT) > previous.valueBytes(CellType.TEXT), storage.name());
+                    assertTrue(stats.totalBytes() > previous.totalBytes(), storage.name());
+                    previous = stats;
+                }
+
+                // freezing releases unused capacity
+                wb.freeze();
+                MemoryStats frozen = wb.memoryStats();
+                assertEquals(previous.cells(), frozen.cells(), storage.name());
+                assertTrue(frozen.totalBytes() < previous.totalBytes(), storage.name());
+            }
+        }
+    }
+
+    @Test
+    void testMemoryStatsMonitor() throws Exception {
+        try (Workbook wb = openWorkbookCsv(testdataDir.resolve("population by country_US.csv"), Locale.US);
+             MemoryStatsMonitor monitor = MemoryStatsMonitor.register(wb, "population", 0)) {
+            long totalBytes = (Long) ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(monitor.getObjectName(), "TotalBytes");
+            assertEquals(wb.memoryStats().totalBytes(), totalBytes);
+
+            monitor.close();
+            assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(monitor.getObjectName()));
+        }
+    }
 }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+import com.dua3.meja.model.CellStyle;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures formatting the values of a sheet for display, as done by the sheet views and the HTML export.
+ * <p>
+ * Column A holds numbers using the default format, column B amounts with a custom format, and column C dates. The
+ * values repeat every {@value #DISTINCT_VALUES} rows. The {@code cacheSize} parameter sets the size of the display
+ * string cache, 0 measures formatting without the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CellFormatBenchmark {
+
+    private static final int DISTINCT_VALUES = 500;
+
+    @Param({"xls", "xlsx"})
+    public String type;
+
+    @Param({"50000"})
+    public int rows;
+
+    @Param({"0", "4096"})
+    public int cacheSize;
+
+    private PoiWorkbook workbook;
+    private Sheet sheet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workbook = "xls".equals(type)
+                ? (PoiWorkbook) PoiWorkbookFactory.instance().createXls()
+                : PoiWorkbookFactory.instance().createXlsx();
+        workbook.setDisplayStringCacheSize(cacheSize);
+
+        CellStyle amount = workbook.getCellStyle("amount");
+        amount.setDataFormat("#,##0.00");
+        CellStyle date = workbook.getCellStyle("date");
+        date.setDataFormat("dd.mm.yyyy");
+
+        sheet = workbook.createSheet("data");
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            int v = i % DISTINCT_VALUES;
+            sheet.getCell(i, 0).set(v * 0.25);
+            sheet.getCell(i, 1).set(v * 1.5).setCellStyle(amount);
+            sheet.getCell(i, 2).set(start.plusDays(v)).setCellStyle(date);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public long formatCells() {
+        long length = 0;
+        SheetCursor cursor = sheet.cursor();
+        while (cursor.nextRow()) {
+            while (cursor.nextCell()) {
+                length += cursor.toString(Locale.GERMANY).length();
+            }
+        }
+        return length;
+    }
+}
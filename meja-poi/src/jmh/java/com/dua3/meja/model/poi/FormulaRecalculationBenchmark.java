@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the serial POI formula evaluation with the parallel recalculation of
+ * {@link PoiWorkbook#evaluateAllFormulaCells()} on a generated model.
+ * <p>
+ * The model has a sheet of inputs and a calculation sheet with {@value #COLUMNS} columns of formulas per row that
+ * reference the inputs, the previous columns and the previous row, plus lookups and column totals. The parallel
+ * recalculation runs in a dedicated {@link ForkJoinPool} whose parallelism is given by the {@code threads}
+ * parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FormulaRecalculationBenchmark {
+
+    private static final int COLUMNS = 8;
+
+    @Param({"xls", "xlsx"})
+    public String type;
+
+    @Param({"20000"})
+    public int rows;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private PoiWorkbook workbook;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        workbook = "xls".equals(type)
+                ? (PoiWorkbook) PoiWorkbookFactory.instance().createXls()
+                : PoiWorkbookFactory.instance().createXlsx();
+        Workbook wb = workbook.getPoiWorkbook();
+
+        Sheet inputs = wb.createSheet("inputs");
+        for (int i = 0; i < rows; i++) {
+            Row row = inputs.createRow(i);
+            row.createCell(0).setCellValue(i % 1000);
+            row.createCell(1).setCellValue(1.0 + (i % 17) / 100.0);
+        }
+
+        Sheet calc = wb.createSheet("calc");
+        for (int i = 0; i < rows; i++) {
+            int r = i + 1;
+            Row row = calc.createRow(i);
+            row.createCell(0).setCellFormula("inputs!A" + r + "*inputs!B" + r);
+            row.createCell(1).setCellFormula(i == 0 ? "A1" : "A" + r + "+A" + i + "/2");
+            row.createCell(2).setCellFormula("ROUND(B" + r + "*1.19,2)");
+            row.createCell(3).setCellFormula("IF(C" + r + ">500,C" + r + "-500,C" + r + ")");
+            row.createCell(4).setCellFormula("MAX(A" + r + ":D" + r + ")-MIN(A" + r + ":D" + r + ")");
+            row.createCell(5).setCellFormula("VLOOKUP(MOD(" + r + "*7,1000),inputs!$A$1:$B$" + rows + ",2,FALSE)");
+            row.createCell(6).setCellFormula("E" + r + "*F" + r + "+SUM(A" + r + ":C" + r + ")");
+            row.createCell(7).setCellFormula(i == 0 ? "G1" : "G" + r + "+G" + i);
+        }
+
+        Row totals = calc.createRow(rows);
+        for (int j = 0; j < COLUMNS; j++) {
+            char column = (char) ('A' + j);
+            totals.createCell(j).setCellFormula("SUM(" + column + "1:" + column + rows + ")");
+        }
+
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        workbook.close();
+    }
+
+    @Benchmark
+    public double serial() {
+        // the shared evaluator would otherwise return the results cached in the previous invocation
+        workbook.evaluator.clearAllCachedResultValues();
+        workbook.evaluateAllFormulaCells(1);
+        return workbook.getPoiWorkbook().getSheet("calc").getRow(rows).getCell(COLUMNS - 1).getNumericCellValue();
+    }
+
+    @Benchmark
+    public double parallel() throws ExecutionException, InterruptedException {
+        pool.submit(() -> workbook.evaluateAllFormulaCells()).get();
+        return workbook.getPoiWorkbook().getSheet("calc").getRow(rows).getCell(COLUMNS - 1).getNumericCellValue();
+    }
+}
@@ -42,12 +42,9 @@ import org.jspecify.annotations.Nullable;
 
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalQueries;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -83,68 +80,27 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
     }
 
     /**
-     * Determines the actual Meja cell type, including special handling for date and datetime values.
+     * Determines the actual Meja cell type, including special handling for date values.
      *
-     * @param poiCell the Apache POI cell
-     * @param poiType the basic POI cell type
+     * @param workbook the workbook the cell belongs to
+     * @param poiCell  the Apache POI cell
+     * @param poiType  the basic POI cell type
      * @return the actual Meja CellType, with date detection
      */
-    private static CellType getCellType(org.apache.poi.ss.usermodel.Cell poiCell, org.apache.poi.ss.usermodel.CellType poiType) {
+    static CellType getCellType(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell, org.apache.poi.ss.usermodel.CellType poiType) {
         CellType type = translateCellType(poiType);
-        // because Excel annoyingly store dates as doubles, we have to check for dates using some tricks
-        if (type == CellType.NUMERIC) {
-            // since formulas returning dates should return CellType.FORMULA
-            // rather than CellType.DATE, only test for dates if cell is numeric.
-            if (isCellDateTime(poiCell, poiType)) {
-                type = CellType.DATE_TIME;
-            }
-            if (isCellDateFormatted(poiCell, poiType)) {
-                type = CellType.DATE;
-            }
+        // because Excel annoyingly store dates as doubles, we have to check the data format of the cell style;
+        // since formulas returning dates should return CellType.FORMULA rather than CellType.DATE, only test for
+        // dates if cell is numeric. This is equivalent to DateUtil.isCellDateFormatted() but uses the workbook's
+        // classification of the cell style instead of parsing the data format for each cell.
+        if (type == CellType.NUMERIC
+                && workbook.isDateFormat(poiCell.getCellStyle())
+                && DateUtil.isValidExcelDate(poiCell.getNumericCellValue())) {
+            type = CellType.DATE;
         }
         return type;
     }
 
-    /**
-     * Checks if a cell contains a date value.
-     * Works around POI's limitation where DateUtil.isCellDateFormatted() throws IllegalStateException for non-numeric cells.
-     *
-     * @param poiCell the Apache POI cell to check
-     * @param poiType the basic POI cell type
-     * @return true if the cell contains a date value
-     */
-    private static boolean isCellDateFormatted(org.apache.poi.ss.usermodel.Cell poiCell, org.apache.poi.ss.usermodel.CellType poiType) {
-        /*
-         * DateUtil.isCellDateFormatted() throws IllegalStateException when cell is not
-         * numeric, so we have to work around this. TODO create SCCSE and report bug
-         * against POI
-         */
-        if (poiType == org.apache.poi.ss.usermodel.CellType.FORMULA) {
-            poiType = poiCell.getCachedFormulaResultType();
-        }
-        return poiType == org.apache.poi.ss.usermodel.CellType.NUMERIC && DateUtil.isCellDateFormatted(poiCell);
-    }
-
-    /**
-     * Checks if a cell contains a date and time value.
-     * First checks if the cell is date-formatted, then verifies if it has a time component.
-     *
-     * @param poiCell the Apache POI cell to check
-     * @param poiType the basic POI cell type
-     * @return true if the cell contains both date and time values
-     */
-    private static boolean isCellDateTime(org.apache.poi.ss.usermodel.Cell poiCell, org.apache.poi.ss.usermodel.CellType poiType) {
-        // check if date formatted and time is exactly midnight
-        if (!isCellDateFormatted(poiCell, poiType)) {
-            return false;
-        }
-
-        // check time
-        Instant instant = poiCell.getDateCellValue().toInstant();
-        LocalTime time = instant.query(TemporalQueries.localTime());
-        return time != null;
-    }
-
     final org.apache.poi.ss.usermodel.Cell poiCell;
     int spanX;
     int spanY;
@@ -181,12 +137,85 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
                 });
     }
 
-    private static DataFormatter getDataFormatter(Locale locale) {
-        return new DataFormatter(locale);
+    /**
+     * Determines the result type of a POI cell, i.e., the type of the cached result for formula cells.
+     *
+     * @param workbook the workbook the cell belongs to
+     * @param poiCell  the Apache POI cell
+     * @return the result type
+     */
+    static CellType getResultType(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell) {
+        org.apache.poi.ss.usermodel.CellType poiType = poiCell.getCellType();
+        if (poiType == org.apache.poi.ss.usermodel.CellType.FORMULA) {
+            poiType = poiCell.getCachedFormulaResultType();
+        }
+        return getCellType(workbook, poiCell, poiType);
+    }
+
+    /**
+     * Test if a POI cell is empty.
+     *
+     * @param poiCell the Apache POI cell
+     * @return true, if the cell is blank or contains an empty string
+     */
+    static boolean isEmpty(org.apache.poi.ss.usermodel.Cell poiCell) {
+        return switch (poiCell.getCellType()) {
+            case BLANK -> true;
+            case STRING -> poiCell.getStringCellValue().isEmpty();
+            default -> false;
+        };
+    }
+
+    /**
+     * Get the value of a POI cell.
+     *
+     * @param workbook     the workbook
+     * @param poiCell      the Apache POI cell
+     * @param defaultValue the value to return for blank cells
+     * @return the cell value
+     * @see Cell#getOrDefault(Object)
+     */
+    static @Nullable Object getOrDefault(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell, @Nullable Object defaultValue) {
+        // values are materialized on access, so this is where the workbook's interner applies to loaded data
+        return switch (getCellType(workbook, poiCell, poiCell.getCellType())) {
+            case BLANK -> defaultValue;
+            case DATE -> workbook.cache(poiCell.getLocalDateTimeCellValue().toLocalDate());
+            case DATE_TIME -> workbook.cache(poiCell.getLocalDateTimeCellValue());
+            case NUMERIC -> workbook.cache(poiCell.getNumericCellValue());
+            case FORMULA -> poiCell.getCellFormula();
+            case BOOLEAN -> poiCell.getBooleanCellValue();
+            case TEXT -> workbook.cache(toRichText(workbook, poiCell.getRichStringCellValue()));
+            case ERROR -> ERROR_TEXT;
+        };
+    }
+
+    /**
+     * Get the hyperlink of a POI cell.
+     *
+     * @param poiCell the Apache POI cell
+     * @return the hyperlink or an empty Optional
+     */
+    static Optional<URI> getHyperlink(org.apache.poi.ss.usermodel.Cell poiCell) {
+        Hyperlink link = poiCell.getHyperlink();
+
+        if (link == null) {
+            return Optional.empty();
+        }
+        try {
+            return switch (link.getType()) {
+                case URL, EMAIL -> Optional.of(new URI(link.getAddress()));
+                case FILE -> Optional.of(URI.create(link.getAddress()));
+                case NONE -> Optional.empty();
+                case DOCUMENT -> throw new UnsupportedOperationException("Unsupported link type: " + link.getType());
+            };
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
     public void clear() {
+        checkWritable();
         if (!isEmpty()) {
             Object old = getOrDefault(null);
             poiCell.setBlank();
@@ -202,16 +231,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public @Nullable Object getOrDefault(@Nullable Object defaultValue) {
-        return switch (getCellType()) {
-            case BLANK -> defaultValue;
-            case DATE -> poiCell.getLocalDateTimeCellValue().toLocalDate();
-            case DATE_TIME -> poiCell.getLocalDateTimeCellValue();
-            case NUMERIC -> poiCell.getNumericCellValue();
-            case FORMULA -> poiCell.getCellFormula();
-            case BOOLEAN -> poiCell.getBooleanCellValue();
-            case TEXT -> getText();
-            case ERROR -> ERROR_TEXT;
-        };
+        return getOrDefault(getAbstractWorkbook(), poiCell, defaultValue);
     }
 
     @Override
@@ -223,7 +243,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
                 return RichText.emptyText();
             }
 
-            return RichText.valueOf(getFormattedText(locale));
+            return RichText.valueOf(getFormattedText(getAbstractWorkbook(), poiCell, locale));
         }
     }
 
@@ -245,7 +265,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public CellType getCellType() {
-        return getCellType(poiCell, poiCell.getCellType());
+        return getCellType(getAbstractWorkbook(), poiCell, poiCell.getCellType());
     }
 
     @Override
@@ -277,12 +297,12 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
      * @param i the index of the formatting run
      * @return the Font instance used for the specified formatting run
      */
-    private Font getFontForFormattingRun(RichTextString richText, int i) {
+    private static Font getFontForFormattingRun(PoiWorkbook workbook, RichTextString richText, int i) {
         if (richText instanceof HSSFRichTextString hssfRichText) {
-            return ((PoiHssfWorkbook) getWorkbook()).getFont(hssfRichText.getFontOfFormattingRun(i))
+            return ((PoiHssfWorkbook) workbook).getFont(hssfRichText.getFontOfFormattingRun(i))
                     .getFont();
         } else {
-            return getAbstractWorkbook().getFont(((XSSFRichTextString) richText).getFontOfFormattingRun(i)).getFont();
+            return workbook.getFont(((XSSFRichTextString) richText).getFontOfFormattingRun(i)).getFont();
         }
     }
 
@@ -311,11 +331,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public CellType getResultType() {
-        org.apache.poi.ss.usermodel.CellType poiType = poiCell.getCellType();
-        if (poiType == org.apache.poi.ss.usermodel.CellType.FORMULA) {
-            poiType = poiCell.getCachedFormulaResultType();
-        }
-        return getCellType(poiCell, poiType);
+        return getResultType(getAbstractWorkbook(), poiCell);
     }
 
     @Override
@@ -326,7 +342,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
     @Override
     public RichText getText() {
         LangUtil.check(getCellType() == CellType.TEXT, () -> new CellException(this, "Cell does not contain a text value."));
-        return toRichText(poiCell.getRichStringCellValue());
+        return getAbstractWorkbook().cache(toRichText(poiCell.getRichStringCellValue()));
     }
 
     @Override
@@ -352,23 +368,17 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
             return true;
         }
 
-        org.apache.poi.ss.usermodel.CellStyle style = cellStyle.poiCellStyle;
-        int i = style.getDataFormat();
-        String f = style.getDataFormatString();
-        return DateUtil.isADateFormat(i, f);
+        return cellStyle.getWorkbook().isDateFormat(cellStyle.poiCellStyle);
     }
 
     @Override
     public boolean isEmpty() {
-        return switch (poiCell.getCellType()) {
-            case BLANK -> true;
-            case STRING -> poiCell.getStringCellValue().isEmpty();
-            default -> false;
-        };
+        return isEmpty(poiCell);
     }
 
     @Override
     public PoiCell set(@Nullable Boolean b) {
+        checkWritable();
         if (b == null) {
             clear();
             return this;
@@ -385,6 +395,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell set(@Nullable LocalDate arg) {
+        checkWritable();
         Object old = getOrDefault(null);
         if (arg == null) {
             clear();
@@ -399,6 +410,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell set(@Nullable LocalDateTime arg) {
+        checkWritable();
         Object old = getOrDefault(null);
         if (arg == null) {
             clear();
@@ -413,6 +425,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell set(@Nullable Number arg) {
+        checkWritable();
         if (arg == null) {
             clear();
             return this;
@@ -429,6 +442,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public Cell set(@Nullable RichText s) {
+        checkWritable();
         if (s == null) {
             clear();
             return this;
@@ -452,6 +466,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell set(@Nullable String s) {
+        checkWritable();
         if (s == null) {
             clear();
             return this;
@@ -468,6 +483,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell setCellStyle(CellStyle cellStyle) {
+        checkWritable();
         if (!(cellStyle instanceof PoiCellStyle poiCellStyle)) {
             throw new IllegalStateException("Incompatible implementation: " + cellStyle.getClass());
         }
@@ -522,6 +538,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell setFormula(@Nullable String value) {
+        checkWritable();
         Object old = getOrDefault(null);
         if (value == null) {
             clear();
@@ -548,6 +565,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell setHyperlink(URI target) {
+        checkWritable();
         Hyperlink link = getAbstractWorkbook().createHyperLink(target);
         poiCell.setHyperlink(link);
         return this;
@@ -555,31 +573,19 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public PoiCell clearHyperlink() {
+        checkWritable();
         poiCell.removeHyperlink();
         return this;
     }
 
     @Override
     public Optional<URI> getHyperlink() {
-        Hyperlink link = poiCell.getHyperlink();
-
-        if (link == null) {
-            return Optional.empty();
-        }
-        try {
-            return switch (link.getType()) {
-                case URL, EMAIL -> Optional.of(new URI(link.getAddress()));
-                case FILE -> Optional.of(URI.create(link.getAddress()));
-                case NONE -> Optional.empty();
-                case DOCUMENT -> throw new UnsupportedOperationException("Unsupported link type: " + link.getType());
-            };
-        } catch (URISyntaxException e) {
-            throw new IllegalStateException(e);
-        }
+        return getHyperlink(poiCell);
     }
 
     @Override
     public Cell setError() {
+        checkWritable();
         poiCell.setCellErrorValue(FormulaError.NA.getCode());
         return this;
     }
@@ -591,6 +597,17 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
      * @return The converted RichText object.
      */
     public RichText toRichText(RichTextString rts) {
+        return toRichText(getAbstractWorkbook(), rts);
+    }
+
+    /**
+     * Converts a RichTextString to a RichText object.
+     *
+     * @param workbook the workbook the text belongs to
+     * @param rts      the RichTextString to convert
+     * @return the converted RichText object
+     */
+    static RichText toRichText(PoiWorkbook workbook, RichTextString rts) {
         String text = rts.getString();
         // TODO: properly process tabs
         text = text.replace(TAB, ' '); // tab
@@ -606,7 +623,7 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
                 continue;
             }
 
-            Style style = Style.create(getFontForFormattingRun(rts, i));
+            Style style = Style.create(getFontForFormattingRun(workbook, rts, i));
             rtb.push(style);
             rtb.append(text, start, end);
             rtb.pop(style);
@@ -619,14 +636,27 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     public String toString(Locale locale) {
-        if (getCellType() == CellType.TEXT) {
+        return toString(getAbstractWorkbook(), poiCell, locale);
+    }
+
+    /**
+     * Formats the content of a POI cell as a String.
+     *
+     * @param workbook the workbook the cell belongs to
+     * @param poiCell  the Apache POI cell
+     * @param locale   the locale to use for formatting
+     * @return the formatted cell content as a string
+     * @see Cell#toString(Locale)
+     */
+    static String toString(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell, Locale locale) {
+        if (getCellType(workbook, poiCell, poiCell.getCellType()) == CellType.TEXT) {
             return poiCell.getStringCellValue();
         } else {
-            if (isEmpty()) {
+            if (isEmpty(poiCell)) {
                 return "";
             }
 
-            return getFormattedText(locale);
+            return getFormattedText(workbook, poiCell, locale);
         }
     }
 
@@ -636,30 +666,50 @@ public final class PoiCell extends AbstractCell<PoiSheet, PoiRow, PoiCell> {
      * - For dates, uses the cell style's locale-aware date format
      * - For other types, uses POI's DataFormatter for consistent formatting
      *
-     * @param locale the locale to use for formatting
+     * @param workbook the workbook the cell belongs to
+     * @param poiCell  the Apache POI cell, must not be empty
+     * @param locale   the locale to use for formatting
      * @return the formatted cell content as a string
      */
-    private String getFormattedText(Locale locale) {
+    private static String getFormattedText(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell, Locale locale) {
+        // only numeric cells are cached; formula results might be outdated and all other types are cheap to format
+        PoiDisplayStringCache cache = workbook.getDisplayStringCache();
+        if (cache == null || poiCell.getCellType() != org.apache.poi.ss.usermodel.CellType.NUMERIC) {
+            return formatCellValue(workbook, poiCell, locale);
+        }
+
+        short styleIndex = poiCell.getCellStyle().getIndex();
+        double value = poiCell.getNumericCellValue();
+        String text = cache.get(styleIndex, locale, value);
+        if (text == null) {
+            text = formatCellValue(workbook, poiCell, locale);
+            cache.put(styleIndex, locale, value, text);
+        }
+        return text;
+    }
+
+    private static String formatCellValue(PoiWorkbook workbook, org.apache.poi.ss.usermodel.Cell poiCell, Locale locale) {
         // is there a special date format?
-        switch (getResultType()) {
+        switch (getResultType(workbook, poiCell)) {
             case DATE -> {
-                DateTimeFormatter df = getCellStyle().getLocaleAwareDateFormat(locale);
+                DateTimeFormatter df = workbook.getPoiCellStyle(poiCell.getCellStyle()).getLocaleAwareDateFormat(locale);
                 if (df != null) {
-                    return df.format(getDate());
+                    return df.format(poiCell.getLocalDateTimeCellValue().toLocalDate());
                 }
             }
             case DATE_TIME -> {
-                DateTimeFormatter df = getCellStyle().getLocaleAwareDateTimeFormat(locale);
+                DateTimeFormatter df = workbook.getPoiCellStyle(poiCell.getCellStyle()).getLocaleAwareDateTimeFormat(locale);
                 if (df != null) {
-                    return df.format(getDateTime());
+                    return df.format(poiCell.getLocalDateTimeCellValue());
                 }
             }
             default -> { /* do nothing */ }
         }
 
-        // if not, let POI do the formatting
-        FormulaEvaluator evaluator = getAbstractWorkbook().evaluator;
-        DataFormatter dataFormatter = getDataFormatter(locale);
+        // if not, let POI do the formatting; formulas of frozen workbooks have been evaluated when freezing, and the
+        // shared evaluator must not be used by the unsynchronized readers of a frozen workbook
+        @Nullable FormulaEvaluator evaluator = workbook.isFrozen() ? null : workbook.evaluator;
+        DataFormatter dataFormatter = workbook.getDataFormatter(locale);
         try {
             return dataFormatter.formatCellValue(poiCell, evaluator);
         } catch (@SuppressWarnings("unused") IllegalArgumentException ex) {
@@ -47,7 +47,7 @@ public abstract class PoiCellStyle implements CellStyle {
     static class PoiHssfCellStyle extends PoiCellStyle {
 
         PoiHssfCellStyle(PoiHssfWorkbook workbook, HSSFCellStyle poiCellStyle) {
-            super(workbook, workbook.getFont(poiCellStyle.getFont(workbook.poiWorkbook)), poiCellStyle);
+            super(workbook, poiCellStyle);
         }
 
         @Override
@@ -88,6 +88,7 @@ public abstract class PoiCellStyle implements CellStyle {
 
         @Override
         public void setBorderStyle(Direction d, BorderStyle borderStyle) {
+            checkWritable();
             org.apache.poi.ss.usermodel.BorderStyle poiBorder = getPoiBorder(borderStyle);
             short poiColor = ((PoiHssfWorkbook) workbook).getPoiColor(borderStyle.color()).getIndex();
             switch (d) {
@@ -113,11 +114,13 @@ public abstract class PoiCellStyle implements CellStyle {
 
         @Override
         public void setFillBgColor(Color color) {
+            checkWritable();
             poiCellStyle.setFillBackgroundColor(((PoiHssfWorkbook) workbook).getPoiColor(color).getIndex());
         }
 
         @Override
         public void setFillFgColor(Color color) {
+            checkWritable();
             poiCellStyle.setFillForegroundColor(((PoiHssfWorkbook) workbook).getPoiColor(color).getIndex());
         }
 
@@ -131,7 +134,7 @@ public abstract class PoiCellStyle implements CellStyle {
     static class PoiXssfCellStyle extends PoiCellStyle {
 
         PoiXssfCellStyle(PoiXssfWorkbook workbook, XSSFCellStyle poiCellStyle) {
-            super(workbook, new PoiFont(workbook, poiCellStyle.getFont()), poiCellStyle);
+            super(workbook, poiCellStyle);
         }
 
         @Override
@@ -172,6 +175,7 @@ public abstract class PoiCellStyle implements CellStyle {
 
         @Override
         public void setBorderStyle(Direction d, BorderStyle borderStyle) {
+            checkWritable();
             org.apache.poi.ss.usermodel.BorderStyle poiBorder = getPoiBorder(borderStyle);
             final Color color = borderStyle.color();
             XSSFColor poiColor = ((PoiXssfWorkbook) workbook).getPoiColor(color);
@@ -206,12 +210,14 @@ public abstract class PoiCellStyle implements CellStyle {
 
         @Override
         public void setFillBgColor(Color color) {
+            checkWritable();
             final XSSFColor poiColor = ((PoiXssfWorkbook) workbook).getPoiColor(color);
             ((XSSFCellStyle) poiCellStyle).setFillBackgroundColor(poiColor);
         }
 
         @Override
         public void setFillFgColor(Color color) {
+            checkWritable();
             final XSSFColor poiColor = ((PoiXssfWorkbook) workbook).getPoiColor(color);
             ((XSSFCellStyle) poiCellStyle).setFillForegroundColor(poiColor);
         }
@@ -229,28 +235,37 @@ public abstract class PoiCellStyle implements CellStyle {
     protected final PoiWorkbook workbook;
 
     /**
-     * The font belonging to this cell style.
+     * The underlying Apache POI {@link org.apache.poi.ss.usermodel.CellStyle} instance.
      */
-    protected final PoiFont font;
+    protected final org.apache.poi.ss.usermodel.CellStyle poiCellStyle;
 
     /**
-     * The underlying Apache POI {@link org.apache.poi.ss.usermodel.CellStyle} instance.
+     * The font belonging to this cell style; resolved on first use and reset by {@link #invalidate()}.
      */
-    protected final org.apache.poi.ss.usermodel.CellStyle poiCellStyle;
+    private volatile @Nullable PoiFont font;
 
     /**
      * Construct new instance.
      *
      * @param workbook     the workbook this style belongs to
-     * @param font         the font
      * @param poiCellStyle the POI cell style
      */
-    protected PoiCellStyle(PoiWorkbook workbook, PoiFont font, org.apache.poi.ss.usermodel.CellStyle poiCellStyle) {
+    protected PoiCellStyle(PoiWorkbook workbook, org.apache.poi.ss.usermodel.CellStyle poiCellStyle) {
         this.workbook = workbook;
-        this.font = font;
         this.poiCellStyle = poiCellStyle;
     }
 
+    /**
+     * Discard values derived from the POI cell style.
+     * <p>
+     * Instances are shared by all cells using the same style, so this must be called whenever the POI cell style
+     * is changed in a way that affects derived values.
+     */
+    void invalidate() {
+        font = null;
+        workbook.dataFormatChanged();
+    }
+
     /**
      * Get width for a POI defined border.
      *
@@ -288,7 +303,7 @@ public abstract class PoiCellStyle implements CellStyle {
 
     @Override
     public Font getFont() {
-        return font.getFont();
+        return getPoiFont().getFont();
     }
 
     /**
@@ -297,7 +312,12 @@ public abstract class PoiCellStyle implements CellStyle {
      * @return the POI font
      */
     public PoiFont getPoiFont() {
-        return font;
+        PoiFont f = font;
+        if (f == null) {
+            f = workbook.getFont(poiCellStyle.getFontIndex());
+            font = f;
+        }
+        return f;
     }
 
     @Override
@@ -348,6 +368,7 @@ public abstract class PoiCellStyle implements CellStyle {
 
     @Override
     public void setDataFormat(String format) {
+        checkWritable();
         if (StandardDataFormats.MEDIUM.name().equals(format)) {
             poiCellStyle.setDataFormat((short) 0x0e);
         } else if (StandardDataFormats.FULL.name().equals(format)) {
@@ -355,10 +376,12 @@ public abstract class PoiCellStyle implements CellStyle {
         } else {
             poiCellStyle.setDataFormat(getWorkbook().poiWorkbook.createDataFormat().getFormat(format));
         }
+        invalidate();
     }
 
     @Override
     public void setFillPattern(FillPattern pattern) {
+        checkWritable();
         switch (pattern) {
             case NONE -> poiCellStyle.setFillPattern(FillPatternType.NO_FILL);
             case SOLID -> poiCellStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
@@ -368,29 +391,46 @@ public abstract class PoiCellStyle implements CellStyle {
 
     @Override
     public void setFont(Font font) {
+        checkWritable();
         poiCellStyle.setFont(workbook.getPoiFont(font).getPoiFont());
+        this.font = null;
     }
 
     @Override
     public void setHAlign(HAlign hAlign) {
+        checkWritable();
         poiCellStyle.setAlignment(PoiHelper.hAlignToPoi(hAlign));
     }
 
     @Override
     public void setVAlign(VAlign vAlign) {
+        checkWritable();
         poiCellStyle.setVerticalAlignment(PoiHelper.vAlignToPoi(vAlign));
     }
 
     @Override
     public void setWrap(boolean wrap) {
+        checkWritable();
         poiCellStyle.setWrapText(wrap);
     }
 
     @Override
     public void setRotation(short angle) {
+        checkWritable();
         poiCellStyle.setRotation(LangUtil.requireInInterval(angle, (short) -90, (short) 90));
     }
 
+    /**
+     * Check that this cell style may be changed.
+     *
+     * @throws UnsupportedOperationException if the workbook is read-only
+     */
+    final void checkWritable() {
+        if (workbook.isReadOnly()) {
+            throw new UnsupportedOperationException("the workbook is read-only");
+        }
+    }
+
     @Nullable
     DateTimeFormatter getLocaleAwareDateFormat(Locale locale) {
         switch (poiCellStyle.getDataFormat()) {
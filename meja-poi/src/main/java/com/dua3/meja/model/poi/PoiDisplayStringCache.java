@@ -0,0 +1,138 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+import com.dua3.meja.util.MemoryEstimates;
+import com.dua3.utility.lang.LangUtil;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of the display strings of numeric cell values.
+ * <p>
+ * Entries are keyed by the POI cell style index, the locale, and the bits of the value. The cache is a table with
+ * a fixed number of slots, and each key hashes to exactly one slot. Storing a display string replaces whatever
+ * entry occupied its slot before, so there is no eviction policy beyond that: when two frequently used keys share a
+ * slot, they keep replacing each other, and the cache never grows beyond its initial size. Slots are read and written
+ * atomically, so lookups and updates are lock-free and never see a partially written entry.
+ * <p>
+ * Entries never go stale because a cell changes: a cell that is assigned a different value or style yields a
+ * different key, and the old entry is simply not found again. Formula cells are never cached because their
+ * cached result may be outdated and formatting them may trigger their evaluation; callers only use the cache for
+ * cells of type {@code NUMERIC}. What the key does not capture is the data format of a style, so editing the data
+ * format of a style that is already in use would leave outdated strings behind. The workbook therefore
+ * {@link #clear() clears} the cache whenever a style's data format is changed or a style is copied onto another.
+ * Style edits that do not affect formatting, e.g., of fonts or alignment, leave the cache untouched.
+ */
+final class PoiDisplayStringCache {
+
+    private record Entry(short styleIndex, Locale locale, long valueBits, String text) {}
+
+    private static final long ENTRY_BYTES = MemoryEstimates.objectBytes(2, Short.BYTES + Long.BYTES);
+
+    private final AtomicReferenceArray<@Nullable Entry> slots;
+    private final int shift;
+
+    /**
+     * Constructor.
+     *
+     * @param size the maximum number of cached display strings; rounded down to a power of two
+     */
+    PoiDisplayStringCache(int size) {
+        LangUtil.checkArg(size > 0, "size must be positive: %d", size);
+
+        int n = Integer.highestOneBit(size);
+        this.slots = new AtomicReferenceArray<>(n);
+        this.shift = 32 - Integer.numberOfTrailingZeros(n);
+    }
+
+    /**
+     * Get the number of slots.
+     *
+     * @return the maximum number of cached display strings
+     */
+    int size() {
+        return slots.length();
+    }
+
+    /**
+     * Look up a display string.
+     *
+     * @param styleIndex the POI cell style index
+     * @param locale     the locale
+     * @param value      the cell value
+     * @return the cached display string or {@code null}
+     */
+    @Nullable String get(short styleIndex, Locale locale, double value) {
+        long valueBits = Double.doubleToLongBits(value);
+        Entry entry = slots.get(slot(styleIndex, locale, valueBits));
+        return entry != null
+                && entry.valueBits == valueBits
+                && entry.styleIndex == styleIndex
+                && entry.locale.equals(locale)
+                ? entry.text
+                : null;
+    }
+
+    /**
+     * Store a display string.
+     *
+     * @param styleIndex the POI cell style index
+     * @param locale     the locale
+     * @param value      the cell value
+     * @param text       the display string
+     */
+    void put(short styleIndex, Locale locale, double value, String text) {
+        long valueBits = Double.doubleToLongBits(value);
+        slots.set(slot(styleIndex, locale, valueBits), new Entry(styleIndex, locale, valueBits, text));
+    }
+
+    /**
+     * Estimate the number of bytes retained by the cache.
+     *
+     * @return the estimated number of bytes
+     */
+    long estimatedBytes() {
+        long bytes = MemoryEstimates.arrayBytes(slots.length(), MemoryEstimates.REFERENCE_BYTES);
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null) {
+                bytes += ENTRY_BYTES + MemoryEstimates.stringBytes(entry.text().length());
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Remove all entries, e.g., when a data format has been changed.
+     */
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    /**
+     * Fibonacci hashing of the key components; the high bits of the result select the slot.
+     */
+    private int slot(short styleIndex, Locale locale, long valueBits) {
+        int h = Long.hashCode(valueBits) * 31 + styleIndex;
+        h = h * 31 + locale.hashCode();
+        return shift == 32 ? 0 : (h * 0x9E3779B9) >>> shift;
+    }
+}
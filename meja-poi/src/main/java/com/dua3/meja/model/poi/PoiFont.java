@@ -15,7 +15,6 @@
  */
 package com.dua3.meja.model.poi;
 
-import com.dua3.utility.data.Color;
 import com.dua3.utility.text.Font;
 import com.dua3.utility.text.FontDef;
 import com.dua3.utility.text.FontUtil;
@@ -91,7 +90,7 @@ public class PoiFont {
         FontDef fd = new FontDef();
         fd.setFamily(poiFont.getFontName());
         fd.setSize((float) poiFont.getFontHeightInPoints());
-        fd.setColor(workbook.getColor(poiFont, Color.BLACK));
+        fd.setColor(workbook.getFontColor(poiFont));
         fd.setBold(poiFont.getBold());
         fd.setItalic(poiFont.getItalic());
         fd.setUnderline(poiFont.getUnderline() != org.apache.poi.ss.usermodel.Font.U_NONE);
@@ -110,7 +109,7 @@ public class PoiFont {
      */
     public PoiFont deriveFont(FontDef fd) {
         Font derivedFont = FontUtil.getInstance().deriveFont(font, fd);
-        return workbook.createFont(derivedFont);
+        return workbook.getPoiFont(derivedFont);
     }
 
     @Override
@@ -0,0 +1,792 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationCell;
+import org.apache.poi.ss.formula.EvaluationName;
+import org.apache.poi.ss.formula.EvaluationSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.ExternSheetReferenceToken;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.AreaNPtg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.ExpPtg;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.NameXPxg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Pxg;
+import org.apache.poi.ss.formula.ptg.Pxg3D;
+import org.apache.poi.ss.formula.ptg.RefNPtg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.formula.ptg.TblPtg;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recalculates all formulas of a {@link PoiWorkbook} using several formula evaluators in parallel.
+ * <p>
+ * The dependency graph of the formula cells is derived from the POI formula tokens and sorted into levels: level 0
+ * holds the formulas that do not reference other formula cells, level n the formulas whose precedents are all on
+ * lower levels. The levels are evaluated one after another, and the cells of a level are distributed over the
+ * workers. Each worker owns a POI {@link WorkbookEvaluator} over its own read-only view of the workbook in which the
+ * formula cells of lower levels appear as constant cells holding their results, so that no formula is evaluated
+ * more than once. The POI workbook is not modified until all levels are done; the results are then written back
+ * on the calling thread.
+ * <p>
+ * Workbooks whose dependencies cannot be determined from the formula tokens, i.e., formulas using {@code INDIRECT()}
+ * or {@code OFFSET()}, array formulas, or circular references, are not scheduled; {@link #recalculate()} returns
+ * {@code false} and the caller falls back to the serial POI evaluator.
+ */
+final class PoiRecalculationScheduler {
+    private static final Logger LOGGER = LogManager.getLogger(PoiRecalculationScheduler.class);
+
+    /**
+     * Levels with fewer cells are evaluated on the calling thread.
+     */
+    private static final int MIN_PARALLEL_LEVEL_SIZE = 64;
+    /**
+     * The number of cells a worker evaluates before its evaluation cache is cleared to limit memory use.
+     */
+    private static final int CACHE_CLEAR_INTERVAL = 1 << 16;
+    /**
+     * The maximum average number of precedents per formula; denser graphs are evaluated serially.
+     */
+    private static final int MAX_PRECEDENTS_PER_FORMULA = 32;
+    /**
+     * The maximum nesting depth of names referencing other names.
+     */
+    private static final int MAX_NAME_DEPTH = 16;
+    /**
+     * Functions whose references are only known at evaluation time.
+     */
+    private static final Set<String> DYNAMIC_FUNCTIONS = Set.of("INDIRECT", "OFFSET");
+    /**
+     * Functions that treat referenced cells differently if these contain the same function. Cells using them are
+     * never presented as constant cells.
+     */
+    private static final Set<String> SUBTOTAL_FUNCTIONS = Set.of("SUBTOTAL", "AGGREGATE");
+
+    private final PoiWorkbook workbook;
+    private final Worker[] workers;
+
+    // the formula cells in sheet, row, column order
+    private final List<Cell> cells = new ArrayList<>();
+    private final Map<Long, Integer> nodeIndex = new HashMap<>();
+    private int[] sheetOf = new int[0];
+    private int[] rowOf = new int[0];
+    private int[] columnOf = new int[0];
+    // index of the first formula cell of each sheet; the last element is the number of formula cells
+    private int[] sheetStart = new int[0];
+
+    private Ptg[][] tokens = new Ptg[0][];
+    private int[][] precedents = new int[0][];
+    private boolean[] subtotal = new boolean[0];
+    private @Nullable ValueEval[] results = new ValueEval[0];
+
+    private volatile boolean schedulable = true;
+
+    /**
+     * Constructor.
+     *
+     * @param workbook    the workbook
+     * @param parallelism the number of workers
+     */
+    PoiRecalculationScheduler(PoiWorkbook workbook, int parallelism) {
+        this.workbook = workbook;
+        this.workers = new Worker[parallelism];
+    }
+
+    /**
+     * Recalculate all formulas of the workbook and store the results in the formula cells.
+     *
+     * @return true, if all formulas were recalculated; false, if the workbook cannot be scheduled and nothing was
+     * changed
+     */
+    boolean recalculate() {
+        Workbook poiWorkbook = workbook.poiWorkbook;
+        if (!(poiWorkbook instanceof HSSFWorkbook || poiWorkbook instanceof XSSFWorkbook)) {
+            return false;
+        }
+
+        if (!collectFormulaCells(poiWorkbook)) {
+            LOGGER.debug("workbook contains array formulas, using serial evaluation");
+            return false;
+        }
+
+        int n = cells.size();
+        if (n == 0) {
+            return true;
+        }
+
+        for (int k = 0; k < workers.length; k++) {
+            workers[k] = new Worker(createEvaluationWorkbook(poiWorkbook));
+        }
+
+        // determine the precedents of all formula cells
+        tokens = new Ptg[n][];
+        precedents = new int[n][];
+        subtotal = new boolean[n];
+        AtomicLong edges = new AtomicLong();
+        long maxEdges = (long) MAX_PRECEDENTS_PER_FORMULA * n;
+        runInParallel(n, (worker, from, to) -> {
+            for (int i = from; i < to && schedulable; i++) {
+                if (!analyze(worker.source, i) || edges.addAndGet(precedents[i].length) > maxEdges) {
+                    schedulable = false;
+                }
+            }
+        });
+        if (!schedulable) {
+            LOGGER.debug("formula dependencies cannot be determined, using serial evaluation");
+            return false;
+        }
+
+        // sort the formula cells into levels
+        int[] level = computeLevels();
+        if (level == null) {
+            LOGGER.debug("workbook contains circular references, using serial evaluation");
+            return false;
+        }
+        int levels = Arrays.stream(level).max().orElse(0) + 1;
+        int[] levelStart = new int[levels + 1];
+        for (int l : level) {
+            levelStart[l + 1]++;
+        }
+        for (int l = 0; l < levels; l++) {
+            levelStart[l + 1] += levelStart[l];
+        }
+        int[] order = new int[n];
+        int[] fill = Arrays.copyOf(levelStart, levels);
+        for (int i = 0; i < n; i++) {
+            order[fill[level[i]]++] = i;
+        }
+        LOGGER.debug("recalculating {} formulas in {} levels using {} workers", n, levels, workers.length);
+
+        // evaluate level by level
+        results = new ValueEval[n];
+        for (int l = 0; l < levels; l++) {
+            int from = levelStart[l];
+            int to = levelStart[l + 1];
+            if (to - from < MIN_PARALLEL_LEVEL_SIZE) {
+                workers[0].evaluate(order, from, to);
+            } else {
+                runInParallel(to - from, (worker, a, b) -> worker.evaluate(order, from + a, from + b));
+            }
+        }
+
+        // store the results
+        for (int i = 0; i < n; i++) {
+            setCachedResult(cells.get(i), results[i]);
+        }
+        workbook.evaluator.clearAllCachedResultValues();
+
+        return true;
+    }
+
+    /**
+     * Collect the formula cells of all sheets.
+     *
+     * @param poiWorkbook the POI workbook
+     * @return false, if the workbook contains array formulas
+     */
+    private boolean collectFormulaCells(Workbook poiWorkbook) {
+        int sheetCount = poiWorkbook.getNumberOfSheets();
+        sheetStart = new int[sheetCount + 1];
+        for (int s = 0; s < sheetCount; s++) {
+            sheetStart[s] = cells.size();
+            for (Row row : poiWorkbook.getSheetAt(s)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        if (cell.isPartOfArrayFormulaGroup()) {
+                            return false;
+                        }
+                        nodeIndex.put(key(s, cell.getRowIndex(), cell.getColumnIndex()), cells.size());
+                        cells.add(cell);
+                    }
+                }
+            }
+        }
+        sheetStart[sheetCount] = cells.size();
+
+        int n = cells.size();
+        sheetOf = new int[n];
+        rowOf = new int[n];
+        columnOf = new int[n];
+        for (int s = 0; s < sheetCount; s++) {
+            for (int i = sheetStart[s]; i < sheetStart[s + 1]; i++) {
+                sheetOf[i] = s;
+                rowOf[i] = cells.get(i).getRowIndex();
+                columnOf[i] = cells.get(i).getColumnIndex();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the formula tokens of a formula cell and determine its precedents.
+     *
+     * @param source the evaluation workbook to use
+     * @param i      the index of the formula cell
+     * @return true, if the precedents could be determined
+     */
+    private boolean analyze(EvaluationWorkbook source, int i) {
+        Ptg[] ptgs;
+        try {
+            ptgs = source.getFormulaTokens(source.getSheet(sheetOf[i]).getCell(rowOf[i], columnOf[i]));
+        } catch (RuntimeException e) {
+            LOGGER.debug("could not parse formula in {}!{}", cells.get(i).getSheet().getSheetName(), cells.get(i).getAddress(), e);
+            return false;
+        }
+
+        Precedents p = new Precedents();
+        if (!collectPrecedents(source, sheetOf[i], ptgs, p, 0)) {
+            return false;
+        }
+
+        tokens[i] = ptgs;
+        precedents[i] = p.toArray();
+        subtotal[i] = p.subtotal;
+        return true;
+    }
+
+    /**
+     * Collect the formula cells referenced by formula tokens.
+     *
+     * @param source the evaluation workbook
+     * @param sheet  the index of the sheet the tokens are evaluated on
+     * @param ptgs   the tokens
+     * @param p      the precedents
+     * @param depth  the nesting depth of names
+     * @return true, if all references could be resolved
+     */
+    private boolean collectPrecedents(EvaluationWorkbook source, int sheet, Ptg[] ptgs, Precedents p, int depth) {
+        for (Ptg ptg : ptgs) {
+            if (ptg instanceof RefNPtg || ptg instanceof AreaNPtg || ptg instanceof ExpPtg || ptg instanceof TblPtg) {
+                return false;
+            } else if (ptg instanceof AbstractFunctionPtg f) {
+                if (DYNAMIC_FUNCTIONS.contains(f.getName())) {
+                    return false;
+                }
+                p.subtotal |= SUBTOTAL_FUNCTIONS.contains(f.getName());
+            } else if (ptg instanceof NamePtg namePtg) {
+                EvaluationName name = source.getName(namePtg);
+                if (name != null && !name.isFunctionName() && name.hasFormula()
+                        && (depth >= MAX_NAME_DEPTH || !collectPrecedents(source, sheet, name.getNameDefinition(), p, depth + 1))) {
+                    return false;
+                }
+            } else if (ptg instanceof NameXPxg nameX) {
+                // sheet scoped names; without sheet name, the token refers to an add-in function
+                if (nameX.getSheetName() != null) {
+                    return false;
+                }
+            } else if (ptg instanceof NameXPtg) {
+                // external names and add-in functions in XLS files do not reference cells of this workbook
+            } else if (ptg instanceof RefPtgBase ref) {
+                int[] sheets = sheetRange(source, sheet, ptg);
+                if (sheets != null) {
+                    for (int s = sheets[0]; s <= sheets[1]; s++) {
+                        Integer node = nodeIndex.get(key(s, ref.getRow(), ref.getColumn()));
+                        if (node != null) {
+                            p.add(node);
+                        }
+                    }
+                }
+            } else if (ptg instanceof AreaPtgBase area) {
+                int[] sheets = sheetRange(source, sheet, ptg);
+                if (sheets != null) {
+                    for (int s = sheets[0]; s <= sheets[1]; s++) {
+                        addArea(p, s, area.getFirstRow(), area.getFirstColumn(), area.getLastRow(), area.getLastColumn());
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the range of sheet indexes a reference token refers to.
+     *
+     * @param source the evaluation workbook
+     * @param sheet  the index of the sheet the token is evaluated on
+     * @param ptg    the token
+     * @return the first and last sheet index, or {@code null} if the token refers to another workbook or a deleted
+     * sheet
+     */
+    private static int @Nullable [] sheetRange(EvaluationWorkbook source, int sheet, Ptg ptg) {
+        int first;
+        int last;
+        if (ptg instanceof Pxg pxg) {
+            if (pxg.getExternalWorkbookNumber() > 0) {
+                return null;
+            }
+            first = source.getSheetIndex(pxg.getSheetName());
+            last = pxg instanceof Pxg3D pxg3D && pxg3D.getLastSheetName() != null
+                    ? source.getSheetIndex(pxg3D.getLastSheetName())
+                    : first;
+        } else if (ptg instanceof ExternSheetReferenceToken token) {
+            EvaluationWorkbook.ExternalSheet externalSheet = source.getExternalSheet(token.getExternSheetIndex());
+            if (externalSheet == null || externalSheet.getWorkbookName() != null) {
+                return null;
+            }
+            first = source.getSheetIndex(externalSheet.getSheetName());
+            last = externalSheet instanceof EvaluationWorkbook.ExternalSheetRange range
+                    ? source.getSheetIndex(range.getLastSheetName())
+                    : first;
+        } else {
+            first = sheet;
+            last = sheet;
+        }
+        return first < 0 || last < 0 ? null : new int[]{Math.min(first, last), Math.max(first, last)};
+    }
+
+    /**
+     * Add the formula cells inside a rectangular area.
+     *
+     * @param p           the precedents
+     * @param sheet       the sheet index
+     * @param firstRow    the first row
+     * @param firstColumn the first column
+     * @param lastRow     the last row (inclusive)
+     * @param lastColumn  the last column (inclusive)
+     */
+    private void addArea(Precedents p, int sheet, int firstRow, int firstColumn, int lastRow, int lastColumn) {
+        int end = sheetStart[sheet + 1];
+
+        // binary search for the first formula cell in or below firstRow
+        int lo = sheetStart[sheet];
+        int hi = end;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rowOf[mid] < firstRow) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        for (int k = lo; k < end && rowOf[k] <= lastRow; k++) {
+            if (columnOf[k] >= firstColumn && columnOf[k] <= lastColumn) {
+                p.add(k);
+            }
+        }
+    }
+
+    /**
+     * Compute the level of each formula cell.
+     *
+     * @return the levels, or {@code null} if the dependency graph contains cycles
+     */
+    private int @Nullable [] computeLevels() {
+        int n = precedents.length;
+        int[] level = new int[n];
+        byte[] state = new byte[n]; // 0: not visited, 1: on stack, 2: done
+        int[] stack = new int[n];
+        int[] next = new int[n];
+
+        for (int root = 0; root < n; root++) {
+            if (state[root] != 0) {
+                continue;
+            }
+
+            int sp = 0;
+            stack[sp] = root;
+            next[sp++] = 0;
+            state[root] = 1;
+            while (sp > 0) {
+                int node = stack[sp - 1];
+                int[] p = precedents[node];
+                if (next[sp - 1] < p.length) {
+                    int q = p[next[sp - 1]++];
+                    if (state[q] == 1) {
+                        return null;
+                    }
+                    if (state[q] == 0) {
+                        state[q] = 1;
+                        stack[sp] = q;
+                        next[sp++] = 0;
+                    }
+                } else {
+                    int l = 0;
+                    for (int q : p) {
+                        l = Math.max(l, level[q] + 1);
+                    }
+                    level[node] = l;
+                    state[node] = 2;
+                    sp--;
+                }
+            }
+        }
+
+        return level;
+    }
+
+    /**
+     * Split the range {@code [0, n)} into one slice per worker and process the slices in parallel.
+     *
+     * @param n    the size of the range
+     * @param task the task
+     */
+    private void runInParallel(int n, SliceTask task) {
+        int slices = Math.min(workers.length, n);
+        if (slices <= 1) {
+            task.run(workers[0], 0, n);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(slices);
+        for (int k = 0; k < slices; k++) {
+            Worker worker = workers[k];
+            int from = (int) ((long) n * k / slices);
+            int to = (int) ((long) n * (k + 1) / slices);
+            tasks.add(ForkJoinTask.adapt(() -> task.run(worker, from, to)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /**
+     * Store a formula result in a formula cell, in the same way as POI's {@code FormulaEvaluator.evaluateFormulaCell()}.
+     *
+     * @param cell  the formula cell
+     * @param value the result
+     */
+    private static void setCachedResult(Cell cell, @Nullable ValueEval value) {
+        switch (value) {
+            case NumberEval v -> cell.setCellValue(v.getNumberValue());
+            case StringEval v -> cell.setCellValue(v.getStringValue());
+            case BoolEval v -> cell.setCellValue(v.getBooleanValue());
+            case ErrorEval v -> cell.setCellErrorValue((byte) v.getErrorCode());
+            case null, default -> throw new IllegalStateException("unexpected formula result: " + value);
+        }
+    }
+
+    private static CellType getResultType(ValueEval value) {
+        return switch (value) {
+            case NumberEval v -> CellType.NUMERIC;
+            case StringEval v -> CellType.STRING;
+            case BoolEval v -> CellType.BOOLEAN;
+            case ErrorEval v -> CellType.ERROR;
+            default -> throw new IllegalStateException("unexpected formula result: " + value);
+        };
+    }
+
+    private static EvaluationWorkbook createEvaluationWorkbook(Workbook poiWorkbook) {
+        return switch (poiWorkbook) {
+            case HSSFWorkbook hssfWorkbook -> HSSFEvaluationWorkbook.create(hssfWorkbook);
+            case XSSFWorkbook xssfWorkbook -> XSSFEvaluationWorkbook.create(xssfWorkbook);
+            default -> throw new IllegalArgumentException("unsupported workbook type: " + poiWorkbook.getClass().getName());
+        };
+    }
+
+    private static long key(int sheet, int row, int column) {
+        return (long) sheet << 40 | (long) row << 16 | column;
+    }
+
+    /**
+     * A task processing a slice of a range using a worker.
+     */
+    @FunctionalInterface
+    private interface SliceTask {
+        void run(Worker worker, int from, int to);
+    }
+
+    /**
+     * The precedents of a formula cell.
+     */
+    private static final class Precedents {
+        private int[] nodes = new int[8];
+        private int size;
+        private boolean subtotal;
+
+        void add(int node) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+            }
+            nodes[size++] = node;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(nodes, size);
+        }
+    }
+
+    /**
+     * A worker evaluating formula cells with its own evaluator.
+     * <p>
+     * Workers are used by one thread at a time; the fork-join tasks running them establish the ordering between
+     * consecutive levels.
+     */
+    private final class Worker implements EvaluationWorkbook {
+        private final EvaluationWorkbook source;
+        private final WorkbookEvaluator evaluator;
+        private final Map<Integer, ViewSheet> sheets = new HashMap<>();
+        private int target = -1;
+        private int evaluatedSinceClear;
+
+        Worker(EvaluationWorkbook source) {
+            this.source = source;
+            this.evaluator = new WorkbookEvaluator(this, null, null);
+        }
+
+        void evaluate(int[] order, int from, int to) {
+            if (evaluatedSinceClear >= CACHE_CLEAR_INTERVAL) {
+                evaluator.clearAllCachedResultValues();
+                evaluatedSinceClear = 0;
+            }
+
+            for (int k = from; k < to; k++) {
+                int node = order[k];
+                EvaluationCell cell = source.getSheet(sheetOf[node]).getCell(rowOf[node], columnOf[node]);
+                target = node;
+                results[node] = evaluator.evaluate(new ViewCell(getSheet(sheetOf[node]), cell, node));
+            }
+            target = -1;
+            evaluatedSinceClear += to - from;
+        }
+
+        @Override
+        public String getSheetName(int sheetIndex) {
+            return source.getSheetName(sheetIndex);
+        }
+
+        @Override
+        public int getSheetIndex(EvaluationSheet sheet) {
+            return source.getSheetIndex(sheet instanceof ViewSheet viewSheet ? viewSheet.sheet : sheet);
+        }
+
+        @Override
+        public int getSheetIndex(String sheetName) {
+            return source.getSheetIndex(sheetName);
+        }
+
+        @Override
+        public ViewSheet getSheet(int sheetIndex) {
+            return sheets.computeIfAbsent(sheetIndex, idx -> new ViewSheet(idx, source.getSheet(idx)));
+        }
+
+        @Override
+        public @Nullable ExternalSheet getExternalSheet(int externSheetIndex) {
+            return source.getExternalSheet(externSheetIndex);
+        }
+
+        @Override
+        public @Nullable ExternalSheet getExternalSheet(String firstSheetName, @Nullable String lastSheetName, int externalWorkbookNumber) {
+            return source.getExternalSheet(firstSheetName, lastSheetName, externalWorkbookNumber);
+        }
+
+        @Override
+        public int convertFromExternSheetIndex(int externSheetIndex) {
+            return source.convertFromExternSheetIndex(externSheetIndex);
+        }
+
+        @Override
+        public @Nullable ExternalName getExternalName(int externSheetIndex, int externNameIndex) {
+            return source.getExternalName(externSheetIndex, externNameIndex);
+        }
+
+        @Override
+        public @Nullable ExternalName getExternalName(String nameName, @Nullable String sheetName, int externalWorkbookNumber) {
+            return source.getExternalName(nameName, sheetName, externalWorkbookNumber);
+        }
+
+        @Override
+        public @Nullable EvaluationName getName(NamePtg namePtg) {
+            return source.getName(namePtg);
+        }
+
+        @Override
+        public @Nullable EvaluationName getName(String name, int sheetIndex) {
+            return source.getName(name, sheetIndex);
+        }
+
+        @Override
+        public String resolveNameXText(NameXPtg ptg) {
+            return source.resolveNameXText(ptg);
+        }
+
+        @Override
+        public Ptg[] getFormulaTokens(EvaluationCell cell) {
+            // the tokens of scheduled cells were already parsed when analyzing the dependencies
+            return cell instanceof ViewCell viewCell ? tokens[viewCell.node] : source.getFormulaTokens(cell);
+        }
+
+        @Override
+        public UDFFinder getUDFFinder() {
+            return source.getUDFFinder();
+        }
+
+        @Override
+        public SpreadsheetVersion getSpreadsheetVersion() {
+            return source.getSpreadsheetVersion();
+        }
+
+        @Override
+        public void clearAllCachedResultValues() {
+            // cells do not change during recalculation, so the caches of the source stay valid
+        }
+
+        /**
+         * The worker's view of a sheet.
+         */
+        private final class ViewSheet implements EvaluationSheet {
+            private final int sheetIndex;
+            private final EvaluationSheet sheet;
+
+            ViewSheet(int sheetIndex, EvaluationSheet sheet) {
+                this.sheetIndex = sheetIndex;
+                this.sheet = sheet;
+            }
+
+            @Override
+            public @Nullable EvaluationCell getCell(int rowIndex, int columnIndex) {
+                EvaluationCell cell = sheet.getCell(rowIndex, columnIndex);
+                if (cell == null || cell.getCellType() != CellType.FORMULA) {
+                    return cell;
+                }
+
+                // formula cells that are not yet evaluated or that contain subtotals are evaluated by POI
+                Integer node = nodeIndex.get(key(sheetIndex, rowIndex, columnIndex));
+                if (node == null || subtotal[node] || (node != target && results[node] == null)) {
+                    return cell;
+                }
+                return new ViewCell(this, cell, node);
+            }
+
+            @Override
+            public int getLastRowNum() {
+                return sheet.getLastRowNum();
+            }
+
+            @Override
+            public boolean isRowHidden(int rowIndex) {
+                return sheet.isRowHidden(rowIndex);
+            }
+
+            @Override
+            public void clearAllCachedResultValues() {
+                // see Worker.clearAllCachedResultValues()
+            }
+        }
+
+        /**
+         * A formula cell as seen by the worker: the cell currently being evaluated appears as formula cell, all
+         * other cells as constant cells holding their result.
+         */
+        private final class ViewCell implements EvaluationCell {
+            private final ViewSheet sheet;
+            private final EvaluationCell cell;
+            private final int node;
+
+            ViewCell(ViewSheet sheet, EvaluationCell cell, int node) {
+                this.sheet = sheet;
+                this.cell = cell;
+                this.node = node;
+            }
+
+            private ValueEval result() {
+                ValueEval result = results[node];
+                assert result != null : "formula cell has not been evaluated";
+                return result;
+            }
+
+            @Override
+            public Object getIdentityKey() {
+                return cell.getIdentityKey();
+            }
+
+            @Override
+            public EvaluationSheet getSheet() {
+                return sheet;
+            }
+
+            @Override
+            public int getRowIndex() {
+                return cell.getRowIndex();
+            }
+
+            @Override
+            public int getColumnIndex() {
+                return cell.getColumnIndex();
+            }
+
+            @Override
+            public CellType getCellType() {
+                return node == target ? CellType.FORMULA : getResultType(result());
+            }
+
+            @Override
+            public double getNumericCellValue() {
+                return ((NumberEval) result()).getNumberValue();
+            }
+
+            @Override
+            public String getStringCellValue() {
+                return ((StringEval) result()).getStringValue();
+            }
+
+            @Override
+            public boolean getBooleanCellValue() {
+                return ((BoolEval) result()).getBooleanValue();
+            }
+
+            @Override
+            public int getErrorCellValue() {
+                return ((ErrorEval) result()).getErrorCode();
+            }
+
+            @Override
+            public @Nullable CellRangeAddress getArrayFormulaRange() {
+                return cell.getArrayFormulaRange();
+            }
+
+            @Override
+            public boolean isPartOfArrayFormulaGroup() {
+                return cell.isPartOfArrayFormulaGroup();
+            }
+
+            @Override
+            public CellType getCachedFormulaResultType() {
+                return cell.getCachedFormulaResultType();
+            }
+        }
+    }
+}
@@ -18,19 +18,32 @@ package com.dua3.meja.model.poi;
 import com.dua3.meja.model.AbstractRow;
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.Row;
-import org.apache.poi.ss.usermodel.Row.MissingCellPolicy;
+import com.dua3.meja.util.MemoryEstimates;
 import org.jspecify.annotations.Nullable;
 
+import java.util.Arrays;
+
 /**
  * Concrete Implementation of {@link AbstractRow} for Apache POI based workbooks.
  */
 public final class PoiRow extends AbstractRow<PoiSheet, PoiRow, PoiCell> {
 
+    private static final PoiCell[] NO_CELLS = {};
+
+    private static final long ROW_BYTES = MemoryEstimates.objectBytes(3, Integer.BYTES);
+    private static final long CELL_BYTES = MemoryEstimates.objectBytes(3, 2 * Integer.BYTES);
+
     /**
      *
      */
     final org.apache.poi.ss.usermodel.Row poiRow;
 
+    /**
+     * The cell wrappers by column index, so that repeated accesses to the same cell return the same instance.
+     * Guarded by {@code this}.
+     */
+    private @Nullable PoiCell[] cells = NO_CELLS;
+
     /**
      * Construct row from existing POI row instance.
      *
@@ -59,22 +72,73 @@ public final class PoiRow extends AbstractRow<PoiSheet, PoiRow, PoiCell> {
         org.apache.poi.ss.usermodel.Cell poiCell;
         int oldLast = getColumnCount() - 1;
         if (colIndex > oldLast) {
+            checkWritable();
             int jj = oldLast;
             do {
                 poiCell = poiRow.createCell(++jj);
             } while (jj < colIndex);
             getAbstractSheet().setColumnUsed(colIndex);
         } else {
-            poiCell = poiRow.getCell(colIndex, MissingCellPolicy.CREATE_NULL_AS_BLANK);
+            poiCell = poiRow.getCell(colIndex);
+            if (poiCell == null) {
+                checkWritable();
+                poiCell = poiRow.createCell(colIndex);
+            }
         }
 
-        return new PoiCell(this, poiCell);
+        return getCachedCell(colIndex, poiCell);
     }
 
     @Override
     protected @Nullable PoiCell getAbstractCellOrNull(int col) {
         org.apache.poi.ss.usermodel.Cell poiCell = col < 0 ? null : poiRow.getCell(col);
-        return poiCell != null ? new PoiCell(this, poiCell) : null;
+        return poiCell != null ? getCachedCell(col, poiCell) : null;
+    }
+
+    /**
+     * Get the wrapper for a POI cell of this row, reusing the cached instance if present.
+     *
+     * @param colIndex the column index
+     * @param poiCell  the POI cell
+     * @return the cell wrapper
+     */
+    private PoiCell getCachedCell(int colIndex, org.apache.poi.ss.usermodel.Cell poiCell) {
+        PoiCell cell = lookupCell(colIndex, poiCell);
+        if (cell != null) {
+            return cell;
+        }
+        // the constructor looks up the top left cell of merged regions, so do not call it while holding the lock
+        return storeCell(colIndex, new PoiCell(this, poiCell));
+    }
+
+    /**
+     * Estimate the number of bytes retained by this wrapper and its cached cell wrappers, excluding the POI row.
+     *
+     * @return the estimated number of bytes
+     */
+    synchronized long estimatedBytes() {
+        long bytes = ROW_BYTES + MemoryEstimates.arrayBytes(cells.length, MemoryEstimates.REFERENCE_BYTES);
+        for (@Nullable PoiCell cell : cells) {
+            bytes += cell == null ? 0 : CELL_BYTES;
+        }
+        return bytes;
+    }
+
+    private synchronized @Nullable PoiCell lookupCell(int colIndex, org.apache.poi.ss.usermodel.Cell poiCell) {
+        PoiCell cell = colIndex < cells.length ? cells[colIndex] : null;
+        return cell != null && cell.poiCell == poiCell ? cell : null;
+    }
+
+    private synchronized PoiCell storeCell(int colIndex, PoiCell cell) {
+        PoiCell existing = lookupCell(colIndex, cell.poiCell);
+        if (existing != null) {
+            return existing;
+        }
+        if (colIndex >= cells.length) {
+            cells = Arrays.copyOf(cells, Math.max(colIndex + 1, 2 * cells.length));
+        }
+        cells[colIndex] = cell;
+        return cell;
     }
 
     @Override
@@ -17,10 +17,16 @@ package com.dua3.meja.model.poi;
 
 import com.dua3.meja.model.AbstractSheet;
 import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellStyleMapping;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.meja.util.MemoryEstimates;
 import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.data.Pair;
 import com.dua3.utility.lang.LangUtil;
 import org.apache.logging.log4j.Logger;
+import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.util.CellAddress;
@@ -28,6 +34,10 @@ import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.PaneInformation;
 import org.jspecify.annotations.Nullable;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * POI implementation of the {@link com.dua3.meja.model.Sheet} interface.
  */
@@ -37,6 +47,9 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     /** The maximum coumn widtth for POI cells. */
     private static final int POI_COLUMN_MAX_WIDTH = 255 * 256;
 
+    /** The number of slots of the row cache; must be a power of two. */
+    private static final int ROW_CACHE_SIZE = 1024;
+
     /**
      * Represents the underlying workbook associated with this sheet instance.
      * <p>
@@ -63,6 +76,16 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     private float zoom = 1.0f;
     private int autoFilterRow = -1;
 
+    /**
+     * The most recently used row wrappers, so that repeated accesses to the same row or cell return the same
+     * instance. Row {@code i} is stored in slot {@code i % ROW_CACHE_SIZE}, replacing the wrapper of any other row
+     * using that slot, so that a scan keeps the wrappers of the last {@value #ROW_CACHE_SIZE} consecutive rows.
+     * Entries are validated against the row number and the POI row they wrap, so that wrappers of rows that were
+     * replaced in the underlying POI sheet are never returned. The slots are updated atomically, so parallel scans
+     * do not contend for a lock.
+     */
+    private final AtomicReferenceArray<@Nullable PoiRow> rowCache = new AtomicReferenceArray<>(ROW_CACHE_SIZE);
+
     /**
      * Constructor.
      *
@@ -97,6 +120,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void clear() {
         LOG.trace("clearing the sheet");
+        checkWritable();
 
         // determine sheet number
         int sheetNr = workbook.poiWorkbook.getSheetIndex(poiSheet);
@@ -111,10 +135,140 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
         workbook.poiWorkbook.setSheetOrder(sheetName, sheetNr);
 
         init();
+        invalidateSearchIndex();
+        for (int i = 0; i < ROW_CACHE_SIZE; i++) {
+            rowCache.set(i, null);
+        }
 
         layoutChanged();
     }
 
+    /**
+     * Copies a sheet of a workbook of the same POI implementation, i.e., XSSF to XSSF, into this empty sheet.
+     * <p>
+     * Values, formulas together with their cached results, and cell styles are written directly to the POI cells,
+     * so formulas are not evaluated while copying. Cells containing hyperlinks or formatted rich text are copied
+     * through the cell API. The source sheet is read-locked while copying.
+     */
+    @Override
+    protected boolean copyBulk(com.dua3.meja.model.Sheet other, CellStyleMapping styles) {
+        if (!(other instanceof PoiSheet src) || src == this
+                || src.workbook.poiWorkbook.getClass() != workbook.poiWorkbook.getClass()
+                || poiSheet.getPhysicalNumberOfRows() > 0 || !getMergedRegions().isEmpty()) {
+            return false;
+        }
+
+        Map<Integer, org.apache.poi.ss.usermodel.CellStyle> mappedStyles = new HashMap<>();
+        try (var __ = src.readLock("PoiSheet.copyBulk()")) {
+            int n = 0;
+            for (Row srcRow : src.poiSheet) {
+                int i = srcRow.getRowNum();
+                Row poiRow = poiSheet.createRow(i);
+                poiRow.setHeightInPoints(srcRow.getHeightInPoints());
+                for (org.apache.poi.ss.usermodel.Cell srcCell : srcRow) {
+                    int j = srcCell.getColumnIndex();
+                    org.apache.poi.ss.usermodel.CellStyle srcStyle = srcCell.getCellStyle();
+                    org.apache.poi.ss.usermodel.Cell poiCell = poiRow.createCell(j);
+                    poiCell.setCellStyle(mappedStyles.computeIfAbsent(
+                            Short.toUnsignedInt(srcStyle.getIndex()),
+                            k -> ((PoiCellStyle) styles.get(src.workbook.getPoiCellStyle(srcStyle))).poiCellStyle
+                    ));
+                    if (!copyValue(srcCell, poiCell)) {
+                        getCell(i, j).copy(src.getCell(i, j), styles);
+                    }
+                }
+                n = i + 1;
+            }
+
+            for (RectangularRegion rr : src.getMergedRegions()) {
+                addMergedRegion(rr);
+            }
+
+            int splitRow = src.getSplitRow();
+            int splitColumn = src.getSplitColumn();
+            if (splitRow > 0 || splitColumn > 0) {
+                splitAt(splitRow, splitColumn);
+            }
+            int autoFilterRow = src.getAutoFilterRow();
+            if (autoFilterRow >= 0 && poiSheet.getRow(autoFilterRow) != null) {
+                setAutofilterRow(autoFilterRow);
+            }
+
+            if (n > 0) {
+                rowsAdded(0, n);
+            }
+            int first = lastColumn + 1;
+            lastColumn = Math.max(lastColumn, src.lastColumn);
+            if (lastColumn + 1 > first) {
+                columnsAdded(first, lastColumn + 1);
+            }
+
+            // must be done after copying rows because POI SXSSF overwrites widths when adding the rows
+            for (int j = 0; j <= src.lastColumn; j++) {
+                poiSheet.setColumnWidth(j, src.poiSheet.getColumnWidth(j));
+            }
+            layoutChanged();
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the value of a POI cell to a cell of a workbook of the same implementation.
+     *
+     * @param src the source cell
+     * @param dst the destination cell
+     * @return true, if the value was copied; false if the cell contains a hyperlink or formatted text and has to
+     * be copied through the cell API
+     */
+    private static boolean copyValue(org.apache.poi.ss.usermodel.Cell src, org.apache.poi.ss.usermodel.Cell dst) {
+        if (src.getHyperlink() != null) {
+            return false;
+        }
+
+        switch (src.getCellType()) {
+            case BLANK -> { /* nothing to do */ }
+            case NUMERIC -> dst.setCellValue(src.getNumericCellValue());
+            case BOOLEAN -> dst.setCellValue(src.getBooleanCellValue());
+            case ERROR -> dst.setCellErrorValue(src.getErrorCellValue());
+            case STRING -> {
+                RichTextString text = src.getRichStringCellValue();
+                if (text.numFormattingRuns() > 0) {
+                    // fonts of formatting runs refer to the source workbook
+                    return false;
+                }
+                dst.setCellValue(text.getString());
+            }
+            case FORMULA -> {
+                dst.setCellFormula(src.getCellFormula());
+                // setting a value on a formula cell sets the cached result
+                switch (src.getCachedFormulaResultType()) {
+                    case NUMERIC -> dst.setCellValue(src.getNumericCellValue());
+                    case STRING -> dst.setCellValue(src.getStringCellValue());
+                    case BOOLEAN -> dst.setCellValue(src.getBooleanCellValue());
+                    case ERROR -> dst.setCellErrorValue(src.getErrorCellValue());
+                    default -> { /* no cached result */ }
+                }
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public SheetCursor cursor() {
+        return new PoiSheetCursor(this);
+    }
+
+    @Override
+    protected boolean isConcurrentReadSupported() {
+        // formatting and formula evaluation use the workbook's shared formula evaluator, which is not thread-safe;
+        // frozen workbooks format formula cells using the stored results instead
+        return workbook.isFrozen();
+    }
+
     @Override
     public boolean equals(@Nullable Object obj) {
         return obj instanceof PoiSheet other && poiSheet.equals(other.poiSheet);
@@ -158,6 +312,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     protected PoiRow getAbstractRow(int rowIndex) {
         Row poiRow = poiSheet.getRow(rowIndex);
         if (poiRow == null) {
+            checkWritable();
             int oldLast = getRowCount() - 1;
             int added = rowIndex - oldLast;
             poiRow = poiSheet.createRow(rowIndex);
@@ -165,7 +320,86 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
                 rowsAdded(oldLast + 1, oldLast + added + 1);
             }
         }
-        return new PoiRow(this, poiRow);
+        return getCachedRow(poiRow);
+    }
+
+    @Override
+    protected @Nullable PoiRow getAbstractRowOrNull(int rowIndex) {
+        Row poiRow = rowIndex < 0 ? null : poiSheet.getRow(rowIndex);
+        return poiRow == null ? null : getCachedRow(poiRow);
+    }
+
+    /**
+     * Estimate the POI rows and cells of this sheet using the workbook's size model; the cached row and cell
+     * wrappers are counted as caches.
+     */
+    @Override
+    protected void estimateMemory(MemoryStats.Builder stats) {
+        PoiSizeModel model = workbook.getSizeModel();
+        for (Row poiRow : poiSheet) {
+            stats.addRows(1, model.rowBytes());
+            for (org.apache.poi.ss.usermodel.Cell poiCell : poiRow) {
+                CellType type = PoiCell.getCellType(workbook, poiCell, poiCell.getCellType());
+                stats.addCells(1, model.cellBytes());
+                stats.addValues(type, switch (type) {
+                    // the text is kept in the workbook's shared string table, the cell only stores the index
+                    case NUMERIC, DATE, DATE_TIME, TEXT -> model.numberBytes();
+                    case FORMULA -> model.formulaBytes();
+                    default -> 0L;
+                });
+            }
+        }
+        stats.addBackend(poiSheet.getNumMergedRegions() * model.mergedRegionBytes());
+
+        stats.addCaches(MemoryEstimates.arrayBytes(ROW_CACHE_SIZE, MemoryEstimates.REFERENCE_BYTES));
+        for (int i = 0; i < ROW_CACHE_SIZE; i++) {
+            PoiRow row = rowCache.get(i);
+            if (row != null) {
+                stats.addCaches(row.estimatedBytes());
+            }
+        }
+    }
+
+    /**
+     * Get the wrapper for a POI row, reusing the cached instance if present.
+     *
+     * @param poiRow the POI row
+     * @return the row wrapper
+     */
+    private PoiRow getCachedRow(Row poiRow) {
+        int rowIndex = poiRow.getRowNum();
+        int slot = rowIndex & (ROW_CACHE_SIZE - 1);
+
+        PoiRow cached = rowCache.get(slot);
+        if (isWrapperOf(cached, rowIndex, poiRow)) {
+            return cached;
+        }
+
+        // if another thread stored a wrapper for the same row in the meantime, use that one instead
+        PoiRow row = new PoiRow(this, poiRow);
+        PoiRow witness = rowCache.compareAndExchange(slot, cached, row);
+        return witness == cached || !isWrapperOf(witness, rowIndex, poiRow) ? row : witness;
+    }
+
+    private static boolean isWrapperOf(@Nullable PoiRow row, int rowIndex, Row poiRow) {
+        return row != null && row.poiRow == poiRow && row.getRowNumber() == rowIndex;
+    }
+
+    @Override
+    public CellType peekCellType(int rowIndex, int colIndex) {
+        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCellOrNull(rowIndex, colIndex);
+        return poiCell == null ? CellType.BLANK : PoiCell.getCellType(workbook, poiCell, poiCell.getCellType());
+    }
+
+    @Override
+    public @Nullable Object peekValue(int rowIndex, int colIndex) {
+        org.apache.poi.ss.usermodel.Cell poiCell = getPoiCellOrNull(rowIndex, colIndex);
+        return poiCell == null ? null : PoiCell.getOrDefault(workbook, poiCell, null);
+    }
+
+    private org.apache.poi.ss.usermodel.@Nullable Cell getPoiCellOrNull(int rowIndex, int colIndex) {
+        Row poiRow = rowIndex < 0 ? null : poiSheet.getRow(rowIndex);
+        return poiRow == null || colIndex < 0 ? null : poiRow.getCell(colIndex);
     }
 
     @Override
@@ -223,12 +457,20 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
 
     @Override
     protected void removeMergedRegion(int rowNumber, int columnNumber) {
+        boolean merged = getMergedRegion(rowNumber, columnNumber).isPresent();
+
         super.removeMergedRegion(rowNumber, columnNumber);
 
+        if (!merged || getMergedRegion(rowNumber, columnNumber).isPresent()) {
+            // nothing was removed, so there is no need to search the POI sheet
+            return;
+        }
+
+        // merged regions do not overlap, so the first POI region containing the cell is the one to remove
         for (int idx = 0; idx < poiSheet.getNumMergedRegions(); idx++) {
-            CellRangeAddress cra = poiSheet.getMergedRegion(idx);
-            if (cra.isInRange(rowNumber, columnNumber)) {
+            if (poiSheet.getMergedRegion(idx).isInRange(rowNumber, columnNumber)) {
                 poiSheet.removeMergedRegion(idx);
+                break;
             }
         }
     }
@@ -236,6 +478,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void setAutofilterRow(int rowIndex) {
         LOG.trace("setting auto filter row {}", rowIndex);
+        checkWritable();
         LangUtil.check(rowIndex >= 0, "Invalid row number: %d", rowIndex);
 
         int rowNumber1 = getAbstractRow(rowIndex).poiRow.getRowNum();
@@ -268,6 +511,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void setColumnWidth(int colIndex, float width) {
         LOG.trace("setting column width of column {} to {}", colIndex, width);
+        checkWritable();
         LangUtil.check(width >= 0, "Invalid column width: %f", width);
 
         int colWidth = pointsToPoiColumnWidth(width);
@@ -283,6 +527,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public boolean setCurrentCell(Cell cell) {
         LOG.trace("setting current cell to {}", cell::getCellRef);
+        checkNotFrozen();
 
         LangUtil.checkArg(cell.getSheet() == this, "cell  belongs to another sheet");
 
@@ -305,6 +550,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void setRowHeight(int rowIndex, float height) {
         LOG.trace("setting row height of row {} to {}", rowIndex, height);
+        checkWritable();
         LangUtil.check(height >= 0, "Invalid row height: %f", height);
 
         Row poiRow = poiSheet.getRow(rowIndex);
@@ -318,6 +564,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void setZoom(float zoom) {
         LOG.trace("setting zoom to {}", zoom);
+        checkNotFrozen();
         LangUtil.check(zoom > 0, "Invalid zoom factor: %f", zoom);
 
         if (zoom == this.zoom) {
@@ -338,6 +585,7 @@ public final class PoiSheet extends AbstractSheet<PoiSheet, PoiRow, PoiCell> {
     @Override
     public void splitAt(int rowIndex, int colIndex) {
         LOG.trace("setting split to ({}, {})", rowIndex, colIndex);
+        checkWritable();
         LangUtil.check(rowIndex >= 0 && colIndex >= 0, "Invalid split position: (%d, %d)", rowIndex, colIndex);
 
         Pair<Integer, Integer> old = Pair.of(getSplitRow(), getSplitColumn());
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+import com.dua3.meja.model.AbstractSheetCursor;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.SheetCursor;
+import com.dua3.utility.text.RichText;
+import org.apache.poi.ss.usermodel.Row;
+import org.jspecify.annotations.Nullable;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * {@link SheetCursor} implementation for {@link PoiSheet}.
+ * <p>
+ * The cursor reads the Apache POI rows and cells directly without creating {@link PoiRow} or {@link PoiCell}
+ * instances. Missing POI cells are reported as blank cells.
+ */
+final class PoiSheetCursor extends AbstractSheetCursor<PoiSheet> {
+
+    private final PoiWorkbook workbook;
+    private @Nullable Row poiRow;
+    private org.apache.poi.ss.usermodel.@Nullable Cell poiCell;
+
+    PoiSheetCursor(PoiSheet sheet) {
+        super(sheet);
+        this.workbook = sheet.getAbstractWorkbook();
+    }
+
+    @Override
+    protected int loadRow(int i) {
+        poiRow = sheet.getPoiSheet().getRow(i);
+        poiCell = null;
+        return poiRow == null ? 0 : Math.max(0, poiRow.getLastCellNum());
+    }
+
+    @Override
+    protected void loadCell(int j) {
+        assert poiRow != null;
+        poiCell = poiRow.getCell(j);
+    }
+
+    @Override
+    public CellType getCellType() {
+        checkPosition();
+        return poiCell == null ? CellType.BLANK : PoiCell.getCellType(workbook, poiCell, poiCell.getCellType());
+    }
+
+    @Override
+    public CellType getResultType() {
+        checkPosition();
+        return poiCell == null ? CellType.BLANK : PoiCell.getResultType(workbook, poiCell);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        checkPosition();
+        return poiCell == null || PoiCell.isEmpty(poiCell);
+    }
+
+    @Override
+    public double getDouble() {
+        return switch (getCellType()) {
+            case NUMERIC -> cell().getNumericCellValue();
+            case FORMULA -> {
+                if (getResultType() != CellType.NUMERIC) {
+                    throw typeMismatch("numeric value");
+                }
+                yield cell().getNumericCellValue();
+            }
+            default -> throw typeMismatch("numeric value");
+        };
+    }
+
+    @Override
+    public boolean getBoolean() {
+        if (getCellType() != CellType.BOOLEAN) {
+            throw typeMismatch("boolean value");
+        }
+        return cell().getBooleanCellValue();
+    }
+
+    @Override
+    public RichText getText() {
+        if (getCellType() != CellType.TEXT) {
+            throw typeMismatch("text value");
+        }
+        return PoiCell.toRichText(workbook, cell().getRichStringCellValue());
+    }
+
+    @Override
+    public LocalDate getDate() {
+        if (isEmpty()) {
+            throw typeMismatch("date value");
+        }
+        return cell().getLocalDateTimeCellValue().toLocalDate();
+    }
+
+    @Override
+    public LocalDateTime getDateTime() {
+        if (isEmpty()) {
+            throw typeMismatch("date-time value");
+        }
+        return cell().getLocalDateTimeCellValue();
+    }
+
+    @Override
+    public String getFormula() {
+        if (getCellType() != CellType.FORMULA) {
+            throw typeMismatch("formula");
+        }
+        return cell().getCellFormula();
+    }
+
+    @Override
+    public @Nullable Object getOrDefault(@Nullable Object defaultValue) {
+        checkPosition();
+        return poiCell == null ? defaultValue : PoiCell.getOrDefault(workbook, poiCell, defaultValue);
+    }
+
+    @Override
+    public String toString(Locale locale) {
+        checkPosition();
+        return poiCell == null ? "" : PoiCell.toString(workbook, poiCell, locale);
+    }
+
+    @Override
+    public PoiCellStyle getCellStyle() {
+        checkPosition();
+        return poiCell == null ? workbook.getDefaultCellStyle() : workbook.getPoiCellStyle(poiCell.getCellStyle());
+    }
+
+    @Override
+    public Optional<URI> getHyperlink() {
+        checkPosition();
+        return poiCell == null ? Optional.empty() : PoiCell.getHyperlink(poiCell);
+    }
+
+    private org.apache.poi.ss.usermodel.Cell cell() {
+        checkPosition();
+        assert poiCell != null;
+        return poiCell;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Axel Howind (axel@dua3.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.dua3.meja.model.poi;
+
+/**
+ * Shallow-size model of the objects Apache POI keeps for a workbook, used by {@link PoiWorkbook#memoryStats()}.
+ * <p>
+ * The sizes are rough averages for typical cells and rows. HSSF keeps a binary record per row and cell, XSSF keeps
+ * the parsed XML (XmlBeans) of rows and cells, which makes XSSF cells several times larger. SXSSF only keeps the
+ * rows of the current window in memory, using lightweight objects.
+ *
+ * @param rowBytes          the size of a row, excluding its cells
+ * @param cellBytes         the size of a cell, excluding its value
+ * @param numberBytes       the size of a numeric value stored in a cell
+ * @param formulaBytes      the size of a formula, including its parsed representation and cached result
+ * @param cellStyleBytes    the size of a cell style
+ * @param fontBytes         the size of a font
+ * @param mergedRegionBytes the size of a merged region
+ * @param workbookBytes     the size of a workbook without any sheets
+ */
+record PoiSizeModel(
+        long rowBytes,
+        long cellBytes,
+        long numberBytes,
+        long formulaBytes,
+        long cellStyleBytes,
+        long fontBytes,
+        long mergedRegionBytes,
+        long workbookBytes
+) {
+
+    /**
+     * The size model for HSSF workbooks: records for rows and cells, values stored in the cell records.
+     */
+    static final PoiSizeModel HSSF = new PoiSizeModel(112, 104, 8, 160, 160, 120, 40, 64 * 1024L);
+
+    /**
+     * The size model for XSSF workbooks: XmlBeans objects for each XML element and attribute, values stored as text.
+     */
+    static final PoiSizeModel XSSF = new PoiSizeModel(520, 600, 48, 240, 600, 800, 320, 512 * 1024L);
+
+    /**
+     * The size model for SXSSF workbooks: plain objects for the rows in the current window.
+     */
+    static final PoiSizeModel SXSSF = new PoiSizeModel(88, 112, 0, 64, 600, 800, 320, 512 * 1024L);
+}
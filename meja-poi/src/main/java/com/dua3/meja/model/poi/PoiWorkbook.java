@@ -19,11 +19,14 @@ import com.dua3.meja.io.FileTypeWorkbook;
 import com.dua3.meja.io.WorkbookWriter;
 import com.dua3.meja.model.AbstractWorkbook;
 import com.dua3.meja.model.CellStyle;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.poi.PoiCellStyle.PoiHssfCellStyle;
 import com.dua3.meja.model.poi.PoiCellStyle.PoiXssfCellStyle;
 import com.dua3.meja.model.poi.io.FileTypeXls;
 import com.dua3.meja.model.poi.io.FileTypeXlsx;
+import com.dua3.meja.util.MemoryEstimates;
 import com.dua3.utility.data.Color;
 import com.dua3.utility.data.DataUtil;
 import com.dua3.utility.io.FileType;
@@ -33,6 +36,7 @@ import com.dua3.utility.text.FontUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.poi.common.usermodel.HyperlinkType;
+import org.apache.poi.hssf.model.InternalWorkbook;
 import org.apache.poi.hssf.usermodel.HSSFCellStyle;
 import org.apache.poi.hssf.usermodel.HSSFFont;
 import org.apache.poi.hssf.usermodel.HSSFPalette;
@@ -40,12 +44,20 @@ import org.apache.poi.hssf.usermodel.HSSFRichTextString;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.hssf.util.HSSFColor;
 import org.apache.poi.hssf.util.HSSFColor.HSSFColorPredefined;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.poifs.filesystem.DirectoryNode;
+import org.apache.poi.poifs.filesystem.DocumentEntry;
+import org.apache.poi.poifs.filesystem.Entry;
 import org.apache.poi.ss.formula.eval.NotImplementedException;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.Font;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 import org.apache.poi.ss.usermodel.Hyperlink;
 import org.apache.poi.ss.usermodel.RichTextString;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.model.SharedStringsTable;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFColor;
@@ -58,16 +70,20 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.DoubleConsumer;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -81,6 +97,15 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
     private static final boolean IS_HEADLESS = Boolean.getBoolean("java.awt.headless");
 
+    private static final byte FORMAT_UNCLASSIFIED = 0;
+    private static final byte FORMAT_NUMERIC = 1;
+    private static final byte FORMAT_DATE = 2;
+
+    /** The estimated size of a cell style wrapper together with its map entries. */
+    private static final long STYLE_ENTRY_BYTES = 96;
+    /** The estimated size of a font wrapper together with its map entries. */
+    private static final long FONT_ENTRY_BYTES = 128;
+
     /**
      * The underlying Apache POI {@link Workbook} instance.
      */
@@ -97,6 +122,44 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
      * Mapping from cellstyle names to internat Apache POI cell style numbers.
      */
     protected final Map<String, Short> cellStyles = new HashMap<>();
+    /**
+     * Reverse mapping from Apache POI cell style numbers to cellstyle names, kept in sync by
+     * {@link #registerCellStyle(String, short)}.
+     */
+    private final Map<Short, String> cellStyleNames = new HashMap<>();
+    /**
+     * Index of the POI fonts by font descriptor, used to look up existing fonts in
+     * {@link #getPoiFont(com.dua3.utility.text.Font)}. Access is guarded by the map itself.
+     */
+    private final Map<FontKey, Integer> fontIndex = new HashMap<>();
+    /**
+     * The number of POI fonts that have been added to {@link #fontIndex}.
+     */
+    private int indexedFonts = 0;
+    /**
+     * Font colors by POI font index.
+     */
+    private final Map<Integer, Color> fontColors = new ConcurrentHashMap<>();
+    /**
+     * Cache of {@link PoiCellStyle} instances by POI cell style number.
+     */
+    private final Map<Short, PoiCellStyle> cellStyleCache = new ConcurrentHashMap<>();
+    /**
+     * Cache of {@link PoiFont} instances by POI font index.
+     */
+    private final Map<Integer, PoiFont> fontCache = new ConcurrentHashMap<>();
+    /**
+     * Data formatters by locale; {@link DataFormatter} is not thread-safe, so each thread uses its own instance.
+     */
+    private final Map<Locale, ThreadLocal<DataFormatter>> dataFormatters = new ConcurrentHashMap<>();
+    /**
+     * Optional cache of the display strings of numeric cells, see {@link #setDisplayStringCacheSize(int)}.
+     */
+    private volatile @Nullable PoiDisplayStringCache displayStringCache;
+    /**
+     * Classification of the data formats of the POI cell styles by style index, see {@link #isDateFormat}.
+     */
+    private final AtomicReference<byte[]> dataFormatClasses = new AtomicReference<>(new byte[0]);
     /**
      * Factor to convert between Excel widths (measured in characters) and points.
      */
@@ -115,19 +178,95 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
         // init cell TextAttributes map
         for (short i = 0; i < poiWorkbook.getNumCellStyles(); i++) {
-            cellStyles.put("style#" + i, i);
+            registerCellStyle("style#" + i, i);
         }
     }
 
     @Override
     public PoiCellStyle copyCellStyle(String styleName, CellStyle style) {
+        checkWritable();
         PoiCellStyle cellStyle = getCellStyle(styleName);
         cellStyle.poiCellStyle.cloneStyleFrom(((PoiCellStyle) style).poiCellStyle);
+        cellStyle.invalidate();
         return cellStyle;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The snapshot is a deep copy of this workbook backed by a new POI workbook of the same format, so its cost is
+     * proportional to the size of the workbook. Formula cells are copied together with their cached results.
+     *
+     * @throws UnsupportedOperationException if this workbook uses the streaming {@link SXSSFWorkbook} implementation
+     *                                       whose flushed rows cannot be read back
+     */
+    @Override
+    public PoiWorkbook snapshot() {
+        PoiWorkbook snapshot = createEmptyWorkbook();
+        copyConsistently(snapshot);
+        if (!sheets.isEmpty()) {
+            snapshot.setCurrentSheet(getCurrentSheetIndex());
+        }
+        snapshot.setForceFormulaRecalculation(getForceFormulaRecalculation());
+        snapshot.setReadOnly();
+        return snapshot;
+    }
+
+    /**
+     * Create a new empty workbook of the same format as this workbook.
+     *
+     * @return the new workbook
+     * @throws UnsupportedOperationException if creating a workbook of this format is not supported
+     */
+    protected abstract PoiWorkbook createEmptyWorkbook();
+
+    /**
+     * Get the size model used to estimate the memory footprint of the POI data structures.
+     *
+     * @return the size model for the POI workbook implementation
+     */
+    PoiSizeModel getSizeModel() {
+        return switch (poiWorkbook) {
+            case HSSFWorkbook hssf -> PoiSizeModel.HSSF;
+            case SXSSFWorkbook sxssf -> PoiSizeModel.SXSSF;
+            default -> PoiSizeModel.XSSF;
+        };
+    }
+
+    @Override
+    protected void estimateMemory(MemoryStats.Builder stats) {
+        PoiSizeModel model = getSizeModel();
+
+        int indexedFontCount;
+        synchronized (fontIndex) {
+            indexedFontCount = fontIndex.size();
+        }
+        stats.addStyles(poiWorkbook.getNumCellStyles() * model.cellStyleBytes()
+                + poiWorkbook.getNumberOfFonts() * model.fontBytes()
+                + (cellStyles.size() + cellStyleNames.size() + cellStyleCache.size()) * STYLE_ENTRY_BYTES
+                + (indexedFontCount + fontColors.size() + fontCache.size()) * FONT_ENTRY_BYTES);
+
+        PoiDisplayStringCache cache = displayStringCache;
+        if (cache != null) {
+            stats.addCaches(cache.estimatedBytes());
+        }
+
+        stats.addBackend(model.workbookBytes());
+        estimateBackendMemory(stats);
+    }
+
+    /**
+     * Add the estimated size of the POI data that is not owned by a single sheet, i.e., the shared strings and
+     * the raw data of the file the workbook was read from. Shared strings are counted as {@link CellType#TEXT}
+     * values.
+     *
+     * @param stats the builder to add the estimates to
+     */
+    protected abstract void estimateBackendMemory(MemoryStats.Builder stats);
+
     @Override
     public Sheet createSheet(String sheetName) {
+        checkWritable();
         org.apache.poi.ss.usermodel.Sheet poiSheet = poiWorkbook.createSheet(sheetName);
         PoiSheet sheet = new PoiSheet(this, poiSheet);
         sheets.add(sheet);
@@ -140,9 +279,10 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
         Short index = cellStyles.get(name);
         org.apache.poi.ss.usermodel.CellStyle poiCellStyle;
         if (index == null) {
+            checkWritable();
             poiCellStyle = poiWorkbook.createCellStyle();
             index = poiCellStyle.getIndex();
-            cellStyles.put(name, index);
+            registerCellStyle(name, index);
         } else {
             poiCellStyle = poiWorkbook.getCellStyleAt(index);
         }
@@ -163,6 +303,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
     @Override
     public void setCurrentSheet(int sheetIndex) {
+        checkNotFrozen();
         Objects.checkIndex(sheetIndex, sheets.size());
 
         int oldIdx = getCurrentSheetIndex();
@@ -198,6 +339,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
     @Override
     public void removeSheet(int sheetIndex) {
+        checkWritable();
         sheets.remove(sheetIndex);
         poiWorkbook.removeSheetAt(sheetIndex);
         sheetRemoved(sheetIndex);
@@ -231,11 +373,23 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
     /**
      * Get {@link PoiCellStyle} from {@link org.apache.poi.ss.usermodel.CellStyle}.
+     * <p>
+     * Instances are cached, i.e., the same instance is returned for all POI cell styles with the same index.
      *
      * @param cellStyle POI cell style
      * @return instance of {@link PoiCellStyle}
      */
-    public abstract PoiCellStyle getPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle);
+    public PoiCellStyle getPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle) {
+        return cellStyleCache.computeIfAbsent(cellStyle.getIndex(), index -> createPoiCellStyle(cellStyle));
+    }
+
+    /**
+     * Create a new {@link PoiCellStyle} instance for a POI cell style.
+     *
+     * @param cellStyle POI cell style
+     * @return new instance of {@link PoiCellStyle}
+     */
+    protected abstract PoiCellStyle createPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle);
 
     /**
      * Convert {@link String} to {@link RichTextString}.
@@ -245,14 +399,26 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
      */
     public abstract RichTextString createRichTextString(String s);
 
+    /**
+     * Register a name for a POI cell style.
+     * <p>
+     * If the style already has a name, the new name replaces it in the reverse mapping, i.e., the default style
+     * is reported as "" and not as "style#0".
+     *
+     * @param name  the cellstyle name
+     * @param index the POI cell style number
+     */
+    void registerCellStyle(String name, short index) {
+        cellStyles.put(name, index);
+        cellStyleNames.put(index, name);
+    }
+
     String getCellStyleName(PoiCellStyle cellStyle) {
-        final short styleIndex = cellStyle.poiCellStyle.getIndex();
-        for (Entry<String, Short> entry : cellStyles.entrySet()) {
-            if (entry.getValue() == styleIndex) {
-                return entry.getKey();
-            }
+        String name = cellStyleNames.get(cellStyle.poiCellStyle.getIndex());
+        if (name == null) {
+            throw new IllegalArgumentException("CellStyle is not from this workbook.");
         }
-        throw new IllegalArgumentException("CellStyle is not from this workbook.");
+        return name;
     }
 
     /**
@@ -281,12 +447,26 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
     /**
      * Get instance of {@link PoiFont}.
+     * <p>
+     * Instances are cached, i.e., the same instance is returned for all POI fonts with the same index.
      *
      * @param poiFont the POI font instance
      * @return instance of {@link PoiFont} for the given font
      */
     public PoiFont getFont(@Nullable Font poiFont) {
-        return poiFont == null ? getDefaultCellStyle().getPoiFont() : new PoiFont(this, poiFont);
+        return poiFont == null
+                ? getDefaultCellStyle().getPoiFont()
+                : fontCache.computeIfAbsent(poiFont.getIndexAsInt(), index -> new PoiFont(this, poiFont));
+    }
+
+    /**
+     * Retrieves the font at the given index.
+     *
+     * @param idx the index of the font to retrieve
+     * @return the PoiFont instance representing the font at the given index
+     */
+    public PoiFont getFont(int idx) {
+        return fontCache.computeIfAbsent(idx, index -> new PoiFont(this, poiWorkbook.getFontAt(index)));
     }
 
     /**
@@ -298,24 +478,75 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
     public abstract org.apache.poi.ss.usermodel.Color getPoiColor(Color color);
 
     PoiFont getPoiFont(com.dua3.utility.text.Font font) {
-        // try to find existing font
-        for (int i = 0; i < poiWorkbook.getNumberOfFonts(); i++) {
-            Font poiFont = poiWorkbook.getFontAt(i);
-
-            if (poiFont.getFontName().equalsIgnoreCase(font.getFamily())
-                    && poiFont.getFontHeightInPoints() == font.getSizeInPoints()
-                    && poiFont.getBold() == font.isBold()
-                    && poiFont.getItalic() == font.isItalic()
-                    && (poiFont.getUnderline() != Font.U_NONE) == font.isUnderline()
-                    && poiFont.getStrikeout() == font.isStrikeThrough()
-                    && getColor(poiFont, Color.BLACK).equals(font.getColor())
-                    && poiFont.getTypeOffset() == Font.SS_NONE) {
-                return new PoiFont(this, poiFont);
+        FontKey key = FontKey.of(font);
+        synchronized (fontIndex) {
+            // try to find existing font
+            updateFontIndex();
+            Integer index = fontIndex.get(key);
+            if (index != null) {
+                return getFont(index);
+            }
+
+            // if not found, create it and register it for the requested font, too: size and color of the
+            // created font may differ from the requested values due to rounding and palette restrictions
+            PoiFont poiFont = createFont(font);
+            index = poiFont.getPoiFont().getIndexAsInt();
+            fontIndex.put(key, index);
+            fontCache.put(index, poiFont);
+            return poiFont;
+        }
+    }
+
+    /**
+     * Add fonts that were created since the last call to the font index.
+     * <p>
+     * The index is updated lazily so that it also covers fonts that were created directly through the POI API.
+     * If several fonts match the same descriptor, the first one is kept.
+     */
+    private void updateFontIndex() {
+        assert Thread.holdsLock(fontIndex);
+
+        for (int n = poiWorkbook.getNumberOfFonts(); indexedFonts < n; indexedFonts++) {
+            Font poiFont = poiWorkbook.getFontAt(indexedFonts);
+            if (poiFont.getTypeOffset() == Font.SS_NONE) {
+                fontIndex.putIfAbsent(FontKey.of(poiFont, getFontColor(poiFont)), poiFont.getIndexAsInt());
             }
         }
+    }
 
-        // if not found, create it
-        return createFont(font);
+    /**
+     * Get font color. The result is cached by font index.
+     *
+     * @param poiFont instance of POI font
+     * @return the color for the given font, black if none is set
+     */
+    Color getFontColor(Font poiFont) {
+        return fontColors.computeIfAbsent(poiFont.getIndexAsInt(), index -> getColor(poiFont, Color.BLACK));
+    }
+
+    /**
+     * Normalized font descriptor used as key in the font index.
+     *
+     * @param family        the font family in lower case
+     * @param size          the font size in points
+     * @param bold          the bold flag
+     * @param italic        the italic flag
+     * @param underline     the underline flag
+     * @param strikeThrough the strike-through flag
+     * @param color         the font color
+     */
+    private record FontKey(String family, float size, boolean bold, boolean italic, boolean underline,
+                           boolean strikeThrough, Color color) {
+        static FontKey of(com.dua3.utility.text.Font font) {
+            return new FontKey(font.getFamily().toLowerCase(Locale.ROOT), font.getSizeInPoints(), font.isBold(),
+                    font.isItalic(), font.isUnderline(), font.isStrikeThrough(), font.getColor());
+        }
+
+        static FontKey of(Font poiFont, Color color) {
+            return new FontKey(poiFont.getFontName().toLowerCase(Locale.ROOT), poiFont.getFontHeightInPoints(),
+                    poiFont.getBold(), poiFont.getItalic(), poiFont.getUnderline() != Font.U_NONE,
+                    poiFont.getStrikeout(), color);
+        }
     }
 
     /**
@@ -370,13 +601,127 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
         return sheet;
     }
 
+    /**
+     * Enable or disable caching the display strings of numeric cells.
+     * <p>
+     * Formatting numeric cell values using the POI data formats is expensive. When enabled, the formatted values
+     * are cached by cell style, locale, and value, which helps when the same values occur repeatedly, i.e., when
+     * painting or exporting sheets. The cache is bounded and disabled by default.
+     *
+     * @param size the maximum number of cached display strings, rounded down to a power of two; 0 to disable
+     */
+    public void setDisplayStringCacheSize(int size) {
+        LangUtil.checkArg(size >= 0, "size must not be negative: %d", size);
+        displayStringCache = size == 0 ? null : new PoiDisplayStringCache(size);
+    }
+
+    /**
+     * Get the size of the display string cache.
+     *
+     * @return the maximum number of cached display strings, 0 if the cache is disabled
+     * @see #setDisplayStringCacheSize(int)
+     */
+    public int getDisplayStringCacheSize() {
+        PoiDisplayStringCache cache = displayStringCache;
+        return cache == null ? 0 : cache.size();
+    }
+
+    @Nullable PoiDisplayStringCache getDisplayStringCache() {
+        return displayStringCache;
+    }
+
+    /**
+     * Get the data formatter for a locale.
+     * <p>
+     * The returned instance is confined to the current thread and must not be passed to other threads.
+     *
+     * @param locale the locale
+     * @return the data formatter for the current thread
+     */
+    DataFormatter getDataFormatter(Locale locale) {
+        return dataFormatters.computeIfAbsent(locale, loc -> ThreadLocal.withInitial(() -> createDataFormatter(loc))).get();
+    }
+
+    private static DataFormatter createDataFormatter(Locale locale) {
+        DataFormatter dataFormatter = new DataFormatter(locale);
+        // only effective when no evaluator is passed, i.e., for frozen workbooks
+        dataFormatter.setUseCachedValuesForFormulaCells(true);
+        return dataFormatter;
+    }
+
+    /**
+     * Test if the data format of a POI cell style is a date format.
+     * <p>
+     * Each cell style is classified once using {@link DateUtil#isADateFormat(int, String)}, which parses the format
+     * string; the result is cached by style index until a data format is changed.
+     *
+     * @param poiCellStyle the POI cell style
+     * @return true, if the data format is a date format
+     */
+    boolean isDateFormat(org.apache.poi.ss.usermodel.CellStyle poiCellStyle) {
+        int index = Short.toUnsignedInt(poiCellStyle.getIndex());
+        byte[] classes = dataFormatClasses.get();
+        byte c = index < classes.length ? classes[index] : FORMAT_UNCLASSIFIED;
+        if (c == FORMAT_UNCLASSIFIED) {
+            c = DateUtil.isADateFormat(poiCellStyle.getDataFormat(), poiCellStyle.getDataFormatString())
+                    ? FORMAT_DATE
+                    : FORMAT_NUMERIC;
+            if (index >= classes.length) {
+                byte[] grown = Arrays.copyOf(classes, Math.max(index + 1, 2 * classes.length));
+                // do not publish the grown table if it has been reset in the meantime
+                if (!dataFormatClasses.compareAndSet(classes, grown)) {
+                    return c == FORMAT_DATE;
+                }
+                classes = grown;
+            }
+            classes[index] = c;
+        }
+        return c == FORMAT_DATE;
+    }
+
+    /**
+     * Called when the data format of a cell style has been changed.
+     */
+    void dataFormatChanged() {
+        dataFormatClasses.set(new byte[0]);
+
+        PoiDisplayStringCache cache = displayStringCache;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
     /**
      * Try to evaluate all formula cells.
+     * <p>
+     * The formulas are evaluated in parallel using as many evaluators as the parallelism of the current fork-join
+     * pool (or the common pool when not called from a fork-join pool), see {@link #evaluateAllFormulaCells(int)}.
      */
     public void evaluateAllFormulaCells() {
+        evaluateAllFormulaCells(ForkJoinTask.inForkJoinPool()
+                ? ForkJoinTask.getPool().getParallelism()
+                : ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Try to evaluate all formula cells using the given number of formula evaluators.
+     * <p>
+     * The formula cells are sorted into levels by their dependencies so that the cells of each level only depend on
+     * cells of lower levels. The levels are evaluated one after another, the cells of a level in parallel. The
+     * results are the same as those of a serial evaluation. Workbooks whose dependencies cannot be determined from
+     * the formulas, i.e., because of {@code INDIRECT()}, array formulas, or circular references, are evaluated
+     * serially.
+     *
+     * @param parallelism the number of evaluators to use; 1 evaluates all formulas serially
+     */
+    public void evaluateAllFormulaCells(int parallelism) {
+        LangUtil.checkArg(parallelism > 0, "parallelism must be positive: %d", parallelism);
+
         if (isFormulaEvaluationSupported()) {
             try {
-                evaluator.evaluateAll();
+                if (parallelism == 1 || !new PoiRecalculationScheduler(this, parallelism).recalculate()) {
+                    evaluator.evaluateAll();
+                }
             } catch (NotImplementedException e) {
                 LOGGER.warn("unsupported function in formula; flagging workbook as needing recalculation", e);
                 setForceFormulaRecalculation(true);
@@ -384,6 +729,18 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Formatting a formula cell evaluates the formula using the workbook's formula evaluator, which is not
+     * thread-safe and stores the result in the cell. To allow lock-free reads, all formulas are evaluated once before
+     * the workbook is frozen, and cells of a frozen workbook are formatted using the stored results.
+     */
+    @Override
+    protected void prepareFreeze() {
+        evaluateAllFormulaCells();
+    }
+
     /**
      * Test if formula evaluation is supported.
      *
@@ -427,6 +784,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
 
             @Override
             public void remove() {
+                checkWritable();
                 iter.remove();
             }
         };
@@ -528,7 +886,10 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
      */
     public static class PoiHssfWorkbook extends PoiWorkbook {
 
-        private final PoiHssfCellStyle defaultCellStyle;
+        /** The estimated size of a shared string table entry excluding the string: record and index entries. */
+        private static final long SST_ENTRY_BYTES = 80;
+
+        private final PoiCellStyle defaultCellStyle;
 
         /**
          * Construct instance from existing POI workbook.
@@ -538,8 +899,8 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
          */
         public PoiHssfWorkbook(HSSFWorkbook poiWorkbook, @Nullable URI uri) {
             super(poiWorkbook, uri);
-            this.defaultCellStyle = new PoiHssfCellStyle(this, poiWorkbook.getCellStyleAt(0));
-            cellStyles.put("", (short) 0);
+            this.defaultCellStyle = getPoiCellStyle(poiWorkbook.getCellStyleAt(0));
+            registerCellStyle("", (short) 0);
             init();
         }
 
@@ -554,7 +915,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
         }
 
         @Override
-        public PoiCellStyle getPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle) {
+        protected PoiCellStyle createPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle) {
             return new PoiHssfCellStyle(this, (HSSFCellStyle) cellStyle);
         }
 
@@ -616,18 +977,38 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
             return true;
         }
 
-        Color getColor(short idx) {
-            return getColor(((HSSFWorkbook) poiWorkbook).getCustomPalette().getColor(idx), Color.BLACK);
+        @Override
+        protected PoiHssfWorkbook createEmptyWorkbook() {
+            return new PoiHssfWorkbook(new HSSFWorkbook(), getUri().orElse(null));
         }
 
         /**
-         * Retrieves the font at the given index.
-         *
-         * @param idx the index of the font to retrieve
-         * @return the PoiFont instance representing the font at the given index
+         * {@inheritDoc}
+         * <p>
+         * The raw data is the content of the POIFS file system, which HSSF keeps in memory after reading a file.
          */
-        public PoiFont getFont(int idx) {
-            return getFont(poiWorkbook.getFontAt(idx));
+        @Override
+        protected void estimateBackendMemory(MemoryStats.Builder stats) {
+            HSSFWorkbook hssf = (HSSFWorkbook) poiWorkbook;
+
+            InternalWorkbook internalWorkbook = hssf.getInternalWorkbook();
+            for (int i = 0; i < internalWorkbook.getNumUniqueStrings(); i++) {
+                int length = internalWorkbook.getSSTString(i).getCharCount();
+                stats.addValues(CellType.TEXT, SST_ENTRY_BYTES + MemoryEstimates.stringBytes(length));
+            }
+
+            DirectoryNode directory = hssf.getDirectory();
+            if (directory != null) {
+                for (Entry entry : directory) {
+                    if (entry instanceof DocumentEntry document) {
+                        stats.addBackend(document.getSize());
+                    }
+                }
+            }
+        }
+
+        Color getColor(short idx) {
+            return getColor(((HSSFWorkbook) poiWorkbook).getCustomPalette().getColor(idx), Color.BLACK);
         }
     }
 
@@ -636,7 +1017,10 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
      */
     public static class PoiXssfWorkbook extends PoiWorkbook {
 
-        private final PoiXssfCellStyle defaultCellStyle;
+        /** The estimated size of a shared string table entry excluding the text: XML objects and index entries. */
+        private static final long SST_ENTRY_BYTES = 400;
+
+        private final PoiCellStyle defaultCellStyle;
 
         /**
          * Construct instance from existing POI workbook.
@@ -652,7 +1036,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
                         throw new IllegalArgumentException("poiWorkbook must be of type XSSFWorkbook or SXSSFWorkbook but is: " + poiWorkbook.getClass().getName());
                     }
             );
-            this.defaultCellStyle = new PoiXssfCellStyle(this, (XSSFCellStyle) poiWorkbook.getCellStyleAt(0));
+            this.defaultCellStyle = getPoiCellStyle(poiWorkbook.getCellStyleAt(0));
             init();
         }
 
@@ -667,7 +1051,7 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
         }
 
         @Override
-        public PoiCellStyle getPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle) {
+        protected PoiCellStyle createPoiCellStyle(org.apache.poi.ss.usermodel.CellStyle cellStyle) {
             return new PoiXssfCellStyle(this, (XSSFCellStyle) cellStyle);
         }
 
@@ -733,6 +1117,40 @@ public abstract class PoiWorkbook extends AbstractWorkbook<PoiSheet, PoiRow, Poi
             return !(poiWorkbook instanceof SXSSFWorkbook);
         }
 
+        @Override
+        protected PoiXssfWorkbook createEmptyWorkbook() {
+            if (poiWorkbook instanceof SXSSFWorkbook) {
+                throw new UnsupportedOperationException("snapshots of streaming workbooks are not supported");
+            }
+            return new PoiXssfWorkbook(new XSSFWorkbook(), getUri().orElse(null));
+        }
+
+        /**
+         * {@inheritDoc}
+         * <p>
+         * The raw data is the uncompressed content of the package parts, which POI keeps in memory when a workbook
+         * is read from a stream.
+         */
+        @Override
+        protected void estimateBackendMemory(MemoryStats.Builder stats) {
+            XSSFWorkbook xssf = poiWorkbook instanceof SXSSFWorkbook sxssf ? sxssf.getXSSFWorkbook() : (XSSFWorkbook) poiWorkbook;
+
+            // each entry keeps the parsed XML, the text, and the XML text used as key for lookups
+            SharedStringsTable sst = xssf.getSharedStringSource();
+            for (int i = 0; i < sst.getUniqueCount(); i++) {
+                int length = sst.getItemAt(i).getString().length();
+                stats.addValues(CellType.TEXT, SST_ENTRY_BYTES + 2L * length + MemoryEstimates.stringBytes(length));
+            }
+
+            try {
+                for (PackagePart part : xssf.getPackage().getParts()) {
+                    stats.addBackend(Math.max(0, part.getSize()));
+                }
+            } catch (InvalidFormatException e) {
+                LOGGER.warn("could not determine the package parts; the estimate does not include the package data", e);
+            }
+        }
+
         /**
          * Retrieves the RGB bytes of the given {@link XSSFColor} instance.
          * Depending on the properties of the color (e.g., alpha channel, tint),
@@ -23,6 +23,7 @@ import com.dua3.meja.model.poi.PoiWorkbook.PoiXssfWorkbook;
 import com.dua3.meja.model.poi.io.FileTypeExcel;
 import com.dua3.meja.model.poi.io.FileTypeXls;
 import com.dua3.meja.model.poi.io.FileTypeXlsx;
+import com.dua3.meja.util.ValueInterner;
 import com.dua3.utility.options.Arguments;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.util.RecordFormatException;
@@ -144,4 +145,26 @@ public class PoiWorkbookFactory extends WorkbookFactory<PoiWorkbook> {
         }
     }
 
+    /**
+     * Opens an existing workbook and installs a value interner.
+     * <p>
+     * Cell values of POI workbooks are materialized when they are accessed; the interner is applied at that
+     * point, so that callers holding on to the values (i.e., when copying the data into another workbook) keep only
+     * one instance of equal values.
+     *
+     * @param uri            the URI of the workbook to open
+     * @param importSettings configuration options for the import process
+     * @param in             the stream to read from
+     * @param interner       the interner to install in the workbook
+     * @return the opened workbook
+     * @throws IOException if an I/O error occurs while reading the file
+     * @throws FileFormatException if the file format is invalid or the file is corrupted
+     * @see Workbook#setValueInterner(ValueInterner)
+     */
+    public PoiWorkbook open(URI uri, Arguments importSettings, InputStream in, ValueInterner interner) throws IOException {
+        PoiWorkbook workbook = open(uri, importSettings, in);
+        workbook.setValueInterner(interner);
+        return workbook;
+    }
+
 }
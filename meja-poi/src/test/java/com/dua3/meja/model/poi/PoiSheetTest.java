@@ -4,6 +4,7 @@ import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.CellType;
 import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.model.SheetCursor;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -11,7 +12,10 @@ import java.time.LocalDate;
 import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PoiSheetTest {
 
@@ -72,4 +76,51 @@ class PoiSheetTest {
             assertEquals(Boolean.TRUE, c4.getBoolean());
         }
     }
+
+    @Test
+    void testCursor() throws IOException {
+        try (PoiWorkbook wb = PoiWorkbookFactory.instance().create()) {
+            Sheet s = wb.createSheet("Test");
+            s.createRow("a", 123.5, null, LocalDate.of(2023, 2, 1), true);
+
+            SheetCursor cursor = s.cursor();
+            assertTrue(cursor.nextRow());
+            assertEquals(5, cursor.getColumnCount());
+            assertTrue(cursor.nextCell());
+            assertEquals("a", cursor.getText().toString());
+            assertTrue(cursor.nextCell());
+            assertEquals(123.5, cursor.getDouble());
+            assertEquals("123,5", cursor.toString(Locale.GERMANY));
+            assertTrue(cursor.nextCell());
+            assertEquals(CellType.BLANK, cursor.getCellType());
+            assertTrue(cursor.nextCell());
+            assertEquals(CellType.DATE, cursor.getCellType());
+            assertEquals(LocalDate.of(2023, 2, 1), cursor.getDate());
+            assertTrue(cursor.nextCell());
+            assertTrue(cursor.getBoolean());
+            assertFalse(cursor.nextCell());
+            assertFalse(cursor.nextRow());
+        }
+    }
+
+    @Test
+    void testPeek() throws IOException {
+        try (PoiWorkbook wb = PoiWorkbookFactory.instance().create()) {
+            Sheet s = wb.createSheet("Test");
+            s.createRow("a", 123.5);
+            s.getCell(5, 1).set(true);
+
+            assertEquals(CellType.TEXT, s.peekCellType(0, 0));
+            assertEquals(123.5, s.peekValue(0, 1));
+            assertEquals(Boolean.TRUE, s.peekValue(5, 1));
+
+            // reading missing rows and cells does not create them
+            assertEquals(CellType.BLANK, s.peekCellType(2, 0));
+            assertEquals(null, s.peekValue(5, 0));
+            assertTrue(s.getRowIfExists(2).isEmpty());
+            assertEquals(2, s.existingRows().count());
+            assertEquals(4, s.existingRows().mapToLong(row -> row.existingCells().count()).sum());
+            assertNull(((PoiSheet) s).getPoiSheet().getRow(2));
+        }
+    }
 }
@@ -2,13 +2,20 @@ package com.dua3.meja.model.poi;
 
 import com.dua3.meja.io.HtmlWorkbookWriter;
 import com.dua3.meja.model.Cell;
+import com.dua3.meja.model.CellStyle;
 import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.MemoryStats;
+import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.Workbook;
 import com.dua3.meja.util.MejaHelper;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.io.IoOptions;
 import com.dua3.utility.io.IoUtil;
 import com.dua3.utility.options.Arguments;
+import com.dua3.utility.text.Font;
+import com.dua3.utility.text.FontDef;
+import com.dua3.utility.text.FontUtil;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -17,20 +24,31 @@ import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Formatter;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertLinesMatch;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SuppressWarnings("OptionalGetWithoutIsPresent")
@@ -278,6 +296,466 @@ class PoiWorkbookTest {
         }
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testParallelRecalculation(String type) throws IOException {
+        try (PoiWorkbook serial = createWorkbook(type);
+             PoiWorkbook parallel = createWorkbook(type)) {
+            createModel(serial.getPoiWorkbook(), 500);
+            createModel(parallel.getPoiWorkbook(), 500);
+
+            serial.evaluateAllFormulaCells(1);
+            assertTrue(new PoiRecalculationScheduler(parallel, 4).recalculate());
+
+            org.apache.poi.ss.usermodel.Workbook expected = serial.getPoiWorkbook();
+            org.apache.poi.ss.usermodel.Workbook actual = parallel.getPoiWorkbook();
+            int formulaCount = 0;
+            for (int s = 0; s < expected.getNumberOfSheets(); s++) {
+                for (org.apache.poi.ss.usermodel.Row row : expected.getSheetAt(s)) {
+                    for (org.apache.poi.ss.usermodel.Cell cell : row) {
+                        if (cell.getCellType() != org.apache.poi.ss.usermodel.CellType.FORMULA) {
+                            continue;
+                        }
+                        formulaCount++;
+                        org.apache.poi.ss.usermodel.Cell other = actual.getSheetAt(s).getRow(row.getRowNum()).getCell(cell.getColumnIndex());
+                        String address = cell.getSheet().getSheetName() + "!" + cell.getAddress();
+                        assertEquals(cell.getCachedFormulaResultType(), other.getCachedFormulaResultType(), address);
+                        switch (cell.getCachedFormulaResultType()) {
+                            case NUMERIC -> assertEquals(cell.getNumericCellValue(), other.getNumericCellValue(), address);
+                            case STRING -> assertEquals(cell.getStringCellValue(), other.getStringCellValue(), address);
+                            case BOOLEAN -> assertEquals(cell.getBooleanCellValue(), other.getBooleanCellValue(), address);
+                            case ERROR -> assertEquals(cell.getErrorCellValue(), other.getErrorCellValue(), address);
+                            default -> throw new IllegalStateException("unexpected result type in " + address);
+                        }
+                    }
+                }
+            }
+            assertEquals(500 * 9 + 3, formulaCount);
+        }
+    }
+
+    @Test
+    void testParallelRecalculationFallback() throws IOException {
+        try (PoiWorkbook wb = PoiWorkbookFactory.instance().createXlsx()) {
+            org.apache.poi.ss.usermodel.Sheet sheet = wb.getPoiWorkbook().createSheet("indirect");
+            org.apache.poi.ss.usermodel.Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(42);
+            row.createCell(1).setCellFormula("INDIRECT(\"A1\")*2");
+
+            // references created by INDIRECT() cannot be scheduled, the workbook is evaluated serially
+            assertFalse(new PoiRecalculationScheduler(wb, 4).recalculate());
+            wb.evaluateAllFormulaCells(4);
+            assertEquals(84.0, row.getCell(1).getNumericCellValue());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testFontLookup(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Font base = wb.getDefaultCellStyle().getFont();
+
+            FontDef fdBold = new FontDef();
+            fdBold.setBold(true);
+            Font bold = FontUtil.getInstance().deriveFont(base, fdBold);
+
+            // the size is rounded when the POI font is created, so the created font differs from the requested one
+            FontDef fdLarge = new FontDef();
+            fdLarge.setSize(12.5f);
+            Font large = FontUtil.getInstance().deriveFont(base, fdLarge);
+
+            wb.getCellStyle("bold").setFont(bold);
+            wb.getCellStyle("large").setFont(large);
+            int numberOfFonts = wb.getPoiWorkbook().getNumberOfFonts();
+
+            for (int i = 0; i < 100; i++) {
+                CellStyle cs = wb.getCellStyle("style " + i);
+                cs.setFont(i % 2 == 0 ? bold : large);
+                assertEquals(wb.getCellStyle(i % 2 == 0 ? "bold" : "large").getFont(), cs.getFont());
+            }
+            assertEquals(numberOfFonts, wb.getPoiWorkbook().getNumberOfFonts());
+            assertTrue(wb.getCellStyle("bold").getFont().isBold());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testCellStyleInstances(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            PoiCellStyle cs = wb.getCellStyle("test");
+            assertSame(cs, wb.getCellStyle("test"));
+
+            Cell cell = wb.createSheet("data").getCell(0, 0).set(1).setCellStyle(cs);
+            assertSame(cs, cell.getCellStyle());
+
+            // changes to the shared instance are visible through all cells using the style
+            FontDef fd = new FontDef();
+            fd.setItalic(true);
+            cs.setFont(FontUtil.getInstance().deriveFont(cs.getFont(), fd));
+            assertTrue(cell.getCellStyle().getFont().isItalic());
+            assertSame(cs.getPoiFont(), wb.getFont(cs.getPoiFont().getPoiFont()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testDisplayStringCache(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            wb.setDisplayStringCacheSize(1000);
+            assertEquals(512, wb.getDisplayStringCacheSize());
+
+            CellStyle cs = wb.getCellStyle("amount");
+            cs.setDataFormat("#,##0.00");
+            Sheet sheet = wb.createSheet("data");
+            Cell a = sheet.getCell(0, 0).set(1234.5).setCellStyle(cs);
+            Cell b = sheet.getCell(1, 0).set(1234.5).setCellStyle(cs);
+
+            assertEquals("1,234.50", a.toString(Locale.US));
+            assertEquals("1,234.50", b.toString(Locale.US));
+            assertEquals("1.234,50", b.toString(Locale.GERMANY));
+
+            // changing the data format invalidates cached values
+            cs.setDataFormat("0.0");
+            assertEquals("1234.5", a.toString(Locale.US));
+
+            wb.setDisplayStringCacheSize(0);
+            assertEquals(0, wb.getDisplayStringCacheSize());
+            assertEquals("1234.5", b.toString(Locale.US));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testDateFormatClassification(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            CellStyle cs = wb.getCellStyle("date");
+            cs.setDataFormat("dd.mm.yyyy");
+            Sheet sheet = wb.createSheet("data");
+            Cell date = sheet.getCell(0, 0).set(45351.0).setCellStyle(cs);
+            Cell invalid = sheet.getCell(1, 0).set(-1.0).setCellStyle(cs);
+            Cell number = sheet.getCell(2, 0).set(45351.0);
+
+            assertEquals(CellType.DATE, date.getCellType());
+            assertEquals(LocalDate.of(2024, 2, 29), date.getDate());
+            assertEquals(CellType.NUMERIC, invalid.getCellType());
+            assertEquals(CellType.NUMERIC, number.getCellType());
+
+            // changing the data format changes the type of all cells using the style
+            cs.setDataFormat("0.00");
+            assertEquals(CellType.NUMERIC, date.getCellType());
+            cs.setDataFormat("yyyy-mm-dd");
+            assertEquals(CellType.DATE, date.getCellType());
+            assertEquals(CellType.DATE, sheet.peekCellType(0, 0));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testRowAndCellInstances(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            Cell cell = sheet.getCell(2, 3).set("x");
+            assertSame(sheet.getRow(2), sheet.getRow(2));
+            assertSame(cell, sheet.getCell(2, 3));
+            assertSame(cell, sheet.getRow(2).getCell(3));
+
+            // setting the current cell to the cell that is already current does not change anything
+            assertTrue(sheet.setCurrentCell(cell));
+            assertFalse(sheet.setCurrentCell(2, 3));
+
+            // merging updates the cached instances
+            sheet.addMergedRegion(new RectangularRegion(2, 3, 3, 4));
+            assertSame(cell, sheet.getCell(3, 4).getLogicalCell());
+            assertEquals(2, cell.getHorizontalSpan());
+
+            // clearing the sheet discards the cached instances
+            sheet.clear();
+            assertNotSame(cell, sheet.getCell(2, 3));
+            assertTrue(sheet.getCell(2, 3).isEmpty());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testParallelRowAccess(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            int n = 5_000;
+            for (int i = 0; i < n; i++) {
+                sheet.getCell(i, 0).set(i);
+                sheet.getCell(i, 1).set(2.0 * i);
+            }
+
+            try (var lock = sheet.readLock("testParallelRowAccess")) {
+                double expected = sheet.rows().mapToDouble(row -> row.getCell(1).getNumber().doubleValue()).sum();
+                assertEquals(n * (n - 1.0), expected);
+                for (int k = 0; k < 3; k++) {
+                    assertEquals(expected, sheet.parallelRows().mapToDouble(row -> row.getCell(1).getNumber().doubleValue()).sum());
+                    assertEquals(IntStream.range(0, n).boxed().toList(), sheet.parallelRows().map(Row::getRowNumber).toList());
+                }
+            }
+
+            // parallel streams return the cached row instances
+            Sheet small = wb.createSheet("small");
+            for (int i = 0; i < 1_000; i++) {
+                small.getCell(i, 0).set(i);
+            }
+            wb.freeze();
+            List<Row> rows = small.parallelRows().toList();
+            for (int i = 0; i < rows.size(); i++) {
+                assertSame(rows.get(i), small.getRow(i));
+                assertEquals(i, rows.get(i).getCell(0).getNumber().intValue());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testBulkCopy(String type) throws IOException {
+        try (PoiWorkbook wb = createWorkbook(type); PoiWorkbook copy = createWorkbook(type)) {
+            CellStyle cs = wb.getCellStyle("amount");
+            cs.setDataFormat("0.00");
+            Sheet sheet = wb.createSheet("data");
+            for (int i = 0; i < 100; i++) {
+                sheet.getCell(i, 0).set(i).setCellStyle(cs);
+                sheet.getCell(i, 1).set("text " + i);
+            }
+            sheet.getCell(0, 2).setFormula("SUM(A1:A100)");
+            sheet.getCell(1, 2).set("link").setHyperlink(URI.create("https://www.dua3.com"));
+            sheet.addMergedRegion(new RectangularRegion(2, 3, 2, 3));
+            sheet.setColumnWidth(1, 120.0f);
+
+            copy.copy(wb);
+
+            Sheet copiedSheet = copy.getSheet(0);
+            assertEquals(100, copiedSheet.getRowCount());
+            assertEquals(4, copiedSheet.getColumnCount());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(i, copiedSheet.getCell(i, 0).getNumber().intValue());
+                assertSame(copy.getCellStyle("amount"), copiedSheet.getCell(i, 0).getCellStyle());
+                assertEquals("text " + i, copiedSheet.getCell(i, 1).toString());
+            }
+            assertEquals("0.00", copiedSheet.getCell(5, 0).getCellStyle().getDataFormat());
+            assertEquals(CellType.FORMULA, copiedSheet.getCell(0, 2).getCellType());
+            assertEquals(4950.0, copiedSheet.getCell(0, 2).getNumber().doubleValue());
+            assertEquals(Optional.of(URI.create("https://www.dua3.com")), copiedSheet.getCell(1, 2).getHyperlink());
+            assertEquals(List.of(new RectangularRegion(2, 3, 2, 3)), copiedSheet.getMergedRegions());
+            assertEquals(sheet.getColumnWidth(1), copiedSheet.getColumnWidth(1));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testSnapshot(String type) throws Exception {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            for (int i = 0; i < 100; i++) {
+                sheet.getCell(i, 0).set(i);
+                sheet.getCell(i, 1).set("text " + i);
+            }
+            sheet.getCell(0, 2).setFormula("SUM(A1:A100)");
+
+            try (Workbook snapshot = wb.snapshot()) {
+                assertTrue(snapshot.isReadOnly());
+                assertFalse(wb.isReadOnly());
+
+                // export the snapshot while the workbook is being changed
+                Path pathToSnapshot = tempDir.resolve("snapshot." + type);
+                Thread writer = Thread.ofPlatform().start(() -> {
+                    try {
+                        snapshot.write(pathToSnapshot);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                for (int i = 0; i < 100; i++) {
+                    sheet.getCell(i, 0).set(-i);
+                }
+                writer.join();
+
+                Sheet snapshotSheet = snapshot.getSheet(0);
+                assertEquals(10, snapshotSheet.getCell(10, 0).getNumber().intValue());
+                assertEquals(4950.0, snapshotSheet.getCell(0, 2).getNumber().doubleValue());
+                assertThrows(UnsupportedOperationException.class, () -> snapshotSheet.getCell(10, 0).set(1));
+                assertThrows(UnsupportedOperationException.class, () -> snapshotSheet.getCell(200, 0));
+                assertThrows(UnsupportedOperationException.class, () -> snapshotSheet.setColumnWidth(0, 10.0f));
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.createSheet("new"));
+                assertThrows(UnsupportedOperationException.class, () -> snapshot.getDefaultCellStyle().setWrap(true));
+
+                try (Workbook exported = MejaHelper.openWorkbook(pathToSnapshot)) {
+                    assertEquals(10, exported.getSheet(0).getCell(10, 0).getNumber().intValue());
+                    assertEquals("text 99", exported.getSheet(0).getCell(99, 1).toString());
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testFreeze(String type) throws Exception {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            for (int i = 0; i < 100; i++) {
+                sheet.getCell(i, 0).set(i);
+            }
+
+            wb.freeze();
+            assertTrue(wb.isFrozen());
+            assertTrue(wb.isReadOnly());
+
+            // locks do not block
+            try (var __ = sheet.writeLock("testFreeze")) {
+                Thread reader = Thread.ofPlatform().start(() -> {
+                    try (var ___ = sheet.readLock("testFreeze")) {
+                        assertEquals(10, sheet.getCell(10, 0).getNumber().intValue());
+                    }
+                });
+                reader.join(10_000);
+                assertFalse(reader.isAlive());
+            }
+
+            assertEquals(4950, sheet.rows().mapToInt(row -> row.getCell(0).getNumber().intValue()).sum());
+            assertThrows(UnsupportedOperationException.class, () -> sheet.getCell(0, 0).set(1));
+            assertThrows(UnsupportedOperationException.class, () -> sheet.getCell(0, 1));
+            assertThrows(UnsupportedOperationException.class, () -> sheet.setZoom(2.0f));
+            assertThrows(UnsupportedOperationException.class, () -> wb.createSheet("new"));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testConcurrentReadsOfFrozenWorkbook(String type) throws Exception {
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            int n = 1_000;
+            for (int i = 0; i < n; i++) {
+                sheet.getCell(i, 0).set(i * 0.5);
+                sheet.getCell(i, 1).setFormula("A" + (i + 1) + "*2");
+                sheet.getCell(i, 2).setFormula("SUM(B$1:B" + (i + 1) + ")");
+            }
+            List<String> expected = sheet.rows().flatMap(Row::cells).map(Cell::toString).toList();
+
+            wb.freeze();
+
+            // formula cells are formatted without the shared formula evaluator
+            int threads = 8;
+            try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+                List<Future<List<String>>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(executor.submit(() -> sheet.rows().flatMap(Row::cells).map(Cell::toString).toList()));
+                }
+                for (Future<List<String>> result : results) {
+                    assertEquals(expected, result.get());
+                }
+            }
+            assertEquals(expected, sheet.parallelRows().flatMap(Row::cells).map(Cell::toString).toList());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"xls", "xlsx"})
+    void testMemoryStats(String type) throws Exception {
+        Path path = testdataDir.resolve("population by country." + type);
+        try (Workbook wb = MejaHelper.openWorkbook(path)) {
+            MemoryStats sheetStats = wb.getSheet(0).memoryStats();
+            MemoryStats stats = wb.memoryStats();
+            assertTrue(stats.rows() > 0);
+            assertTrue(stats.cells() >= stats.rows());
+            assertEquals(sheetStats.cells(), stats.cells());
+            // texts are kept in the shared string table
+            assertTrue(stats.valueBytes(CellType.TEXT) > sheetStats.valueBytes(CellType.TEXT));
+            assertTrue(stats.styleBytes() > 0);
+            assertTrue(stats.backendBytes() > 0);
+        }
+
+        // the estimate grows with the number of cells
+        try (PoiWorkbook wb = createWorkbook(type)) {
+            Sheet sheet = wb.createSheet("data");
+            MemoryStats previous = wb.memoryStats();
+            for (int k = 1; k <= 3; k++) {
+                for (int i = (k - 1) * 100; i < k * 100; i++) {
+                    sheet.getCell(i, 0).set(i);
+                    sheet.getCell(i, 1).setFormula("A" + (i + 1) + "*2");
+                }
+                MemoryStats stats = wb.memoryStats();
+                assertEquals(200L * k, stats.cells());
+                assertTrue(stats.valueBytes(CellType.FORMULA) > previous.valueBytes(CellType.FORMULA));
+                assertTrue(stats.totalBytes() > previous.totalBytes());
+                previous = stats;
+            }
+        }
+    }
+
+    @Test
+    void testMemoryStatsBySizeModel() throws IOException {
+        // XSSF keeps the parsed XML of rows and cells, which is larger than the HSSF records
+        MemoryStats xls;
+        MemoryStats xlsx;
+        try (PoiWorkbook wb = createWorkbook("xls")) {
+            fillNumbers(wb.createSheet("data"), 1_000);
+            xls = wb.getSheet(0).memoryStats();
+        }
+        try (PoiWorkbook wb = createWorkbook("xlsx")) {
+            fillNumbers(wb.createSheet("data"), 1_000);
+            xlsx = wb.getSheet(0).memoryStats();
+        }
+        assertEquals(xls.cells(), xlsx.cells());
+        assertTrue(xls.cellBytes() < xlsx.cellBytes());
+        assertTrue(xls.rowBytes() < xlsx.rowBytes());
+    }
+
+    private static void fillNumbers(Sheet sheet, int rows) {
+        for (int i = 0; i < rows; i++) {
+            sheet.getCell(i, 0).set(i);
+            sheet.getCell(i, 1).set(0.5 * i);
+        }
+    }
+
+    private static PoiWorkbook createWorkbook(String type) {
+        return switch (type) {
+            case "xls" -> (PoiWorkbook) PoiWorkbookFactory.instance().createXls();
+            case "xlsx" -> PoiWorkbookFactory.instance().createXlsx();
+            default -> throw new IllegalArgumentException(type);
+        };
+    }
+
+    /**
+     * Create a model with numeric, text, boolean and error results, references to other sheets, names, nested
+     * subtotals, and a chain of dependent cells.
+     */
+    private static void createModel(org.apache.poi.ss.usermodel.Workbook wb, int rows) {
+        org.apache.poi.ss.usermodel.Sheet inputs = wb.createSheet("inputs");
+        org.apache.poi.ss.usermodel.Sheet calc = wb.createSheet("calc");
+        for (int i = 0; i < rows; i++) {
+            org.apache.poi.ss.usermodel.Row row = inputs.createRow(i);
+            row.createCell(0).setCellValue(i + 1.0);
+            row.createCell(1).setCellValue(i % 7 == 0 ? "x" : "y");
+        }
+
+        org.apache.poi.ss.usermodel.Name name = wb.createName();
+        name.setNameName("INPUT_VALUES");
+        name.setRefersToFormula("inputs!$A$1:$A$" + rows);
+
+        for (int i = 0; i < rows; i++) {
+            int r = i + 1;
+            org.apache.poi.ss.usermodel.Row row = calc.createRow(i);
+            row.createCell(0).setCellFormula("inputs!A" + r + "*1.5");
+            row.createCell(1).setCellFormula("A" + r + "+IF(inputs!B" + r + "=\"x\",1,0)");
+            row.createCell(2).setCellFormula("B" + r + "/MAX(1,A" + r + ")");
+            row.createCell(3).setCellFormula("IF(MOD(ROW(),5)=0,1/0,C" + r + ")");
+            row.createCell(4).setCellFormula("IFERROR(D" + r + ",\"err\")&\"\"");
+            row.createCell(5).setCellFormula("SUBTOTAL(9,A" + r + ":C" + r + ")");
+            row.createCell(6).setCellFormula("SUBTOTAL(9,F" + r + ",C" + r + ")+SUM(INPUT_VALUES)/1000");
+            row.createCell(7).setCellFormula("B" + r + ">A" + r);
+            row.createCell(8).setCellFormula(i == 0 ? "G1" : "I" + i + "+G" + r);
+        }
+
+        org.apache.poi.ss.usermodel.Row totals = calc.createRow(rows);
+        totals.createCell(0).setCellFormula("SUM(A1:A" + rows + ")");
+        totals.createCell(5).setCellFormula("SUBTOTAL(9,F1:G" + rows + ")");
+        totals.createCell(8).setCellFormula("COUNTIF(H1:H" + rows + ",TRUE)+I" + rows);
+    }
+
     private static void testRowGetLastColNumErrorHelper(Workbook wb) {
         Sheet sheet = wb.createSheet("index");
 
@@ -96,6 +96,21 @@ final class SheetTableModel extends AbstractTableModel {
                         runOnEDT(() -> fireTableCellUpdated(i, j));
                     }
                 }
+                case SheetEvent.RANGE_CHANGED -> {
+                    SheetEvent.RangeChanged event = (SheetEvent.RangeChanged) item;
+                    int firstRow = convertRowNumberSheetToJTable(event.region().firstRow());
+                    int lastRow = convertRowNumberSheetToJTable(event.region().lastRow());
+
+                    LOG.debug("range changed, table rows {} to {}, firstRowIsHeader={}", firstRow, lastRow, firstRowIsHeader);
+
+                    if (firstRowIsHeader && firstRow == -1) {
+                        // header change!
+                        LOG.debug("head row data changed!");
+                        runOnEDT(SheetTableModel.this::fireTableStructureChanged);
+                    } else {
+                        runOnEDT(() -> fireTableRowsUpdated(firstRow, lastRow));
+                    }
+                }
                 case SheetEvent.LAYOUT_CHANGED, SheetEvent.COLUMNS_ADDED -> {
                     LOG.debug("table structure changed, event: {}", item);
                     runOnEDT(SheetTableModel.this::fireTableStructureChanged);
@@ -134,7 +149,7 @@ final class SheetTableModel extends AbstractTableModel {
     @Override
     public String getColumnName(int columnIndex) {
         if (firstRowIsHeader) {
-            return sheet.getRow(0).getCell(columnIndex).toString();
+            return sheet.getCellIfExists(0, columnIndex).map(Cell::toString).orElse("");
         } else {
             return Sheet.getColumnName(columnIndex);
         }
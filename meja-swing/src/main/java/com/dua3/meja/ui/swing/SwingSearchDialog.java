@@ -1,9 +1,12 @@
 package com.dua3.meja.ui.swing;
 
-import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.SearchOptions;
 import com.dua3.meja.model.SearchSettings;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.ui.SearchResults;
+import com.dua3.meja.util.CellPosition;
 import com.dua3.utility.swing.SwingUtil;
+import org.jspecify.annotations.Nullable;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -23,6 +26,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
 import java.util.EnumSet;
 import java.util.Optional;
+import java.util.function.Function;
 
 final class SwingSearchDialog extends JDialog {
 
@@ -30,6 +34,8 @@ final class SwingSearchDialog extends JDialog {
     private final JTextField jtfText = new JTextField(40);
     private final JCheckBox jcbIgnoreCase = new JCheckBox("ignore case", true);
     private final JCheckBox jcbMatchCompleteText = new JCheckBox("match complete text", false);
+    private final JLabel jlStatus = new JLabel(" ");
+    private transient @Nullable SearchResults results;
 
     SwingSearchDialog(SwingSheetView swingSheetView) {
         this.swingSheetView = swingSheetView;
@@ -38,6 +44,10 @@ final class SwingSearchDialog extends JDialog {
 
     @Override
     public void setVisible(boolean visible) {
+        // the sheet may be edited while the dialog is hidden
+        results = null;
+        jlStatus.setText(" ");
+
         super.setVisible(visible);
 
         if (visible) {
@@ -104,6 +114,20 @@ final class SwingSearchDialog extends JDialog {
         c.gridheight = 1;
         add(new JButton(SwingUtil.createAction("Close", e -> setVisible(false))), c);
 
+        // status
+        c.gridx = 2;
+        c.gridy = 3;
+        c.gridwidth = 2;
+        c.gridheight = 1;
+        add(jlStatus, c);
+
+        // previous button
+        c.gridx = 4;
+        c.gridy = 3;
+        c.gridwidth = 1;
+        c.gridheight = 1;
+        add(new JButton(SwingUtil.createAction("Previous", this::doSearchPrevious)), c);
+
         // Enter starts search
         SwingUtilities.getRootPane(submitButton).setDefaultButton(submitButton);
 
@@ -124,6 +148,14 @@ final class SwingSearchDialog extends JDialog {
     }
 
     void doSearch() {
+        doSearch(SearchResults::next);
+    }
+
+    void doSearchPrevious() {
+        doSearch(SearchResults::previous);
+    }
+
+    private void doSearch(Function<SearchResults, Optional<CellPosition>> step) {
         EnumSet<SearchOptions> options = EnumSet.of(SearchOptions.SEARCH_FROM_CURRENT);
 
         if (jcbIgnoreCase.isSelected()) {
@@ -134,12 +166,23 @@ final class SwingSearchDialog extends JDialog {
             options.add(SearchOptions.MATCH_COMPLETE_TEXT);
         }
 
-        Optional<Cell> oc = swingSheetView.getSheet().find(getText(), SearchSettings.of(options));
-        if (oc.isEmpty()) {
+        // search the sheet only when text or options have changed, otherwise step through the known matches
+        Sheet sheet = swingSheetView.getSheet();
+        String text = getText();
+        SearchSettings ss = SearchSettings.of(options);
+        SearchResults r = results;
+        if (r == null || !r.isFor(sheet, text, ss)) {
+            r = SearchResults.search(sheet, text, ss, SearchResults.DEFAULT_LIMIT);
+            results = r;
+        }
+
+        Optional<CellPosition> match = step.apply(r);
+        jlStatus.setText(r.getStatusText());
+        if (match.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Text was not found.");
         } else {
-            Cell cell = oc.get();
-            swingSheetView.setCurrentCell(cell.getRowNumber(), cell.getColumnNumber());
+            CellPosition pos = match.get();
+            swingSheetView.setCurrentCell(pos.row(), pos.column());
         }
     }
 
@@ -30,6 +30,8 @@ import java.util.function.Function;
 final class SwingSegmentView extends JPanel implements Scrollable, SegmentView {
     private static final Logger LOG = LogManager.getLogger(SwingSegmentView.class);
 
+    private static final int MAX_PAINT_ATTEMPTS = 3;
+
     private final transient SwingSheetViewDelegate svDelegate;
     private final transient SegmentViewDelegate ssvDelegate;
 
@@ -170,45 +172,48 @@ final class SwingSegmentView extends JPanel implements Scrollable, SegmentView {
 
     @Override
     protected void paintComponent(Graphics g) {
-        try (var __ = svDelegate.readLock("SwingSegmentView.paintComponent()")) {
-            // clear background by calling super method
-            super.paintComponent(g);
+        // clear background by calling super method
+        super.paintComponent(g);
 
-            Rectangle bounds = getBounds();
-            if (bounds.width == 0 || bounds.height == 0) {
-                return;
-            }
-            bounds.setLocation(0, 0);
-
-            Rectangle clipBounds = Objects.requireNonNullElse(g.getClipBounds(), bounds);
-
-            Graphics2D g2d = (Graphics2D) g;
-            SwingUtil.setRenderingQualityHigh(g2d);
-            try (com.dua3.utility.ui.Graphics sg = new SwingGraphics(g2d, bounds)) {
-                AffineTransformation2f t = ssvDelegate.getTransformation();
-                sg.setTransformation(t);
-                LOG.debug("paintComponent() - transformation:\n{}", t::toMatrixString);
-
-                Rectangle2f r = Rectangle2f.withCorners(
-                        sg.inverseTransform(Vector2f.of((float) clipBounds.getMinX(), (float) clipBounds.getMinY())),
-                        sg.inverseTransform(Vector2f.of((float) clipBounds.getMaxX(), (float) clipBounds.getMaxY()))
-                );
-
-                // draw sheet
-                svDelegate.getSheetPainter().drawSheet(sg, r);
-
-                // draw split lines
-                if (ssvDelegate.hasHLine()) {
-                    float ySplit = svDelegate.getRowPos(svDelegate.getSplitRow()) + svDelegate.get1PxWidthInPoints();
-                    sg.setStroke(Color.BLACK, svDelegate.get1PxHeightInPoints());
-                    sg.strokeLine(-svDelegate.getRowLabelWidthInPoints(), ySplit, svDelegate.getSheetWidthInPoints(), ySplit);
-                }
-                if (ssvDelegate.hasVLine()) {
-                    float xSplit = svDelegate.getColumnPos(svDelegate.getSplitColumn()) + svDelegate.get1PxWidthInPoints();
-                    sg.setStroke(Color.BLACK, svDelegate.get1PxWidthInPoints());
-                    sg.strokeLine(xSplit, -svDelegate.getColumnLabelHeightInPoints(), xSplit, svDelegate.getSheetHeightInPoints());
-                }
-            }
+        Rectangle bounds = getBounds();
+        if (bounds.width == 0 || bounds.height == 0) {
+            return;
+        }
+        bounds.setLocation(0, 0);
+
+        Rectangle clipBounds = Objects.requireNonNullElse(g.getClipBounds(), bounds);
+
+        Graphics2D g2d = (Graphics2D) g;
+        SwingUtil.setRenderingQualityHigh(g2d);
+        try (com.dua3.utility.ui.Graphics sg = new SwingGraphics(g2d, bounds)) {
+            // only block the EDT on the read lock if painting is repeatedly disturbed by writes to the sheet
+            svDelegate.readOptimistic(MAX_PAINT_ATTEMPTS, () -> paintSegment(sg, clipBounds));
+        }
+    }
+
+    private void paintSegment(com.dua3.utility.ui.Graphics sg, Rectangle clipBounds) {
+        AffineTransformation2f t = ssvDelegate.getTransformation();
+        sg.setTransformation(t);
+        LOG.debug("paintComponent() - transformation:\n{}", t::toMatrixString);
+
+        Rectangle2f r = Rectangle2f.withCorners(
+                sg.inverseTransform(Vector2f.of((float) clipBounds.getMinX(), (float) clipBounds.getMinY())),
+                sg.inverseTransform(Vector2f.of((float) clipBounds.getMaxX(), (float) clipBounds.getMaxY()))
+        );
+
+        // draw sheet
+        svDelegate.getSheetPainter().drawSheet(sg, r);
+
+        // draw split lines
+        if (ssvDelegate.hasHLine()) {
+            float ySplit = svDelegate.getRowPos(svDelegate.getSplitRow()) + svDelegate.get1PxWidthInPoints();
+            sg.setStroke(Color.BLACK, svDelegate.get1PxHeightInPoints());
+            sg.strokeLine(-svDelegate.getRowLabelWidthInPoints(), ySplit, svDelegate.getSheetWidthInPoints(), ySplit);
+        }
+        if (ssvDelegate.hasVLine()) {
+            float xSplit = svDelegate.getColumnPos(svDelegate.getSplitColumn()) + svDelegate.get1PxWidthInPoints();
+            sg.setStroke(Color.BLACK, svDelegate.get1PxWidthInPoints());
+            sg.strokeLine(xSplit, -svDelegate.getColumnLabelHeightInPoints(), xSplit, svDelegate.getSheetHeightInPoints());
         }
     }
 
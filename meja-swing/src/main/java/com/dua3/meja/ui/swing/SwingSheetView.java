@@ -24,6 +24,7 @@ import com.dua3.meja.model.SheetEvent;
 import com.dua3.meja.ui.CellRenderer;
 import com.dua3.meja.ui.SheetView;
 import com.dua3.meja.util.CellValueHelper;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.math.geometry.Rectangle2f;
 import com.dua3.utility.math.geometry.Scale2f;
 import com.dua3.utility.swing.SwingUtil;
@@ -203,6 +204,22 @@ public final class SwingSheetView extends JPanel implements SheetView {
         });
     }
 
+    @Override
+    public void repaintRange(RectangularRegion region) {
+        runOnEdt(() -> {
+            // include the adjacent cells so that borders and the selection rectangle are repainted, too
+            Rectangle2f r = delegate.getRegionRect(new RectangularRegion(
+                    Math.max(0, region.firstRow() - 1), region.lastRow() + 1,
+                    Math.max(0, region.firstColumn() - 1), region.lastColumn() + 1
+            ));
+            sheetPane.repaintSheet(r);
+            Cell editingCell = delegate.getEditingCell().orElse(null);
+            if (editingCell != null && region.contains(editingCell.getRowNumber(), editingCell.getColumnNumber())) {
+                updateEditorBounds();
+            }
+        });
+    }
+
     /**
      * Scroll the currently selected cell into view.
      */
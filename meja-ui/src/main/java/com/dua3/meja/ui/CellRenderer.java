@@ -3,10 +3,11 @@ package com.dua3.meja.ui;
 import com.dua3.meja.model.BorderStyle;
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.CellStyle;
+import com.dua3.meja.model.CellType;
 import com.dua3.meja.model.Direction;
 import com.dua3.meja.model.FillPattern;
 import com.dua3.meja.model.HAlign;
-import com.dua3.meja.model.Row;
+import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.VAlign;
 import com.dua3.utility.data.Color;
 import com.dua3.utility.math.geometry.Rectangle2f;
@@ -139,17 +140,19 @@ public class CellRenderer {
         if (style.isStyleWrapping()) {
             clipRect = textRect;
         } else {
-            Row row = cell.getRow();
+            // use the non-mutating read methods so that painting does not create cells
+            Sheet sheet = cell.getSheet();
+            int i = cell.getRowNumber();
             float clipXMin = textRect.xMin();
             for (int j = cell.getColumnNumber() - 1; j > 0; j--) {
-                if (!row.getCell(j).isEmpty()) {
+                if (sheet.peekCellType(i, j) != CellType.BLANK) {
                     break;
                 }
                 clipXMin = getDelegate().getColumnPos(j) + paddingX;
             }
             float clipXMax = textRect.xMax();
             for (int j = cell.getColumnNumber() + 1; j < getDelegate().getColumnCount(); j++) {
-                if (!row.getCell(j).isEmpty()) {
+                if (sheet.peekCellType(i, j) != CellType.BLANK) {
                     break;
                 }
                 clipXMax = getDelegate().getColumnPos(j + 1) - paddingX;
@@ -0,0 +1,158 @@
+package com.dua3.meja.ui;
+
+import com.dua3.meja.model.SearchSettings;
+import com.dua3.meja.model.Sheet;
+import com.dua3.meja.util.CellPosition;
+import com.dua3.utility.lang.LangUtil;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The matches of a search in a sheet.
+ * <p>
+ * Search dialogs use this class to show the number of matches and to step through them without searching the
+ * sheet again. The matches are determined once using {@link Sheet#findAll(String, SearchSettings, int)}; call
+ * {@link #isFor(Sheet, String, SearchSettings)} to check whether the results can be reused for a search. As the
+ * results are not updated when the sheet changes, they should be discarded when the sheet might have been edited.
+ */
+public final class SearchResults {
+
+    /**
+     * The default maximum number of matches.
+     */
+    public static final int DEFAULT_LIMIT = 10_000;
+
+    private final Sheet sheet;
+    private final String text;
+    private final SearchSettings settings;
+    private final List<CellPosition> matches;
+    private final boolean truncated;
+    private int index = -1;
+
+    private SearchResults(Sheet sheet, String text, SearchSettings settings, List<CellPosition> matches, boolean truncated) {
+        this.sheet = sheet;
+        this.text = text;
+        this.settings = settings;
+        this.matches = matches;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Search a sheet.
+     *
+     * @param sheet    the sheet
+     * @param text     the text to search for
+     * @param settings the {@link SearchSettings} to use; {@code updateCurrent} is ignored
+     * @param limit    the maximum number of matches
+     * @return the search results
+     * @throws IllegalArgumentException if {@code limit} is not positive
+     */
+    public static SearchResults search(Sheet sheet, String text, SearchSettings settings, int limit) {
+        LangUtil.checkArg(limit > 0, "limit must be positive: %d", limit);
+
+        SearchSettings ss = new SearchSettings(
+                settings.searchFromCurrent(),
+                settings.ignoreCase(),
+                settings.matchComplete(),
+                false,
+                settings.searchFormula()
+        );
+        // search for one more match than needed to detect whether matches were dropped
+        List<CellPosition> matches = sheet.findAll(text, ss, limit == Integer.MAX_VALUE ? limit : limit + 1);
+        boolean truncated = matches.size() > limit;
+        if (truncated) {
+            matches = matches.subList(0, limit);
+        }
+        return new SearchResults(sheet, text, settings, List.copyOf(matches), truncated);
+    }
+
+    /**
+     * Check whether these results belong to a search.
+     *
+     * @param sheet    the sheet
+     * @param text     the text to search for
+     * @param settings the {@link SearchSettings}
+     * @return true, if these results were obtained for the same sheet, text, and settings
+     */
+    public boolean isFor(Sheet sheet, String text, SearchSettings settings) {
+        return this.sheet == sheet && this.text.equals(text) && this.settings.equals(settings);
+    }
+
+    /**
+     * Get the matches.
+     *
+     * @return unmodifiable list of the positions of the matching cells, in search order
+     */
+    public List<CellPosition> getMatches() {
+        return matches;
+    }
+
+    /**
+     * Get the number of matches.
+     *
+     * @return the number of matches
+     */
+    public int size() {
+        return matches.size();
+    }
+
+    /**
+     * Test whether there are more matches than the limit passed to
+     * {@link #search(Sheet, String, SearchSettings, int)}.
+     *
+     * @return true, if matches were dropped
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Get the index of the current match.
+     *
+     * @return the index of the match last returned by {@link #next()} or {@link #previous()}, or -1 if none
+     */
+    public int getCurrentIndex() {
+        return index;
+    }
+
+    /**
+     * Move to the next match, wrapping around after the last match.
+     *
+     * @return {@code Optional} holding the position of the next match, or empty if there are no matches
+     */
+    public Optional<CellPosition> next() {
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        index = (index + 1) % matches.size();
+        return Optional.of(matches.get(index));
+    }
+
+    /**
+     * Move to the previous match, wrapping around before the first match.
+     *
+     * @return {@code Optional} holding the position of the previous match, or empty if there are no matches
+     */
+    public Optional<CellPosition> previous() {
+        if (matches.isEmpty()) {
+            return Optional.empty();
+        }
+        index = (index <= 0 ? matches.size() : index) - 1;
+        return Optional.of(matches.get(index));
+    }
+
+    /**
+     * Get a text describing the search state for display in search dialogs, e.g., "3 of 17 matches".
+     *
+     * @return the status text
+     */
+    public String getStatusText() {
+        if (matches.isEmpty()) {
+            return "no matches";
+        }
+
+        String count = (truncated ? "more than " : "") + matches.size() + (matches.size() == 1 ? " match" : " matches");
+        return index < 0 ? count : (index + 1) + " of " + count;
+    }
+}
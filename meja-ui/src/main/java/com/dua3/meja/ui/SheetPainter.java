@@ -17,7 +17,10 @@ package com.dua3.meja.ui;
 
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.CellStyle;
+import com.dua3.meja.model.CellType;
+import com.dua3.meja.model.Row;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.data.Color;
 import com.dua3.utility.math.geometry.AffineTransformation2f;
 import com.dua3.utility.math.geometry.Rectangle2f;
@@ -116,6 +119,10 @@ public class SheetPainter {
     /**
      * Draws the complete sheet including all components (background, labels, grid, cells, selection, and split lines).
      * This method orchestrates the entire drawing process for the sheet view.
+     * <p>
+     * This method does not lock the sheet. Callers must either hold the sheet's read lock or call this method from
+     * {@link SheetViewDelegate#readOptimistic(int, Runnable)}, which only falls back to the read lock if painting
+     * is disturbed by writers.
      *
      * @param g the graphics context to draw on
      * @param r the rectangle defining the area where the sheet should be drawn
@@ -127,16 +134,14 @@ public class SheetPainter {
             return;
         }
 
-        try (var __ = sheet.readLock("SheetPainter.drawSheet()")) {
-            SheetView.SheetArea va = delegate.getSheetArea(r, false);
+        SheetView.SheetArea va = delegate.getSheetArea(r, false);
 
-            drawBackground(g, va);
-            drawLabels(g, va);
-            drawGrid(g, va);
-            drawCells(g, va);
-            cellRenderer.drawSelection(g, sheet.getCurrentCell());
-            drawSplitLines(g, va);
-        }
+        drawBackground(g, va);
+        drawLabels(g, va);
+        drawGrid(g, va);
+        drawCells(g, va);
+        cellRenderer.drawSelection(g, sheet.getCurrentCell());
+        drawSplitLines(g, va);
     }
 
 
@@ -245,58 +250,70 @@ public class SheetPainter {
 
         // Collect cells to be drawn
         Rectangle2f r = va.rect();
+        // cells are only read here; missing rows and cells must not be created while painting
         for (int i = va.startRow(); i < va.endRow(); i++) {
-            sheet.getRowIfExists(i).ifPresent(row -> {
-
-                // if first/last displayed cell of row is empty, start drawing at
-                // the first non-empty cell to the left/right to make sure
-                // overflowing text is visible.
-                int first = va.startColumn();
-                while (first > 0 && delegate.getColumnPos(first) + maxWidth > r.xMin() && row.getCell(first).isEmpty()) {
-                    first--;
-                }
+            Row row = sheet.getRowIfExists(i).orElse(null);
+
+            // if first/last displayed cell of row is empty, start drawing at
+            // the first non-empty cell to the left/right to make sure
+            // overflowing text is visible.
+            int first = va.startColumn();
+            while (first > 0 && delegate.getColumnPos(first) + maxWidth > r.xMin()
+                    && sheet.peekCellType(i, first) == CellType.BLANK) {
+                first--;
+            }
+
+            int end = va.endColumn();
+            while (end < delegate.getColumnCount() && delegate.getColumnPos(end) - maxWidth < r.xMax()
+                    && (end <= 0 || sheet.peekCellType(i, end - 1) == CellType.BLANK)) {
+                end++;
+            }
 
-                int end = va.endColumn();
-                while (end < delegate.getColumnCount() && delegate.getColumnPos(end) - maxWidth < r.xMax()
-                        && (end <= 0 || row.getCell(end - 1).isEmpty())) {
-                    end++;
+            for (int j = first; j < end; j++) {
+                Cell cell = row == null ? null : row.getCellIfExists(j).orElse(null);
+                final Cell logicalCell;
+                if (cell != null) {
+                    logicalCell = cell.getLogicalCell();
+                } else {
+                    // a missing cell has nothing to draw unless it is part of a merged region
+                    RectangularRegion rr = sheet.getMergedRegion(i, j).orElse(null);
+                    Cell topLeft = rr == null ? null : sheet.getCellIfExists(rr.firstRow(), rr.firstColumn()).orElse(null);
+                    if (topLeft == null) {
+                        continue;
+                    }
+                    logicalCell = topLeft;
                 }
 
-                for (int j = first; j < end; j++) {
-                    Cell cell = row.getCell(j);
-                    Cell logicalCell = cell.getLogicalCell();
-
-                    final boolean visible;
-                    //noinspection ObjectEquality
-                    if (cell == logicalCell) {
-                        // if cell is not merged or the top left cell of the
-                        // merged region, then it is visible
-                        visible = true;
-                    } else {
-                        // otherwise, calculate row and column numbers of the
-                        // first visible cell of the merged region
-                        int iCell = Math.max(va.startRow(), logicalCell.getRowNumber());
-                        int jCell = Math.max(first, logicalCell.getColumnNumber());
-                        visible = row.getRowNumber() == iCell && j == jCell;
-                        // skip the other cells of this row that belong to the same
-                        // merged region
-                        j = logicalCell.getColumnNumber() + logicalCell.getHorizontalSpan() - 1;
-                        // filter out cells that cannot overflow into the visible
-                        // region
-                        if (j < va.startColumn()) {
-                            CellStyle style = cell.getCellStyle();
-                            if (style.isStyleWrapping()) {
-                                continue;
-                            }
+                final boolean visible;
+                //noinspection ObjectEquality
+                if (cell == logicalCell) {
+                    // if cell is not merged or the top left cell of the
+                    // merged region, then it is visible
+                    visible = true;
+                } else {
+                    // otherwise, calculate row and column numbers of the
+                    // first visible cell of the merged region
+                    int iCell = Math.max(va.startRow(), logicalCell.getRowNumber());
+                    int jCell = Math.max(first, logicalCell.getColumnNumber());
+                    visible = i == iCell && j == jCell;
+                    // skip the other cells of this row that belong to the same
+                    // merged region
+                    j = logicalCell.getColumnNumber() + logicalCell.getHorizontalSpan() - 1;
+                    // filter out cells that cannot overflow into the visible
+                    // region
+                    if (j < va.startColumn()) {
+                        CellStyle style = (cell != null ? cell : logicalCell).getCellStyle();
+                        if (style.isStyleWrapping()) {
+                            continue;
                         }
                     }
+                }
 
-                    // draw cell
-                    if (visible) {
-                        cellRenderer.drawCell(g, logicalCell);
-                    }
+                // draw cell
+                if (visible) {
+                    cellRenderer.drawCell(g, logicalCell);
                 }
-            });
+            }
         }
     }
 
@@ -18,6 +18,7 @@ package com.dua3.meja.ui;
 import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.Direction;
 import com.dua3.meja.model.Sheet;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.math.geometry.Rectangle2f;
 import com.dua3.utility.math.geometry.Scale2f;
 
@@ -83,6 +84,13 @@ public interface SheetView {
      */
     void repaintCell(Cell cell);
 
+    /**
+     * Repaints all cells of the specified region in the sheet view using a single repaint request.
+     *
+     * @param region the region to repaint.
+     */
+    void repaintRange(RectangularRegion region);
+
     /**
      * Refreshes the content of the sheet view. This method is responsible for updating the display
      * to reflect any changes made to the underlying data or structure of the sheet.
@@ -4,6 +4,7 @@ import com.dua3.meja.model.Cell;
 import com.dua3.meja.model.Direction;
 import com.dua3.meja.model.Sheet;
 import com.dua3.meja.model.SheetEvent;
+import com.dua3.meja.util.RectangularRegion;
 import com.dua3.utility.concurrent.AutoLock;
 import com.dua3.utility.data.Color;
 import com.dua3.utility.math.geometry.AffineTransformation2f;
@@ -23,8 +24,11 @@ import java.util.Optional;
 import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.IntFunction;
 
 /**
@@ -55,7 +59,12 @@ public abstract class SheetViewDelegate implements Flow.Subscriber<SheetEvent> {
      * The sheet displayed.
      */
     private final Sheet sheet;
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Write-locked together with the outermost acquisition of the write lock to support optimistic reads.
+     */
+    private final StampedLock stampedLock = new StampedLock();
+    private final Lock layoutWriteLock = new LayoutWriteLock();
     /**
      * Width of the selection rectangle borders.
      */
@@ -194,7 +203,7 @@ public abstract class SheetViewDelegate implements Flow.Subscriber<SheetEvent> {
      * provides a textual description of the lock, including the sheet name.
      */
     public AutoLock writeLock(String name) {
-        return AutoLock.of(lock.writeLock(), name);
+        return AutoLock.of(layoutWriteLock, name);
     }
 
     /**
@@ -246,6 +255,115 @@ public abstract class SheetViewDelegate implements Flow.Subscriber<SheetEvent> {
         return AutoLock.of(lock.readLock(), name);
     }
 
+    /**
+     * Run a read-only action, if possible without blocking on writers of the layout or the sheet.
+     * <p>
+     * The action is run optimistically, validating stamps of both this delegate and the sheet when it
+     * completes. If a write happened in the meantime, the action is repeated up to {@code maxAttempts} times.
+     * If no attempt succeeds, or a writer is already active when an attempt starts, the action is run once more
+     * while holding the read locks of the sheet and of this delegate. Runtime exceptions thrown by an optimistic
+     * attempt are ignored if validation fails, because they are likely caused by the concurrent write.
+     * <p>
+     * Only writes made while holding a write lock of the sheet are detected. Code that modifies cells without
+     * locking, like readers filling a sheet that is not displayed yet or direct calls to {@link Cell#set(Object)},
+     * may still be observed in an inconsistent state; such code must hold the sheet's write lock when the sheet
+     * is displayed.
+     * <p>
+     * The action must not have side effects other than ones that are overwritten when it is repeated, i.e.,
+     * painting.
+     *
+     * @param maxAttempts the maximum number of optimistic attempts
+     * @param action      the action to run
+     */
+    public void readOptimistic(int maxAttempts, Runnable action) {
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            long layoutStamp = stampedLock.tryOptimisticRead();
+            long sheetStamp = sheet.tryOptimisticRead();
+            if (layoutStamp == 0 || sheetStamp == 0) {
+                // a writer is active, so the attempt would fail
+                break;
+            }
+
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                if (stampedLock.validate(layoutStamp) && sheet.validate(sheetStamp)) {
+                    throw e;
+                }
+                LOG.trace("readOptimistic() - exception during concurrent write ignored", e);
+            }
+
+            if (stampedLock.validate(layoutStamp) && sheet.validate(sheetStamp)) {
+                return;
+            }
+        }
+
+        LOG.trace("readOptimistic() - falling back to the read lock");
+        // acquire the locks in the same order as when the view is updated
+        try (var __ = sheet.readLock("SheetViewDelegate.readOptimistic()");
+             var ___ = readLock("SheetViewDelegate.readOptimistic()")) {
+            action.run();
+        }
+    }
+
+    /**
+     * The write lock of the delegate; also write-locks the {@link StampedLock} used for optimistic reads.
+     * Since the write lock is exclusive, only one thread at a time can hold the stamped write lock.
+     */
+    private final class LayoutWriteLock implements Lock {
+        private final Lock writeLock = lock.writeLock();
+        private long stamp;
+
+        private void acquired() {
+            if (lock.getWriteHoldCount() == 1) {
+                stamp = stampedLock.writeLock();
+            }
+        }
+
+        @Override
+        public void lock() {
+            writeLock.lock();
+            acquired();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            writeLock.lockInterruptibly();
+            acquired();
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!writeLock.tryLock()) {
+                return false;
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            if (!writeLock.tryLock(time, unit)) {
+                return false;
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            if (lock.getWriteHoldCount() == 1) {
+                stampedLock.unlockWrite(stamp);
+            }
+            writeLock.unlock();
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("conditions are not supported");
+        }
+    }
+
     /**
      * Updates the view's display settings based on the provided DPI (dots per inch).
      * This method performs a complete update of the view, including:
@@ -635,6 +753,7 @@ public abstract class SheetViewDelegate implements Flow.Subscriber<SheetEvent> {
             }
             case SheetEvent.CELL_VALUE_CHANGED, SheetEvent.CELL_STYLE_CHANGED ->
                     owner.repaintCell(((SheetEvent.CellChanged<?>) item).cell());
+            case SheetEvent.RANGE_CHANGED -> owner.repaintRange(((SheetEvent.RangeChanged) item).region());
             default -> {
                 // do nothing
             }
@@ -904,6 +1023,21 @@ public abstract class SheetViewDelegate implements Flow.Subscriber<SheetEvent> {
         return new Rectangle2f(x, y, w, h);
     }
 
+    /**
+     * Calculate the rectangle a region of cells occupies on screen.
+     *
+     * @param region the region whose area is requested
+     * @return the rectangle the region takes up in screen coordinates
+     */
+    public Rectangle2f getRegionRect(RectangularRegion region) {
+        final float x = getColumnPos(region.firstColumn());
+        final float w = getColumnPos(region.lastColumn() + 1) - x;
+        final float y = getRowPos(region.firstRow());
+        final float h = getRowPos(region.lastRow() + 1) - y;
+
+        return new Rectangle2f(x, y, w, h);
+    }
+
     /**
      * Moves the selection to the bottom-right cell of the sheet. This selects
      * the cell at the intersection of the last row and last column that contain data.